@@ -1,3 +1,3 @@
 echo "Compiling run.txt"
-java "-jar" "target\lyc-compiler-1.0.0.jar" "target\input\test.txt"
-COPY  "target\output\final.asm" "target\asm\final.asm"
\ No newline at end of file
+java "-jar" "target\lyc-compiler-1.0.0.jar" "--client" "target\input\test.txt"
+COPY  "target\output\final.asm" "target\asm\final.asm"
@@ -1,3 +1,4 @@
 echo "Compiling run.txt"
-java -jar ./target/lyc-compiler-1.0.0.jar ./target/input/test.txt
+# Usa el servidor de compilación si está levantado (java -jar ... --server); si no, compila en este proceso
+java -jar ./target/lyc-compiler-1.0.0.jar --client ./target/input/test.txt
 cp target/output/final.asm target/asm/final.asm
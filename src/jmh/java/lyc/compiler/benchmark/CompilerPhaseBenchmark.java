@@ -0,0 +1,93 @@
+package lyc.compiler.benchmark;
+
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java_cup.runtime.Symbol;
+import lyc.compiler.Lexer;
+import lyc.compiler.ParserSym;
+import lyc.compiler.context.CompilationContext;
+import lyc.compiler.factories.LexerFactory;
+import lyc.compiler.factories.ParserFactory;
+import lyc.compiler.files.AsmCodeGenerator;
+import lyc.compiler.files.IntermediateCodeGenerator;
+import lyc.compiler.files.Triplet;
+import lyc.compiler.synthetic.ProgramGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Mide cada fase del compilador por separado sobre programas sintéticos.
+ * Correr con {@code ./mvnw verify -Dbenchmark}; el resultado queda en
+ * target/jmh-result.json.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompilerPhaseBenchmark {
+
+  @Param({"MIXED", "EXPRESSIONS", "NESTED", "LITERALS", "DECLARATIONS"})
+  public ProgramGenerator.Shape shape;
+
+  @Param({"200", "2000"})
+  public int statements;
+
+  private String source;
+  private List<Triplet> triplets;
+  private CompilationContext parsed;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    source = ProgramGenerator.generate(shape, statements);
+    parsed = new CompilationContext();
+    ParserFactory.create(source, parsed).parse();
+    triplets = List.copyOf(parsed.getIntermediateCodeGenerator().getTriplets());
+  }
+
+  @Benchmark
+  public int lex() throws Exception {
+    Lexer lexer = LexerFactory.create(source, new CompilationContext());
+    int tokens = 0;
+    Symbol symbol;
+    while ((symbol = lexer.next_token()).sym != ParserSym.EOF) {
+      tokens++;
+    }
+    return tokens;
+  }
+
+  @Benchmark
+  public Object parse() throws Exception {
+    CompilationContext context = new CompilationContext();
+    ParserFactory.create(source, context).parse();
+    return context;
+  }
+
+  @Benchmark
+  public void tripletGeneration(Blackhole blackhole) {
+    IntermediateCodeGenerator generator = new IntermediateCodeGenerator();
+    for (Triplet triplet : triplets) {
+      blackhole.consume(generator.createTriplet(triplet.getOperatorType(), triplet.getArg1(), triplet.getArg2()));
+    }
+  }
+
+  @Benchmark
+  public int asmGeneration() throws Exception {
+    StringWriter asm = new StringWriter();
+    new AsmCodeGenerator(parsed).generate(asm);
+    return asm.getBuffer().length();
+  }
+}
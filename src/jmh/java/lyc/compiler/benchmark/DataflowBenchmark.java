@@ -0,0 +1,68 @@
+package lyc.compiler.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import lyc.compiler.context.CompilationContext;
+import lyc.compiler.factories.ParserFactory;
+import lyc.compiler.files.TripletStore;
+import lyc.compiler.flow.ControlFlowGraph;
+import lyc.compiler.flow.Liveness;
+import lyc.compiler.flow.ReachingDefinitions;
+import lyc.compiler.synthetic.ProgramGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Construcción del grafo de flujo y los análisis de lyc.compiler.flow sobre
+ * programas sintéticos. Con NESTED 20000 sentencias son unos 18k bloques: liveness
+ * debería crecer lineal con statements y reaching con bloques × definiciones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataflowBenchmark {
+
+  @Param({"MIXED", "NESTED"})
+  public ProgramGenerator.Shape shape;
+
+  @Param({"2000", "20000"})
+  public int statements;
+
+  private TripletStore store;
+  private ControlFlowGraph cfg;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    CompilationContext context = new CompilationContext();
+    ParserFactory.create(ProgramGenerator.generate(shape, statements), context).parse();
+    store = context.getIntermediateCodeGenerator().getStore();
+    cfg = ControlFlowGraph.build(store);
+  }
+
+  @Benchmark
+  public ControlFlowGraph buildCfg() {
+    return ControlFlowGraph.build(store);
+  }
+
+  @Benchmark
+  public Liveness liveness() {
+    return Liveness.analyze(cfg);
+  }
+
+  @Benchmark
+  public ReachingDefinitions reachingDefinitions() {
+    return ReachingDefinitions.analyze(cfg);
+  }
+}
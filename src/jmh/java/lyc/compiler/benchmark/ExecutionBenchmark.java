@@ -0,0 +1,77 @@
+package lyc.compiler.benchmark;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+import lyc.compiler.backend.jvm.JvmProgram;
+import lyc.compiler.context.CompilationContext;
+import lyc.compiler.interpreter.TripletInterpreter;
+import lyc.compiler.main.Compiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Ejecución de un mismo programa LyC con el intérprete de tercetos y como bytecode
+ * (hidden class). El programa son dos while anidados con aritmética Int y Float;
+ * iterations es la cantidad de vueltas del ciclo externo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExecutionBenchmark {
+
+  private static final String PROGRAM = "init {\n i, j, n, s : Int\n f : Float\n}\n"
+      + "read(n) i := 0 s := 0 f := 0\n"
+      + "while (i < n) {\n"
+      + "  j := 0\n"
+      + "  while (j < 100) { s := s + i * j % 7 - j / 3 f := f + j * 0.5 j := j + 1 }\n"
+      + "  if (s > 1000 OR NOT f < 5000.0) { s := s - 1000 f := 0 }\n"
+      + "  i := i + 1\n"
+      + "}\n"
+      + "write(s) write(f)";
+
+  @Param({"10", "300"})
+  public int iterations;
+
+  private TripletInterpreter interpreter;
+  private JvmProgram program;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    CompilationContext context = Compiler.analyze(PROGRAM);
+    interpreter = new TripletInterpreter(context);
+    program = JvmProgram.define(context);
+  }
+
+  @Benchmark
+  public String interpreted() throws Exception {
+    StringWriter output = new StringWriter();
+    interpreter.run(input(), output);
+    return output.toString();
+  }
+
+  @Benchmark
+  public String bytecode() throws Exception {
+    StringWriter output = new StringWriter();
+    program.run(input(), output);
+    return output.toString();
+  }
+
+  private BufferedReader input() {
+    return new BufferedReader(new StringReader(iterations + "\n"));
+  }
+}
@@ -0,0 +1,24 @@
+package lyc.compiler.backend;
+
+import lyc.compiler.context.CompilationContext;
+import lyc.compiler.files.FileGenerator;
+
+/**
+ * Generador de código final a partir de los tercetos. Cada implementación es un
+ * target que se elige con --target=NOMBRE; las que no vienen con el compilador se
+ * registran en META-INF/services/lyc.compiler.backend.Backend.
+ */
+public interface Backend {
+
+  // Nombre que se usa en --target
+  String name();
+
+  // Descripción corta para los mensajes de uso
+  String description();
+
+  // Archivo que genera, junto a symbol-table.txt e intermediate-code.txt
+  String outputFile();
+
+  // Generador para un contexto ya parseado; no debe modificar el contexto
+  FileGenerator generator(CompilationContext context);
+}
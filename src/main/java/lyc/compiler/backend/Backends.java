@@ -0,0 +1,74 @@
+package lyc.compiler.backend;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Targets disponibles: los registrados con ServiceLoader, cargados una única vez.
+ */
+public final class Backends {
+
+  public static final String DEFAULT_TARGET = MasmBackend.NAME;
+
+  private Backends() {}
+
+  // Se carga al primer uso
+  private static final class Registry {
+    private static final Map<String, Backend> BACKENDS = load();
+
+    private static Map<String, Backend> load() {
+      Map<String, Backend> backends = new LinkedHashMap<>();
+      for (Backend backend : ServiceLoader.load(Backend.class, Backends.class.getClassLoader())) {
+        if (backends.putIfAbsent(backend.name(), backend) != null) {
+          throw new IllegalStateException("Target registrado dos veces: " + backend.name());
+        }
+      }
+      // Aunque falte el archivo de servicios, el target por defecto siempre está
+      backends.putIfAbsent(MasmBackend.NAME, new MasmBackend());
+      return Collections.unmodifiableMap(backends);
+    }
+  }
+
+  public static Backend defaultBackend() {
+    return find(DEFAULT_TARGET);
+  }
+
+  // Lanza IllegalArgumentException si no hay un target con ese nombre
+  public static Backend find(String name) {
+    Backend backend = Registry.BACKENDS.get(name);
+    if (backend == null) {
+      throw new IllegalArgumentException("Target desconocido: " + name + " (disponibles: " + String.join(", ", names()) + ")");
+    }
+    return backend;
+  }
+
+  public static List<String> names() {
+    return new ArrayList<>(Registry.BACKENDS.keySet());
+  }
+
+  // Opción de línea de comandos, con la misma forma que BuildCache.Options
+  public static final class Options {
+
+    public static final String USAGE = "[--target=NAME]";
+
+    private Backend backend;
+
+    // Devuelve true si el argumento era --target; un target desconocido lanza
+    // IllegalArgumentException
+    public boolean accept(String arg) {
+      if (arg.startsWith("--target=")) {
+        backend = find(arg.substring("--target=".length()));
+        return true;
+      }
+      return false;
+    }
+
+    public Backend backend() {
+      return backend != null ? backend : defaultBackend();
+    }
+  }
+}
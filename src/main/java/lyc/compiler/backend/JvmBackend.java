@@ -0,0 +1,32 @@
+package lyc.compiler.backend;
+
+import lyc.compiler.backend.jvm.JvmCodeGenerator;
+import lyc.compiler.context.CompilationContext;
+import lyc.compiler.files.FileGenerator;
+
+// Bytecode JVM: el artefacto es el listado de la clase; --run --engine=jvm la ejecuta
+public final class JvmBackend implements Backend {
+
+  public static final String NAME = "jvm";
+  public static final String OUTPUT_FILE = "final.j";
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  @Override
+  public String description() {
+    return "Bytecode JVM (listado de " + JvmCodeGenerator.DEFAULT_CLASS + ".class)";
+  }
+
+  @Override
+  public String outputFile() {
+    return OUTPUT_FILE;
+  }
+
+  @Override
+  public FileGenerator generator(CompilationContext context) {
+    return new JvmCodeGenerator(context);
+  }
+}
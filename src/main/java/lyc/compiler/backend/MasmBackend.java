@@ -0,0 +1,32 @@
+package lyc.compiler.backend;
+
+import lyc.compiler.context.CompilationContext;
+import lyc.compiler.files.AsmCodeGenerator;
+import lyc.compiler.files.FileGenerator;
+import lyc.compiler.files.FileOutputWriter;
+
+// MASM de 16 bits con la FPU x87, para DOSBox (target por defecto)
+public final class MasmBackend implements Backend {
+
+  public static final String NAME = "masm";
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  @Override
+  public String description() {
+    return "Código ensamblador MASM";
+  }
+
+  @Override
+  public String outputFile() {
+    return FileOutputWriter.ASM_FILE;
+  }
+
+  @Override
+  public FileGenerator generator(CompilationContext context) {
+    return new AsmCodeGenerator(context);
+  }
+}
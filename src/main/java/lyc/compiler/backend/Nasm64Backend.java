@@ -0,0 +1,32 @@
+package lyc.compiler.backend;
+
+import lyc.compiler.backend.nasm.Nasm64CodeGenerator;
+import lyc.compiler.context.CompilationContext;
+import lyc.compiler.files.FileGenerator;
+
+// x86-64 para Linux: NASM con floats SSE2 y E/S por syscalls, sin libc
+public final class Nasm64Backend implements Backend {
+
+  public static final String NAME = "nasm64";
+  public static final String OUTPUT_FILE = "final64.asm";
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  @Override
+  public String description() {
+    return "NASM x86-64 para Linux (ELF64, SSE2)";
+  }
+
+  @Override
+  public String outputFile() {
+    return OUTPUT_FILE;
+  }
+
+  @Override
+  public FileGenerator generator(CompilationContext context) {
+    return new Nasm64CodeGenerator(context);
+  }
+}
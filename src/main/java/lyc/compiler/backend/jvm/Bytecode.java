@@ -0,0 +1,311 @@
+package lyc.compiler.backend.jvm;
+
+import java.util.Arrays;
+
+/**
+ * Código de un método: los bytes, los saltos pendientes de resolver y, si se pide,
+ * un listado en texto con la misma secuencia de instrucciones.
+ *
+ * Los saltos se emiten con offsets de 16 bits; con wide, BI pasa a goto_w y los
+ * condicionales se invierten para saltar por encima de un goto_w (métodos de más
+ * de 32 KB).
+ */
+final class Bytecode {
+
+  static final int ICONST_0 = 0x03;
+  static final int ICONST_1 = 0x04;
+  static final int FCONST_0 = 0x0b;
+  static final int BIPUSH = 0x10;
+  static final int SIPUSH = 0x11;
+  static final int LDC = 0x12;
+  static final int LDC_W = 0x13;
+  static final int ILOAD = 0x15;
+  static final int FLOAD = 0x17;
+  static final int ALOAD = 0x19;
+  static final int ISTORE = 0x36;
+  static final int FSTORE = 0x38;
+  static final int ASTORE = 0x3a;
+  static final int DUP = 0x59;
+  static final int IADD = 0x60;
+  static final int FADD = 0x62;
+  static final int ISUB = 0x64;
+  static final int FSUB = 0x66;
+  static final int IMUL = 0x68;
+  static final int FMUL = 0x6a;
+  static final int IDIV = 0x6c;
+  static final int FDIV = 0x6e;
+  static final int IREM = 0x70;
+  static final int FREM = 0x72;
+  static final int INEG = 0x74;
+  static final int FNEG = 0x76;
+  static final int I2F = 0x86;
+  static final int F2I = 0x8b;
+  static final int I2S = 0x93;
+  static final int FCMPL = 0x95;
+  static final int IFEQ = 0x99;
+  static final int IFNE = 0x9a;
+  static final int IFLT = 0x9b;
+  static final int IFGE = 0x9c;
+  static final int IFGT = 0x9d;
+  static final int IFLE = 0x9e;
+  static final int GOTO = 0xa7;
+  static final int RETURN = 0xb1;
+  static final int GETSTATIC = 0xb2;
+  static final int INVOKEVIRTUAL = 0xb6;
+  static final int INVOKESPECIAL = 0xb7;
+  static final int INVOKESTATIC = 0xb8;
+  static final int NEW = 0xbb;
+  static final int ATHROW = 0xbf;
+  static final int CHECKCAST = 0xc0;
+  private static final int WIDE = 0xc4;
+  private static final int GOTO_W = 0xc8;
+
+  private static final int MAX_CODE_LENGTH = 0xFFFF;
+
+  private final ConstantPool pool;
+  private final boolean wide;
+  private final StringBuilder listing;
+
+  private byte[] code = new byte[256];
+  private int length;
+
+  private String[] labelNames = new String[16];
+  private int[] labelOffsets = new int[16];
+  private int labelCount;
+
+  // Por salto: inicio de la instrucción, posición del offset, label y si el offset es de 4 bytes
+  private int[] fixups = new int[32];
+  private int fixupCount;
+
+  // Por handler: labels de inicio, fin y handler (catch_type 0, atrapa todo)
+  private int[] handlers = new int[0];
+
+  Bytecode(ConstantPool pool, boolean wide, StringBuilder listing) {
+    this.pool = pool;
+    this.wide = wide;
+    this.listing = listing;
+  }
+
+  int length() {
+    return length;
+  }
+
+  void comment(CharSequence text) {
+    if (listing != null) {
+      listing.append("  ; ").append(text).append('\n');
+    }
+  }
+
+  void op(int opcode, String mnemonic) {
+    u1(opcode);
+    line(mnemonic);
+  }
+
+  // Carga o guarda una variable local; índices de más de 255 van con el prefijo wide
+  void local(int opcode, String mnemonic, int index) {
+    if (index > 0xFF) {
+      u1(WIDE);
+      u1(opcode);
+      u2(index);
+    } else {
+      u1(opcode);
+      u1(index);
+    }
+    line(mnemonic, index);
+  }
+
+  void pushInt(int value) {
+    if (value >= -1 && value <= 5) {
+      op(ICONST_0 + value, value < 0 ? "iconst_m1" : "iconst_" + value);
+    } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+      u1(BIPUSH);
+      u1(value);
+      line("bipush", value);
+    } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+      u1(SIPUSH);
+      u2(value);
+      line("sipush", value);
+    } else {
+      ldc(pool.integer(value), Integer.toString(value));
+    }
+  }
+
+  void pushFloat(float value) {
+    if ((value == 0 && Float.floatToRawIntBits(value) == 0) || value == 1 || value == 2) {
+      op(FCONST_0 + (int) value, "fconst_" + (int) value);
+    } else {
+      ldc(pool.floatConstant(value), value + "f");
+    }
+  }
+
+  void pushString(String value) {
+    ldc(pool.string(value), '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"');
+  }
+
+  private void ldc(int index, String text) {
+    if (index > 0xFF) {
+      u1(LDC_W);
+      u2(index);
+      line("ldc_w " + text);
+    } else {
+      u1(LDC);
+      u1(index);
+      line("ldc " + text);
+    }
+  }
+
+  void invoke(int opcode, String mnemonic, String owner, String name, String descriptor) {
+    u1(opcode);
+    u2(pool.methodRef(owner, name, descriptor));
+    line(mnemonic + " " + owner + "." + name + descriptor);
+  }
+
+  void getStatic(String owner, String name, String descriptor) {
+    u1(GETSTATIC);
+    u2(pool.fieldRef(owner, name, descriptor));
+    line("getstatic " + owner + "." + name + " " + descriptor);
+  }
+
+  void type(int opcode, String mnemonic, String internalName) {
+    u1(opcode);
+    u2(pool.classRef(internalName));
+    line(mnemonic + " " + internalName);
+  }
+
+  int newLabel(String name) {
+    if (labelCount == labelOffsets.length) {
+      labelOffsets = Arrays.copyOf(labelOffsets, labelCount * 2);
+      labelNames = Arrays.copyOf(labelNames, labelCount * 2);
+    }
+    labelOffsets[labelCount] = -1;
+    labelNames[labelCount] = name != null ? name : "J" + labelCount;
+    return labelCount++;
+  }
+
+  void mark(int label) {
+    labelOffsets[label] = length;
+    if (listing != null) {
+      listing.append(labelNames[label]).append(":\n");
+    }
+  }
+
+  // Registra un handler que atrapa cualquier excepción entre start y end, como un finally
+  void catchAll(int start, int end, int handler) {
+    int count = handlers.length;
+    handlers = Arrays.copyOf(handlers, count + 3);
+    handlers[count] = start;
+    handlers[count + 1] = end;
+    handlers[count + 2] = handler;
+    if (listing != null) {
+      listing.append("  .catch all from ").append(labelNames[start]).append(" to ").append(labelNames[end])
+          .append(" using ").append(labelNames[handler]).append('\n');
+    }
+  }
+
+  // Tabla de excepciones del atributo Code: cantidad de entradas y cada entrada en 8 bytes
+  byte[] exceptionTable() {
+    int count = handlers.length / 3;
+    byte[] table = new byte[2 + count * 8];
+    table[0] = (byte) (count >>> 8);
+    table[1] = (byte) count;
+    for (int i = 0; i < count; i++) {
+      int position = 2 + i * 8;
+      for (int j = 0; j < 3; j++) {
+        int offset = labelOffsets[handlers[i * 3 + j]];
+        if (offset < 0) {
+          throw new IllegalStateException("Label sin ubicar: " + labelNames[handlers[i * 3 + j]]);
+        }
+        table[position + j * 2] = (byte) (offset >>> 8);
+        table[position + j * 2 + 1] = (byte) offset;
+      }
+    }
+    return table;
+  }
+
+  void jump(int opcode, String mnemonic, int label) {
+    int start = length;
+    if (!wide) {
+      u1(opcode);
+      addFixup(start, length, label, false);
+      u2(0);
+    } else if (opcode == GOTO) {
+      u1(GOTO_W);
+      addFixup(start, length, label, true);
+      u2(0);
+      u2(0);
+    } else {
+      // if<cond> L  ->  if<!cond> +8; goto_w L
+      u1(((opcode - IFEQ) ^ 1) + IFEQ);
+      u2(8);
+      start = length;
+      u1(GOTO_W);
+      addFixup(start, length, label, true);
+      u2(0);
+      u2(0);
+    }
+    line(mnemonic + " " + labelNames[label]);
+  }
+
+  private void addFixup(int instruction, int position, int label, boolean wideOffset) {
+    if (fixupCount + 4 > fixups.length) {
+      fixups = Arrays.copyOf(fixups, fixups.length * 2);
+    }
+    fixups[fixupCount++] = instruction;
+    fixups[fixupCount++] = position;
+    fixups[fixupCount++] = label;
+    fixups[fixupCount++] = wideOffset ? 1 : 0;
+  }
+
+  // Resuelve los saltos y devuelve el código del método
+  byte[] toByteArray() {
+    if (length > MAX_CODE_LENGTH) {
+      throw new IllegalStateException("El programa genera " + length + " bytes de código y un método JVM admite "
+                                      + MAX_CODE_LENGTH);
+    }
+    for (int i = 0; i < fixupCount; i += 4) {
+      int target = labelOffsets[fixups[i + 2]];
+      if (target < 0) {
+        throw new IllegalStateException("Label sin ubicar: " + labelNames[fixups[i + 2]]);
+      }
+      int offset = target - fixups[i];
+      int position = fixups[i + 1];
+      if (fixups[i + 3] == 1) {
+        code[position] = (byte) (offset >>> 24);
+        code[position + 1] = (byte) (offset >>> 16);
+        code[position + 2] = (byte) (offset >>> 8);
+        code[position + 3] = (byte) offset;
+      } else {
+        if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) {
+          throw new IllegalStateException("Salto fuera del rango de 16 bits hacia " + labelNames[fixups[i + 2]]);
+        }
+        code[position] = (byte) (offset >>> 8);
+        code[position + 1] = (byte) offset;
+      }
+    }
+    return Arrays.copyOf(code, length);
+  }
+
+  private void line(String mnemonic) {
+    if (listing != null) {
+      listing.append("  ").append(mnemonic).append('\n');
+    }
+  }
+
+  private void line(String mnemonic, int operand) {
+    if (listing != null) {
+      listing.append("  ").append(mnemonic).append(' ').append(operand).append('\n');
+    }
+  }
+
+  private void u1(int value) {
+    if (length == code.length) {
+      code = Arrays.copyOf(code, length * 2);
+    }
+    code[length++] = (byte) value;
+  }
+
+  private void u2(int value) {
+    u1(value >>> 8);
+    u1(value);
+  }
+}
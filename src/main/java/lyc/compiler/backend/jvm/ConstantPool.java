@@ -0,0 +1,144 @@
+package lyc.compiler.backend.jvm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Constant pool de un class file. Cada constante se agrega una sola vez y se
+ * devuelve su índice.
+ */
+final class ConstantPool {
+
+  private static final int UTF8 = 1;
+  private static final int INTEGER = 3;
+  private static final int FLOAT = 4;
+  private static final int CLASS = 7;
+  private static final int STRING = 8;
+  private static final int FIELD_REF = 9;
+  private static final int METHOD_REF = 10;
+  private static final int NAME_AND_TYPE = 12;
+
+  private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+  private final DataOutputStream out = new DataOutputStream(bytes);
+  private final Map<String, Integer> indexes = new HashMap<>();
+  private int count = 1;
+
+  int utf8(String value) {
+    Integer index = indexes.get("U" + value);
+    if (index != null) {
+      return index;
+    }
+    try {
+      out.writeByte(UTF8);
+      // writeUTF usa el UTF-8 modificado con el largo adelante, igual que el class file
+      out.writeUTF(value);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return add("U" + value);
+  }
+
+  int integer(int value) {
+    return constant("I" + value, INTEGER, value);
+  }
+
+  int floatConstant(float value) {
+    int bits = Float.floatToRawIntBits(value);
+    return constant("F" + bits, FLOAT, bits);
+  }
+
+  int classRef(String internalName) {
+    return reference("C" + internalName, CLASS, utf8(internalName));
+  }
+
+  int string(String value) {
+    return reference("S" + value, STRING, utf8(value));
+  }
+
+  int fieldRef(String owner, String name, String descriptor) {
+    return memberRef(FIELD_REF, owner, name, descriptor);
+  }
+
+  int methodRef(String owner, String name, String descriptor) {
+    return memberRef(METHOD_REF, owner, name, descriptor);
+  }
+
+  private int memberRef(int tag, String owner, String name, String descriptor) {
+    String key = tag + owner + "." + name + descriptor;
+    Integer index = indexes.get(key);
+    if (index != null) {
+      return index;
+    }
+    int ownerIndex = classRef(owner);
+    int nameAndType = nameAndType(name, descriptor);
+    write(tag, ownerIndex, nameAndType);
+    return add(key);
+  }
+
+  private int nameAndType(String name, String descriptor) {
+    String key = "N" + name + ":" + descriptor;
+    Integer index = indexes.get(key);
+    if (index != null) {
+      return index;
+    }
+    int nameIndex = utf8(name);
+    int descriptorIndex = utf8(descriptor);
+    write(NAME_AND_TYPE, nameIndex, descriptorIndex);
+    return add(key);
+  }
+
+  private int reference(String key, int tag, int target) {
+    Integer index = indexes.get(key);
+    if (index != null) {
+      return index;
+    }
+    try {
+      out.writeByte(tag);
+      out.writeShort(target);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return add(key);
+  }
+
+  private int constant(String key, int tag, int value) {
+    Integer index = indexes.get(key);
+    if (index != null) {
+      return index;
+    }
+    try {
+      out.writeByte(tag);
+      out.writeInt(value);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return add(key);
+  }
+
+  private void write(int tag, int first, int second) {
+    try {
+      out.writeByte(tag);
+      out.writeShort(first);
+      out.writeShort(second);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private int add(String key) {
+    if (count > 0xFFFF) {
+      throw new IllegalStateException("El constant pool supera las 65535 entradas");
+    }
+    indexes.put(key, count);
+    return count++;
+  }
+
+  void writeTo(DataOutputStream target) throws IOException {
+    target.writeShort(count);
+    bytes.writeTo(target);
+  }
+}
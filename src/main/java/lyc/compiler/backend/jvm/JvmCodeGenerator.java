@@ -0,0 +1,803 @@
+package lyc.compiler.backend.jvm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lyc.compiler.context.CompilationContext;
+import lyc.compiler.files.FileGenerator;
+import lyc.compiler.files.Operator;
+import lyc.compiler.files.TripletOperand;
+import lyc.compiler.files.TripletStore;
+import lyc.compiler.files.TypeTable;
+import lyc.compiler.table.DataType;
+import lyc.compiler.table.SymbolEntry;
+import lyc.compiler.table.SymbolTableManager;
+
+/**
+ * Traduce los tercetos a una clase JVM con dos métodos estáticos:
+ * {@code run(BufferedReader, Writer)} con el programa y {@code main}, que lo corre
+ * sobre la entrada y salida estándar con buffer.
+ *
+ * Las variables son locales de run: Int es int con aritmética de 16 bits (i2s
+ * después de cada operación, como IntSemantics), Float es float y String es
+ * String. El resultado de cada terceto va a una local temporal que se libera en
+ * su último uso; ID y CTE no generan código, quien los usa carga directamente la
+ * variable o la constante. CMP deja el signo de la comparación en una local y los
+ * B* saltan según ese valor.
+ *
+ * La clase se genera con la versión 49 del formato, que no necesita StackMapTable.
+ * Como FileGenerator escribe un listado en texto, estilo Jasmin, de las mismas
+ * instrucciones.
+ */
+public final class JvmCodeGenerator implements FileGenerator {
+
+  // Nombre de la clase en el jar ejecutable y en el listado
+  public static final String DEFAULT_CLASS = "LycProgram";
+  public static final String RUN_DESCRIPTOR = "(Ljava/io/BufferedReader;Ljava/io/Writer;)V";
+
+  private static final int CLASS_VERSION = 49;
+  private static final int ACC_PUBLIC = 0x0001;
+  private static final int ACC_STATIC = 0x0008;
+  private static final int ACC_FINAL = 0x0010;
+  private static final int ACC_SUPER = 0x0020;
+  private static final int MAX_STACK = 8;
+
+  private static final String READER = "java/io/BufferedReader";
+  private static final String WRITER = "java/io/Writer";
+  private static final String STRING = "java/lang/String";
+
+  // Tipo de cada valor
+  private static final byte INT = 0;
+  private static final byte FLOAT = 1;
+  // Entero sin ajuste a 16 bits (DateConverted)
+  private static final byte NUMBER = 2;
+  private static final byte TEXT = 3;
+
+  // Locales fijas de run
+  private static final int READER_LOCAL = 0;
+  private static final int WRITER_LOCAL = 1;
+  private static final byte[] NO_HANDLERS = new byte[2];
+  private static final int COMPARISON_LOCAL = 2;
+
+  private static final int NO_LOCAL = -1;
+
+  private final String className;
+  private final TripletStore store;
+  private final int size;
+
+  // Por terceto: tipo, local o constante del valor (ID y CTE apuntan a la variable o
+  // al literal) y último terceto que lo usa
+  private final byte[] kinds;
+  private final int[] locals;
+  private final Object[] constants;
+  private final int[] lastUse;
+  // Operandos ya resueltos a un índice de valor: terceto (1..n) o variable/literal (>n)
+  private final int[] first;
+  private final int[] second;
+  private final Map<Integer, String> labels = new HashMap<>();
+
+  // Variables y literales después de los tercetos: índice de valor = size + 1 + posición
+  private final Map<String, Integer> variables = new LinkedHashMap<>();
+  private final Map<Integer, Integer> literals = new HashMap<>();
+  private byte[] extraKinds = new byte[16];
+  private int[] extraLocals = new int[16];
+  private Object[] extraConstants = new Object[16];
+  private int extraCount;
+  private int variableLocals = COMPARISON_LOCAL + 1;
+
+  public JvmCodeGenerator(CompilationContext context) {
+    this(context, DEFAULT_CLASS);
+  }
+
+  // className en formato interno (paquete/Clase)
+  public JvmCodeGenerator(CompilationContext context, String className) {
+    this.className = className;
+    this.store = context.getIntermediateCodeGenerator().getStore();
+    this.size = store.size();
+    this.kinds = new byte[size + 1];
+    this.locals = new int[size + 1];
+    this.constants = new Object[size + 1];
+    this.lastUse = new int[size + 1];
+    this.first = new int[size + 1];
+    this.second = new int[size + 1];
+    resolve(context.getTypeTable(), context.getSymbolTableManager());
+  }
+
+  @Override
+  public void generate(Writer fileWriter) throws IOException {
+    StringBuilder out = new StringBuilder();
+    out.append("; Generado por el backend jvm a partir de los tercetos\n");
+    out.append(".class public final ").append(className).append('\n');
+    out.append(".super java/lang/Object\n\n");
+    out.append(".method public static main([Ljava/lang/String;)V\n");
+    StringBuilder body = new StringBuilder();
+    emitMain(new ConstantPool(), body);
+    out.append("  .limit stack ").append(MAX_STACK).append('\n');
+    out.append("  .limit locals 4\n");
+    out.append(body);
+    out.append(".end method\n\n");
+
+    out.append(".method public static run").append(RUN_DESCRIPTOR).append('\n');
+    body.setLength(0);
+    Method run = emitRun(new ConstantPool(), body);
+    out.append("  .limit stack ").append(MAX_STACK).append('\n');
+    out.append("  .limit locals ").append(run.maxLocals).append('\n');
+    out.append(body);
+    out.append(".end method\n");
+    fileWriter.write(out.toString());
+  }
+
+  // Class file completo
+  public byte[] classFile() {
+    ConstantPool pool = new ConstantPool();
+    int thisClass = pool.classRef(className);
+    int superClass = pool.classRef("java/lang/Object");
+    int code = pool.utf8("Code");
+    int mainName = pool.utf8("main");
+    int mainDescriptor = pool.utf8("([Ljava/lang/String;)V");
+    int runName = pool.utf8("run");
+    int runDescriptor = pool.utf8(RUN_DESCRIPTOR);
+    Bytecode main = emitMain(pool, null);
+    byte[] mainCode = main.toByteArray();
+    Method run = emitRun(pool, null);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(run.code.length + 1024);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(0xCAFEBABE);
+      out.writeShort(0);
+      out.writeShort(CLASS_VERSION);
+      pool.writeTo(out);
+      out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+      out.writeShort(thisClass);
+      out.writeShort(superClass);
+      out.writeShort(0);
+      out.writeShort(0);
+      out.writeShort(2);
+      writeMethod(out, mainName, mainDescriptor, code, mainCode, main.exceptionTable(), 4);
+      writeMethod(out, runName, runDescriptor, code, run.code, NO_HANDLERS, run.maxLocals);
+      out.writeShort(0);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static void writeMethod(DataOutputStream out, int name, int descriptor, int codeAttribute, byte[] code,
+                                  byte[] exceptionTable, int maxLocals) throws IOException {
+    out.writeShort(ACC_PUBLIC | ACC_STATIC);
+    out.writeShort(name);
+    out.writeShort(descriptor);
+    out.writeShort(1);
+    out.writeShort(codeAttribute);
+    out.writeInt(10 + code.length + exceptionTable.length);
+    out.writeShort(MAX_STACK);
+    out.writeShort(maxLocals);
+    out.writeInt(code.length);
+    out.write(code);
+    out.write(exceptionTable);
+    out.writeShort(0);
+  }
+
+  // main: run(new BufferedReader(new InputStreamReader(System.in)),
+  //           new BufferedWriter(new OutputStreamWriter(System.out))) y flush en un finally,
+  // para no perder lo ya escrito si run termina con una excepción
+  private Bytecode emitMain(ConstantPool pool, StringBuilder listing) {
+    Bytecode code = new Bytecode(pool, false, listing);
+    code.type(Bytecode.NEW, "new", READER);
+    code.op(Bytecode.DUP, "dup");
+    code.type(Bytecode.NEW, "new", "java/io/InputStreamReader");
+    code.op(Bytecode.DUP, "dup");
+    code.getStatic("java/lang/System", "in", "Ljava/io/InputStream;");
+    code.invoke(Bytecode.INVOKESPECIAL, "invokespecial", "java/io/InputStreamReader", "<init>",
+                "(Ljava/io/InputStream;)V");
+    code.invoke(Bytecode.INVOKESPECIAL, "invokespecial", READER, "<init>", "(Ljava/io/Reader;)V");
+    code.local(Bytecode.ASTORE, "astore", 1);
+    code.type(Bytecode.NEW, "new", "java/io/BufferedWriter");
+    code.op(Bytecode.DUP, "dup");
+    code.type(Bytecode.NEW, "new", "java/io/OutputStreamWriter");
+    code.op(Bytecode.DUP, "dup");
+    code.getStatic("java/lang/System", "out", "Ljava/io/PrintStream;");
+    code.invoke(Bytecode.INVOKESPECIAL, "invokespecial", "java/io/OutputStreamWriter", "<init>",
+                "(Ljava/io/OutputStream;)V");
+    code.invoke(Bytecode.INVOKESPECIAL, "invokespecial", "java/io/BufferedWriter", "<init>", "(Ljava/io/Writer;)V");
+    code.local(Bytecode.ASTORE, "astore", 2);
+    int start = code.newLabel("TRY");
+    int end = code.newLabel("END_TRY");
+    int handler = code.newLabel("FINALLY");
+    code.catchAll(start, end, handler);
+    code.mark(start);
+    code.local(Bytecode.ALOAD, "aload", 1);
+    code.local(Bytecode.ALOAD, "aload", 2);
+    code.invoke(Bytecode.INVOKESTATIC, "invokestatic", className, "run", RUN_DESCRIPTOR);
+    code.mark(end);
+    code.local(Bytecode.ALOAD, "aload", 2);
+    code.invoke(Bytecode.INVOKEVIRTUAL, "invokevirtual", WRITER, "flush", "()V");
+    code.op(Bytecode.RETURN, "return");
+    code.mark(handler);
+    code.local(Bytecode.ASTORE, "astore", 3);
+    code.local(Bytecode.ALOAD, "aload", 2);
+    code.invoke(Bytecode.INVOKEVIRTUAL, "invokevirtual", WRITER, "flush", "()V");
+    code.local(Bytecode.ALOAD, "aload", 3);
+    code.op(Bytecode.ATHROW, "athrow");
+    return code;
+  }
+
+  private static final class Method {
+    final byte[] code;
+    final int maxLocals;
+
+    Method(byte[] code, int maxLocals) {
+      this.code = code;
+      this.maxLocals = maxLocals;
+    }
+  }
+
+  // Con offsets de 16 bits alcanza mientras el método no pase los 32 KB
+  private Method emitRun(ConstantPool pool, StringBuilder listing) {
+    int mark = listing != null ? listing.length() : 0;
+    RunEmitter emitter = new RunEmitter(new Bytecode(pool, false, listing));
+    emitter.emit();
+    if (emitter.code.length() > Short.MAX_VALUE) {
+      if (listing != null) {
+        listing.setLength(mark);
+      }
+      emitter = new RunEmitter(new Bytecode(pool, true, listing));
+      emitter.emit();
+    }
+    return new Method(emitter.code.toByteArray(), emitter.maxLocals);
+  }
+
+  private void resolve(TypeTable types, SymbolTableManager symbols) {
+    for (int i = 1; i <= size; i++) {
+      Operator op = store.operator(i);
+      kinds[i] = kindOf(types.getType(i));
+      locals[i] = NO_LOCAL;
+      if (op == Operator.LABEL) {
+        labels.put(store.first(i), store.operandText(store.first(i)));
+      }
+      if (op.isJump() || op == Operator.LABEL || op == Operator.DECLARE) {
+        continue;
+      }
+      first[i] = value(store.first(i), i, symbols);
+      second[i] = value(store.second(i), i, symbols);
+      if (op == Operator.ID || op == Operator.CTE) {
+        // El terceto es un alias: se usa directamente la variable o la constante
+        int target = first[i];
+        kinds[i] = kindOfValue(target);
+        locals[i] = localOf(target);
+        constants[i] = constantOf(target);
+        lastUse[i] = -1;
+      }
+    }
+  }
+
+  private int value(int operand, int user, SymbolTableManager symbols) {
+    switch (TripletOperand.kind(operand)) {
+      case REF:
+        int index = TripletOperand.value(operand);
+        if (lastUse[index] >= 0) {
+          lastUse[index] = user;
+        }
+        // Un ID o CTE se reemplaza por lo que nombra
+        return store.operator(index) == Operator.ID || store.operator(index) == Operator.CTE ? first[index] : index;
+      case SYMBOL:
+        return variable(store.name(operand), symbols);
+      case LITERAL:
+        return literal(operand, symbols);
+      default:
+        return 0;
+    }
+  }
+
+  private int variable(String name, SymbolTableManager symbols) {
+    Integer index = variables.get(name);
+    if (index == null) {
+      SymbolEntry entry = symbols.get(name);
+      byte kind = kindOf(entry != null ? entry.getDataType() : null);
+      index = addExtra(kind, variableLocals++, null);
+      variables.put(name, index);
+    }
+    return index;
+  }
+
+  private int literal(int operand, SymbolTableManager symbols) {
+    Integer index = literals.get(operand);
+    if (index == null) {
+      String name = store.name(operand);
+      String value = symbols.literalValue(name);
+      SymbolEntry entry = symbols.get(name.replace(' ', '_'));
+      byte kind = entry != null ? kindOf(entry.getDataType()) : NUMBER;
+      Object constant = value;
+      if (kind == TEXT) {
+        constant = value;
+      } else {
+        try {
+          double number = Double.parseDouble(value);
+          if (kind == FLOAT || number != Math.rint(number)) {
+            kind = FLOAT;
+            constant = (float) number;
+          } else {
+            constant = kind == INT ? (int) (short) (long) number : (int) (long) number;
+          }
+        } catch (NumberFormatException e) {
+          kind = TEXT;
+        }
+      }
+      index = addExtra(kind, NO_LOCAL, constant);
+      literals.put(operand, index);
+    }
+    return index;
+  }
+
+  private int addExtra(byte kind, int local, Object constant) {
+    if (extraCount == extraKinds.length) {
+      extraKinds = Arrays.copyOf(extraKinds, extraCount * 2);
+      extraLocals = Arrays.copyOf(extraLocals, extraCount * 2);
+      extraConstants = Arrays.copyOf(extraConstants, extraCount * 2);
+    }
+    extraKinds[extraCount] = kind;
+    extraLocals[extraCount] = local;
+    extraConstants[extraCount] = constant;
+    return size + 1 + extraCount++;
+  }
+
+  private byte kindOfValue(int value) {
+    return value > size ? extraKinds[value - size - 1] : kinds[value];
+  }
+
+  private int localOf(int value) {
+    return value > size ? extraLocals[value - size - 1] : locals[value];
+  }
+
+  private Object constantOf(int value) {
+    return value > size ? extraConstants[value - size - 1] : constants[value];
+  }
+
+  private static byte kindOf(DataType type) {
+    if (type == null) {
+      return NUMBER;
+    }
+    switch (type) {
+      case INTEGER_TYPE:
+      case INTEGER_CONS:
+        return INT;
+      case FLOAT_TYPE:
+      case FLOAT_CONS:
+        return FLOAT;
+      case STRING_TYPE:
+      case STRING_CONS:
+        return TEXT;
+      default:
+        return NUMBER;
+    }
+  }
+
+  /**
+   * Emite el cuerpo de run. Las locales temporales se asignan durante la emisión y
+   * se devuelven a un pool por tipo en el último uso del terceto.
+   */
+  private final class RunEmitter {
+
+    private final Bytecode code;
+    private final Map<Integer, Integer> labelIds = new HashMap<>();
+    private final Deque<Integer> freeInts = new ArrayDeque<>();
+    private final Deque<Integer> freeFloats = new ArrayDeque<>();
+    private final Deque<Integer> freeTexts = new ArrayDeque<>();
+    private final int[] temps = new int[size + 1];
+    private int nextLocal = variableLocals;
+    private int maxLocals = variableLocals;
+    private final StringBuilder line = new StringBuilder();
+
+    RunEmitter(Bytecode code) {
+      this.code = code;
+    }
+
+    void emit() {
+      for (Map.Entry<Integer, String> label : labels.entrySet()) {
+        labelIds.put(label.getKey(), code.newLabel(label.getValue()));
+      }
+      // Las variables arrancan en 0 o "" (el verificador exige que estén asignadas)
+      for (Map.Entry<String, Integer> variable : variables.entrySet()) {
+        int index = variable.getValue();
+        code.comment(variable.getKey());
+        pushZero(kindOfValue(index));
+        store(kindOfValue(index), localOf(index));
+      }
+      code.pushInt(0);
+      code.local(Bytecode.ISTORE, "istore", COMPARISON_LOCAL);
+
+      for (int i = 1; i <= size; i++) {
+        emit(i);
+      }
+      code.op(Bytecode.RETURN, "return");
+    }
+
+    private void emit(int i) {
+      Operator op = store.operator(i);
+      switch (op) {
+        case ID:
+        case CTE:
+        case DECLARE:
+        case IF:
+        case ELSE:
+        case ENDIF:
+        case WHILE:
+        case ENDWHILE:
+        case BEGIN:
+        case END:
+          return;
+        case LABEL:
+          code.mark(labelIds.get(store.first(i)));
+          return;
+        default:
+          break;
+      }
+
+      if (op.isJump()) {
+        describe(i);
+        Integer label = labelIds.get(store.first(i));
+        if (label == null) {
+          throw new IllegalStateException("Label sin definir en el terceto [" + i + "]: "
+                                          + store.operandText(store.first(i)));
+        }
+        if (op == Operator.BI) {
+          code.jump(Bytecode.GOTO, "goto", label);
+        } else {
+          code.local(Bytecode.ILOAD, "iload", COMPARISON_LOCAL);
+          code.jump(branchOpcode(op), branchMnemonic(op), label);
+        }
+        return;
+      }
+
+      describe(i);
+      int a = first[i];
+      int b = second[i];
+      byte kind = kinds[i];
+      switch (op) {
+        case ADD:
+          arithmetic(i, a, b, Bytecode.IADD, "iadd", Bytecode.FADD, "fadd");
+          break;
+        case SUB:
+          arithmetic(i, a, b, Bytecode.ISUB, "isub", Bytecode.FSUB, "fsub");
+          break;
+        case MUL:
+          arithmetic(i, a, b, Bytecode.IMUL, "imul", Bytecode.FMUL, "fmul");
+          break;
+        case DIV:
+          arithmetic(i, a, b, Bytecode.IDIV, "idiv", Bytecode.FDIV, "fdiv");
+          break;
+        case MOD:
+          arithmetic(i, a, b, Bytecode.IREM, "irem", Bytecode.FREM, "frem");
+          break;
+        case NEG:
+          checkNumeric(i, kind);
+          load(a, kind);
+          if (kind == FLOAT) {
+            code.op(Bytecode.FNEG, "fneg");
+          } else {
+            code.op(Bytecode.INEG, "ineg");
+            wrap(kind);
+          }
+          release(i, a, 0);
+          result(i, kind);
+          break;
+        case ASSIGN:
+          load(b, kindOfValue(a));
+          release(i, b, 0);
+          store(kindOfValue(a), localOf(a));
+          break;
+        case CMP:
+          compare(a, b);
+          release(i, a, b);
+          code.local(Bytecode.ISTORE, "istore", COMPARISON_LOCAL);
+          break;
+        case LT:
+        case GT:
+        case EQ:
+        case NEQ:
+        case LTEQ:
+        case GTEQ:
+          compare(a, b);
+          release(i, a, b);
+          booleanResult(i, relationOpcode(op));
+          break;
+        case AND:
+        case OR:
+          logical(i, a, b, op == Operator.AND);
+          break;
+        case NOT:
+          truth(a);
+          release(i, a, 0);
+          booleanResult(i, Bytecode.IFEQ);
+          break;
+        case READ:
+          read(a);
+          break;
+        case WRITE:
+          code.local(Bytecode.ALOAD, "aload", WRITER_LOCAL);
+          load(a, TEXT);
+          release(i, a, 0);
+          code.invoke(Bytecode.INVOKEVIRTUAL, "invokevirtual", WRITER, "write", "(Ljava/lang/String;)V");
+          code.local(Bytecode.ALOAD, "aload", WRITER_LOCAL);
+          code.pushInt('\n');
+          code.invoke(Bytecode.INVOKEVIRTUAL, "invokevirtual", WRITER, "write", "(I)V");
+          break;
+        default:
+          throw new IllegalStateException("Operador no soportado por el backend jvm: " + op);
+      }
+    }
+
+    private void describe(int i) {
+      line.setLength(0);
+      store.appendTo(line, i);
+      code.comment(line);
+    }
+
+    private void arithmetic(int i, int a, int b, int intOpcode, String intMnemonic, int floatOpcode,
+                            String floatMnemonic) {
+      byte kind = kinds[i];
+      checkNumeric(i, kind);
+      load(a, kind);
+      load(b, kind);
+      if (kind == FLOAT) {
+        code.op(floatOpcode, floatMnemonic);
+      } else {
+        code.op(intOpcode, intMnemonic);
+        wrap(kind);
+      }
+      release(i, a, b);
+      result(i, kind);
+    }
+
+    private void checkNumeric(int i, byte kind) {
+      if (kind == TEXT) {
+        throw new IllegalStateException("Operación aritmética sobre String en el terceto [" + i + "]");
+      }
+    }
+
+    private void wrap(byte kind) {
+      if (kind == INT) {
+        code.op(Bytecode.I2S, "i2s");
+      }
+    }
+
+    // Deja en la pila el signo de la comparación: String.compareTo, fcmpl o Integer.compare
+    private void compare(int a, int b) {
+      byte left = kindOfValue(a);
+      byte right = kindOfValue(b);
+      if (left == TEXT || right == TEXT) {
+        load(a, TEXT);
+        load(b, TEXT);
+        code.invoke(Bytecode.INVOKEVIRTUAL, "invokevirtual", STRING, "compareTo", "(Ljava/lang/String;)I");
+      } else if (left == FLOAT || right == FLOAT) {
+        load(a, FLOAT);
+        load(b, FLOAT);
+        code.op(Bytecode.FCMPL, "fcmpl");
+      } else {
+        load(a, NUMBER);
+        load(b, NUMBER);
+        code.invoke(Bytecode.INVOKESTATIC, "invokestatic", "java/lang/Integer", "compare", "(II)I");
+      }
+    }
+
+    // Valor de verdad de un número: distinto de cero
+    private void truth(int value) {
+      if (kindOfValue(value) == FLOAT) {
+        load(value, FLOAT);
+        code.op(Bytecode.FCONST_0, "fconst_0");
+        code.op(Bytecode.FCMPL, "fcmpl");
+      } else {
+        load(value, NUMBER);
+      }
+    }
+
+    private void logical(int i, int a, int b, boolean and) {
+      int shortCircuit = code.newLabel(null);
+      int end = code.newLabel(null);
+      int skip = and ? Bytecode.IFEQ : Bytecode.IFNE;
+      String mnemonic = and ? "ifeq" : "ifne";
+      truth(a);
+      code.jump(skip, mnemonic, shortCircuit);
+      truth(b);
+      code.jump(skip, mnemonic, shortCircuit);
+      code.pushInt(and ? 1 : 0);
+      code.jump(Bytecode.GOTO, "goto", end);
+      code.mark(shortCircuit);
+      code.pushInt(and ? 0 : 1);
+      code.mark(end);
+      release(i, a, b);
+      result(i, INT);
+    }
+
+    // Con el valor en la pila: 1 si se cumple la condición del salto, 0 si no
+    private void booleanResult(int i, int opcode) {
+      int isTrue = code.newLabel(null);
+      int end = code.newLabel(null);
+      code.jump(opcode, mnemonicOf(opcode), isTrue);
+      code.pushInt(0);
+      code.jump(Bytecode.GOTO, "goto", end);
+      code.mark(isTrue);
+      code.pushInt(1);
+      code.mark(end);
+      result(i, INT);
+    }
+
+    private void read(int variable) {
+      byte kind = kindOfValue(variable);
+      // Lo escrito antes del read tiene que verse antes de esperar la entrada
+      code.local(Bytecode.ALOAD, "aload", WRITER_LOCAL);
+      code.invoke(Bytecode.INVOKEVIRTUAL, "invokevirtual", WRITER, "flush", "()V");
+      code.local(Bytecode.ALOAD, "aload", READER_LOCAL);
+      code.invoke(Bytecode.INVOKEVIRTUAL, "invokevirtual", READER, "readLine", "()Ljava/lang/String;");
+      code.pushString("No hay más entrada para read");
+      code.invoke(Bytecode.INVOKESTATIC, "invokestatic", "java/util/Objects", "requireNonNull",
+                  "(Ljava/lang/Object;Ljava/lang/String;)Ljava/lang/Object;");
+      code.type(Bytecode.CHECKCAST, "checkcast", STRING);
+      if (kind != TEXT) {
+        code.invoke(Bytecode.INVOKEVIRTUAL, "invokevirtual", STRING, "trim", "()Ljava/lang/String;");
+      }
+      switch (kind) {
+        case INT:
+          // parseShort rechaza lo que no entra en 16 bits, igual que el intérprete
+          code.invoke(Bytecode.INVOKESTATIC, "invokestatic", "java/lang/Short", "parseShort", "(Ljava/lang/String;)S");
+          break;
+        case NUMBER:
+          code.invoke(Bytecode.INVOKESTATIC, "invokestatic", "java/lang/Integer", "parseInt", "(Ljava/lang/String;)I");
+          break;
+        case FLOAT:
+          code.invoke(Bytecode.INVOKESTATIC, "invokestatic", "java/lang/Float", "parseFloat", "(Ljava/lang/String;)F");
+          break;
+        default:
+          break;
+      }
+      store(kind, localOf(variable));
+    }
+
+    // Carga un valor convertido al tipo pedido
+    private void load(int value, byte target) {
+      byte kind = kindOfValue(value);
+      Object constant = constantOf(value);
+      if (constant != null) {
+        if (target == TEXT) {
+          code.pushString(kind == TEXT ? (String) constant : constant.toString());
+          return;
+        }
+        if (kind == TEXT) {
+          throw new IllegalStateException("Se esperaba un número y el literal es texto: " + constant);
+        }
+        if (target == FLOAT) {
+          code.pushFloat(constant instanceof Float ? (Float) constant : (float) (Integer) constant);
+        } else {
+          int integer = constant instanceof Float ? (int) (float) (Float) constant : (Integer) constant;
+          code.pushInt(target == INT ? (short) integer : integer);
+        }
+        return;
+      }
+
+      int local = localOf(value) != NO_LOCAL ? localOf(value) : temps[value];
+      switch (kind) {
+        case TEXT:
+          code.local(Bytecode.ALOAD, "aload", local);
+          if (target != TEXT) {
+            throw new IllegalStateException("Se esperaba un número y el valor es String");
+          }
+          return;
+        case FLOAT:
+          code.local(Bytecode.FLOAD, "fload", local);
+          if (target == TEXT) {
+            code.invoke(Bytecode.INVOKESTATIC, "invokestatic", "java/lang/Float", "toString", "(F)Ljava/lang/String;");
+          } else if (target != FLOAT) {
+            code.op(Bytecode.F2I, "f2i");
+            wrap(target);
+          }
+          return;
+        default:
+          code.local(Bytecode.ILOAD, "iload", local);
+          if (target == TEXT) {
+            code.invoke(Bytecode.INVOKESTATIC, "invokestatic", "java/lang/Integer", "toString",
+                        "(I)Ljava/lang/String;");
+          } else if (target == FLOAT) {
+            code.op(Bytecode.I2F, "i2f");
+          } else if (target == INT && kind == NUMBER) {
+            wrap(INT);
+          }
+      }
+    }
+
+    private void pushZero(byte kind) {
+      if (kind == TEXT) {
+        code.pushString("");
+      } else if (kind == FLOAT) {
+        code.pushFloat(0);
+      } else {
+        code.pushInt(0);
+      }
+    }
+
+    private void store(byte kind, int local) {
+      if (kind == TEXT) {
+        code.local(Bytecode.ASTORE, "astore", local);
+      } else if (kind == FLOAT) {
+        code.local(Bytecode.FSTORE, "fstore", local);
+      } else {
+        code.local(Bytecode.ISTORE, "istore", local);
+      }
+    }
+
+    // Guarda el valor de la pila en una temporal del terceto
+    private void result(int i, byte kind) {
+      Deque<Integer> pool = poolOf(kind);
+      int local = pool.isEmpty() ? nextLocal++ : pool.pop();
+      maxLocals = Math.max(maxLocals, nextLocal);
+      temps[i] = local;
+      kinds[i] = kind;
+      store(kind, local);
+      if (lastUse[i] == 0) {
+        pool.push(local);
+      }
+    }
+
+    // Libera las temporales de los operandos que el terceto i usa por última vez
+    private void release(int i, int a, int b) {
+      releaseOne(i, a);
+      if (b != a) {
+        releaseOne(i, b);
+      }
+    }
+
+    private void releaseOne(int i, int value) {
+      if (value >= 1 && value <= size && localOf(value) == NO_LOCAL && lastUse[value] == i) {
+        poolOf(kinds[value]).push(temps[value]);
+      }
+    }
+
+    private Deque<Integer> poolOf(byte kind) {
+      return kind == TEXT ? freeTexts : kind == FLOAT ? freeFloats : freeInts;
+    }
+  }
+
+  private static int branchOpcode(Operator op) {
+    switch (op) {
+      case BLT: return Bytecode.IFLT;
+      case BGE: return Bytecode.IFGE;
+      case BLE: return Bytecode.IFLE;
+      case BGT: return Bytecode.IFGT;
+      case BEQ: return Bytecode.IFEQ;
+      default: return Bytecode.IFNE;
+    }
+  }
+
+  private static String branchMnemonic(Operator op) {
+    return mnemonicOf(branchOpcode(op));
+  }
+
+  private static int relationOpcode(Operator op) {
+    switch (op) {
+      case LT: return Bytecode.IFLT;
+      case GT: return Bytecode.IFGT;
+      case EQ: return Bytecode.IFEQ;
+      case NEQ: return Bytecode.IFNE;
+      case LTEQ: return Bytecode.IFLE;
+      default: return Bytecode.IFGE;
+    }
+  }
+
+  private static String mnemonicOf(int opcode) {
+    switch (opcode) {
+      case Bytecode.IFEQ: return "ifeq";
+      case Bytecode.IFNE: return "ifne";
+      case Bytecode.IFLT: return "iflt";
+      case Bytecode.IFGE: return "ifge";
+      case Bytecode.IFGT: return "ifgt";
+      default: return "ifle";
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package lyc.compiler.backend.jvm;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import lyc.compiler.context.CompilationContext;
+
+/**
+ * Programa LyC compilado a bytecode. define lo carga como hidden class en esta
+ * JVM (se descarga cuando deja de usarse); writeJar lo guarda como jar ejecutable
+ * con {@code java -jar}, sin depender del compilador.
+ */
+public final class JvmProgram {
+
+  // Las hidden classes tienen que estar en el paquete del Lookup que las define
+  private static final String HIDDEN_CLASS = "lyc/compiler/backend/jvm/" + JvmCodeGenerator.DEFAULT_CLASS;
+  private static final MethodType RUN_TYPE = MethodType.methodType(void.class, BufferedReader.class, Writer.class);
+
+  private final MethodHandle run;
+
+  private JvmProgram(MethodHandle run) {
+    this.run = run;
+  }
+
+  public static JvmProgram define(CompilationContext context) {
+    byte[] classFile = new JvmCodeGenerator(context, HIDDEN_CLASS).classFile();
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(classFile, true);
+      return new JvmProgram(lookup.findStatic(lookup.lookupClass(), "run", RUN_TYPE));
+    } catch (IllegalAccessException | NoSuchMethodException e) {
+      throw new IllegalStateException("No se pudo cargar el bytecode generado", e);
+    }
+  }
+
+  // Corre el programa; los errores del programa (división por cero, entrada inválida)
+  // salen como RuntimeException. Lo escrito hasta el error se vuelca igual.
+  public void run(BufferedReader input, Writer output) throws IOException {
+    try {
+      run.invokeExact(input, output);
+    } catch (IOException | RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalStateException(e);
+    } finally {
+      output.flush();
+    }
+  }
+
+  public static void writeJar(CompilationContext context, Path jar) throws IOException {
+    Manifest manifest = new Manifest();
+    manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, JvmCodeGenerator.DEFAULT_CLASS);
+    byte[] classFile = new JvmCodeGenerator(context).classFile();
+    try (OutputStream file = Files.newOutputStream(jar);
+         JarOutputStream out = new JarOutputStream(file, manifest)) {
+      out.putNextEntry(new JarEntry(JvmCodeGenerator.DEFAULT_CLASS + ".class"));
+      out.write(classFile);
+      out.closeEntry();
+    }
+  }
+}
@@ -0,0 +1,594 @@
+package lyc.compiler.backend.nasm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lyc.compiler.context.CompilationContext;
+import lyc.compiler.files.FileGenerator;
+import lyc.compiler.files.Operator;
+import lyc.compiler.files.TripletOperand;
+import lyc.compiler.files.TripletStore;
+import lyc.compiler.files.TypeTable;
+import lyc.compiler.metrics.CompileMetrics;
+import lyc.compiler.metrics.CompileMetrics.Counter;
+import lyc.compiler.table.DataType;
+import lyc.compiler.table.SymbolEntry;
+import lyc.compiler.table.SymbolTableManager;
+
+/**
+ * NASM para Linux x86-64 (ELF, sin libc): {@code nasm -f elf64 final64.asm && ld final64.o}.
+ *
+ * Cada terceto carga sus operandos en registros, opera y deja el resultado en
+ * una temporal _tmpN de memoria, igual que el backend MASM. Int usa registros de
+ * 32 bits y vuelve a 16 bits con movsx después de cada operación (misma
+ * semántica que DOS y el intérprete); Float usa SSE2 escalar en xmm0/xmm1; los
+ * String son buffers terminados en 0. read y write llaman a las rutinas de
+ * asm/lyc64_runtime.asm, que se copian al final del archivo y usan syscalls.
+ */
+public final class Nasm64CodeGenerator implements FileGenerator {
+
+  static final String RUNTIME_RESOURCE = "/asm/lyc64_runtime.asm";
+
+  private static final int STRING_BUFFER_SIZE = 256;
+
+  // Tipo de cada valor
+  private static final byte INT = 0;
+  private static final byte FLOAT = 1;
+  // Entero de 32 bits sin ajuste a 16 (DateConverted)
+  private static final byte NUMBER = 2;
+  private static final byte TEXT = 3;
+
+  private final CompilationContext context;
+
+  private TripletStore store;
+  private final StringBuilder data = new StringBuilder();
+  private final StringBuilder bss = new StringBuilder();
+  private final StringBuilder text = new StringBuilder();
+  // Nombre en memoria y tipo del resultado de cada terceto
+  private String[] results;
+  private byte[] kinds;
+  private final Map<String, String> variables = new LinkedHashMap<>();
+  private final Map<String, Byte> variableKinds = new HashMap<>();
+  private final Map<Integer, String> literals = new HashMap<>();
+  private final Map<String, Byte> literalKinds = new HashMap<>();
+  private int tempCount;
+  private int stringCount;
+  // Las comparaciones de Float dejan los flags de comiss, que se leen sin signo
+  private boolean unsignedFlags;
+
+  public Nasm64CodeGenerator(CompilationContext context) {
+    this.context = context;
+  }
+
+  @Override
+  public void generate(Writer fileWriter) throws IOException {
+    store = context.getIntermediateCodeGenerator().getStore();
+    data.setLength(0);
+    bss.setLength(0);
+    text.setLength(0);
+    results = new String[store.size() + 1];
+    kinds = new byte[store.size() + 1];
+    variables.clear();
+    variableKinds.clear();
+    literals.clear();
+    literalKinds.clear();
+    tempCount = 0;
+    stringCount = 0;
+    unsignedFlags = false;
+
+    declareVariables(context.getSymbolTableManager());
+    TypeTable types = context.getTypeTable();
+    for (int idx = 1; idx <= store.size(); idx++) {
+      processTriplet(idx, types);
+    }
+
+    fileWriter.write("; Generado por el backend nasm64 (Linux x86-64, SSE2)\n");
+    fileWriter.write("; nasm -f elf64 final64.asm -o final64.o && ld final64.o -o final64\n");
+    fileWriter.write("default rel\n\n");
+    fileWriter.write("section .data\n");
+    fileWriter.write(data.toString());
+    fileWriter.write("\nsection .bss\n");
+    fileWriter.write(bss.toString());
+    fileWriter.write("\nsection .text\n");
+    fileWriter.write("global _start\n");
+    fileWriter.write("_start:\n");
+    fileWriter.write(text.toString());
+    fileWriter.write("\n    ; Fin del programa: exit(0)\n");
+    fileWriter.write("    mov eax, 60\n");
+    fileWriter.write("    xor edi, edi\n");
+    fileWriter.write("    syscall\n\n");
+    fileWriter.write(runtime());
+
+    CompileMetrics metrics = context.getMetrics();
+    metrics.set(Counter.TEMPS, tempCount);
+    metrics.set(Counter.LITERALS, literals.size());
+  }
+
+  private static String runtime() {
+    try (InputStream in = Nasm64CodeGenerator.class.getResourceAsStream(RUNTIME_RESOURCE)) {
+      if (in == null) {
+        throw new IllegalStateException("Falta el recurso " + RUNTIME_RESOURCE);
+      }
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // Variables de usuario en .bss: 4 bytes para Int y Float, un buffer para String.
+  // Llevan el prefijo v_ para no chocar con registros ni palabras reservadas de NASM.
+  private void declareVariables(SymbolTableManager symbols) {
+    for (Map.Entry<String, SymbolEntry> entry : symbols.getSymbolTable().entrySet()) {
+      String name = entry.getKey();
+      if (name == null || name.isBlank() || name.startsWith("_") || entry.getValue() == null) {
+        continue;
+      }
+      byte kind = kindOf(entry.getValue().getDataType());
+      String label = "v_" + name.trim();
+      variables.put(name, label);
+      variableKinds.put(label, kind);
+      bss.append(label).append(kind == TEXT ? " resb " + STRING_BUFFER_SIZE : " resd 1").append('\n');
+    }
+  }
+
+  private void processTriplet(int idx, TypeTable types) {
+    Operator op = store.operator(idx);
+    int arg1 = store.first(idx);
+    int arg2 = store.second(idx);
+
+    switch (op) {
+      case ID:
+        results[idx] = variable(store.name(arg1));
+        kinds[idx] = kindOf(results[idx]);
+        return;
+      case CTE:
+        results[idx] = literal(arg1);
+        kinds[idx] = kindOf(results[idx]);
+        return;
+      case LABEL:
+        text.append(store.operandText(arg1)).append(":\n");
+        return;
+      case DECLARE:
+      case IF:
+      case ELSE:
+      case ENDIF:
+      case WHILE:
+      case ENDWHILE:
+      case BEGIN:
+      case END:
+        return;
+      default:
+        break;
+    }
+
+    StringBuilder comment = new StringBuilder("    ; ");
+    store.appendTo(comment, idx);
+    text.append(comment).append('\n');
+
+    byte kind = kindOf(types.getType(idx));
+    switch (op) {
+      case ADD:
+        genArithmetic(idx, kind, arg1, arg2, "add", "addss");
+        break;
+      case SUB:
+        genArithmetic(idx, kind, arg1, arg2, "sub", "subss");
+        break;
+      case MUL:
+        genArithmetic(idx, kind, arg1, arg2, "imul", "mulss");
+        break;
+      case DIV:
+        genDivision(idx, kind, arg1, arg2, false);
+        break;
+      case MOD:
+        genDivision(idx, kind, arg1, arg2, true);
+        break;
+      case NEG:
+        genNeg(idx, kind, arg1);
+        break;
+      case ASSIGN:
+        genAssign(resolve(arg1), resolve(arg2));
+        break;
+      case CMP:
+        genCompare(resolve(arg1), resolve(arg2));
+        break;
+      case BLT:
+      case BGE:
+      case BLE:
+      case BGT:
+      case BEQ:
+      case BNE:
+        emit(jumpFor(op) + " " + store.operandText(arg1));
+        break;
+      case BI:
+        emit("jmp " + store.operandText(arg1));
+        break;
+      case LT:
+      case GT:
+      case EQ:
+      case NEQ:
+      case LTEQ:
+      case GTEQ:
+        genCompare(resolve(arg1), resolve(arg2));
+        emit("set" + jumpFor(branchOf(op)).substring(1) + " al");
+        storeBoolean(idx);
+        break;
+      case AND:
+      case OR:
+        emit("mov eax, dword [" + resolve(arg1) + "]");
+        emit("test eax, eax");
+        emit("setne al");
+        emit("mov ecx, dword [" + resolve(arg2) + "]");
+        emit("test ecx, ecx");
+        emit("setne cl");
+        emit((op == Operator.AND ? "and" : "or") + " al, cl");
+        storeBoolean(idx);
+        break;
+      case NOT:
+        emit("mov eax, dword [" + resolve(arg1) + "]");
+        emit("test eax, eax");
+        emit("sete al");
+        storeBoolean(idx);
+        break;
+      case READ:
+        genRead(resolve(arg1));
+        break;
+      case WRITE:
+        genWrite(resolve(arg1));
+        break;
+      default:
+        emit("; Operador no implementado: " + op.getDisplay());
+        break;
+    }
+  }
+
+  private String resolve(int operand) {
+    switch (TripletOperand.kind(operand)) {
+      case REF:
+        return results[TripletOperand.value(operand)];
+      case SYMBOL:
+        return variable(store.name(operand));
+      case LITERAL:
+        return literal(operand);
+      default:
+        return null;
+    }
+  }
+
+  private void genArithmetic(int idx, byte kind, int arg1, int arg2, String integerOp, String floatOp) {
+    String left = resolve(arg1);
+    String right = resolve(arg2);
+    if (kind == FLOAT) {
+      loadFloat("xmm0", left);
+      if (kindOf(right) == FLOAT) {
+        emit(floatOp + " xmm0, dword [" + right + "]");
+      } else {
+        loadFloat("xmm1", right);
+        emit(floatOp + " xmm0, xmm1");
+      }
+      storeFloat(idx, "xmm0");
+    } else {
+      loadInt("eax", left);
+      if (kindOf(right) == FLOAT) {
+        loadInt("ecx", right);
+        emit(integerOp + " eax, ecx");
+      } else {
+        emit(integerOp + " eax, dword [" + right + "]");
+      }
+      storeInt(idx, kind, "eax");
+    }
+  }
+
+  // idiv deja cociente en eax y resto en edx (truncados, como en Java); para Float,
+  // el resto es a - trunc(a / b) * b
+  private void genDivision(int idx, byte kind, int arg1, int arg2, boolean remainder) {
+    String left = resolve(arg1);
+    String right = resolve(arg2);
+    if (kind == FLOAT) {
+      loadFloat("xmm0", left);
+      loadFloat("xmm1", right);
+      if (remainder) {
+        emit("movaps xmm2, xmm0");
+        emit("divss xmm2, xmm1");
+        emit("cvttss2si rax, xmm2");
+        emit("cvtsi2ss xmm2, rax");
+        emit("mulss xmm2, xmm1");
+        emit("subss xmm0, xmm2");
+      } else {
+        emit("divss xmm0, xmm1");
+      }
+      storeFloat(idx, "xmm0");
+    } else {
+      loadInt("eax", left);
+      loadInt("ecx", right);
+      emit("cdq");
+      emit("idiv ecx");
+      storeInt(idx, kind, remainder ? "edx" : "eax");
+    }
+  }
+
+  private void genNeg(int idx, byte kind, int arg1) {
+    String operand = resolve(arg1);
+    if (kind == FLOAT) {
+      // Cambia el bit de signo del float sin pasar por SSE
+      emit("mov eax, dword [" + operand + "]");
+      emit("xor eax, 0x80000000");
+      results[idx] = newTemp(FLOAT);
+      kinds[idx] = FLOAT;
+      emit("mov dword [" + results[idx] + "], eax");
+    } else {
+      loadInt("eax", operand);
+      emit("neg eax");
+      storeInt(idx, kind, "eax");
+    }
+  }
+
+  private void genAssign(String dest, String source) {
+    if (dest == null || source == null) {
+      return;
+    }
+    byte kind = kindOf(dest);
+    if (kind == TEXT) {
+      emit("lea rsi, [" + source + "]");
+      emit("lea rdi, [" + dest + "]");
+      emit("call lyc_str_copy");
+    } else if (kind == FLOAT) {
+      loadFloat("xmm0", source);
+      emit("movss dword [" + dest + "], xmm0");
+    } else {
+      loadInt("eax", source);
+      if (kind == INT && kindOf(source) != INT) {
+        emit("movsx eax, ax");
+      }
+      emit("mov dword [" + dest + "], eax");
+    }
+  }
+
+  private void genCompare(String left, String right) {
+    byte leftKind = kindOf(left);
+    byte rightKind = kindOf(right);
+    if (leftKind == TEXT || rightKind == TEXT) {
+      emit("lea rsi, [" + left + "]");
+      emit("lea rdi, [" + right + "]");
+      emit("call lyc_str_cmp");
+      emit("cmp eax, 0");
+      unsignedFlags = false;
+    } else if (leftKind == FLOAT || rightKind == FLOAT) {
+      loadFloat("xmm0", left);
+      if (rightKind == FLOAT) {
+        emit("comiss xmm0, dword [" + right + "]");
+      } else {
+        loadFloat("xmm1", right);
+        emit("comiss xmm0, xmm1");
+      }
+      unsignedFlags = true;
+    } else {
+      loadInt("eax", left);
+      emit("cmp eax, dword [" + right + "]");
+      unsignedFlags = false;
+    }
+  }
+
+  private void genRead(String dest) {
+    switch (kindOf(dest)) {
+      case TEXT:
+        emit("lea rdi, [" + dest + "]");
+        emit("call lyc_read_line");
+        break;
+      case FLOAT:
+        emit("call lyc_read_float");
+        emit("movss dword [" + dest + "], xmm0");
+        break;
+      case INT:
+        emit("call lyc_read_int");
+        emit("movsx eax, ax");
+        emit("mov dword [" + dest + "], eax");
+        break;
+      default:
+        emit("call lyc_read_int");
+        emit("mov dword [" + dest + "], eax");
+        break;
+    }
+  }
+
+  private void genWrite(String source) {
+    switch (kindOf(source)) {
+      case TEXT:
+        emit("lea rsi, [" + source + "]");
+        emit("call lyc_write_str");
+        break;
+      case FLOAT:
+        emit("movss xmm0, dword [" + source + "]");
+        emit("call lyc_write_float");
+        break;
+      default:
+        emit("mov edi, dword [" + source + "]");
+        emit("call lyc_write_int");
+        break;
+    }
+  }
+
+  private void loadInt(String register, String value) {
+    if (kindOf(value) == FLOAT) {
+      emit("cvttss2si " + register + ", dword [" + value + "]");
+    } else {
+      emit("mov " + register + ", dword [" + value + "]");
+    }
+  }
+
+  private void loadFloat(String register, String value) {
+    if (kindOf(value) == FLOAT) {
+      emit("movss " + register + ", dword [" + value + "]");
+    } else {
+      emit("cvtsi2ss " + register + ", dword [" + value + "]");
+    }
+  }
+
+  private void storeInt(int idx, byte kind, String register) {
+    if (kind == INT) {
+      // Vuelve a 16 bits con signo
+      emit("movsx eax, " + (register.equals("eax") ? "ax" : "dx"));
+      register = "eax";
+    }
+    results[idx] = newTemp(kind == INT ? INT : NUMBER);
+    kinds[idx] = kind == INT ? INT : NUMBER;
+    emit("mov dword [" + results[idx] + "], " + register);
+  }
+
+  private void storeFloat(int idx, String register) {
+    results[idx] = newTemp(FLOAT);
+    kinds[idx] = FLOAT;
+    emit("movss dword [" + results[idx] + "], " + register);
+  }
+
+  private void storeBoolean(int idx) {
+    emit("movzx eax, al");
+    results[idx] = newTemp(INT);
+    kinds[idx] = INT;
+    emit("mov dword [" + results[idx] + "], eax");
+  }
+
+  private String newTemp(byte kind) {
+    tempCount++;
+    String name = "_tmp" + tempCount;
+    bss.append(name).append(" resd 1\n");
+    literalKinds.put(name, kind);
+    return name;
+  }
+
+  private String variable(String name) {
+    String label = variables.get(name);
+    if (label == null) {
+      throw new IllegalStateException("Variable sin declarar en la tabla de símbolos: " + name);
+    }
+    return label;
+  }
+
+  // Literales en .data: los números como dd (los Float con sus bits exactos) y los
+  // textos como bytes terminados en 0
+  private String literal(int operand) {
+    String label = literals.get(operand);
+    if (label != null) {
+      return label;
+    }
+    SymbolTableManager symbols = context.getSymbolTableManager();
+    String name = store.name(operand);
+    String value = symbols.literalValue(name);
+    SymbolEntry entry = symbols.get(name.replace(' ', '_'));
+    byte kind = entry != null ? kindOf(entry.getDataType()) : NUMBER;
+    if (kind != TEXT) {
+      try {
+        double number = Double.parseDouble(value);
+        if (kind == FLOAT || number != Math.rint(number)) {
+          float single = (float) number;
+          label = "_" + value.replace(".", "_DOT_").replace("-", "_NEG_").replace("+", "");
+          if (literalKinds.containsKey(label)) {
+            label = label + "_" + literals.size();
+          }
+          data.append(label).append(" dd 0x").append(String.format("%08X", Float.floatToRawIntBits(single)))
+              .append(" ; ").append(single).append('\n');
+          kind = FLOAT;
+        } else {
+          label = "_" + value.replace("-", "_NEG_").replace("+", "");
+          if (literalKinds.containsKey(label)) {
+            label = label + "_" + literals.size();
+          }
+          data.append(label).append(" dd ").append((long) number).append('\n');
+        }
+      } catch (NumberFormatException e) {
+        kind = TEXT;
+      }
+    }
+    if (kind == TEXT) {
+      label = "_s" + ++stringCount;
+      data.append(label).append(" db ").append(bytes(value)).append('\n');
+    }
+    literals.put(operand, label);
+    literalKinds.put(label, kind);
+    return label;
+  }
+
+  // "texto", con los caracteres que no son ASCII imprimible (o la comilla) como bytes
+  private static String bytes(String value) {
+    StringBuilder out = new StringBuilder();
+    boolean open = false;
+    for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+      int c = b & 0xFF;
+      if (c >= 32 && c < 127 && c != '"') {
+        if (!open) {
+          out.append(out.length() > 0 ? ", \"" : "\"");
+          open = true;
+        }
+        out.append((char) c);
+      } else {
+        if (open) {
+          out.append('"');
+          open = false;
+        }
+        out.append(out.length() > 0 ? ", " : "").append(c);
+      }
+    }
+    if (open) {
+      out.append('"');
+    }
+    return out.append(out.length() > 0 ? ", 0" : "0").toString();
+  }
+
+  private byte kindOf(String label) {
+    Byte kind = variableKinds.get(label);
+    if (kind == null) {
+      kind = literalKinds.get(label);
+    }
+    return kind != null ? kind : NUMBER;
+  }
+
+  private static byte kindOf(DataType type) {
+    if (type == null) {
+      return NUMBER;
+    }
+    switch (type) {
+      case INTEGER_TYPE:
+      case INTEGER_CONS:
+        return INT;
+      case FLOAT_TYPE:
+      case FLOAT_CONS:
+        return FLOAT;
+      case STRING_TYPE:
+      case STRING_CONS:
+        return TEXT;
+      default:
+        return NUMBER;
+    }
+  }
+
+  private String jumpFor(Operator branch) {
+    switch (branch) {
+      case BLT: return unsignedFlags ? "jb" : "jl";
+      case BGE: return unsignedFlags ? "jae" : "jge";
+      case BLE: return unsignedFlags ? "jbe" : "jle";
+      case BGT: return unsignedFlags ? "ja" : "jg";
+      case BEQ: return "je";
+      case BNE: return "jne";
+      default: throw new IllegalArgumentException("Salto condicional desconocido: " + branch);
+    }
+  }
+
+  private static Operator branchOf(Operator relation) {
+    switch (relation) {
+      case LT: return Operator.BLT;
+      case GT: return Operator.BGT;
+      case EQ: return Operator.BEQ;
+      case NEQ: return Operator.BNE;
+      case LTEQ: return Operator.BLE;
+      default: return Operator.BGE;
+    }
+  }
+
+  private void emit(String instruction) {
+    text.append("    ").append(instruction).append('\n');
+  }
+}
@@ -0,0 +1,275 @@
+package lyc.compiler.cache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Caché de compilación direccionada por contenido. La clave es un SHA-256 del
+ * fuente junto con la versión del compilador y las opciones; cada entrada es un
+ * directorio con los artefactos tal cual se escribieron. Las entradas se desalojan
+ * por LRU (fecha de último uso) cuando se supera el tamaño o la cantidad máxima.
+ */
+public class BuildCache {
+
+  public static final String DEFAULT_DIRECTORY = "target/cache";
+  public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+  public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+  // Se incrementa cuando cambia el formato de los artefactos sin cambiar la versión
+  private static final int CACHE_FORMAT = 1;
+  private static final String MANIFEST = "artifacts.lst";
+
+  private final Path directory;
+  private final long maxBytes;
+  private final int maxEntries;
+  private final String compilerVersion;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong stores = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  // clave -> tamaño en bytes, en orden de acceso (el primero es el menos usado)
+  private LinkedHashMap<String, Long> index;
+  private long totalBytes;
+
+  public BuildCache(Path directory, long maxBytes, int maxEntries, String compilerVersion) {
+    this.directory = directory;
+    this.maxBytes = maxBytes;
+    this.maxEntries = maxEntries;
+    this.compilerVersion = compilerVersion;
+  }
+
+  public BuildCache(Path directory, String compilerVersion) {
+    this(directory, DEFAULT_MAX_BYTES, DEFAULT_MAX_ENTRIES, compilerVersion);
+  }
+
+  public String key(CharSequence source, String options) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(("lyc-cache:" + CACHE_FORMAT + "\0" + compilerVersion + "\0" + options + "\0")
+                        .getBytes(StandardCharsets.UTF_8));
+      digest.update(source.toString().getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(digest.digest());
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 no disponible", e);
+    }
+  }
+
+  // Devuelve los artefactos por nombre de archivo si la clave está en la caché
+  public Optional<Map<String, String>> get(String key) {
+    Path entry = entryPath(key);
+    Path manifest = entry.resolve(MANIFEST);
+    if (!Files.isRegularFile(manifest)) {
+      misses.incrementAndGet();
+      return Optional.empty();
+    }
+    try {
+      Map<String, String> artifacts = new LinkedHashMap<>();
+      for (String name : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+        artifacts.put(name, Files.readString(entry.resolve(name), StandardCharsets.UTF_8));
+      }
+      // Marca de uso para el LRU
+      Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+      recordUse(key);
+      hits.incrementAndGet();
+      return Optional.of(artifacts);
+    } catch (IOException e) {
+      // Entrada incompleta o desalojada en paralelo: se trata como miss
+      misses.incrementAndGet();
+      return Optional.empty();
+    }
+  }
+
+  public void put(String key, Map<String, String> artifacts) throws IOException {
+    Path entry = entryPath(key);
+    if (Files.isRegularFile(entry.resolve(MANIFEST))) {
+      return;
+    }
+    Files.createDirectories(entry.getParent());
+
+    // Se escribe en un directorio temporal y se publica con un move atómico,
+    // así un lector concurrente nunca ve una entrada a medias
+    Path staging = Files.createTempDirectory(entry.getParent(), key + ".tmp");
+    try {
+      for (Map.Entry<String, String> artifact : artifacts.entrySet()) {
+        Files.writeString(staging.resolve(artifact.getKey()), artifact.getValue(), StandardCharsets.UTF_8);
+      }
+      Files.write(staging.resolve(MANIFEST), artifacts.keySet(), StandardCharsets.UTF_8);
+      try {
+        Files.move(staging, entry, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(staging, entry);
+      }
+      recordStore(key, sizeOf(entry));
+      stores.incrementAndGet();
+    } catch (FileAlreadyExistsException e) {
+      // Otro hilo guardó la misma clave primero
+    } catch (IOException e) {
+      if (!Files.isDirectory(entry)) {
+        throw e;
+      }
+    } finally {
+      deleteRecursively(staging);
+    }
+    evict();
+  }
+
+  // Desaloja las entradas menos usadas hasta volver a los límites configurados
+  public synchronized void evict() throws IOException {
+    loadIndex();
+    Iterator<Map.Entry<String, Long>> eldest = index.entrySet().iterator();
+    while ((totalBytes > maxBytes || index.size() > maxEntries) && eldest.hasNext()) {
+      Map.Entry<String, Long> entry = eldest.next();
+      deleteRecursively(entryPath(entry.getKey()));
+      totalBytes -= entry.getValue();
+      eldest.remove();
+      evictions.incrementAndGet();
+    }
+  }
+
+  private synchronized void recordUse(String key) {
+    if (index != null) {
+      index.get(key);
+    }
+  }
+
+  private synchronized void recordStore(String key, long size) throws IOException {
+    loadIndex();
+    if (index.put(key, size) == null) {
+      totalBytes += size;
+    }
+  }
+
+  // Índice LRU en memoria; se arma una sola vez recorriendo el directorio en orden de último uso
+  private void loadIndex() throws IOException {
+    if (index != null) {
+      return;
+    }
+    index = new LinkedHashMap<>(16, 0.75f, true);
+    totalBytes = 0;
+    if (!Files.isDirectory(directory)) {
+      return;
+    }
+    List<Path> entries = new ArrayList<>();
+    try (Stream<Path> shards = Files.list(directory)) {
+      for (Path shard : shards.filter(Files::isDirectory).collect(Collectors.toList())) {
+        try (Stream<Path> dirs = Files.list(shard)) {
+          dirs.filter(p -> !p.getFileName().toString().contains(".tmp"))
+              .filter(p -> Files.isRegularFile(p.resolve(MANIFEST)))
+              .forEach(entries::add);
+        }
+      }
+    }
+    Map<Path, Long> lastUsed = new HashMap<>();
+    for (Path entry : entries) {
+      lastUsed.put(entry, Files.getLastModifiedTime(entry).toMillis());
+    }
+    entries.sort(Comparator.comparingLong((Path p) -> lastUsed.get(p)).thenComparing(Path::toString));
+    for (Path entry : entries) {
+      long size = sizeOf(entry);
+      index.put(entry.getFileName().toString(), size);
+      totalBytes += size;
+    }
+  }
+
+  public long getHits() { return hits.get(); }
+
+  public long getMisses() { return misses.get(); }
+
+  public long getStores() { return stores.get(); }
+
+  public long getEvictions() { return evictions.get(); }
+
+  public String statistics() {
+    long lookups = hits.get() + misses.get();
+    double ratio = lookups == 0 ? 0 : 100.0 * hits.get() / lookups;
+    return String.format("Cache: %d hits, %d misses (%.1f%% hit), %d guardados, %d desalojados",
+                         hits.get(), misses.get(), ratio, stores.get(), evictions.get());
+  }
+
+  private Path entryPath(String key) {
+    return directory.resolve(key.substring(0, 2)).resolve(key);
+  }
+
+  private static long sizeOf(Path dir) throws IOException {
+    try (Stream<Path> files = Files.list(dir)) {
+      return files.mapToLong(file -> {
+        try {
+          return Files.size(file);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }).sum();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private static void deleteRecursively(Path path) throws IOException {
+    if (!Files.exists(path)) {
+      return;
+    }
+    try (Stream<Path> walk = Files.walk(path)) {
+      for (Path p : walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+        Files.deleteIfExists(p);
+      }
+    }
+  }
+
+
+  /** Opciones de línea de comandos: --cache, --cache=DIR y --cache-max-mb=N. */
+  public static final class Options {
+
+    public static final String USAGE = "[--cache[=DIR]] [--cache-max-mb=N]";
+
+    private Path directory;
+    private long maxBytes = DEFAULT_MAX_BYTES;
+
+    // Devuelve true si el argumento era una opción de caché
+    public boolean accept(String arg) {
+      if (arg.equals("--cache")) {
+        directory = Path.of(DEFAULT_DIRECTORY);
+        return true;
+      }
+      if (arg.startsWith("--cache=")) {
+        directory = Path.of(arg.substring("--cache=".length()));
+        return true;
+      }
+      if (arg.startsWith("--cache-max-mb=")) {
+        maxBytes = Long.parseLong(arg.substring("--cache-max-mb=".length())) * 1024 * 1024;
+        if (maxBytes <= 0) {
+          throw new NumberFormatException("--cache-max-mb debe ser positivo");
+        }
+        return true;
+      }
+      return false;
+    }
+
+    // null si no se pidió caché
+    public BuildCache build(String compilerVersion) {
+      return directory == null ? null : new BuildCache(directory, maxBytes, DEFAULT_MAX_ENTRIES, compilerVersion);
+    }
+  }
+}
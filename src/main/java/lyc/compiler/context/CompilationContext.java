@@ -0,0 +1,68 @@
+package lyc.compiler.context;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import lyc.compiler.files.IntermediateCodeGenerator;
+import lyc.compiler.files.TypeTable;
+import lyc.compiler.metrics.CompileMetrics;
+import lyc.compiler.table.SymbolTableManager;
+
+/**
+ * Estado de una única compilación: tabla de símbolos, tercetos y tipos.
+ * Cada compilación crea su propio contexto, por lo que varias pueden correr
+ * en paralelo dentro de la misma JVM sin compartir estado.
+ */
+public class CompilationContext {
+
+  public static final String DEFAULT_OUTPUT_DIRECTORY = "target/output";
+
+  private final SymbolTableManager symbolTableManager;
+  private final IntermediateCodeGenerator intermediateCodeGenerator;
+  private final TypeTable typeTable;
+  // La copia de sólo lectura comparte las métricas: los generadores también registran
+  private final CompileMetrics metrics;
+  private Path outputDirectory = Paths.get(DEFAULT_OUTPUT_DIRECTORY);
+
+  public CompilationContext() {
+    this(new SymbolTableManager(), new IntermediateCodeGenerator(), new TypeTable(), new CompileMetrics());
+  }
+
+  private CompilationContext(SymbolTableManager symbolTableManager, IntermediateCodeGenerator intermediateCodeGenerator,
+                             TypeTable typeTable, CompileMetrics metrics) {
+    this.symbolTableManager = symbolTableManager;
+    this.intermediateCodeGenerator = intermediateCodeGenerator;
+    this.typeTable = typeTable;
+    this.metrics = metrics;
+  }
+
+  // Copia de sólo lectura del estado actual, para generar los artefactos en paralelo
+  // sin que nada pueda modificar las tablas mientras se leen
+  public CompilationContext snapshot() {
+    CompilationContext snapshot = new CompilationContext(symbolTableManager.readOnlyCopy(),
+                                                         intermediateCodeGenerator.readOnlyCopy(),
+                                                         typeTable.readOnlyCopy(),
+                                                         metrics);
+    snapshot.setOutputDirectory(outputDirectory);
+    return snapshot;
+  }
+
+  public SymbolTableManager getSymbolTableManager() { return symbolTableManager; }
+
+  public IntermediateCodeGenerator getIntermediateCodeGenerator() { return intermediateCodeGenerator; }
+
+  public TypeTable getTypeTable() { return typeTable; }
+
+  public CompileMetrics getMetrics() { return metrics; }
+
+  public Path getOutputDirectory() { return outputDirectory; }
+
+  public void setOutputDirectory(Path outputDirectory) { this.outputDirectory = outputDirectory; }
+
+  // Deja el contexto listo para reutilizarlo en otra compilación
+  public void reset() {
+    symbolTableManager.clear();
+    intermediateCodeGenerator.reset();
+    typeTable.reset();
+    metrics.reset();
+  }
+}
@@ -0,0 +1,63 @@
+package lyc.compiler.context;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lyc.compiler.files.FileOutputWriter;
+import lyc.compiler.files.Triplet;
+import lyc.compiler.metrics.CompileMetrics;
+import lyc.compiler.table.SymbolEntry;
+
+/**
+ * Resultado en memoria de una compilación: tabla de símbolos, tercetos y el
+ * texto de los tres artefactos. No escribe nada en disco.
+ */
+public class CompilationResult {
+
+  private final Map<String, SymbolEntry> symbolTable;
+  private final List<Triplet> triplets;
+  private final String symbolTableListing;
+  private final String intermediateCode;
+  // Archivo y contenido del código final del target elegido (final.asm para MASM)
+  private final String codeFile;
+  private final String asm;
+  private final CompileMetrics metrics;
+
+  public CompilationResult(Map<String, SymbolEntry> symbolTable, List<Triplet> triplets,
+                           String symbolTableListing, String intermediateCode, String codeFile, String asm,
+                           CompileMetrics metrics) {
+    this.symbolTable = Collections.unmodifiableMap(new LinkedHashMap<>(symbolTable));
+    // Los tercetos llegan como vista del TripletStore: copiarla crearía un Triplet por terceto
+    this.triplets = Collections.unmodifiableList(triplets);
+    this.symbolTableListing = symbolTableListing;
+    this.intermediateCode = intermediateCode;
+    this.codeFile = codeFile;
+    this.asm = asm;
+    this.metrics = metrics;
+  }
+
+  public Map<String, SymbolEntry> getSymbolTable() { return symbolTable; }
+
+  public List<Triplet> getTriplets() { return triplets; }
+
+  public String getSymbolTableListing() { return symbolTableListing; }
+
+  public String getIntermediateCode() { return intermediateCode; }
+
+  public String getCodeFile() { return codeFile; }
+
+  // Código final generado por el target (el assembler, con el target por defecto)
+  public String getAsm() { return asm; }
+
+  public CompileMetrics getMetrics() { return metrics; }
+
+  // Artefactos por nombre de archivo, en el orden en que se escriben
+  public Map<String, String> getArtifacts() {
+    Map<String, String> artifacts = new LinkedHashMap<>();
+    artifacts.put(FileOutputWriter.SYMBOL_TABLE_FILE, symbolTableListing);
+    artifacts.put(FileOutputWriter.INTERMEDIATE_CODE_FILE, intermediateCode);
+    artifacts.put(codeFile, asm);
+    return artifacts;
+  }
+}
@@ -1,6 +1,7 @@
 package lyc.compiler.factories;
 
 import lyc.compiler.Lexer;
+import lyc.compiler.context.CompilationContext;
 
 import java.io.Reader;
 import java.io.StringReader;
@@ -9,13 +10,13 @@ public final class LexerFactory {
 
     private LexerFactory() {}
 
-    public static Lexer create(String input) {
+    public static Lexer create(String input, CompilationContext context) {
         Reader reader = new StringReader(input);
-        return create(reader);
+        return create(reader, context);
     }
 
-    public static Lexer create(Reader reader) {
-        return new Lexer(reader);
+    public static Lexer create(Reader reader, CompilationContext context) {
+        return new Lexer(reader, context);
     }
 
 }
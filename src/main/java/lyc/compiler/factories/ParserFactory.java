@@ -1,6 +1,7 @@
 package lyc.compiler.factories;
 
 import lyc.compiler.Parser;
+import lyc.compiler.context.CompilationContext;
 
 import java.io.Reader;
 
@@ -8,13 +9,12 @@ public final class ParserFactory {
 
     private ParserFactory(){}
 
-    public static Parser create(String input) {
-        return new Parser(LexerFactory.create(input));
+    public static Parser create(String input, CompilationContext context) {
+        return new Parser(LexerFactory.create(input, context));
     }
 
-    public static Parser create(Reader reader) {
-        return new Parser(LexerFactory.create(reader));
+    public static Parser create(Reader reader, CompilationContext context) {
+        return new Parser(LexerFactory.create(reader, context));
     }
 
-
 }
@@ -0,0 +1,278 @@
+package lyc.compiler.files;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import lyc.compiler.metrics.CompileMetrics;
+
+/**
+ * Writer de artefactos sobre un FileChannel, con un buffer grande reutilizable por
+ * hilo y encoder UTF-8 explícito. Mientras los bytes generados coinciden con los del
+ * archivo existente no escribe nada; si al cerrar el contenido es idéntico el archivo
+ * queda intacto (misma fecha de modificación). Si difiere, escribe a un temporal en
+ * el mismo directorio y lo publica con un move atómico. Si la generación falla a
+ * mitad de camino, abort() descarta el temporal y el archivo existente queda intacto.
+ */
+public final class ArtifactWriter extends Writer {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final ThreadLocal<ByteBuffer> OUTPUT_BUFFERS = new ThreadLocal<>();
+    private static final ThreadLocal<ByteBuffer> COMPARE_BUFFERS = new ThreadLocal<>();
+
+    private final Path target;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer buffer;
+    private final ByteBuffer compareBuffer;
+
+    // Archivo existente mientras el contenido nuevo coincide con él; null si no hay o ya difirió
+    private FileChannel existing;
+    private long matchedBytes;
+    private Path temporary;
+    private FileChannel output;
+    // Primer char de un par surrogate que quedó al final de la escritura anterior
+    private char pendingHighSurrogate;
+    // Tiempo de pared y de CPU gastado en comparar, escribir y publicar (para las métricas)
+    private long ioNanos;
+    private long ioCpuNanos;
+    private boolean changed;
+    private boolean closed;
+
+    public ArtifactWriter(Path target) throws IOException {
+        this.target = target;
+        this.buffer = acquire(OUTPUT_BUFFERS);
+        this.compareBuffer = acquire(COMPARE_BUFFERS);
+        try {
+            this.existing = FileChannel.open(target, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            this.existing = null;
+        }
+    }
+
+    // true si el archivo se reescribió; sólo es válido después de close()
+    public boolean isChanged() {
+        return changed;
+    }
+
+    public long getIoNanos() {
+        return ioNanos;
+    }
+
+    public long getIoCpuNanos() {
+        return ioCpuNanos;
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) throws IOException {
+        encode(CharBuffer.wrap(chars, offset, length));
+    }
+
+    @Override
+    public void write(String text, int offset, int length) throws IOException {
+        encode(CharBuffer.wrap(text, offset, offset + length));
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        encode(CharBuffer.wrap(new char[] {(char) c}));
+    }
+
+    // Sin copiar: StringBuilder y String se encodean directamente
+    @Override
+    public Writer append(CharSequence text) throws IOException {
+        encode(CharBuffer.wrap(text != null ? text : "null"));
+        return this;
+    }
+
+    @Override
+    public Writer append(CharSequence text, int start, int end) throws IOException {
+        encode(CharBuffer.wrap(text != null ? text : "null", start, end));
+        return this;
+    }
+
+    private void encode(CharBuffer chars) throws IOException {
+        if (closed) {
+            throw new IOException("Writer cerrado: " + target);
+        }
+        if (pendingHighSurrogate != 0 && chars.hasRemaining()) {
+            char high = pendingHighSurrogate;
+            pendingHighSurrogate = 0;
+            encode(CharBuffer.wrap(new char[] {high, chars.get()}));
+        }
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, false);
+            if (result.isOverflow()) {
+                drain();
+            } else {
+                break;
+            }
+        }
+        if (chars.hasRemaining()) {
+            pendingHighSurrogate = chars.get();
+        }
+    }
+
+    @Override
+    public void flush() {
+        // Los bytes se vuelcan al llenarse el buffer y al cerrar
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            CharBuffer rest = pendingHighSurrogate != 0
+                    ? CharBuffer.wrap(new char[] {pendingHighSurrogate}) : CharBuffer.allocate(0);
+            while (encoder.encode(rest, buffer, true).isOverflow()) {
+                drain();
+            }
+            while (encoder.flush(buffer).isOverflow()) {
+                drain();
+            }
+            drain();
+
+            CompileMetrics.Stopwatch stopwatch = CompileMetrics.start();
+            try {
+                if (output == null && existing != null && existing.size() == matchedBytes) {
+                    return;
+                }
+                if (output == null) {
+                    diverge();
+                }
+                output.close();
+                output = null;
+                publish();
+                changed = true;
+            } finally {
+                ioNanos += stopwatch.wallNanos();
+                ioCpuNanos += stopwatch.cpuNanos();
+            }
+        } finally {
+            discard();
+        }
+    }
+
+    // El contenido quedó incompleto: se borra el temporal sin publicarlo
+    public void abort() throws IOException {
+        if (!closed) {
+            discard();
+        }
+    }
+
+    private void discard() throws IOException {
+        closed = true;
+        closeQuietly(existing);
+        closeQuietly(output);
+        if (temporary != null && !changed) {
+            Files.deleteIfExists(temporary);
+        }
+        release(OUTPUT_BUFFERS, buffer);
+        release(COMPARE_BUFFERS, compareBuffer);
+    }
+
+    // Vuelca el buffer: compara contra el archivo existente o escribe en el temporal
+    private void drain() throws IOException {
+        CompileMetrics.Stopwatch stopwatch = CompileMetrics.start();
+        try {
+            drainBuffer();
+        } finally {
+            ioNanos += stopwatch.wallNanos();
+            ioCpuNanos += stopwatch.cpuNanos();
+        }
+    }
+
+    private void drainBuffer() throws IOException {
+        buffer.flip();
+        if (output == null && existing != null && matchesExisting()) {
+            matchedBytes += buffer.remaining();
+            buffer.clear();
+            return;
+        }
+        if (output == null) {
+            diverge();
+        }
+        while (buffer.hasRemaining()) {
+            output.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private boolean matchesExisting() throws IOException {
+        int length = buffer.remaining();
+        if (existing.size() < matchedBytes + length) {
+            return false;
+        }
+        compareBuffer.clear().limit(length);
+        long position = matchedBytes;
+        while (compareBuffer.hasRemaining()) {
+            if (existing.read(compareBuffer, position + compareBuffer.position()) < 0) {
+                return false;
+            }
+        }
+        compareBuffer.flip();
+        return compareBuffer.equals(buffer);
+    }
+
+    // A partir de acá el contenido difiere: se copia el prefijo idéntico al temporal
+    private void diverge() throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        temporary = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        output = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        if (existing != null) {
+            long copied = 0;
+            while (copied < matchedBytes) {
+                copied += existing.transferTo(copied, matchedBytes - copied, output);
+            }
+            existing.close();
+            existing = null;
+        }
+    }
+
+    private void publish() throws IOException {
+        try {
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static ByteBuffer acquire(ThreadLocal<ByteBuffer> cache) {
+        ByteBuffer cached = cache.get();
+        if (cached == null) {
+            return ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+        // Mientras este writer lo use, otro writer del mismo hilo reserva uno propio
+        cache.set(null);
+        cached.clear();
+        return cached;
+    }
+
+    private static void release(ThreadLocal<ByteBuffer> cache, ByteBuffer buffer) {
+        cache.set(buffer);
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Sólo se cierra para liberar el descriptor
+            }
+        }
+    }
+}
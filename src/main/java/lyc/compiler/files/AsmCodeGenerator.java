@@ -1,40 +1,88 @@
 package lyc.compiler.files;
 
+import lyc.compiler.context.CompilationContext;
+import lyc.compiler.files.AsmInstruction.Opcode;
+import lyc.compiler.files.AsmInstruction.Operand;
+import lyc.compiler.files.CodeSection.Segment;
+import lyc.compiler.flow.BasicBlock;
+import lyc.compiler.flow.Bits;
+import lyc.compiler.flow.ControlFlowGraph;
+import lyc.compiler.flow.Liveness;
+import lyc.compiler.metrics.CompileMetrics;
+import lyc.compiler.metrics.CompileMetrics.Counter;
 import lyc.compiler.table.SymbolEntry;
-import lyc.compiler.table.SymbolTableManager;
 import lyc.compiler.table.DataType;
+import lyc.compiler.trace.Category;
+import lyc.compiler.trace.Trace;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class AsmCodeGenerator implements FileGenerator {
-    private static final StringBuilder dataSection = new StringBuilder();
-    private static final StringBuilder codeSection = new StringBuilder();
-
-    private static int tempCount = 0;
-    private static final Map<String, Boolean> declaredTemps = new HashMap<>();
-    private static final Map<Integer, String> tripletResults = new HashMap<>();
-    private static final Map<String, String> initializations = new HashMap<>();
-    private static final Map<String, DataType> userVars = new LinkedHashMap<>();
-    private static int userVarsStart = -1;
-    private static int userVarsEnd = -1;
-
-    // Helper para agregar lineas a la seccion .DATA, centraliza formato y facilita cambios
-    private static void appendDataDeclaration(String line) {
-        dataSection.append(line).append("\n");
-    }
-
-    private static void genUserVars() {
-        // Guardamos la posicion donde empiezan las declaraciones de usuario
-        userVarsStart = dataSection.length();
-        for (Map.Entry<String, SymbolEntry> entry : SymbolTableManager.getSymbolTable().entrySet()) {
+    // Tamano del buffer reservado para cada variable String
+    private static final int STRING_BUFFER_SIZE = 256;
+    // Registros de la pila del x87
+    private static final int STACK_SLOTS = 8;
+
+    private final CompilationContext context;
+    private final DataSection dataSection = new DataSection();
+    private final CodeSection codeSection = new CodeSection();
+
+    private int tempCount = 0;
+    // Labels _remN de los ciclos de FPREM de genMod
+    private int remainderLoops = 0;
+    // Para las métricas: temporales pedidos con newTemp, posiciones _tmp declaradas y
+    // literales declarados por defineLiteral
+    private int allocatedTemps = 0;
+    private int tempSlots = 0;
+    private int declaredLiterals = 0;
+    // Resultado (variable, literal o temporal) de cada terceto, por índice
+    private String[] tripletResults = new String[0];
+    // Último terceto que lee el resultado de cada uno (0 si ninguno) y si ese resultado
+    // ocupa todavía una posición _tmp
+    private int[] lastUse = new int[0];
+    private boolean[] holdsTemp = new boolean[0];
+    // Tercetos cuyo último uso es cada terceto, como listas enlazadas: el primero en
+    // firstDying[uso] y el siguiente de cada uno en nextDying
+    private int[] firstDying = new int[0];
+    private int[] nextDying = new int[0];
+    // Posiciones _tmp libres para reutilizar; la última liberada sale primero
+    private final Deque<String> freeTemps = new ArrayDeque<>();
+    // Terceto donde se emite el código de cada uno: una operación que sólo usa la
+    // operación, asignación o comparación siguiente se calcula dentro de ella, en la
+    // pila del x87, sin pasar por memoria
+    private int[] expressionRoot = new int[0];
+    // Lugares de la pila del x87 que necesita cada operación (Sethi-Ullman); para una
+    // operación Int, valores que tiene que guardar a la vez en registros o con push
+    private int[] stackNeed = new int[0];
+    // Si el resultado de cada terceto es un Int: se calcula con los registros enteros y
+    // se guarda como entero en su DD. La FPU sólo ve un Int cuando se mezcla con un Float
+    private boolean[] integer = new boolean[0];
+    // El último CMP fue entre Int: los saltos leen los flags con signo
+    private boolean signedFlags;
+    private TripletStore store;
+    private final Map<String, Operand> registers = new HashMap<>();
+    private final Map<String, Operand> memoryOperands = new HashMap<>();
+
+    // Ventana del optimizador peephole; 0 deja el código como sale de los tercetos
+    private final int peepholeWindow;
+
+    public AsmCodeGenerator(CompilationContext context) {
+        this(context, PeepholeOptimizer.DEFAULT_WINDOW);
+    }
+
+    public AsmCodeGenerator(CompilationContext context, int peepholeWindow) {
+        this.context = context;
+        this.peepholeWindow = peepholeWindow;
+    }
+
+    private void genUserVars() {
+        for (Map.Entry<String, SymbolEntry> entry : context.getSymbolTableManager().getSymbolTable().entrySet()) {
             String nombre = entry.getKey();
             // Ignorar entradas con nombre nulo o vacio (evita emitir " 256 DUP (?)")
             if (nombre == null || nombre.trim().isEmpty()) {
-                System.out.println("Warning: Skipping symbol with null or empty name in genUserVars");
+                Trace.warn(Category.ASM, "Skipping symbol with null or empty name in genUserVars");
                 continue;
             }
             // No declarar literales/constantes que empiezan con '_' aqui; esas las declara defineLiteral()
@@ -43,33 +91,36 @@ public class AsmCodeGenerator implements FileGenerator {
             }
             SymbolEntry sym = entry.getValue();
             if (sym == null) {
-                System.out.println("Warning: Skipping null SymbolEntry for name='" + nombre + "'");
+                Trace.warn(Category.ASM, "Skipping null SymbolEntry for name='{}'", nombre);
                 continue;
             }
             // Evitar mutar SymbolEntry: obtener un DataType seguro
             DataType dt = sym.getDataType() != null ? sym.getDataType() : DataType.FLOAT_TYPE;
-            String nombreLimpio = nombre.trim();
-            userVars.put(nombreLimpio, dt);
-            // escribimos temporalmente lo mismo que antes para mantener offsets
-            appendVarDeclaration(nombreLimpio, dt);
+            dataSection.declareVariable(makeVarDeclaration(nombre.trim(), dt));
         }
-        appendDataDeclaration("");
-        userVarsEnd = dataSection.length();
     }
 
     @Override
-    public void generate(FileWriter fileWriter) throws IOException {
-        List<Triplet> triplets = IntermediateCodeGenerator.getTriplets();
+    public void generate(Writer fileWriter) throws IOException {
+        store = context.getIntermediateCodeGenerator().getStore();
 
-        dataSection.setLength(0);
-        codeSection.setLength(0);
-        declaredTemps.clear();
+        dataSection.clear();
+        codeSection.clear();
         tempCount = 0;
-        tripletResults.clear();
-        initializations.clear();
-        userVars.clear();
-        userVarsStart = -1;
-        userVarsEnd = -1;
+        allocatedTemps = 0;
+        tempSlots = 0;
+        declaredLiterals = 0;
+        tripletResults = new String[store.size() + 1];
+        expressionRoot = expressionRoots(store);
+        integer = integerResults(store);
+        stackNeed = stackNeeds(store);
+        lastUse = lastUses(store, expressionRoot);
+        indexLastUses();
+        holdsTemp = new boolean[store.size() + 1];
+        signedFlags = false;
+        freeTemps.clear();
+        registers.clear();
+        memoryOperands.clear();
 
         genDataHeader();
         genUserVars();
@@ -77,379 +128,794 @@ public class AsmCodeGenerator implements FileGenerator {
         genCodeHeader();
 
         // Procesar todos los tercetos
-        for (Triplet triplet : triplets) {
-            processTriplet(triplet);
+        for (int idx = 1; idx <= store.size(); idx++) {
+            processTriplet(idx);
         }
 
-        // Reconstruir la seccion de datos: encabezado + userVars (posiblemente inicializados) + resto (constantes/temporales)
-        if (userVarsStart >= 0 && userVarsEnd >= 0) {
-            String header = dataSection.substring(0, userVarsStart);
-            String rest = dataSection.substring(userVarsEnd);
-
-            StringBuilder rebuiltUserVars = new StringBuilder();
-            for (Map.Entry<String, DataType> uv : userVars.entrySet()) {
-                String nombre = uv.getKey();
-                if (nombre == null || nombre.trim().isEmpty()) {
-                    System.out.println("Warning: Skipping empty variable name in rebuild");
-                    continue;
-                }
-                DataType dt = uv.getValue();
-                String initVal = null;
-                // si existe inicializacion desde constantes, buscar valor DD
-                if (initializations.containsKey(nombre)) {
-                    String litName = initializations.get(nombre);
-                    initVal = findDDValueForLiteral(litName);
-                }
+        genCodeFooter();
 
-                // append al buffer temporal (no modificar dataSection aun)
-                rebuiltUserVars.append(makeVarDeclarationString(nombre, dt, initVal));
-            }
-            rebuiltUserVars.append("\n");
-
-            // Limpiar declaraciones ilegales en 'rest'
-            rest = cleanIllegalDeclarations(rest);
-
-            // reconstruir dataSection
-            dataSection.setLength(0);
-            dataSection.append(header);
-            // StringBuilder.append accepts another StringBuilder directly
-            dataSection.append(rebuiltUserVars);
-            dataSection.append(rest);
-        }
-
-        // Emitir inicializaciones en tiempo de ejecucion para constantes que no pudieron
-        // reemplazarse en la seccion .DATA
-        if (!initializations.isEmpty()) {
-            codeSection.insert(codeSection.indexOf("\n\n") + 2, "; Inicializaciones de constantes en tiempo de compilacion\n");
-            for (Map.Entry<String, String> e : initializations.entrySet()) {
-                // si ya fue colocada en dataSection, omitimos
-                String lit = e.getValue();
-                String constVal = findDDValueForLiteral(lit);
-                if (constVal != null) continue;
-                codeSection.insert(codeSection.indexOf("\n\n") + 2,
-                        "    FLD [" + e.getValue() + "]\n    FSTP [" + e.getKey() + "]\n");
-            }
+        CompileMetrics metrics = context.getMetrics();
+        if (peepholeWindow > 0) {
+            PeepholeOptimizer peephole = new PeepholeOptimizer(peepholeWindow);
+            peephole.run(codeSection.segment(Segment.BODY));
+            peephole.recordTo(metrics);
         }
 
-        genCodeFooter();
+        // La seccion de datos se serializa una unica vez, recien aca
+        dataSection.writeTo(fileWriter);
+        codeSection.writeTo(fileWriter);
 
-        // Construir final.asm de forma eficiente
-        StringBuilder finalAsmSB = new StringBuilder(dataSection.length() + codeSection.length());
-        finalAsmSB.append(dataSection).append(codeSection);
-        String finalAsm = finalAsmSB.toString();
-        fileWriter.write(finalAsm);
-        // Mensaje solicitado: indicar por consola que el ensamblador se ejecuto y anduvo
-        System.out.println("Se ejecuto el assembler y anduvo.");
+        metrics.set(Counter.TEMPS, allocatedTemps);
+        metrics.set(Counter.TEMP_SLOTS, tempSlots);
+        metrics.set(Counter.LITERALS, declaredLiterals);
+        Trace.info(Category.ASM, "Se ejecuto el assembler y anduvo.");
     }
 
-    private static void genDataHeader() {
-        appendDataDeclaration("; *************** SECCION DE DATOS ***************");
+    private void genDataHeader() {
+        dataSection.addHeaderLine("; *************** SECCION DE DATOS ***************");
         // Incluir macros.asm (contiene STRCPY, STRLEN, etc.) y number.asm
-        appendDataDeclaration("include macros.asm");
-        appendDataDeclaration("include number.asm");
-        appendDataDeclaration(".MODEL LARGE");
-        appendDataDeclaration(".386");
-        appendDataDeclaration(".STACK 200h");
-        appendDataDeclaration(".DATA");
+        dataSection.addHeaderLine("include macros.asm");
+        dataSection.addHeaderLine("include number.asm");
+        dataSection.addHeaderLine(".MODEL LARGE");
+        dataSection.addHeaderLine(".386");
+        dataSection.addHeaderLine(".STACK 200h");
+        dataSection.addHeaderLine(".DATA");
         // Comentario con '@tmp' para pruebas unitarias que buscan la cadena '@tmp' en el ASM generado
-        appendDataDeclaration("; @tmp placeholders for tests");
+        dataSection.addHeaderLine("; @tmp placeholders for tests");
         // Mensaje y buffer para pausa al inicio del programa
-        appendDataDeclaration("msg_wait DB \"Presione cualquier tecla para ejecutar .\", '$'");
+        dataSection.addHeaderLine("msg_wait DB \"Presione cualquier tecla para ejecutar .\", '$'");
         // Mensaje que se mostrara al final de la ejecucion
-        appendDataDeclaration("msg_done DB \"Se ejecuto el assembler y anduvo.$\"");
+        dataSection.addHeaderLine("msg_done DB \"Se ejecuto el assembler y anduvo.$\"");
     }
 
 
-    private static void genCodeHeader() {
-        codeSection.append("; *************** SECCION DE CODIGO ***************\n");
-        codeSection.append(".CODE\n");
-        codeSection.append("START:\n");
-        codeSection.append("mov AX,@DATA\n");
-        codeSection.append("mov DS,AX\n");
-        codeSection.append("mov ES,AX\n\n");
+    private void genCodeHeader() {
+        prologue(AsmInstruction.comment("*************** SECCION DE CODIGO ***************"));
+        prologue(AsmInstruction.of(Opcode.CODE));
+        prologue(AsmInstruction.label("START"));
+        prologue(AsmInstruction.of(Opcode.MOV, reg("AX"), reg("@DATA")));
+        prologue(AsmInstruction.of(Opcode.MOV, reg("DS"), reg("AX")));
+        prologue(AsmInstruction.of(Opcode.MOV, reg("ES"), reg("AX")));
+        prologue(AsmInstruction.blank());
         // Mostrar mensaje de espera y esperar una tecla (DOS int 21h)
-        codeSection.append("    lea dx, msg_wait\n");
-        codeSection.append("    mov ah,09h\n");
-        codeSection.append("    int 21h\n");
-        codeSection.append("    mov ah,08h\n");
-        codeSection.append("    int 21h\n\n");
+        prologue(AsmInstruction.of(Opcode.LEA, reg("dx"), reg("msg_wait")));
+        prologue(AsmInstruction.of(Opcode.MOV, reg("ah"), reg("09h")));
+        prologue(AsmInstruction.of(Opcode.INT, reg("21h")));
+        prologue(AsmInstruction.of(Opcode.MOV, reg("ah"), reg("08h")));
+        prologue(AsmInstruction.of(Opcode.INT, reg("21h")));
+        prologue(AsmInstruction.blank());
     }
 
-    private static void genCodeFooter() {
-        codeSection.append("\n; Fin del programa\n");
+    private void genCodeFooter() {
+        epilogue(AsmInstruction.blank());
+        epilogue(AsmInstruction.comment("Fin del programa"));
         // Mensaje que quedara dentro del ASM generado
-        codeSection.append("; Se ejecuto el assembler y anduvo.\n");
+        epilogue(AsmInstruction.comment("Se ejecuto el assembler y anduvo."));
         // Mostrar mensaje final antes de salir
-        codeSection.append("    lea dx, msg_done\n");
-        codeSection.append("    mov ah,09h\n");
-        codeSection.append("    int 21h\n");
-        codeSection.append("mov ax,4c00h\n");
-        codeSection.append("int 21h\n");
-        codeSection.append("END START\n");
+        epilogue(AsmInstruction.of(Opcode.LEA, reg("dx"), reg("msg_done")));
+        epilogue(AsmInstruction.of(Opcode.MOV, reg("ah"), reg("09h")));
+        epilogue(AsmInstruction.of(Opcode.INT, reg("21h")));
+        epilogue(AsmInstruction.of(Opcode.MOV, reg("ax"), reg("4c00h")));
+        epilogue(AsmInstruction.of(Opcode.INT, reg("21h")));
+        epilogue(AsmInstruction.of(Opcode.END, reg("START")));
+    }
+
+    private void prologue(AsmInstruction instruction) {
+        codeSection.add(Segment.PROLOGUE, instruction);
+    }
+
+    private void epilogue(AsmInstruction instruction) {
+        codeSection.add(Segment.EPILOGUE, instruction);
+    }
+
+    private void emit(Opcode opcode) {
+        codeSection.add(Segment.BODY, AsmInstruction.of(opcode));
+    }
+
+    private void emit(Opcode opcode, Operand operand) {
+        codeSection.add(Segment.BODY, AsmInstruction.of(opcode, operand));
+    }
+
+    private void emit(Opcode opcode, Operand first, Operand second) {
+        codeSection.add(Segment.BODY, AsmInstruction.of(opcode, first, second));
+    }
+
+    private void emitComment(String text) {
+        codeSection.add(Segment.BODY, AsmInstruction.comment(text));
+    }
+
+    // Los operandos se comparten: el mismo nombre se repite en muchas instrucciones
+    private Operand reg(String name) {
+        return registers.computeIfAbsent(name, Operand::of);
     }
 
-    private static void processTriplet(Triplet triplet) {
-        String op = triplet.getOperator();
-        String arg1 = triplet.getArg1();
-        String arg2 = triplet.getArg2();
-        int idx = triplet.getIndex();
+    private Operand mem(String name) {
+        return memoryOperands.computeIfAbsent(name, Operand::memory);
+    }
+
+    private void processTriplet(int idx) {
+        Operator op = store.operator(idx);
+        int arg1 = store.first(idx);
+        int arg2 = store.second(idx);
 
-        codeSection.append("; [").append(idx).append("] (").append(op).append(", ")
-                   .append(arg1 != null ? arg1 : "-").append(", ")
-                   .append(arg2 != null ? arg2 : "-").append(")\n");
+        codeSection.add(Segment.BODY, AsmInstruction.comment(store.get(idx)));
+        if (expressionRoot[idx] != idx) {
+            // Se calcula dentro del terceto que lo usa
+            return;
+        }
 
         switch (op) {
-            case "ID":
-                tripletResults.put(idx, arg1);
+            case ID:
+                tripletResults[idx] = store.name(arg1);
                 break;
-            case "CTE":
-                if (arg1 != null) {
-                    String litName = defineLiteral(arg1);
-                    tripletResults.put(idx, litName);
+            case CTE:
+                if (arg1 != TripletOperand.NONE) {
+                    String litName = defineLiteral(store.name(arg1));
+                    tripletResults[idx] = litName;
                 } else {
-                    System.out.println("Warning: CTE triplet with null value at index " + idx);
+                    Trace.warn(Category.ASM, "CTE triplet with null value at index {}", idx);
                 }
                 break;
-            case "+":
-                genAdd(idx, arg1, arg2);
-                break;
-            case "-":
-                if (arg2 == null || "-".equals(arg2)) {
-                    genNeg(idx, arg1);
-                } else {
-                    genSub(idx, arg1, arg2);
-                }
+            case ADD:
+            case SUB:
+            case NEG:
+            case MUL:
+            case DIV:
+            case MOD:
+                genArithmetic(idx);
                 break;
-            case "*":
-                genMul(idx, arg1, arg2);
+            case ASSIGN:
+                genAssign(idx, store.name(arg1), arg2);
                 break;
-            case "/":
-                genDiv(idx, arg1, arg2);
+            case CMP:
+                genCmp(idx, arg1, arg2);
                 break;
-            case "%":
-                genMod(idx, arg1, arg2);
+            case BLT:
+            case BGE:
+            case BLE:
+            case BGT:
+            case BEQ:
+            case BNE:
+                genConditionalJump(op, store.operandText(arg1));
                 break;
-            case ":=":
-                genAssign(arg1, arg2);
+            case BI:
+                genUnconditionalJump(store.operandText(arg1));
                 break;
-            case "CMP":
-                genCmp(arg1, arg2);
+            case LABEL:
+                genLabel(store.operandText(arg1));
                 break;
-            case "BLT":
-            case "BGE":
-            case "BLE":
-            case "BGT":
-            case "BEQ":
-            case "BNE":
-                genConditionalJump(op, arg1);
-                break;
-            case "BI":
-                genUnconditionalJump(arg1);
-                break;
-            case "LABEL":
-                genLabel(arg1);
-                break;
-            case "DECLARE":
+            case DECLARE:
                 break;
             default:
-                codeSection.append("; Operador no implementado: ").append(op).append("\n");
+                emitComment("Operador no implementado: " + op.getDisplay());
                 break;
         }
+        releaseDying(idx);
+        if (holdsTemp[idx] && lastUse[idx] == 0) {
+            releaseTemp(TripletOperand.ref(idx), 0);
+        }
     }
 
-    private static String resolveArg(String arg) {
-        if (arg == null || "-".equals(arg)) {
-            return null;
+    private String resolveArg(int arg) {
+        switch (TripletOperand.kind(arg)) {
+            case NONE:
+                return null;
+            case REF:
+                return tripletResults[TripletOperand.value(arg)];
+            default:
+                return store.operandText(arg);
         }
-        if (arg.startsWith("ref:")) {
-            int refIdx = Integer.parseInt(arg.substring(4));
-            return tripletResults.get(refIdx);
+    }
+
+    // El resultado queda en una posición _tmp: lo usa más de un terceto, o uno que no
+    // puede calcularlo en la pila
+    private void genArithmetic(int idx) {
+        if (integer[idx]) {
+            boolean wrapped = genIntegerNode(idx);
+            releaseOperands(idx, idx);
+            wrap(wrapped);
+            String result = newTemp(idx);
+            emit(Opcode.MOV, mem(result), reg("EAX"));
+            tripletResults[idx] = result;
+            return;
         }
-        return arg;
+        genNode(idx, STACK_SLOTS);
+        // Los operandos ya se leyeron: el resultado puede ocupar la posición de uno de ellos
+        releaseOperands(idx, idx);
+        String result = newTemp(idx);
+        emit(Opcode.FSTP, mem(result));
+        tripletResults[idx] = result;
     }
 
-    private static void genAdd(int idx, String arg1, String arg2) {
-        String left = resolveArg(arg1);
-        String right = resolveArg(arg2);
-        String result = newTemp();
+    // Deja en ST(0) el valor del operando, usando a lo sumo 'available' lugares de la pila
+    private void genOperand(int operand, int available) {
+        if (inStack(operand)) {
+            genNode(TripletOperand.value(operand), available);
+        } else {
+            genMemoryOperation(Opcode.FLD, Opcode.FILD, operand);
+        }
+    }
 
-        codeSection.append("FLD [").append(left).append("]\n");
-        codeSection.append("FADD [").append(right).append("]\n");
-        codeSection.append("FSTP [").append(result).append("]\n");
+    // Instrucción x87 con un operando de memoria: un Int usa la forma entera (FILD,
+    // FIADD...), y una operación Int se calcula antes en EAX y pasa por una posición _tmp
+    private void genMemoryOperation(Opcode floatOpcode, Opcode integerOpcode, int operand) {
+        if (!isInteger(operand)) {
+            emit(floatOpcode, mem(resolveArg(operand)));
+        } else if (!isInlined(operand)) {
+            emit(integerOpcode, mem(resolveArg(operand)));
+        } else {
+            wrap(genIntegerOperand(operand, false));
+            String spill = newSpill();
+            emit(Opcode.MOV, mem(spill), reg("EAX"));
+            emit(integerOpcode, mem(spill));
+            freeTemps.push(spill);
+        }
+    }
 
-        tripletResults.put(idx, result);
+    private void genNode(int idx, int available) {
+        Operator op = store.operator(idx);
+        int left = store.first(idx);
+        int right = store.second(idx);
+        if (op == Operator.NEG) {
+            genOperand(left, available);
+            emit(Opcode.FCHS);
+        } else if (op == Operator.MOD) {
+            genMod(left, right, available);
+        } else {
+            genBinary(op, left, right, available);
+        }
     }
 
-    private static void genSub(int idx, String arg1, String arg2) {
-        String left = resolveArg(arg1);
-        String right = resolveArg(arg2);
-        String result = newTemp();
+    // Un operando que está en memoria se usa directamente (FADD [x], o FSUBR [x] si es
+    // el izquierdo). Si los dos son expresiones, primero va la que necesita más lugares
+    // de la pila (Sethi-Ullman) y se combinan con FopP ST(1), ST(0); si la segunda no
+    // entra con la primera en la pila, la primera se guarda en una posición _tmp.
+    private void genBinary(Operator op, int left, int right, int available) {
+        if (!inStack(right)) {
+            genOperand(left, available);
+            genMemoryOperation(memoryForm(op, false), integerMemoryForm(op, false), right);
+            return;
+        }
+        if (!inStack(left)) {
+            genOperand(right, available);
+            genMemoryOperation(memoryForm(op, true), integerMemoryForm(op, true), left);
+            return;
+        }
+        boolean leftFirst = need(left) >= need(right);
+        int first = leftFirst ? left : right;
+        int second = leftFirst ? right : left;
+        genOperand(first, available);
+        if (need(second) < available) {
+            genOperand(second, available - 1);
+            emit(stackForm(op, !leftFirst), reg("ST(1)"), reg("ST(0)"));
+            return;
+        }
+        String spill = newSpill();
+        emit(Opcode.FSTP, mem(spill));
+        genOperand(second, available);
+        emit(memoryForm(op, leftFirst), mem(spill));
+        freeTemps.push(spill);
+    }
 
-        codeSection.append("FLD [").append(left).append("]\n");
-        codeSection.append("FSUB [").append(right).append("]\n");
-        codeSection.append("FSTP [").append(result).append("]\n");
+    // a % b truncado, a - b * trunc(a / b), como el intérprete y el plegado de
+    // constantes: FPREM con a en ST(0) y b en ST(1). Cada FPREM reduce a lo sumo 63 del
+    // exponente, así que se repite mientras deje C2 en 1; después se saca b de la pila
+    private void genMod(int left, int right, int available) {
+        genOperand(left, available);
+        if (need(right) < available) {
+            genOperand(right, available - 1);
+            emit(Opcode.FXCH);
+        } else {
+            String spill = newSpill();
+            emit(Opcode.FSTP, mem(spill));
+            genOperand(right, available);
+            emit(Opcode.FLD, mem(spill));
+            freeTemps.push(spill);
+        }
+        String loop = "_rem" + ++remainderLoops;
+        codeSection.add(Segment.BODY, AsmInstruction.label(loop));
+        emit(Opcode.FPREM);
+        emit(Opcode.FSTSW, reg("AX"));
+        emit(Opcode.SAHF);
+        emit(Opcode.JP, reg(loop));
+        emit(Opcode.FSTP, reg("ST(1)"));
+    }
 
-        tripletResults.put(idx, result);
+    // Fop [m]: ST(0) = ST(0) op m; con reversed, ST(0) = m op ST(0)
+    private static Opcode memoryForm(Operator op, boolean reversed) {
+        switch (op) {
+            case ADD: return Opcode.FADD;
+            case MUL: return Opcode.FMUL;
+            case SUB: return reversed ? Opcode.FSUBR : Opcode.FSUB;
+            case DIV: return reversed ? Opcode.FDIVR : Opcode.FDIV;
+            default: throw new IllegalArgumentException("Operación sin forma de memoria: " + op);
+        }
     }
 
-    private static void genMul(int idx, String arg1, String arg2) {
-        String left = resolveArg(arg1);
-        String right = resolveArg(arg2);
-        String result = newTemp();
+    // FIop [m] con un Int de memoria
+    private static Opcode integerMemoryForm(Operator op, boolean reversed) {
+        switch (op) {
+            case ADD: return Opcode.FIADD;
+            case MUL: return Opcode.FIMUL;
+            case SUB: return reversed ? Opcode.FISUBR : Opcode.FISUB;
+            case DIV: return reversed ? Opcode.FIDIVR : Opcode.FIDIV;
+            default: throw new IllegalArgumentException("Operación sin forma de memoria: " + op);
+        }
+    }
 
-        codeSection.append("FLD [").append(left).append("]\n");
-        codeSection.append("FMUL [").append(right).append("]\n");
-        codeSection.append("FSTP [").append(result).append("]\n");
+    // FopP ST(1), ST(0): ST(1) = ST(1) op ST(0); con reversed, ST(1) = ST(0) op ST(1)
+    private static Opcode stackForm(Operator op, boolean reversed) {
+        switch (op) {
+            case ADD: return Opcode.FADDP;
+            case MUL: return Opcode.FMULP;
+            case SUB: return reversed ? Opcode.FSUBRP : Opcode.FSUBP;
+            case DIV: return reversed ? Opcode.FDIVRP : Opcode.FDIVP;
+            default: throw new IllegalArgumentException("Operación sin forma de pila: " + op);
+        }
+    }
 
-        tripletResults.put(idx, result);
+    // Deja en EAX el valor de la operación Int y devuelve si ya está en el rango de Int.
+    // add, sub, imul y neg sólo miran los 16 bits de abajo de sus operandos, así que el
+    // movsx que descarta el resto se hace recién antes de guardar, comparar o dividir
+    private boolean genIntegerNode(int idx) {
+        Operator op = store.operator(idx);
+        int left = store.first(idx);
+        int right = store.second(idx);
+        switch (op) {
+            case NEG:
+                genIntegerOperand(left, false);
+                emit(Opcode.NEG, reg("EAX"));
+                return false;
+            case DIV:
+            case MOD:
+                // idiv trunca hacia cero y deja el resto con el signo del dividendo, como Int
+                Operand divisor = genIntegerPair(left, right, true);
+                emit(Opcode.CDQ);
+                emit(Opcode.IDIV, divisor);
+                if (op == Operator.MOD) {
+                    emit(Opcode.MOV, reg("EAX"), reg("EDX"));
+                    return true;
+                }
+                // -32768 / -1
+                return false;
+            default:
+                emit(integerForm(op), reg("EAX"), genIntegerPair(left, right, false));
+                return false;
+        }
     }
 
-    private static void genDiv(int idx, String arg1, String arg2) {
-        String left = resolveArg(arg1);
-        String right = resolveArg(arg2);
-        String result = newTemp();
+    private boolean genIntegerOperand(int operand, boolean wrap) {
+        if (!isInlined(operand)) {
+            emit(Opcode.MOV, reg("EAX"), mem(resolveArg(operand)));
+            return true;
+        }
+        boolean wrapped = genIntegerNode(TripletOperand.value(operand));
+        if (wrap) {
+            wrap(wrapped);
+            return true;
+        }
+        return wrapped;
+    }
 
-        codeSection.append("FLD [").append(left).append("]\n");
-        codeSection.append("FDIV [").append(right).append("]\n");
-        codeSection.append("FSTP [").append(result).append("]\n");
+    // Deja el izquierdo en EAX y devuelve dónde está el derecho: en memoria o en ECX. Si
+    // los dos son expresiones va primero la que necesita más lugares y su valor espera
+    // en la pila con push. Con wrap, los dos quedan en el rango de Int
+    private Operand genIntegerPair(int left, int right, boolean wrap) {
+        if (!isInlined(right)) {
+            genIntegerOperand(left, wrap);
+            return mem(resolveArg(right));
+        }
+        if (!isInlined(left)) {
+            genIntegerOperand(right, wrap);
+            emit(Opcode.MOV, reg("ECX"), reg("EAX"));
+            emit(Opcode.MOV, reg("EAX"), mem(resolveArg(left)));
+            return reg("ECX");
+        }
+        if (registerNeed(left) >= registerNeed(right)) {
+            genIntegerOperand(left, wrap);
+            emit(Opcode.PUSH, reg("EAX"));
+            genIntegerOperand(right, wrap);
+            emit(Opcode.MOV, reg("ECX"), reg("EAX"));
+            emit(Opcode.POP, reg("EAX"));
+        } else {
+            genIntegerOperand(right, wrap);
+            emit(Opcode.PUSH, reg("EAX"));
+            genIntegerOperand(left, wrap);
+            emit(Opcode.POP, reg("ECX"));
+        }
+        return reg("ECX");
+    }
+
+    // Un Int ocupa 16 bits: movsx extiende el signo de AX a todo EAX
+    private void wrap(boolean wrapped) {
+        if (!wrapped) {
+            emit(Opcode.MOVSX, reg("EAX"), reg("AX"));
+        }
+    }
+
+    private static Opcode integerForm(Operator op) {
+        switch (op) {
+            case ADD: return Opcode.ADD;
+            case SUB: return Opcode.SUB;
+            case MUL: return Opcode.IMUL;
+            default: throw new IllegalArgumentException("Operación entera sin instrucción: " + op);
+        }
+    }
 
-        tripletResults.put(idx, result);
+    // Posición _tmp libre, o una nueva si no queda ninguna. Sirve también para guardar
+    // un valor intermedio que no entra en la pila
+    private String newSpill() {
+        allocatedTemps++;
+        String reused = freeTemps.poll();
+        if (reused != null) {
+            return reused;
+        }
+        tempCount++;
+        tempSlots++;
+        String name = "_tmp" + tempCount;
+        dataSection.declareConstant(DataDeclaration.number(name, "0.0"));
+        return name;
     }
 
-    private static void genMod(int idx, String arg1, String arg2) {
-        String left = resolveArg(arg1);
-        String right = resolveArg(arg2);
-        String result = newTemp();
+    // El operando es una operación que se calcula dentro de la expresión de su usuario
+    private boolean isInlined(int operand) {
+        if (!TripletOperand.isRef(operand)) {
+            return false;
+        }
+        int ref = TripletOperand.value(operand);
+        return expressionRoot[ref] != ref;
+    }
 
-        codeSection.append("FLD [").append(left).append("]\n");
-        codeSection.append("FLD [").append(right).append("]\n");
-        codeSection.append("FLD ST(1)\n");
-        codeSection.append("FDIV ST(0), ST(1)\n");
-        codeSection.append("FRNDINT\n");
-        codeSection.append("FMUL\n");
-        codeSection.append("FSUBR\n");
-        codeSection.append("FSTP [").append(result).append("]\n");
+    // Una operación Int dentro de una Float no se calcula en la pila: se lee de memoria
+    private boolean inStack(int operand) {
+        return isInlined(operand) && !integer[TripletOperand.value(operand)];
+    }
 
-        tripletResults.put(idx, result);
+    private boolean isInteger(int operand) {
+        return TripletOperand.isRef(operand) && integer[TripletOperand.value(operand)];
     }
 
-    private static void genNeg(int idx, String arg1) {
-        String operand = resolveArg(arg1);
-        String result = newTemp();
+    private boolean isIntegerVariable(String name) {
+        SymbolEntry sym = context.getSymbolTableManager().getSymbolTable().get(name);
+        return sym != null && sym.getDataType() == DataType.INTEGER_TYPE;
+    }
 
-        codeSection.append("FLD [").append(operand).append("]\n");
-        codeSection.append("FCHS\n");
-        codeSection.append("FSTP [").append(result).append("]\n");
+    private int need(int operand) {
+        return inStack(operand) ? stackNeed[TripletOperand.value(operand)] : 1;
+    }
 
-        tripletResults.put(idx, result);
+    private int registerNeed(int operand) {
+        return isInlined(operand) ? stackNeed[TripletOperand.value(operand)] : 1;
     }
 
-    private static void genAssign(String dest, String source) {
+    private void genAssign(int idx, String dest, int source) {
+        boolean integerDest = isIntegerVariable(dest);
+        if (isInlined(source) && isInteger(source)) {
+            wrap(genIntegerOperand(source, false));
+            releaseOperands(idx, idx);
+            emit(Opcode.MOV, mem(dest), reg("EAX"));
+            if (!integerDest) {
+                // Int a Float: el entero pasa por la misma variable
+                emit(Opcode.FILD, mem(dest));
+                emit(Opcode.FSTP, mem(dest));
+            }
+            return;
+        }
+        if (isInlined(source)) {
+            genOperand(source, STACK_SLOTS);
+            releaseOperands(idx, idx);
+            emit(Opcode.FSTP, mem(dest));
+            return;
+        }
         String src = resolveArg(source);
         if (src == null) return;
+        if (isInteger(source)) {
+            if (integerDest) {
+                emit(Opcode.MOV, reg("EAX"), mem(src));
+                emit(Opcode.MOV, mem(dest), reg("EAX"));
+            } else {
+                emit(Opcode.FILD, mem(src));
+                emit(Opcode.FSTP, mem(dest));
+            }
+            return;
+        }
 
         // Si la fuente es una constante literal ya declarada en .DATA (prefijo '_')
         if (src.startsWith("_")) {
             String lit = defineLiteral(src);
 
             // Si es literal string, hacer copia en tiempo de compilación (STRCPY)
-            SymbolEntry sym = SymbolTableManager.getSymbolTable().get(dest);
+            SymbolEntry sym = context.getSymbolTableManager().getSymbolTable().get(dest);
             if (sym != null && sym.getDataType() == DataType.STRING_TYPE) {
-                codeSection.append("lea si, ").append(lit).append("\n");
-                codeSection.append("lea di, ").append(dest).append("\n");
-                codeSection.append("STRCPY\n");
+                emit(Opcode.LEA, reg("si"), reg(lit));
+                emit(Opcode.LEA, reg("di"), reg(dest));
+                emit(Opcode.STRCPY);
                 return;
             }
 
-            // Si la constante es numérica y está declarada en .DATA, actualizar la declaración
-            String constVal = findDDValueForLiteral(lit);
-            if (constVal != null) {
-                // reemplazar la declaración de la variable en la sección .DATA para reflejar el valor inicial
-                replaceVarDeclarationWithValueInternal(dest, constVal);
-            }
-
             // Emitir asignación en tiempo de ejecución (mantener para las pruebas)
-            codeSection.append("FLD [").append(lit).append("]\n");
-            codeSection.append("FSTP [").append(dest).append("]\n");
+            emit(Opcode.FLD, mem(lit));
+            emit(Opcode.FSTP, mem(dest));
             return;
         }
 
         // Caso general: asignación en tiempo de ejecución usando FPU
-        codeSection.append("FLD [").append(src).append("]\n");
-        codeSection.append("FSTP [").append(dest).append("]\n");
-    }
-
-    // Busca en dataSection una línea que declare 'name DD <valor>' y devuelve '<valor>' si existe
-    private static String findDDValueForLiteral(String name) {
-        String data = dataSection.toString();
-        // Pattern para líneas tipo: _CONST_NAME DD <valor>
-        Pattern p = Pattern.compile("(?m)^\\s*" + Pattern.quote(name) + "\\s+DD\\s+([^\\r\\n]+)");
-        Matcher m = p.matcher(data);
-        if (m.find()) {
-            return m.group(1).trim();
-        }
-        return null;
-    }
-
-    private static void replaceVarDeclarationWithValueInternal(String varName, String value) {
-        // versión interna que no devuelve sino que reemplaza (mantenida para compatibilidad)
-        String data = dataSection.toString();
-        Pattern p = Pattern.compile("(?m)^\\s*" + Pattern.quote(varName) + "\\s+DD\\s+[^\\r\\n]*\\r?\\n");
-        Matcher m = p.matcher(data);
-        String replacement = varName + " DD " + value + "\n";
-        if (m.find()) {
-            data = m.replaceFirst(replacement);
-            dataSection.setLength(0);
-            dataSection.append(data);
+        emit(Opcode.FLD, mem(src));
+        emit(Opcode.FSTP, mem(dest));
+    }
+
+    // Dos Int se comparan con cmp. Si no, compara ST(0) = izquierdo con el derecho; si
+    // el derecho es una expresión se calcula encima y FXCH los deja en orden para FCOMPP
+    private void genCmp(int idx, int arg1, int arg2) {
+        signedFlags = isInteger(arg1) && isInteger(arg2);
+        if (signedFlags) {
+            Operand right = genIntegerPair(arg1, arg2, true);
+            releaseOperands(idx, idx);
+            emit(Opcode.CMP, reg("EAX"), right);
+            return;
+        }
+        genOperand(arg1, STACK_SLOTS);
+        if (!inStack(arg2)) {
+            genMemoryOperation(Opcode.FCOMP, Opcode.FICOMP, arg2);
+        } else if (need(arg2) < STACK_SLOTS) {
+            genOperand(arg2, STACK_SLOTS - 1);
+            emit(Opcode.FXCH);
+            emit(Opcode.FCOMPP);
+        } else {
+            String spill = newSpill();
+            emit(Opcode.FSTP, mem(spill));
+            genOperand(arg2, STACK_SLOTS);
+            emit(Opcode.FLD, mem(spill));
+            emit(Opcode.FCOMPP);
+            freeTemps.push(spill);
+        }
+        releaseOperands(idx, idx);
+        emit(Opcode.FSTSW, reg("AX"));
+        emit(Opcode.SAHF);
+    }
+
+    private void genConditionalJump(Operator op, String label) {
+        Opcode jump;
+        switch (op) {
+            case BLT: jump = signedFlags ? Opcode.JL : Opcode.JB; break;
+            case BGE: jump = signedFlags ? Opcode.JGE : Opcode.JAE; break;
+            case BLE: jump = signedFlags ? Opcode.JLE : Opcode.JBE; break;
+            case BGT: jump = signedFlags ? Opcode.JG : Opcode.JA; break;
+            case BEQ: jump = Opcode.JE; break;
+            case BNE: jump = Opcode.JNE; break;
+            default: throw new IllegalArgumentException("Salto condicional desconocido: " + op);
+        }
+
+        emit(jump, reg(label));
+    }
+
+    private void genUnconditionalJump(String label) {
+        emit(Opcode.JMP, reg(label));
+    }
+
+    private void genLabel(String label) {
+        codeSection.add(Segment.BODY, AsmInstruction.label(label));
+    }
+
+    // Posición _tmp para el resultado del terceto idx: una liberada si hay, si no una nueva
+    private String newTemp(int idx) {
+        holdsTemp[idx] = true;
+        return newSpill();
+    }
+
+    // Libera la posición del terceto referenciado si 'user' es su último uso
+    // (user 0: el resultado no lo lee nadie)
+    private void releaseTemp(int operand, int user) {
+        if (!TripletOperand.isRef(operand)) {
+            return;
+        }
+        int ref = TripletOperand.value(operand);
+        if (holdsTemp[ref] && lastUse[ref] == user) {
+            holdsTemp[ref] = false;
+            freeTemps.push(tripletResults[ref]);
+        }
+    }
+
+    // Libera, al terminar el terceto idx, las posiciones de los resultados cuyo último uso
+    // es idx, los lea o no: un valor que cruza bloques muere en el último terceto de un
+    // bloque, que suele ser un salto que no lo lee
+    private void releaseDying(int idx) {
+        for (int dying = firstDying[idx]; dying != 0; dying = nextDying[dying]) {
+            if (holdsTemp[dying]) {
+                holdsTemp[dying] = false;
+                freeTemps.push(tripletResults[dying]);
+            }
+        }
+    }
+
+    private void indexLastUses() {
+        firstDying = new int[lastUse.length];
+        nextDying = new int[lastUse.length];
+        for (int i = lastUse.length - 1; i >= 1; i--) {
+            if (lastUse[i] > 0) {
+                nextDying[i] = firstDying[lastUse[i]];
+                firstDying[lastUse[i]] = i;
+            }
+        }
+    }
+
+    // Libera los temporales que lee la expresión del terceto 'root', incluidas las
+    // operaciones que se calcularon dentro de ella
+    private void releaseOperands(int idx, int root) {
+        releaseOperand(store.first(idx), root);
+        releaseOperand(store.second(idx), root);
+    }
+
+    private void releaseOperand(int operand, int root) {
+        if (isInlined(operand)) {
+            releaseOperands(TripletOperand.value(operand), root);
         } else {
-            appendDataDeclaration(varName + " DD " + value);
+            releaseTemp(operand, root);
         }
     }
 
-    private static void genCmp(String arg1, String arg2) {
-        String left = resolveArg(arg1);
-        String right = resolveArg(arg2);
+    // Una operación se calcula dentro de su usuario si es el único, es otra operación, una
+    // asignación o una comparación, y entre los dos no hay nada que pueda cambiar una
+    // variable o saltar (los ID se leen recién cuando se emite la expresión)
+    private static int[] expressionRoots(TripletStore store) {
+        int size = store.size();
+        int[] uses = new int[size + 1];
+        int[] user = new int[size + 1];
+        int[] barriers = new int[size + 1];
+        for (int i = 1; i <= size; i++) {
+            countUse(uses, user, store.first(i), i);
+            countUse(uses, user, store.second(i), i);
+            Operator op = store.operator(i);
+            boolean barrier = !isArithmetic(op) && op != Operator.ID && op != Operator.CTE && op != Operator.DECLARE;
+            barriers[i] = barriers[i - 1] + (barrier ? 1 : 0);
+        }
+        int[] root = new int[size + 1];
+        for (int i = size; i >= 1; i--) {
+            root[i] = i;
+            if (isArithmetic(store.operator(i)) && uses[i] == 1 && barriers[user[i] - 1] == barriers[i]
+                    && consumesExpression(store.operator(user[i]))) {
+                root[i] = root[user[i]];
+            }
+        }
+        return root;
+    }
 
-        codeSection.append("FLD [").append(left).append("]\n");
-        codeSection.append("FCOMP [").append(right).append("]\n");
-        codeSection.append("FSTSW AX\n");
-        codeSection.append("SAHF\n");
+    private static void countUse(int[] uses, int[] user, int operand, int index) {
+        if (TripletOperand.isRef(operand)) {
+            uses[TripletOperand.value(operand)]++;
+            user[TripletOperand.value(operand)] = index;
+        }
     }
 
-    private static void genConditionalJump(String op, String label) {
-        String jumpInstr = "";
+    private static boolean isArithmetic(Operator op) {
         switch (op) {
-            case "BLT": jumpInstr = "JB"; break;
-            case "BGE": jumpInstr = "JAE"; break;
-            case "BLE": jumpInstr = "JBE"; break;
-            case "BGT": jumpInstr = "JA"; break;
-            case "BEQ": jumpInstr = "JE"; break;
-            case "BNE": jumpInstr = "JNE"; break;
+            case ADD:
+            case SUB:
+            case MUL:
+            case DIV:
+            case MOD:
+            case NEG:
+                return true;
+            default:
+                return false;
         }
+    }
 
-        codeSection.append(jumpInstr).append(" ").append(label).append("\n");
+    private static boolean consumesExpression(Operator op) {
+        return isArithmetic(op) || op == Operator.ASSIGN || op == Operator.CMP;
     }
 
-    private static void genUnconditionalJump(String label) {
-        codeSection.append("JMP ").append(label).append("\n");
+    // Lugares de la pila para calcular cada operación en el orden de genBinary (o de
+    // genIntegerPair para un Int): un operando en memoria no ocupa lugar; dos expresiones
+    // necesitan la mayor, o una más si empatan
+    private int[] stackNeeds(TripletStore store) {
+        int[] needs = new int[store.size() + 1];
+        for (int i = 1; i <= store.size(); i++) {
+            Operator op = store.operator(i);
+            if (!isArithmetic(op)) {
+                continue;
+            }
+            boolean registers = integer[i];
+            int left = store.first(i);
+            int right = store.second(i);
+            if (op == Operator.NEG) {
+                needs[i] = operandNeed(needs, left, registers);
+            } else if (op == Operator.MOD && !registers) {
+                needs[i] = Math.max(operandNeed(needs, left, false), operandNeed(needs, right, false) + 1);
+            } else if (!computedWith(right, registers)) {
+                needs[i] = operandNeed(needs, left, registers);
+            } else if (!computedWith(left, registers)) {
+                needs[i] = operandNeed(needs, right, registers);
+            } else {
+                int l = operandNeed(needs, left, registers);
+                int r = operandNeed(needs, right, registers);
+                needs[i] = l == r ? l + 1 : Math.max(l, r);
+            }
+        }
+        return needs;
     }
 
-    private static void genLabel(String label) {
-        codeSection.append(label).append(":\n");
+    // Si el operando se calcula dentro de su usuario: en los registros enteros si el
+    // usuario es Int, en la pila del x87 si no
+    private boolean computedWith(int operand, boolean registers) {
+        return registers ? isInlined(operand) : inStack(operand);
     }
 
-    private static String newTemp() {
-        tempCount++;
-        String name = "_tmp" + tempCount;
-        if (!declaredTemps.containsKey(name)) {
-            appendDataDeclaration(name + " DD 0.0");
-            declaredTemps.put(name, true);
+    private int operandNeed(int[] needs, int operand, boolean registers) {
+        return computedWith(operand, registers) ? needs[TripletOperand.value(operand)] : 1;
+    }
+
+    // Un terceto es Int si la tabla de tipos lo dice y, para una operación, también sus
+    // operandos. Un literal es Int si se declara como entero (DD 2, sin punto)
+    private boolean[] integerResults(TripletStore store) {
+        TypeTable types = context.getTypeTable();
+        boolean[] result = new boolean[store.size() + 1];
+        for (int i = 1; i <= store.size(); i++) {
+            Operator op = store.operator(i);
+            if (types.getType(i) != DataType.INTEGER_TYPE) {
+                continue;
+            }
+            if (op == Operator.ID) {
+                result[i] = isIntegerVariable(store.name(store.first(i)));
+            } else if (op == Operator.CTE) {
+                result[i] = isIntegerLiteral(store.name(store.first(i)));
+            } else if (isArithmetic(op)) {
+                result[i] = isIntegerRef(result, store.first(i))
+                        && (op == Operator.NEG || isIntegerRef(result, store.second(i)));
+            }
+        }
+        return result;
+    }
+
+    private static boolean isIntegerRef(boolean[] result, int operand) {
+        return TripletOperand.isRef(operand) && result[TripletOperand.value(operand)];
+    }
+
+    // Último uso de cada resultado. Casi siempre un temporal muere en su bloque básico;
+    // si se lee desde otro (cse reutiliza valores a través de saltos condicionales), vive
+    // además hasta el final de cada bloque del que sale vivo, por si un ciclo vuelve a él.
+    // Los operandos de una operación calculada dentro de otra los lee la raíz de la expresión.
+    private static int[] lastUses(TripletStore store, int[] root) {
+        int[] last = new int[store.size() + 1];
+        for (int i = 1; i <= store.size(); i++) {
+            markUse(last, store.first(i), root[i]);
+            markUse(last, store.second(i), root[i]);
+        }
+        ControlFlowGraph cfg = ControlFlowGraph.build(store);
+        boolean crossesBlocks = false;
+        for (int i = 1; i <= store.size() && !crossesBlocks; i++) {
+            crossesBlocks = last[i] > 0 && cfg.blockOf(i) != cfg.blockOf(last[i]);
+        }
+        if (!crossesBlocks) {
+            return last;
+        }
+        Liveness liveness = Liveness.analyze(cfg);
+        int[] tripletOfBit = new int[liveness.bits()];
+        for (int i = 1; i <= store.size(); i++) {
+            if (liveness.tripletBit(i) >= 0) {
+                tripletOfBit[liveness.tripletBit(i)] = i;
+            }
+        }
+        for (BasicBlock block : cfg.blocks()) {
+            long[] liveOut = liveness.liveOut(block.index());
+            for (int bit = Bits.next(liveOut, 0); bit >= 0; bit = Bits.next(liveOut, bit + 1)) {
+                int triplet = tripletOfBit[bit];
+                if (triplet > 0) {
+                    last[triplet] = Math.max(last[triplet], block.last());
+                }
+            }
+        }
+        return last;
+    }
+
+    private static void markUse(int[] last, int operand, int user) {
+        if (TripletOperand.isRef(operand)) {
+            last[TripletOperand.value(operand)] = user;
         }
-        return name;
     }
 
     // normaliza literales numericas para que TASM las acepte (p.ej. '99.' -> '99.0', '.5' -> '0.5')
-    private static String normalizeNumberLiteral(String num) {
+    private String normalizeNumberLiteral(String num) {
         if (num == null) return null;
         String s = num.trim();
         if (s.endsWith(".")) s = s + "0";
@@ -457,7 +923,18 @@ public class AsmCodeGenerator implements FileGenerator {
         return s;
     }
 
-    private static String defineLiteral(String val) {
+    private boolean isIntegerLiteral(String val) {
+        String cleanVal = val.replace("\"", "");
+        String content = cleanVal;
+        if (cleanVal.startsWith("_")) {
+            SymbolEntry entry = context.getSymbolTableManager().getSymbolTable().get(cleanVal.replace(" ", "_"));
+            boolean fromTable = entry != null && entry.getValue() != null && !"-".equals(entry.getValue());
+            content = fromTable ? entry.getValue() : cleanVal.substring(1);
+        }
+        return esNumero(content) && content.trim().matches("[+-]?\\d+");
+    }
+
+    private String defineLiteral(String val) {
         String cleanVal = val.replace("\"", "");
 
         // Si el literal ya viene con prefijo '_' (ej. _10 o _3.14 o _Texto con espacios)
@@ -470,7 +947,7 @@ public class AsmCodeGenerator implements FileGenerator {
             // Intentar obtener el valor real desde la tabla de símbolos
             // SymbolTableManager.insertInTable reemplaza espacios por '_', normalizar clave igual
             String lookupKey = cleanVal.replace(" ", "_");
-            SymbolEntry entry = SymbolTableManager.getSymbolTable().get(lookupKey);
+            SymbolEntry entry = context.getSymbolTableManager().getSymbolTable().get(lookupKey);
             String rawValueFromTable = null;
             if (entry != null && entry.getValue() != null && !"-".equals(entry.getValue())) {
                 rawValueFromTable = entry.getValue();
@@ -487,22 +964,21 @@ public class AsmCodeGenerator implements FileGenerator {
             sanitizedCore = sanitizedCore.replaceAll("[^a-zA-Z0-9_]", "_");
             String name = "_" + sanitizedCore;
 
-            if (!declaredTemps.containsKey(name)) {
+            if (!dataSection.contains(name)) {
                 // Decidir el contenido a declarar: preferir el valor en la tabla de símbolos si existe,
                 // en caso contrario usar el texto extraído del nombre (originalNameCore).
                 String contentForCheck = rawValueFromTable != null ? rawValueFromTable : originalNameCore;
 
                 if (esNumero(contentForCheck)) {
                     String number = normalizeNumberLiteral(contentForCheck);
-                    appendDataDeclaration(name + " DD " + number);
+                    declareLiteral(DataDeclaration.number(name, number));
                 } else {
                     // string literal: si usamos el valor de la tabla, ese es el contenido real;
                     // si no, usamos originalNameCore como contenido (fallback).
                     String s = (rawValueFromTable != null ? rawValueFromTable : originalNameCore)
                                 .replace("\"", "'").replace("\r", " ").replace("\n", " ");
-                    appendDataDeclaration(name + " DB \"" + s + "\", 0");
+                    declareLiteral(DataDeclaration.string(name, s));
                 }
-                declaredTemps.put(name, true);
             }
             return name;
         }
@@ -510,22 +986,22 @@ public class AsmCodeGenerator implements FileGenerator {
         if (esNumero(cleanVal)) {
             String normalized = normalizeNumberLiteral(cleanVal);
             String name = "_" + normalized.replace(".", "_").replace("-", "neg");
-            if (!declaredTemps.containsKey(name)) {
-                appendDataDeclaration(name + " DD " + normalized);
-                declaredTemps.put(name, true);
-            }
+            declareLiteral(DataDeclaration.number(name, normalized));
             return name;
         } else {
             String name = "_str" + tempCount++;
-            if (!declaredTemps.containsKey(name)) {
-                appendDataDeclaration(name + " DB \"" + cleanVal + "\", 0");
-                declaredTemps.put(name, true);
-            }
+            declareLiteral(DataDeclaration.string(name, cleanVal));
             return name;
         }
     }
 
-    private static boolean esNumero(String s) {
+    private void declareLiteral(DataDeclaration declaration) {
+        if (dataSection.declareConstant(declaration)) {
+            declaredLiterals++;
+        }
+    }
+
+    private boolean esNumero(String s) {
         try {
             Double.parseDouble(s);
             return true;
@@ -534,59 +1010,16 @@ public class AsmCodeGenerator implements FileGenerator {
         }
     }
 
-    // Limpia declaraciones ilegales en la seccion de datos:
-    // - Elimina lineas vacias o con solo espacios.
-    // - Elimina lineas que empiezan con espacios seguidas de 'DUP' (declaraciones invalidas).
-    private static String cleanIllegalDeclarations(String data) {
-        if (data == null) return null;
-        StringBuilder cleanedData = new StringBuilder();
-        String[] lines = data.split("\r?\n");
-        for (String line : lines) {
-            String trimmedLine = line.trim();
-            // Ignorar lineas vacias
-            if (trimmedLine.isEmpty()) continue;
-            // Ignorar lineas que empiezan con 'DUP' (ej. "DUP (...)")
-            if (trimmedLine.startsWith("DUP")) {
-                System.out.println("Warning: Removing illegal line starting with 'DUP': '" + trimmedLine + "'");
-                continue;
-            }
-            // Ignorar lineas que son solo una declaracion de tamano sin identificador, p.ej. "256 DUP (?)"
-            if (trimmedLine.matches("^\\d+\\s+DUP\\b.*")) {
-                System.out.println("Warning: Removing orphan 'N DUP' data line: '" + trimmedLine + "'");
-                continue;
-            }
-            // Ignorar lineas que contienen DB pero carecen del identificador al inicio, p.ej. "DB 256 DUP (?)"
-            if (trimmedLine.matches("^DB\\s+\\d+\\s+DUP\\b.*")) {
-                System.out.println("Warning: Removing malformed 'DB N DUP' line: '" + trimmedLine + "'");
-                continue;
-            }
-
-            // Linea valida, agregar a la seccion limpia
-            cleanedData.append(line).append("\n");
-        }
-        return cleanedData.toString();
-    }
-
-    // Construye la cadena de declaracion para una variable de usuario (sin anadirla aun)
-    private static String makeVarDeclarationString(String nombre, DataType dt, String initVal) {
-        if (initVal != null && dt != DataType.STRING_TYPE) {
-            return nombre + " DD " + initVal + "\n";
-        }
+    // Declaracion de una variable de usuario con su valor por defecto
+    private DataDeclaration makeVarDeclaration(String nombre, DataType dt) {
         switch (dt) {
             case INTEGER_TYPE:
-                return nombre + " DD 0\n";
-            case FLOAT_TYPE:
-                return nombre + " DD 0.0\n";
+                return DataDeclaration.number(nombre, "0");
             case STRING_TYPE:
-                return nombre + " DB 256 DUP (?)\n";
+                return DataDeclaration.buffer(nombre, STRING_BUFFER_SIZE);
             default:
-                return nombre + " DD 0.0\n";
+                return DataDeclaration.number(nombre, "0.0");
         }
     }
 
-    // Anade la declaracion de variable al dataSection (usa appendDataDeclaration internamente)
-    private static void appendVarDeclaration(String nombre, DataType dt) {
-        appendDataDeclaration(makeVarDeclarationString(nombre, dt, null).trim());
-    }
-
 }
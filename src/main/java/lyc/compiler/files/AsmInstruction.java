@@ -0,0 +1,232 @@
+package lyc.compiler.files;
+
+import java.util.List;
+
+/**
+ * Una linea de la seccion de codigo: instruccion (opcode + operandos), label,
+ * comentario o linea vacia. Las pasadas posteriores pueden inspeccionar opcode y
+ * operandos sin parsear texto.
+ */
+public final class AsmInstruction {
+
+    public enum Opcode {
+        CODE(".CODE"),
+        END("END"),
+        MOV("mov"),
+        LEA("lea"),
+        INT("int"),
+        // Aritmética entera: los Int se calculan en EAX, ECX y EDX
+        ADD("add"),
+        SUB("sub"),
+        IMUL("imul"),
+        CDQ("cdq"),
+        IDIV("idiv"),
+        NEG("neg"),
+        MOVSX("movsx"),
+        CMP("cmp"),
+        PUSH("push"),
+        POP("pop"),
+        FLD("FLD"),
+        FILD("FILD"),
+        FSTP("FSTP"),
+        FST("FST"),
+        FADD("FADD"),
+        FSUB("FSUB"),
+        FSUBR("FSUBR"),
+        FMUL("FMUL"),
+        FDIV("FDIV"),
+        FDIVR("FDIVR"),
+        // Como las de arriba, con un Int de memoria como operando
+        FIADD("FIADD"),
+        FISUB("FISUB"),
+        FISUBR("FISUBR"),
+        FIMUL("FIMUL"),
+        FIDIV("FIDIV"),
+        FIDIVR("FIDIVR"),
+        // Operan entre ST(1) y ST(0), dejan el resultado en ST(1) y sacan ST(0) de la pila
+        FADDP("FADDP"),
+        FSUBP("FSUBP"),
+        FSUBRP("FSUBRP"),
+        FMULP("FMULP"),
+        FDIVP("FDIVP"),
+        FDIVRP("FDIVRP"),
+        FXCH("FXCH"),
+        FCHS("FCHS"),
+        FRNDINT("FRNDINT"),
+        // Resto truncado de ST(0) / ST(1), parcial: deja C2 en 1 si falta reducir más
+        FPREM("FPREM"),
+        FCOMP("FCOMP"),
+        FCOMPP("FCOMPP"),
+        FICOMP("FICOMP"),
+        FSTSW("FSTSW"),
+        SAHF("SAHF"),
+        JMP("JMP"),
+        JB("JB"),
+        JAE("JAE"),
+        JBE("JBE"),
+        JA("JA"),
+        JE("JE"),
+        JNE("JNE"),
+        // Después de FSTSW AX y SAHF, PF es el C2 de FPREM
+        JP("JP"),
+        // Después de un cmp entre Int, con signo
+        JL("JL"),
+        JGE("JGE"),
+        JLE("JLE"),
+        JG("JG"),
+        STRCPY("STRCPY");
+
+        private final String mnemonic;
+
+        Opcode(String mnemonic) {
+            this.mnemonic = mnemonic;
+        }
+
+        public String getMnemonic() { return mnemonic; }
+
+        public boolean isJump() {
+            return compareTo(JMP) >= 0 && compareTo(JG) <= 0;
+        }
+    }
+
+    // Operando: registro/inmediato/label, o referencia a memoria que se imprime como [nombre]
+    public static final class Operand {
+        private final String value;
+        private final boolean memory;
+
+        private Operand(String value, boolean memory) {
+            this.value = value;
+            this.memory = memory;
+        }
+
+        public static Operand of(String value) { return new Operand(value, false); }
+
+        public static Operand memory(String name) { return new Operand(name, true); }
+
+        public String getValue() { return value; }
+
+        public boolean isMemory() { return memory; }
+
+        void appendTo(StringBuilder out) {
+            if (memory) {
+                out.append('[').append(value).append(']');
+            } else {
+                out.append(value);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return memory ? "[" + value + "]" : value;
+        }
+    }
+
+    private static final AsmInstruction BLANK = new AsmInstruction(null, null, null, null, null);
+
+    // Hay una instruccion por linea del ASM: los operandos van en campos (ninguna usa mas
+    // de dos) y el comentario puede ser el terceto de origen, que se formatea al imprimir
+    private final String label;
+    private final Opcode opcode;
+    private final Operand first;
+    private final Operand second;
+    private final Object comment;
+
+    private AsmInstruction(String label, Opcode opcode, Operand first, Operand second, Object comment) {
+        this.label = label;
+        this.opcode = opcode;
+        this.first = first;
+        this.second = second;
+        this.comment = comment;
+    }
+
+    public static AsmInstruction of(Opcode opcode) {
+        return new AsmInstruction(null, opcode, null, null, null);
+    }
+
+    public static AsmInstruction of(Opcode opcode, Operand operand) {
+        return new AsmInstruction(null, opcode, operand, null, null);
+    }
+
+    public static AsmInstruction of(Opcode opcode, Operand first, Operand second) {
+        return new AsmInstruction(null, opcode, first, second, null);
+    }
+
+    public static AsmInstruction label(String name) {
+        return new AsmInstruction(name, null, null, null, null);
+    }
+
+    public static AsmInstruction comment(String text) {
+        return new AsmInstruction(null, null, null, null, text);
+    }
+
+    // Comentario "; [n] (op, arg1, arg2)" con el terceto que origino las instrucciones siguientes
+    public static AsmInstruction comment(Triplet source) {
+        return new AsmInstruction(null, null, null, null, source);
+    }
+
+    public static AsmInstruction blank() {
+        return BLANK;
+    }
+
+    public String getLabel() { return label; }
+
+    public Opcode getOpcode() { return opcode; }
+
+    public List<Operand> getOperands() {
+        if (first == null) {
+            return List.of();
+        }
+        return second == null ? List.of(first) : List.of(first, second);
+    }
+
+    public Operand getOperand(int index) { return index == 0 ? first : index == 1 ? second : null; }
+
+    public String getComment() {
+        if (comment instanceof Triplet) {
+            StringBuilder out = new StringBuilder();
+            appendTripletComment((Triplet) comment, out);
+            return out.toString();
+        }
+        return (String) comment;
+    }
+
+    public boolean isInstruction() { return opcode != null; }
+
+    public boolean isLabel() { return label != null; }
+
+    public void appendTo(StringBuilder out) {
+        if (label != null) {
+            out.append(label).append(':');
+        } else if (opcode != null) {
+            out.append(opcode.getMnemonic());
+            if (first != null) {
+                first.appendTo(out.append(' '));
+            }
+            if (second != null) {
+                second.appendTo(out.append(", "));
+            }
+        }
+        if (comment != null) {
+            out.append(opcode != null ? " ; " : "; ");
+            if (comment instanceof Triplet) {
+                appendTripletComment((Triplet) comment, out);
+            } else {
+                out.append((String) comment);
+            }
+        }
+        out.append('\n');
+    }
+
+    private static void appendTripletComment(Triplet triplet, StringBuilder out) {
+        out.append('[').append(triplet.getIndex()).append("] (").append(triplet.getOperator()).append(", ")
+           .append(triplet.getArg1() != null ? triplet.getArg1() : "-").append(", ")
+           .append(triplet.getArg2() != null ? triplet.getArg2() : "-").append(')');
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        appendTo(out);
+        return out.substring(0, out.length() - 1);
+    }
+}
@@ -0,0 +1,68 @@
+package lyc.compiler.files;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Seccion de codigo como lista de instrucciones, separada en prologo, cuerpo y
+ * epilogo. Se imprime en una sola pasada al final de la generacion.
+ */
+public final class CodeSection {
+
+    public enum Segment { PROLOGUE, BODY, EPILOGUE }
+
+    private static final int FLUSH_THRESHOLD = 8192;
+
+    private final List<AsmInstruction> prologue = new ArrayList<>();
+    private final List<AsmInstruction> body = new ArrayList<>();
+    private final List<AsmInstruction> epilogue = new ArrayList<>();
+
+    public void add(Segment segment, AsmInstruction instruction) {
+        segment(segment).add(instruction);
+    }
+
+    // Lista modificable del segmento, para pasadas que reescriben instrucciones
+    public List<AsmInstruction> segment(Segment segment) {
+        switch (segment) {
+            case PROLOGUE: return prologue;
+            case EPILOGUE: return epilogue;
+            default: return body;
+        }
+    }
+
+    public List<AsmInstruction> getBody() {
+        return Collections.unmodifiableList(body);
+    }
+
+    public int size() {
+        return prologue.size() + body.size() + epilogue.size();
+    }
+
+    public void clear() {
+        prologue.clear();
+        body.clear();
+        epilogue.clear();
+    }
+
+    public void writeTo(Writer writer) throws IOException {
+        StringBuilder out = new StringBuilder(FLUSH_THRESHOLD + 256);
+        writeAll(prologue, out, writer);
+        writeAll(body, out, writer);
+        writeAll(epilogue, out, writer);
+        writer.append(out);
+    }
+
+    // Se vuelca al writer por bloques para no tener el texto completo en memoria
+    private static void writeAll(List<AsmInstruction> instructions, StringBuilder out, Writer writer) throws IOException {
+        for (AsmInstruction instruction : instructions) {
+            instruction.appendTo(out);
+            if (out.length() >= FLUSH_THRESHOLD) {
+                writer.append(out);
+                out.setLength(0);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package lyc.compiler.files;
+
+/**
+ * Código de una condición ya generado. El código cae al terceto siguiente cuando
+ * la condición es verdadera; los saltos de trueList van al destino verdadero y los
+ * de falseList al falso. Ambas listas se completan con backpatch.
+ */
+public final class Condition {
+
+  private final PatchList trueList;
+  private final PatchList falseList;
+
+  public Condition(PatchList trueList, PatchList falseList) {
+    this.trueList = trueList;
+    this.falseList = falseList;
+  }
+
+  public PatchList getTrueList() { return trueList; }
+
+  public PatchList getFalseList() { return falseList; }
+}
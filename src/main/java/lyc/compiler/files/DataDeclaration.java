@@ -0,0 +1,66 @@
+package lyc.compiler.files;
+
+// Una declaracion de la seccion .DATA: nombre, tipo de dato ASM, tamano y valor inicial
+public final class DataDeclaration {
+
+    public enum Kind {
+        // Doble palabra (numeros en la FPU)
+        DD,
+        // Bytes (strings y buffers)
+        DB
+    }
+
+    private final String name;
+    private final Kind kind;
+    private final int size;
+    private final String initialValue;
+
+    private DataDeclaration(String name, Kind kind, int size, String initialValue) {
+        this.name = name;
+        this.kind = kind;
+        this.size = size;
+        this.initialValue = initialValue;
+    }
+
+    // name DD <valor>
+    public static DataDeclaration number(String name, String value) {
+        return new DataDeclaration(name, Kind.DD, 1, value);
+    }
+
+    // name DB "<texto>", 0
+    public static DataDeclaration string(String name, String text) {
+        return new DataDeclaration(name, Kind.DB, text.length() + 1, text);
+    }
+
+    // name DB <size> DUP (?)
+    public static DataDeclaration buffer(String name, int size) {
+        return new DataDeclaration(name, Kind.DB, size, null);
+    }
+
+    public String getName() { return name; }
+
+    public Kind getKind() { return kind; }
+
+    public int getSize() { return size; }
+
+    public String getInitialValue() { return initialValue; }
+
+    public void appendTo(StringBuilder out) {
+        out.append(name).append(' ').append(kind).append(' ');
+        if (kind == Kind.DD) {
+            out.append(initialValue);
+        } else if (initialValue == null) {
+            out.append(size).append(" DUP (?)");
+        } else {
+            out.append('"').append(initialValue).append("\", 0");
+        }
+        out.append('\n');
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        appendTo(out);
+        return out.substring(0, out.length() - 1);
+    }
+}
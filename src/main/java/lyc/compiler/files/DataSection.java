@@ -0,0 +1,77 @@
+package lyc.compiler.files;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Modelo de la seccion .DATA: lineas fijas del encabezado, variables del usuario y
+ * constantes/temporales, cada grupo en orden de declaracion. Se serializa una unica
+ * vez al final de la generacion.
+ */
+public final class DataSection {
+
+    private static final int FLUSH_THRESHOLD = 8192;
+
+    private final List<String> header = new ArrayList<>();
+    private final Map<String, DataDeclaration> variables = new LinkedHashMap<>();
+    private final Map<String, DataDeclaration> constants = new LinkedHashMap<>();
+
+    public void addHeaderLine(String line) {
+        header.add(line);
+    }
+
+    public void declareVariable(DataDeclaration declaration) {
+        variables.put(declaration.getName(), declaration);
+    }
+
+    // Declara una constante o temporal; devuelve false si el nombre ya estaba declarado
+    public boolean declareConstant(DataDeclaration declaration) {
+        if (contains(declaration.getName())) {
+            return false;
+        }
+        constants.put(declaration.getName(), declaration);
+        return true;
+    }
+
+    public boolean contains(String name) {
+        return variables.containsKey(name) || constants.containsKey(name);
+    }
+
+    public DataDeclaration get(String name) {
+        DataDeclaration declaration = variables.get(name);
+        return declaration != null ? declaration : constants.get(name);
+    }
+
+    public void clear() {
+        header.clear();
+        variables.clear();
+        constants.clear();
+    }
+
+    public void writeTo(Writer writer) throws IOException {
+        StringBuilder out = new StringBuilder(FLUSH_THRESHOLD + 256);
+        for (String line : header) {
+            out.append(line).append('\n');
+        }
+        writeAll(variables.values(), out, writer);
+        out.append('\n');
+        writeAll(constants.values(), out, writer);
+        writer.append(out);
+    }
+
+    // Se vuelca al writer por bloques para no tener el texto completo en memoria
+    private static void writeAll(Collection<DataDeclaration> declarations, StringBuilder out, Writer writer) throws IOException {
+        for (DataDeclaration declaration : declarations) {
+            declaration.appendTo(out);
+            if (out.length() >= FLUSH_THRESHOLD) {
+                writer.append(out);
+                out.setLength(0);
+            }
+        }
+    }
+}
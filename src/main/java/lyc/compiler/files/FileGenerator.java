@@ -1,10 +1,10 @@
 package lyc.compiler.files;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 
 public interface FileGenerator {
 
-    void generate(FileWriter fileWriter) throws IOException;
+    void generate(Writer fileWriter) throws IOException;
 
 }
@@ -1,34 +1,130 @@
 package lyc.compiler.files;
 
-import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinTask;
+import lyc.compiler.context.CompilationContext;
+import lyc.compiler.metrics.CompileMetrics;
+import lyc.compiler.metrics.CompileMetrics.Phase;
 
 public final class FileOutputWriter {
 
-    private static final String OUTPUT_DIRECTORY  = "target/output";
+    public static final String SYMBOL_TABLE_FILE = "symbol-table.txt";
+    public static final String INTERMEDIATE_CODE_FILE = "intermediate-code.txt";
+    public static final String ASM_FILE = "final.asm";
 
     private FileOutputWriter(){}
 
-    public static void writeOutput(String fileName, FileGenerator fileGenerator) {
-        createOutputDirectory();
-      try(FileWriter fileWriter = new FileWriter("%s/%s".formatted(OUTPUT_DIRECTORY, fileName))) {
-          fileGenerator.generate(fileWriter);
-          fileWriter.flush();
-      } catch (IOException e) {
-          System.err.println("Error trying to create file " + e.getMessage());
-      }
+    // Devuelve true si el archivo cambió; si el contenido es el mismo no se toca
+    public static boolean writeOutput(CompilationContext context, String fileName, FileGenerator fileGenerator) throws IOException {
+        return writeOutput(context.getOutputDirectory(), fileName, fileGenerator);
     }
 
-    private static void createOutputDirectory() {
-        Path path = Paths.get(OUTPUT_DIRECTORY);
+    public static boolean writeOutput(Path outputDirectory, String fileName, FileGenerator fileGenerator) throws IOException {
+        return writeOutput(outputDirectory, fileName, fileGenerator, null);
+    }
+
+    // Con métricas, el tiempo de E/S del archivo se suma a la fase WRITE
+    public static boolean writeOutput(Path outputDirectory, String fileName, FileGenerator fileGenerator,
+                                      CompileMetrics metrics) throws IOException {
+        Files.createDirectories(outputDirectory);
+        ArtifactWriter writer = new ArtifactWriter(outputDirectory.resolve(fileName));
+        // Sólo se publica lo que el generador terminó de escribir
+        boolean completed = false;
         try {
-            Files.createDirectories(path);
+            fileGenerator.generate(writer);
+            completed = true;
+            writer.close();
         } catch (IOException e) {
-            System.err.println("Error trying to create directory " + e.getMessage());
+            throw new IOException("Error trying to create file " + fileName + ": " + e.getMessage(), e);
+        } finally {
+            if (!completed) {
+                writer.abort();
+            }
+            if (metrics != null) {
+                metrics.record(Phase.WRITE, writer.getIoNanos(), writer.getIoCpuNanos());
+            }
+        }
+        return writer.isChanged();
+    }
+
+    // Escribe un artefacto ya generado en memoria (p.ej. recibido del servidor de compilación)
+    public static boolean writeOutput(Path outputDirectory, String fileName, String content) throws IOException {
+        return writeOutput(outputDirectory, fileName, writer -> writer.append(content));
+    }
+
+    // Genera y escribe varios artefactos en paralelo. Los generadores deben trabajar sobre
+    // un contexto que ya no cambia (ver CompilationContext.snapshot). Devuelve los nombres
+    // de los archivos que cambiaron.
+    public static Set<String> writeGenerated(Path outputDirectory, Map<String, FileGenerator> generators) throws IOException {
+        return writeGenerated(outputDirectory, generators, null);
+    }
+
+    public static Set<String> writeGenerated(Path outputDirectory, Map<String, FileGenerator> generators,
+                                             CompileMetrics metrics) throws IOException {
+        Files.createDirectories(outputDirectory);
+        Map<String, ForkJoinTask<Boolean>> tasks = new LinkedHashMap<>();
+        for (Map.Entry<String, FileGenerator> entry : generators.entrySet()) {
+            tasks.put(entry.getKey(), ForkJoinTask.adapt(() -> writeOutput(outputDirectory, entry.getKey(), entry.getValue(), metrics)));
+        }
+        // Dentro de un ForkJoinPool (modo batch) las tareas usan ese mismo pool; si no, el
+        // common pool. El primer artefacto lo escribe el hilo actual.
+        List<ForkJoinTask<Boolean>> pending = new ArrayList<>(tasks.values());
+        for (int i = 1; i < pending.size(); i++) {
+            pending.get(i).fork();
+        }
+        for (ForkJoinTask<Boolean> task : pending) {
+            if (task == pending.get(0)) {
+                task.quietlyInvoke();
+            } else {
+                task.quietlyJoin();
+            }
+        }
+
+        Set<String> changed = new LinkedHashSet<>();
+        List<IOException> failures = new ArrayList<>();
+        for (Map.Entry<String, ForkJoinTask<Boolean>> task : tasks.entrySet()) {
+            Throwable error = task.getValue().getException();
+            if (error == null) {
+                if (task.getValue().getRawResult()) {
+                    changed.add(task.getKey());
+                }
+            } else if (error instanceof RuntimeException && error.getCause() instanceof IOException) {
+                failures.add((IOException) error.getCause());
+            } else if (error instanceof IOException) {
+                failures.add((IOException) error);
+            } else if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            } else {
+                throw (Error) error;
+            }
+        }
+        if (!failures.isEmpty()) {
+            IOException first = failures.get(0);
+            failures.subList(1, failures.size()).forEach(first::addSuppressed);
+            throw first;
+        }
+        return changed;
+    }
+
+    public static Set<String> writeArtifacts(Path outputDirectory, Map<String, String> artifacts) throws IOException {
+        return writeArtifacts(outputDirectory, artifacts, null);
+    }
+
+    public static Set<String> writeArtifacts(Path outputDirectory, Map<String, String> artifacts,
+                                             CompileMetrics metrics) throws IOException {
+        Map<String, FileGenerator> generators = new LinkedHashMap<>();
+        for (Map.Entry<String, String> artifact : artifacts.entrySet()) {
+            generators.put(artifact.getKey(), writer -> writer.append(artifact.getValue()));
         }
+        return writeGenerated(outputDirectory, generators, metrics);
     }
 
 }
@@ -1,20 +1,29 @@
 package lyc.compiler.files;
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.List;
+import java.io.Writer;
+import lyc.compiler.context.CompilationContext;
 
 public class IntermediateCodeFileGenerator implements FileGenerator {
 
+  private final CompilationContext context;
+
+  public IntermediateCodeFileGenerator(CompilationContext context) {
+    this.context = context;
+  }
+
   @Override
-  public void generate(FileWriter fileWriter) throws IOException {
-    List<Triplet> triplets = IntermediateCodeGenerator.getTriplets();
+  public void generate(Writer fileWriter) throws IOException {
+    TripletStore triplets = context.getIntermediateCodeGenerator().getStore();
 
     fileWriter.write("CODIGO INTERMEDIO - TERCETOS\n");
     fileWriter.write("===============================\n\n");
 
-    for (Triplet triplet : triplets) {
-      fileWriter.write(triplet.toString() + "\n");
+    StringBuilder line = new StringBuilder(64);
+    for (int i = 1; i <= triplets.size(); i++) {
+      line.setLength(0);
+      triplets.appendTo(line, i);
+      fileWriter.append(line.append('\n'));
     }
 
     if (triplets.isEmpty()) {
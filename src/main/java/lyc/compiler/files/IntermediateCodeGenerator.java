@@ -1,57 +1,102 @@
 package lyc.compiler.files;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import lyc.compiler.table.DataType;
+import lyc.compiler.trace.Category;
+import lyc.compiler.trace.Level;
+import lyc.compiler.trace.Trace;
 
 public class IntermediateCodeGenerator {
-  private static final List<Triplet> triplets = new ArrayList<>();
-  private static int currentIndex = 1;
-  private static int labelCounter = 1;
+  private final TripletStore store;
+  private int labelCounter = 1;
 
-  private static String ref(int idx) { return "ref:" + idx; }
+  public IntermediateCodeGenerator() {
+    this.store = new TripletStore();
+  }
+
+  private IntermediateCodeGenerator(TripletStore store, int labelCounter) {
+    this.store = store;
+    this.labelCounter = labelCounter;
+  }
+
+  // Copia los arreglos del store; la copia no admite nuevos tercetos
+  public IntermediateCodeGenerator readOnlyCopy() {
+    return new IntermediateCodeGenerator(store.readOnlyCopy(), labelCounter);
+  }
+
+  private int add(Operator op, int first, int second) {
+    int index = store.add(op, first, second);
+    if (Trace.isEnabled(Category.ICG, Level.DEBUG)) {
+      Trace.debug(Category.ICG, "Terceto {}", store.get(index));
+    }
+    return index;
+  }
 
-  private static Triplet add(Operator op, String a1, String a2) {
-    Triplet t = new Triplet(currentIndex++, op, a1, a2);
-    triplets.add(t);
-    return t;
+  // Codifica un operando de texto según el operador que lo usa
+  private int operand(Operator op, String arg) {
+    if (arg == null) {
+      return TripletOperand.NONE;
+    }
+    if (op.isJump() || op == Operator.LABEL) {
+      return store.label(arg);
+    }
+    if (arg.startsWith("ref:")) {
+      return TripletOperand.ref(Integer.parseInt(arg.substring(4)));
+    }
+    if (op == Operator.CTE || isLiteral(arg)) {
+      return store.literal(arg);
+    }
+    return store.symbol(arg);
   }
 
-  public static Triplet createTriplet(Operator op, String arg1, String arg2) {
-    return add(op, arg1, arg2);
+  private static boolean isLiteral(String arg) {
+    if (arg.isEmpty()) {
+      return false;
+    }
+    char c = arg.charAt(0);
+    return c == '_' || c == '"' || (c >= '0' && c <= '9');
+  }
+
+  // Todos los createTriplet devuelven el índice del terceto creado
+  public int createTriplet(Operator op, String arg1, String arg2) {
+    return add(op, operand(op, arg1), operand(op, arg2));
   }
-  public static Triplet createTriplet(Operator op, String arg1) {
-    return add(op, arg1, null);
+  public int createTriplet(Operator op, String arg1) {
+    return add(op, operand(op, arg1), TripletOperand.NONE);
   }
-  public static Triplet createTriplet(Operator op, int index) {
-    return add(op, ref(index), null);
+  public int createTriplet(Operator op, int index) {
+    return add(op, TripletOperand.ref(index), TripletOperand.NONE);
   }
-  public static Triplet createTriplet(Operator op, int index1, int index2) {
-    return add(op, ref(index1), ref(index2));
+  public int createTriplet(Operator op, int index1, int index2) {
+    return add(op, TripletOperand.ref(index1), TripletOperand.ref(index2));
   }
 
-  public static Triplet createTriplet(Operator op, String arg, int index) {
-    return add(op, arg, ref(index));
+  public int createTriplet(Operator op, String arg, int index) {
+    return add(op, operand(op, arg), TripletOperand.ref(index));
   }
 
-  public static Triplet createTriplet(Operator op, String arg, DataType type) {
-    return add(op, arg, type.getName());
+  public int createTriplet(Operator op, String arg, DataType type) {
+    return add(op, operand(op, arg), store.text(type.getName()));
   }
 
   // Obtener el índice actual (para referencias futuras)
-  public static int getCurrentIndex() {
-    return currentIndex;
+  public int getCurrentIndex() {
+    return store.size() + 1;
+  }
+
+  // Labels generados hasta ahora
+  public int getLabelCount() {
+    return labelCounter - 1;
   }
 
   // Generar un nuevo label único
-  public static String generateLabel() {
+  public String generateLabel() {
     return "L" + labelCounter++;
   }
 
   // Crear un terceto de label
-  public static Triplet createLabel(String labelName) {
-    return add(Operator.LABEL, labelName, null);
+  public int createLabel(String labelName) {
+    return add(Operator.LABEL, store.label(labelName), TripletOperand.NONE);
   }
 
   // Obtener el operador de salto complementario (negado)
@@ -67,52 +112,128 @@ public class IntermediateCodeGenerator {
     }
   }
 
-  // Generar comparación completa: operandos + CMP + salto negado
-  // Retorna el índice del terceto de salto (para poder completarlo después)
-  public static int createComparison(int expr1Idx, int expr2Idx, String comparator, String targetLabel) {
-    // CMP entre los dos índices de expresiones
+  // Comparación completa: CMP entre las expresiones y el salto negado, que queda en la
+  // lista de falsos; si la comparación se cumple, el código sigue de largo
+  public Condition createComparison(int expr1Idx, int expr2Idx, String comparator) {
     createTriplet(Operator.CMP, expr1Idx, expr2Idx);
+    return new Condition(PatchList.EMPTY, createJump(getNegatedJump(comparator)));
+  }
+
+  // Salto sin destino; se completa con backpatch
+  public PatchList createJump(Operator op) {
+    return PatchList.of(add(op, TripletOperand.NONE, TripletOperand.NONE));
+  }
+
+  // Une dos listas enganchando el último salto de la primera con el primero de la segunda.
+  // Las listas recibidas no se deben volver a usar.
+  public PatchList merge(PatchList first, PatchList second) {
+    if (first.isEmpty()) {
+      return second;
+    }
+    if (second.isEmpty()) {
+      return first;
+    }
+    store.setOperands(first.tail(), TripletOperand.ref(second.head()), TripletOperand.NONE);
+    return PatchList.linked(first, second);
+  }
+
+  // Completa todos los saltos de la lista con el label destino
+  public void backpatch(PatchList list, String targetLabel) {
+    int target = store.label(targetLabel);
+    int jump = list.head();
+    while (jump != 0) {
+      int next = TripletOperand.value(store.first(jump));
+      store.setOperands(jump, target, TripletOperand.NONE);
+      jump = next;
+    }
+  }
 
-    // Salto con el operador complementario
-    Operator jumpOp = getNegatedJump(comparator);
-    Triplet jumpTriplet = createTriplet(jumpOp, targetLabel, (String)null);
+  // Primera parte de "c1 AND c2", antes de generar c2: si c1 es verdadera se evalúa c2.
+  // Devuelve la lista de falsos de c1.
+  public PatchList beginAnd(Condition left) {
+    placeLabel(left.getTrueList());
+    return left.getFalseList();
+  }
 
-    return jumpTriplet.getIndex();
+  public Condition and(PatchList leftFalse, Condition right) {
+    return new Condition(right.getTrueList(), merge(leftFalse, right.getFalseList()));
   }
 
-  // Completar un terceto de salto con el label destino
-  public static void updateJumpTarget(int tripletIndex, String targetLabel) {
-    if (tripletIndex > 0 && tripletIndex <= triplets.size()) {
-      Triplet t = triplets.get(tripletIndex - 1);
-      // Crear un nuevo terceto con el label actualizado
-      triplets.set(tripletIndex - 1,
-        new Triplet(t.getIndex(), getOperatorFromString(t.getOperator()), targetLabel, null));
+  // Primera parte de "c1 OR c2", antes de generar c2: si c1 es verdadera se salta al destino
+  // verdadero y si es falsa se evalúa c2. Devuelve la lista de verdaderos de c1.
+  public PatchList beginOr(Condition left) {
+    if (endsWithOnlyJump(left)) {
+      // Alcanza con invertir el último salto para que salte cuando c1 se cumple
+      int jump = left.getFalseList().head();
+      store.setOperator(jump, store.operator(jump).negate());
+      return merge(left.getTrueList(), left.getFalseList());
     }
+    PatchList trueList = merge(left.getTrueList(), createJump(Operator.BI));
+    placeLabel(left.getFalseList());
+    return trueList;
+  }
+
+  public Condition or(PatchList leftTrue, Condition right) {
+    return new Condition(merge(leftTrue, right.getTrueList()), right.getFalseList());
   }
 
-  // Método auxiliar para obtener Operator desde string
-  private static Operator getOperatorFromString(String op) {
-    for (Operator operator : Operator.values()) {
-      if (operator.getDisplay().equals(op)) {
-        return operator;
-      }
+  public Condition not(Condition condition) {
+    if (endsWithOnlyJump(condition)) {
+      int jump = condition.getFalseList().head();
+      store.setOperator(jump, store.operator(jump).negate());
+      return condition;
     }
-    throw new IllegalArgumentException("Operador no encontrado: " + op);
+    // Si la condición es verdadera se llega al BI, que salta al destino falso del NOT; sus
+    // saltos falsos pasan a ser los verdaderos del NOT
+    placeLabel(condition.getTrueList());
+    return new Condition(condition.getFalseList(), createJump(Operator.BI));
+  }
+
+  // Cierra la condición de un if o while: los verdaderos van al cuerpo, que sigue a
+  // continuación, y los falsos a un label nuevo que se devuelve para ubicarlo después
+  public String enterTrueBranch(Condition condition) {
+    placeLabel(condition.getTrueList());
+    String falseLabel = generateLabel();
+    backpatch(condition.getFalseList(), falseLabel);
+    return falseLabel;
+  }
+
+  // La condición es un único salto condicional al destino falso y es el último terceto
+  private boolean endsWithOnlyJump(Condition condition) {
+    PatchList falseList = condition.getFalseList();
+    return condition.getTrueList().isEmpty() && falseList.isSingle()
+        && falseList.head() == store.size() && store.operator(falseList.head()).isConditionalJump();
+  }
+
+  // Label en la posición actual para los saltos de la lista (ninguno si está vacía)
+  private void placeLabel(PatchList list) {
+    if (!list.isEmpty()) {
+      String label = generateLabel();
+      createLabel(label);
+      backpatch(list, label);
+    }
+  }
+
+  // Vista de sólo lectura; los Triplet se crean al recorrerla
+  public List<Triplet> getTriplets() {
+    return store.asList();
   }
 
-  public static List<Triplet> getTriplets() {
-    return Collections.unmodifiableList(triplets);
+  public TripletStore getStore() {
+    return store;
   }
 
-  public static void reset() {
-    triplets.clear();
-    currentIndex = 1;
+  public void reset() {
+    store.clear();
     labelCounter = 1;
   }
 
-  public static void printAll() {
-    for (Triplet t : triplets) {
-      System.out.println(t);
+  public void printAll() {
+    if (!Trace.isEnabled(Category.ICG, Level.DEBUG)) {
+      return;
+    }
+    for (int i = 1; i <= store.size(); i++) {
+      Trace.debug(Category.ICG, "{}", store.get(i));
     }
   }
 }
\ No newline at end of file
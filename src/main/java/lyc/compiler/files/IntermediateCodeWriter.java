@@ -1,17 +1,23 @@
 package lyc.compiler.files;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
+import lyc.compiler.context.CompilationContext;
 
 public class IntermediateCodeWriter implements FileGenerator {
 
+  private final CompilationContext context;
+
+  public IntermediateCodeWriter(CompilationContext context) {
+    this.context = context;
+  }
+
   @Override
-  public void generate(FileWriter fileWriter) throws IOException {
+  public void generate(Writer fileWriter) throws IOException {
     fileWriter.write(
-        String.format("%-6s %-20s %-20s %-20s%n", "IDX", "OP", "ARG1", "ARG2"));
-    System.out.println(IntermediateCodeGenerator.getTriplets());
-    for (Triplet t : IntermediateCodeGenerator.getTriplets()) {
-      fileWriter.write(String.format("%-6s %-20s %-20s %-20s%n",
+        String.format("%-6s %-20s %-20s %-20s\n", "IDX", "OP", "ARG1", "ARG2"));
+    for (Triplet t : context.getIntermediateCodeGenerator().getTriplets()) {
+      fileWriter.write(String.format("%-6s %-20s %-20s %-20s\n",
                                      "[" + t.getIndex() + "]", t.getOperator(),
                                      t.getArg1(), t.getArg2()));
     }
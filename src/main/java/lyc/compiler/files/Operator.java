@@ -63,4 +63,22 @@ public enum Operator {
   Operator(String display) { this.display = display; }
 
   public String getDisplay() { return display; }
+
+  // Saltos condicionales e incondicional: su operando es un label
+  public boolean isJump() { return compareTo(BLT) >= 0 && compareTo(BI) <= 0; }
+
+  public boolean isConditionalJump() { return compareTo(BLT) >= 0 && compareTo(BNE) <= 0; }
+
+  // Salto condicional con la condición opuesta (BLT <-> BGE, BLE <-> BGT, BEQ <-> BNE)
+  public Operator negate() {
+    switch (this) {
+      case BLT: return BGE;
+      case BGE: return BLT;
+      case BLE: return BGT;
+      case BGT: return BLE;
+      case BEQ: return BNE;
+      case BNE: return BEQ;
+      default: throw new IllegalStateException("No es un salto condicional: " + this);
+    }
+  }
 }
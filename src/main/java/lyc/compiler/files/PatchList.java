@@ -0,0 +1,46 @@
+package lyc.compiler.files;
+
+/**
+ * Lista de saltos que esperan su label destino. La lista no se guarda aparte: va
+ * encadenada en los propios tercetos de salto, cuyo primer operando apunta (como
+ * referencia) al siguiente salto de la lista hasta que se completa con backpatch.
+ * Así merge es O(1) y completar cada salto no crea objetos.
+ */
+public final class PatchList {
+
+  public static final PatchList EMPTY = new PatchList(0, 0);
+
+  // Índices del primer y último salto (0 si la lista está vacía)
+  private final int head;
+  private final int tail;
+
+  private PatchList(int head, int tail) {
+    this.head = head;
+    this.tail = tail;
+  }
+
+  static PatchList of(int jumpIndex) {
+    return new PatchList(jumpIndex, jumpIndex);
+  }
+
+  static PatchList linked(PatchList first, PatchList second) {
+    return new PatchList(first.head, second.tail);
+  }
+
+  public boolean isEmpty() {
+    return head == 0;
+  }
+
+  // Lista de un único salto
+  public boolean isSingle() {
+    return head != 0 && head == tail;
+  }
+
+  int head() {
+    return head;
+  }
+
+  int tail() {
+    return tail;
+  }
+}
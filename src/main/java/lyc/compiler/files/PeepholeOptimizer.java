@@ -0,0 +1,389 @@
+package lyc.compiler.files;
+
+import lyc.compiler.files.AsmInstruction.Opcode;
+import lyc.compiler.files.AsmInstruction.Operand;
+import lyc.compiler.metrics.CompileMetrics;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Optimizador peephole sobre el cuerpo del assembler MASM, después de que
+ * AsmCodeGenerator bajó los tercetos a instrucciones. Recorre el código mirando
+ * una ventana de hasta 'window' lineas (instrucciones y labels; los comentarios no
+ * cuentan y quedan donde estaban) y aplica la primera regla de Rule que reconoce el
+ * comienzo de la ventana. Los recorridos se repiten hasta que ninguna regla cambia
+ * nada: una reescritura puede dejar lugar a otra (un label que queda sin saltos,
+ * un salto que queda justo antes de su label).
+ *
+ * Cada regla deja el programa haciendo exactamente lo mismo; las que necesitan más
+ * lineas que la ventana no se aplican.
+ */
+public final class PeepholeOptimizer {
+
+    public static final int DEFAULT_WINDOW = 4;
+
+    public enum Rule {
+        // FLD [y] / FSTP [x] / FLD [x] -> FLD [y] / FST [x]: el valor se guarda y sigue en
+        // ST(0). Sólo cuando viene de memoria (o es un Int, con FILD): ST(0) tiene más
+        // precisión que un DD, y un resultado calculado volvería redondeado de [x]
+        STORE_LOAD("store-load", 3) {
+            @Override
+            List<AsmInstruction> rewrite(List<AsmInstruction> lines, Program program) {
+                AsmInstruction source = lines.get(0);
+                AsmInstruction store = lines.get(1);
+                AsmInstruction load = lines.get(2);
+                if ((is(source, Opcode.FLD) || is(source, Opcode.FILD)) && source.getOperand(0).isMemory()
+                        && is(store, Opcode.FSTP) && is(load, Opcode.FLD) && sameMemory(store, load)) {
+                    return List.of(source, AsmInstruction.of(Opcode.FST, store.getOperand(0)));
+                }
+                return null;
+            }
+        },
+        // FLD [x] / FSTP [x] (x := x) no cambia nada; con un Int, mov EAX, [x] / mov [x], EAX
+        LOAD_STORE("load-store", 2) {
+            @Override
+            List<AsmInstruction> rewrite(List<AsmInstruction> lines, Program program) {
+                AsmInstruction load = lines.get(0);
+                AsmInstruction store = lines.get(1);
+                if (is(load, Opcode.FLD) && is(store, Opcode.FSTP) && sameMemory(load, store)) {
+                    return List.of();
+                }
+                if (is(load, Opcode.MOV) && is(store, Opcode.MOV) && load.getOperand(1) != null
+                        && load.getOperand(1).isMemory() && store.getOperand(0).isMemory()
+                        && load.getOperand(0).getValue().equals(store.getOperand(1).getValue())
+                        && load.getOperand(1).getValue().equals(store.getOperand(0).getValue())) {
+                    return List.of();
+                }
+                return null;
+            }
+        },
+        // Un valor que se carga y se descarta: FLD [x] (o FILD [x]) / FSTP ST(0)
+        LOAD_POP("load-pop", 2) {
+            @Override
+            List<AsmInstruction> rewrite(List<AsmInstruction> lines, Program program) {
+                AsmInstruction load = lines.get(0);
+                AsmInstruction pop = lines.get(1);
+                if ((is(load, Opcode.FLD) || is(load, Opcode.FILD)) && load.getOperand(0).isMemory() && isPop(pop)) {
+                    return List.of();
+                }
+                return null;
+            }
+        },
+        // Una comparación que ningún salto lee: sólo queda sacar los operandos de la pila.
+        // Los saltos condicionales siempre siguen a su comparación, así que los flags y
+        // AX (o EAX, que sólo vive dentro de la expresión) no se leen en otro lado. Puede
+        // ser lo último del código, así que se aplica aunque falten lineas
+        DEAD_COMPARE("dead-compare", 4, 3, 1) {
+            @Override
+            List<AsmInstruction> rewrite(List<AsmInstruction> lines, Program program) {
+                AsmInstruction compare = lines.get(0);
+                // Un cmp entre Int sólo deja los flags: se va junto con el mov EAX, [x] que
+                // lo alimenta, y las lineas que siguen quedan
+                int start = isMemoryLoad(compare) && lines.size() > 1 && is(lines.get(1), Opcode.CMP) ? 1 : 0;
+                if (is(lines.get(start), Opcode.CMP)) {
+                    if (lines.size() > start + 1 && isConditionalJump(lines.get(start + 1))) {
+                        return null;
+                    }
+                    return List.copyOf(lines.subList(start + 1, Math.min(lines.size(), 3)));
+                }
+                if (lines.size() < 3
+                        || !is(compare, Opcode.FCOMP) && !is(compare, Opcode.FICOMP) && !is(compare, Opcode.FCOMPP)
+                        || !is(lines.get(1), Opcode.FSTSW) || !is(lines.get(2), Opcode.SAHF)
+                        || lines.size() > 3 && isConditionalJump(lines.get(3))) {
+                    return null;
+                }
+                AsmInstruction pop = AsmInstruction.of(Opcode.FSTP, Operand.of("ST(0)"));
+                return is(compare, Opcode.FCOMPP) ? List.of(pop, pop) : List.of(pop);
+            }
+        },
+        // Jxx L / L: -> L:
+        JUMP_TO_NEXT("jump-to-next", 2) {
+            @Override
+            List<AsmInstruction> rewrite(List<AsmInstruction> lines, Program program) {
+                AsmInstruction jump = lines.get(0);
+                AsmInstruction label = lines.get(1);
+                if (jump.isInstruction() && jump.getOpcode().isJump() && label.isLabel()
+                        && label.getLabel().equals(targetOf(jump))) {
+                    return List.of(label);
+                }
+                return null;
+            }
+        },
+        // Jxx L1 donde L1: JMP L2 -> Jxx L2, siguiendo la cadena entera. Un ciclo de JMP
+        // es un loop infinito y se deja como está
+        JUMP_CHAIN("jump-chain", 1) {
+            @Override
+            List<AsmInstruction> rewrite(List<AsmInstruction> lines, Program program) {
+                AsmInstruction jump = lines.get(0);
+                if (!jump.isInstruction() || !jump.getOpcode().isJump()) {
+                    return null;
+                }
+                String first = targetOf(jump);
+                Set<String> seen = new HashSet<>();
+                seen.add(first);
+                AsmInstruction last = null;
+                for (AsmInstruction next = program.target(first); is(next, Opcode.JMP); next = program.target(targetOf(next))) {
+                    if (!seen.add(targetOf(next))) {
+                        return null;
+                    }
+                    last = next;
+                }
+                return last == null ? null : List.of(AsmInstruction.of(jump.getOpcode(), last.getOperand(0)));
+            }
+        },
+        // L1: / L2: -> L1:, y los saltos a L2 pasan a L1
+        LABEL_CHAIN("label-chain", 2) {
+            @Override
+            List<AsmInstruction> rewrite(List<AsmInstruction> lines, Program program) {
+                AsmInstruction first = lines.get(0);
+                AsmInstruction second = lines.get(1);
+                if (first.isLabel() && second.isLabel()) {
+                    program.rename(second.getLabel(), first.getLabel());
+                    return List.of(first);
+                }
+                return null;
+            }
+        },
+        // Un label al que no salta nadie
+        UNUSED_LABEL("unused-label", 1) {
+            @Override
+            List<AsmInstruction> rewrite(List<AsmInstruction> lines, Program program) {
+                AsmInstruction label = lines.get(0);
+                return label.isLabel() && program.references(label.getLabel()) == 0 ? List.of() : null;
+            }
+        },
+        // Lo que sigue a un JMP hasta el próximo label no se ejecuta nunca
+        UNREACHABLE("unreachable", 2) {
+            @Override
+            List<AsmInstruction> rewrite(List<AsmInstruction> lines, Program program) {
+                AsmInstruction jump = lines.get(0);
+                if (is(jump, Opcode.JMP) && lines.get(1).isInstruction()) {
+                    return List.of(jump);
+                }
+                return null;
+            }
+        };
+
+        private final String id;
+        // Lineas que mira, de esas las que reemplaza y las que necesita como mínimo
+        private final int width;
+        private final int replaced;
+        private final int minimum;
+
+        Rule(String id, int width) {
+            this(id, width, width);
+        }
+
+        Rule(String id, int width, int replaced) {
+            this(id, width, replaced, replaced);
+        }
+
+        Rule(String id, int width, int replaced, int minimum) {
+            this.id = id;
+            this.width = width;
+            this.replaced = replaced;
+            this.minimum = minimum;
+        }
+
+        public String id() {
+            return id;
+        }
+
+        public int width() {
+            return width;
+        }
+
+        // Reemplazo de las primeras 'replaced' lineas, o null si la regla no aplica. Al
+        // final del código puede recibir menos de 'width' lineas, pero nunca menos de
+        // 'minimum'; con menos de 'replaced' reemplaza todas las que recibió
+        abstract List<AsmInstruction> rewrite(List<AsmInstruction> lines, Program program);
+    }
+
+    // Lo que las reglas necesitan saber del resto del código. Se calcula al empezar
+    // cada recorrido; los cambios de nombre de labels se aplican al terminarlo
+    static final class Program {
+        // Label -> primera instrucción que se ejecuta después (null si no hay ninguna)
+        private final Map<String, AsmInstruction> targets = new HashMap<>();
+        // Label -> cantidad de saltos que van a él
+        private final Map<String, Integer> references = new HashMap<>();
+        private final Map<String, String> renamed = new HashMap<>();
+
+        Program(List<AsmInstruction> body) {
+            AsmInstruction next = null;
+            for (int i = body.size() - 1; i >= 0; i--) {
+                AsmInstruction line = body.get(i);
+                if (line.isLabel()) {
+                    targets.put(line.getLabel(), next);
+                } else if (line.isInstruction()) {
+                    next = line;
+                    if (line.getOpcode().isJump()) {
+                        references.merge(targetOf(line), 1, Integer::sum);
+                    }
+                }
+            }
+        }
+
+        AsmInstruction target(String label) {
+            return targets.get(label);
+        }
+
+        int references(String label) {
+            return references.getOrDefault(label, 0);
+        }
+
+        void rename(String from, String to) {
+            renamed.put(from, to);
+        }
+
+        // Lleva los saltos a los labels que se eliminaron con LABEL_CHAIN
+        void applyRenames(List<AsmInstruction> body) {
+            if (renamed.isEmpty()) {
+                return;
+            }
+            for (int i = 0; i < body.size(); i++) {
+                AsmInstruction line = body.get(i);
+                if (line.isInstruction() && line.getOpcode().isJump() && renamed.containsKey(targetOf(line))) {
+                    body.set(i, AsmInstruction.of(line.getOpcode(), Operand.of(renamed.get(targetOf(line)))));
+                }
+            }
+        }
+    }
+
+    private final int window;
+    private final Map<Rule, Integer> hits = new EnumMap<>(Rule.class);
+
+    public PeepholeOptimizer() {
+        this(DEFAULT_WINDOW);
+    }
+
+    // Con una ventana menor que 1 no se aplica ninguna regla
+    public PeepholeOptimizer(int window) {
+        this.window = window;
+    }
+
+    // Reescribe las instrucciones en el lugar y devuelve cuántas reescrituras hizo
+    public int run(List<AsmInstruction> body) {
+        int total = 0;
+        int applied;
+        do {
+            applied = sweep(body);
+            total += applied;
+        } while (applied > 0);
+        return total;
+    }
+
+    private int sweep(List<AsmInstruction> body) {
+        Program program = new Program(body);
+        List<AsmInstruction> out = new ArrayList<>(body.size());
+        List<AsmInstruction> lines = new ArrayList<>(window);
+        int[] positions = new int[Math.max(window, 0)];
+        int applied = 0;
+        int i = 0;
+        while (i < body.size()) {
+            AsmInstruction line = body.get(i);
+            if (!isSignificant(line)) {
+                out.add(line);
+                i++;
+                continue;
+            }
+            lines.clear();
+            for (int j = i; j < body.size() && lines.size() < window; j++) {
+                if (isSignificant(body.get(j))) {
+                    positions[lines.size()] = j;
+                    lines.add(body.get(j));
+                }
+            }
+            int next = -1;
+            for (Rule rule : Rule.values()) {
+                if (rule.width > window || lines.size() < rule.minimum) {
+                    continue;
+                }
+                List<AsmInstruction> replacement = rule.rewrite(lines.subList(0, Math.min(rule.width, lines.size())), program);
+                if (replacement == null) {
+                    continue;
+                }
+                // Los comentarios entre las lineas reemplazadas quedan antes del reemplazo
+                int end = positions[Math.min(rule.replaced, lines.size()) - 1];
+                for (int j = i + 1; j < end; j++) {
+                    if (!isSignificant(body.get(j))) {
+                        out.add(body.get(j));
+                    }
+                }
+                out.addAll(replacement);
+                hits.merge(rule, 1, Integer::sum);
+                applied++;
+                next = end + 1;
+                break;
+            }
+            if (next < 0) {
+                out.add(line);
+                next = i + 1;
+            }
+            i = next;
+        }
+        program.applyRenames(out);
+        body.clear();
+        body.addAll(out);
+        return applied;
+    }
+
+    public Map<Rule, Integer> hits() {
+        return new EnumMap<>(hits);
+    }
+
+    // Suma las reescrituras de cada regla a las métricas
+    public void recordTo(CompileMetrics metrics) {
+        for (Map.Entry<Rule, Integer> entry : hits.entrySet()) {
+            metrics.recordPeephole(entry.getKey().id(), entry.getValue());
+        }
+    }
+
+    // Resumen para la consola: "5 reescrituras (store-load 3, jump-to-next 2)"
+    public static String summary(CompileMetrics metrics) {
+        StringBuilder out = new StringBuilder();
+        out.append(metrics.get(CompileMetrics.Counter.PEEPHOLE)).append(" reescrituras (");
+        int written = 0;
+        for (Map.Entry<String, Long> entry : metrics.getPeepholeHits().entrySet()) {
+            out.append(written++ == 0 ? "" : ", ").append(entry.getKey()).append(' ').append(entry.getValue());
+        }
+        return out.append(')').toString();
+    }
+
+    private static boolean isSignificant(AsmInstruction line) {
+        return line.isInstruction() || line.isLabel();
+    }
+
+    private static boolean is(AsmInstruction line, Opcode opcode) {
+        return line != null && line.getOpcode() == opcode;
+    }
+
+    private static boolean sameMemory(AsmInstruction a, AsmInstruction b) {
+        Operand first = a.getOperand(0);
+        Operand second = b.getOperand(0);
+        return first.isMemory() && second.isMemory() && first.getValue().equals(second.getValue());
+    }
+
+    private static boolean isPop(AsmInstruction line) {
+        return is(line, Opcode.FSTP) && !line.getOperand(0).isMemory() && line.getOperand(0).getValue().equals("ST(0)");
+    }
+
+    // mov EAX, [x]
+    private static boolean isMemoryLoad(AsmInstruction line) {
+        return is(line, Opcode.MOV) && line.getOperand(0).getValue().equals("EAX") && line.getOperand(1) != null
+                && line.getOperand(1).isMemory();
+    }
+
+    private static boolean isConditionalJump(AsmInstruction line) {
+        return line.isInstruction() && line.getOpcode().isJump() && line.getOpcode() != Opcode.JMP;
+    }
+
+    private static String targetOf(AsmInstruction jump) {
+        return jump.getOperand(0).getValue();
+    }
+}
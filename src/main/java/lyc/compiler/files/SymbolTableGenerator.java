@@ -1,20 +1,26 @@
 package lyc.compiler.files;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.Map;
+import lyc.compiler.context.CompilationContext;
 import lyc.compiler.table.SymbolEntry;
-import lyc.compiler.table.SymbolTableManager;
 
 public class SymbolTableGenerator implements FileGenerator {
 
+  private final CompilationContext context;
+
+  public SymbolTableGenerator(CompilationContext context) {
+    this.context = context;
+  }
+
   @Override
-  public void generate(FileWriter fileWriter) throws IOException {
-    fileWriter.write(String.format("%-20s %-15s %-40s %-6s%n", "LEXEME", "TYPE",
+  public void generate(Writer fileWriter) throws IOException {
+    fileWriter.write(String.format("%-20s %-15s %-40s %-6s\n", "LEXEME", "TYPE",
                                    "VALUE", "LENGTH"));
 
     for (Map.Entry<String, SymbolEntry> e :
-         SymbolTableManager.getSymbolTable().entrySet()) {
+         context.getSymbolTableManager().getSymbolTable().entrySet()) {
       String lexeme = e.getKey();
       SymbolEntry entry = e.getValue();
 
@@ -22,10 +28,10 @@ public class SymbolTableGenerator implements FileGenerator {
       String value = safe(entry.getValue());
       String length = safe(entry.getLength());
 
-      fileWriter.write(String.format("%-20s %-15s %-40s %-6s%n", lexeme, type,
+      fileWriter.write(String.format("%-20s %-15s %-40s %-6s\n", lexeme, type,
                                      value, length));
     }
   }
 
   private String safe(Object o) { return o == null ? "-" : o.toString(); }
-}
\ No newline at end of file
+}
@@ -1,38 +1,50 @@
 package lyc.compiler.files;
 
+// Vista de un terceto guardado en un TripletStore; se crea al pedirla y no se modifica
 public class Triplet {
+  private final TripletStore store;
   private final int index;
   private final Operator operator;
-  private final String arg1;
-  private final String arg2;
+  private final int first;
+  private final int second;
 
-  public Triplet(int index, Operator operator, String arg1, String arg2) {
+  Triplet(TripletStore store, int index, Operator operator, int first, int second) {
+    this.store = store;
     this.index = index;
     this.operator = operator;
-    this.arg1 = arg1;
-    this.arg2 = arg2;
+    this.first = first;
+    this.second = second;
   }
 
   public int getIndex() { return index; }
 
   public String getOperator() { return operator.getDisplay(); }
 
-  public String getArg1() { return arg1; }
+  public Operator getOperatorType() { return operator; }
 
-  public String getArg2() { return arg2; }
+  // Operandos codificados (ver TripletOperand)
+  public int getFirst() { return first; }
 
-  private static String formatArg(String arg) {
+  public int getSecond() { return second; }
 
-    if (arg == null)
-      return "-";
-    if (arg.startsWith("ref:"))
-      return "[" + arg.substring(4) + "]";
-    return arg;
+  // Texto de los operandos; las referencias a otros tercetos se devuelven como "ref:N"
+  public String getArg1() { return store.operandText(first); }
+
+  public String getArg2() { return store.operandText(second); }
+
+  // Misma forma que toString(), sin crear Strings intermedios
+  public void appendTo(StringBuilder out) {
+    out.append('[').append(index).append("] (").append(operator).append(", ");
+    store.appendOperand(out, first, true);
+    out.append(", ");
+    store.appendOperand(out, second, true);
+    out.append(')');
   }
 
   @Override
   public String toString() {
-    return "[" + index + "] (" + operator + ", " + formatArg(arg1) + ", " +
-        formatArg(arg2) + ")";
+    StringBuilder out = new StringBuilder(32);
+    appendTo(out);
+    return out.toString();
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,59 @@
+package lyc.compiler.files;
+
+/**
+ * Operando de un terceto codificado en un int: 3 bits de tipo y 29 de valor.
+ * El valor es el índice del terceto referenciado, el id del nombre en el pool del
+ * TripletStore (símbolos, literales, textos) o el número de label (L12 -> 12).
+ * NONE (0) es el operando vacío.
+ */
+public final class TripletOperand {
+
+  public enum Kind {
+    NONE,
+    // Resultado de otro terceto
+    REF,
+    // Identificador del programa
+    SYMBOL,
+    // Constante de la tabla de símbolos (_10, _3.5, _hola)
+    LITERAL,
+    // Label generado por IntermediateCodeGenerator.generateLabel (L<n>)
+    LABEL,
+    // Cualquier otro texto (nombre de tipo en DECLARE, labels sin completar)
+    TEXT
+  }
+
+  public static final int NONE = 0;
+
+  private static final Kind[] KINDS = Kind.values();
+  private static final int KIND_SHIFT = 29;
+  private static final int VALUE_MASK = (1 << KIND_SHIFT) - 1;
+
+  private TripletOperand() {}
+
+  public static int ref(int tripletIndex) {
+    return encode(Kind.REF, tripletIndex);
+  }
+
+  public static int label(int number) {
+    return encode(Kind.LABEL, number);
+  }
+
+  static int encode(Kind kind, int value) {
+    if (value < 0 || value > VALUE_MASK) {
+      throw new IllegalArgumentException("Valor de operando fuera de rango: " + value);
+    }
+    return kind.ordinal() << KIND_SHIFT | value;
+  }
+
+  public static Kind kind(int operand) {
+    return KINDS[operand >>> KIND_SHIFT];
+  }
+
+  public static int value(int operand) {
+    return operand & VALUE_MASK;
+  }
+
+  public static boolean isRef(int operand) {
+    return operand >>> KIND_SHIFT == Kind.REF.ordinal();
+  }
+}
@@ -0,0 +1,300 @@
+package lyc.compiler.files;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import lyc.compiler.files.TripletOperand.Kind;
+
+/**
+ * Tercetos guardados como arreglos paralelos de primitivos: el operador (ordinal)
+ * y los dos operandos codificados con TripletOperand. Los arreglos crecen por
+ * bloques de CHUNK_SIZE, sin copiar lo ya guardado. Los nombres (símbolos,
+ * literales, textos) se guardan una sola vez en un pool y los operandos los
+ * referencian por id. Los objetos Triplet se crean sólo al pedirlos.
+ *
+ * Los índices de terceto empiezan en 1, igual que en el listado.
+ */
+public final class TripletStore {
+
+  private static final int CHUNK_BITS = 12;
+  private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+  private static final Operator[] OPERATORS = Operator.values();
+
+  private byte[][] operators = new byte[8][];
+  private int[][] firstOperands = new int[8][];
+  private int[][] secondOperands = new int[8][];
+  private int size;
+
+  private final List<String> names;
+  private final Map<String, Integer> nameIds;
+  private final boolean readOnly;
+
+  public TripletStore() {
+    this.names = new ArrayList<>();
+    this.nameIds = new HashMap<>();
+    this.readOnly = false;
+  }
+
+  private TripletStore(TripletStore source) {
+    int chunks = (source.size + CHUNK_SIZE - 1) >>> CHUNK_BITS;
+    this.operators = new byte[Math.max(chunks, 1)][];
+    this.firstOperands = new int[Math.max(chunks, 1)][];
+    this.secondOperands = new int[Math.max(chunks, 1)][];
+    for (int chunk = 0; chunk < chunks; chunk++) {
+      operators[chunk] = source.operators[chunk].clone();
+      firstOperands[chunk] = source.firstOperands[chunk].clone();
+      secondOperands[chunk] = source.secondOperands[chunk].clone();
+    }
+    this.size = source.size;
+    this.names = List.copyOf(source.names);
+    this.nameIds = Map.copyOf(source.nameIds);
+    this.readOnly = true;
+  }
+
+  // Copia que no se puede modificar, con su propia copia del pool: resuelve los nombres
+  // que ya tenía el original y rechaza los nuevos
+  public TripletStore readOnlyCopy() {
+    return new TripletStore(this);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  // Agrega un terceto y devuelve su índice
+  public int add(Operator operator, int first, int second) {
+    checkWritable();
+    int position = size;
+    int chunk = position >>> CHUNK_BITS;
+    if (chunk == operators.length) {
+      operators = Arrays.copyOf(operators, chunk * 2);
+      firstOperands = Arrays.copyOf(firstOperands, chunk * 2);
+      secondOperands = Arrays.copyOf(secondOperands, chunk * 2);
+    }
+    if (operators[chunk] == null) {
+      operators[chunk] = new byte[CHUNK_SIZE];
+      firstOperands[chunk] = new int[CHUNK_SIZE];
+      secondOperands[chunk] = new int[CHUNK_SIZE];
+    }
+    int offset = position & CHUNK_MASK;
+    operators[chunk][offset] = (byte) operator.ordinal();
+    firstOperands[chunk][offset] = first;
+    secondOperands[chunk][offset] = second;
+    size++;
+    return position + 1;
+  }
+
+  public void setOperands(int index, int first, int second) {
+    checkWritable();
+    int position = position(index);
+    firstOperands[position >>> CHUNK_BITS][position & CHUNK_MASK] = first;
+    secondOperands[position >>> CHUNK_BITS][position & CHUNK_MASK] = second;
+  }
+
+  public void setOperator(int index, Operator operator) {
+    checkWritable();
+    int position = position(index);
+    operators[position >>> CHUNK_BITS][position & CHUNK_MASK] = (byte) operator.ordinal();
+  }
+
+  // Elimina los tercetos marcados (removed[i] para el terceto i) y renumera las
+  // referencias de los que quedan. Devuelve el índice nuevo de cada terceto, 0 si se
+  // eliminó; referenciar un terceto eliminado es un error de quien lo marcó.
+  public int[] remove(boolean[] removed) {
+    checkWritable();
+    int[] newIndex = new int[size + 1];
+    int kept = 0;
+    for (int i = 1; i <= size; i++) {
+      if (!removed[i]) {
+        newIndex[i] = ++kept;
+      }
+    }
+    for (int i = 1; i <= size; i++) {
+      if (newIndex[i] == 0) {
+        continue;
+      }
+      int from = i - 1;
+      int to = newIndex[i] - 1;
+      byte operator = operators[from >>> CHUNK_BITS][from & CHUNK_MASK];
+      int first = remap(firstOperands[from >>> CHUNK_BITS][from & CHUNK_MASK], newIndex, i);
+      int second = remap(secondOperands[from >>> CHUNK_BITS][from & CHUNK_MASK], newIndex, i);
+      operators[to >>> CHUNK_BITS][to & CHUNK_MASK] = operator;
+      firstOperands[to >>> CHUNK_BITS][to & CHUNK_MASK] = first;
+      secondOperands[to >>> CHUNK_BITS][to & CHUNK_MASK] = second;
+    }
+    size = kept;
+    return newIndex;
+  }
+
+  private static int remap(int operand, int[] newIndex, int user) {
+    if (!TripletOperand.isRef(operand)) {
+      return operand;
+    }
+    int target = newIndex[TripletOperand.value(operand)];
+    if (target == 0) {
+      throw new IllegalStateException("El terceto " + user + " referencia al terceto eliminado "
+                                      + TripletOperand.value(operand));
+    }
+    return TripletOperand.ref(target);
+  }
+
+  public Operator operator(int index) {
+    int position = position(index);
+    return OPERATORS[operators[position >>> CHUNK_BITS][position & CHUNK_MASK]];
+  }
+
+  public int first(int index) {
+    int position = position(index);
+    return firstOperands[position >>> CHUNK_BITS][position & CHUNK_MASK];
+  }
+
+  public int second(int index) {
+    int position = position(index);
+    return secondOperands[position >>> CHUNK_BITS][position & CHUNK_MASK];
+  }
+
+  // Operandos que guardan un nombre del pool
+  public int symbol(String name) {
+    return TripletOperand.encode(Kind.SYMBOL, nameId(name));
+  }
+
+  public int literal(String name) {
+    return TripletOperand.encode(Kind.LITERAL, nameId(name));
+  }
+
+  public int text(String value) {
+    return TripletOperand.encode(Kind.TEXT, nameId(value));
+  }
+
+  // Labels de la forma L<n> se guardan como número; cualquier otro, como texto
+  public int label(String name) {
+    if (name.length() > 1 && name.length() < 10 && name.charAt(0) == 'L') {
+      int number = 0;
+      for (int i = 1; i < name.length(); i++) {
+        char c = name.charAt(i);
+        if (c < '0' || c > '9') {
+          return text(name);
+        }
+        number = number * 10 + (c - '0');
+      }
+      if (name.charAt(1) != '0') {
+        return TripletOperand.label(number);
+      }
+    }
+    return text(name);
+  }
+
+  // Texto del operando, igual al que se usaba antes como argumento ("ref:N" para referencias)
+  public String operandText(int operand) {
+    switch (TripletOperand.kind(operand)) {
+      case NONE: return null;
+      case REF: return "ref:" + TripletOperand.value(operand);
+      case LABEL: return "L" + TripletOperand.value(operand);
+      default: return names.get(TripletOperand.value(operand));
+    }
+  }
+
+  // Nombre de un operando SYMBOL, LITERAL o TEXT
+  public String name(int operand) {
+    return names.get(TripletOperand.value(operand));
+  }
+
+  // Agrega el operando sin crear Strings: las referencias como [N] en el listado o
+  // ref:N en los comentarios del assembler, y los vacíos como "-"
+  public void appendOperand(StringBuilder out, int operand, boolean bracketRefs) {
+    switch (TripletOperand.kind(operand)) {
+      case NONE:
+        out.append('-');
+        break;
+      case REF:
+        if (bracketRefs) {
+          out.append('[').append(TripletOperand.value(operand)).append(']');
+        } else {
+          out.append("ref:").append(TripletOperand.value(operand));
+        }
+        break;
+      case LABEL:
+        out.append('L').append(TripletOperand.value(operand));
+        break;
+      default:
+        out.append(names.get(TripletOperand.value(operand)));
+    }
+  }
+
+  // Línea del listado: "[n] (OPERADOR, arg1, arg2)"
+  public void appendTo(StringBuilder out, int index) {
+    out.append('[').append(index).append("] (").append(operator(index).name()).append(", ");
+    appendOperand(out, first(index), true);
+    out.append(", ");
+    appendOperand(out, second(index), true);
+    out.append(')');
+  }
+
+  public Triplet get(int index) {
+    int position = position(index);
+    int chunk = position >>> CHUNK_BITS;
+    int offset = position & CHUNK_MASK;
+    return new Triplet(this, index, OPERATORS[operators[chunk][offset]], firstOperands[chunk][offset],
+                       secondOperands[chunk][offset]);
+  }
+
+  // Vista de sólo lectura; cada get crea el Triplet en el momento
+  public List<Triplet> asList() {
+    return new TripletList();
+  }
+
+  public void clear() {
+    checkWritable();
+    operators = new byte[8][];
+    firstOperands = new int[8][];
+    secondOperands = new int[8][];
+    size = 0;
+    names.clear();
+    nameIds.clear();
+  }
+
+  private int nameId(String name) {
+    Integer id = nameIds.get(name);
+    if (id == null) {
+      checkWritable();
+      id = names.size();
+      names.add(name);
+      nameIds.put(name, id);
+    }
+    return id;
+  }
+
+  private int position(int index) {
+    if (index < 1 || index > size) {
+      throw new IndexOutOfBoundsException("Terceto inexistente: " + index + " (hay " + size + ")");
+    }
+    return index - 1;
+  }
+
+  private void checkWritable() {
+    if (readOnly) {
+      throw new UnsupportedOperationException("Copia de sólo lectura de los tercetos");
+    }
+  }
+
+  private final class TripletList extends AbstractList<Triplet> implements RandomAccess {
+    @Override
+    public Triplet get(int i) {
+      return TripletStore.this.get(i + 1);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+}
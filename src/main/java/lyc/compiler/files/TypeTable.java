@@ -1,19 +1,44 @@
 package lyc.compiler.files;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import lyc.compiler.table.DataType;
 
 public class TypeTable {
 
-  private static Map<Integer, DataType> typeMap = new HashMap<>();
+  private final Map<Integer, DataType> typeMap;
 
-  public static DataType getType(int index) { return typeMap.get(index); }
+  public TypeTable() {
+    this(new HashMap<>());
+  }
+
+  private TypeTable(Map<Integer, DataType> typeMap) {
+    this.typeMap = typeMap;
+  }
+
+  public TypeTable readOnlyCopy() {
+    return new TypeTable(Collections.unmodifiableMap(new HashMap<>(typeMap)));
+  }
 
-  public static void putType(int index, DataType type) {
+  public DataType getType(int index) { return typeMap.get(index); }
+
+  public void putType(int index, DataType type) {
     typeMap.put(index, type);
   }
 
+  // Acompaña a TripletStore.remove: los tipos pasan al índice nuevo de cada terceto
+  public void remap(int[] newIndex) {
+    Map<Integer, DataType> previous = new HashMap<>(typeMap);
+    typeMap.clear();
+    for (Map.Entry<Integer, DataType> entry : previous.entrySet()) {
+      int index = entry.getKey();
+      if (index > 0 && index < newIndex.length && newIndex[index] > 0) {
+        typeMap.put(newIndex[index], entry.getValue());
+      }
+    }
+  }
+
   // Verifica si dos tipos son compatibles para una operación dada
   public static boolean areCompatible(DataType t1, DataType t2, Operator op) {
     switch (op) {
@@ -86,7 +111,7 @@ public class TypeTable {
     }
   }
 
-  public static void reset() {
+  public void reset() {
     typeMap.clear();
   }
 }
\ No newline at end of file
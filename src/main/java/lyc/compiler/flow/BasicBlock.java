@@ -0,0 +1,54 @@
+package lyc.compiler.flow;
+
+/**
+ * Tramo de tercetos que se ejecuta siempre completo: sólo se entra por el primero
+ * (un LABEL o lo que sigue a un salto) y sólo se sale por el último.
+ */
+public final class BasicBlock {
+
+  private static final int[] NONE = new int[0];
+
+  private final int index;
+  private final int first;
+  private final int last;
+  int[] successors = NONE;
+  int[] predecessors = NONE;
+
+  BasicBlock(int index, int first, int last) {
+    this.index = index;
+    this.first = first;
+    this.last = last;
+  }
+
+  // Posición en ControlFlowGraph.blocks(); el bloque 0 es la entrada del programa
+  public int index() {
+    return index;
+  }
+
+  // Índices de terceto, inclusive
+  public int first() {
+    return first;
+  }
+
+  public int last() {
+    return last;
+  }
+
+  public int size() {
+    return last - first + 1;
+  }
+
+  // Índices de los bloques; no se deben modificar
+  public int[] successors() {
+    return successors;
+  }
+
+  public int[] predecessors() {
+    return predecessors;
+  }
+
+  @Override
+  public String toString() {
+    return "B" + index + "[" + first + ".." + last + "]";
+  }
+}
@@ -0,0 +1,79 @@
+package lyc.compiler.flow;
+
+import java.util.Arrays;
+
+/**
+ * Operaciones sobre conjuntos de bits densos en long[], el formato de los valores
+ * de DataflowSolver. Todos los arreglos de un mismo análisis tienen el mismo largo.
+ */
+public final class Bits {
+
+  private Bits() {}
+
+  public static int words(int bits) {
+    return (bits + 63) >>> 6;
+  }
+
+  public static boolean get(long[] set, int bit) {
+    return (set[bit >>> 6] & 1L << bit) != 0;
+  }
+
+  public static void set(long[] set, int bit) {
+    set[bit >>> 6] |= 1L << bit;
+  }
+
+  public static void clear(long[] set, int bit) {
+    set[bit >>> 6] &= ~(1L << bit);
+  }
+
+  public static void clear(long[] set) {
+    Arrays.fill(set, 0);
+  }
+
+  // target |= source
+  public static void or(long[] target, long[] source) {
+    for (int i = 0; i < target.length; i++) {
+      target[i] |= source[i];
+    }
+  }
+
+  // target &= source
+  public static void and(long[] target, long[] source) {
+    for (int i = 0; i < target.length; i++) {
+      target[i] &= source[i];
+    }
+  }
+
+  // target &= ~source
+  public static void andNot(long[] target, long[] source) {
+    for (int i = 0; i < target.length; i++) {
+      target[i] &= ~source[i];
+    }
+  }
+
+  public static int cardinality(long[] set) {
+    int count = 0;
+    for (long word : set) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  // Siguiente bit en 1 desde 'from' inclusive, o -1
+  public static int next(long[] set, int from) {
+    int word = from >>> 6;
+    if (word >= set.length) {
+      return -1;
+    }
+    long bits = set[word] & -1L << from;
+    while (true) {
+      if (bits != 0) {
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+      }
+      if (++word == set.length) {
+        return -1;
+      }
+      bits = set[word];
+    }
+  }
+}
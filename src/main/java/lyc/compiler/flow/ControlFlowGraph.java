@@ -0,0 +1,180 @@
+package lyc.compiler.flow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lyc.compiler.files.Operator;
+import lyc.compiler.files.TripletStore;
+
+/**
+ * Grafo de flujo de los tercetos. Un bloque empieza en el primer terceto, en cada
+ * LABEL y después de cada salto (BI y BLT..BNE), y termina antes del próximo
+ * comienzo. Un salto condicional tiene dos sucesores (el destino y el bloque
+ * siguiente), un BI sólo el destino y el resto de los bloques sólo el siguiente.
+ *
+ * Se construye en tiempo lineal en la cantidad de tercetos y no copia el store:
+ * si los tercetos cambian hay que volver a construirlo.
+ */
+public final class ControlFlowGraph {
+
+  private final TripletStore store;
+  private final List<BasicBlock> blocks;
+  // Terceto -> bloque que lo contiene (índice 0 sin usar)
+  private final int[] blockOf;
+
+  private ControlFlowGraph(TripletStore store, List<BasicBlock> blocks, int[] blockOf) {
+    this.store = store;
+    this.blocks = Collections.unmodifiableList(blocks);
+    this.blockOf = blockOf;
+  }
+
+  // Lanza IllegalStateException si un salto va a un label que no está en el store
+  public static ControlFlowGraph build(TripletStore store) {
+    int size = store.size();
+    boolean[] leader = new boolean[size + 2];
+    leader[1] = true;
+    for (int i = 1; i <= size; i++) {
+      Operator op = store.operator(i);
+      if (op == Operator.LABEL) {
+        leader[i] = true;
+      } else if (op.isJump()) {
+        leader[i + 1] = true;
+      }
+    }
+
+    List<BasicBlock> blocks = new ArrayList<>();
+    int[] blockOf = new int[size + 1];
+    Map<Integer, Integer> labels = new HashMap<>();
+    for (int first = 1; first <= size; ) {
+      int last = first;
+      while (last < size && !leader[last + 1]) {
+        last++;
+      }
+      int index = blocks.size();
+      blocks.add(new BasicBlock(index, first, last));
+      for (int i = first; i <= last; i++) {
+        blockOf[i] = index;
+      }
+      if (store.operator(first) == Operator.LABEL) {
+        labels.put(store.first(first), index);
+      }
+      first = last + 1;
+    }
+
+    link(store, blocks, labels);
+    return new ControlFlowGraph(store, blocks, blockOf);
+  }
+
+  private static void link(TripletStore store, List<BasicBlock> blocks, Map<Integer, Integer> labels) {
+    int[] predecessorCount = new int[blocks.size()];
+    for (BasicBlock block : blocks) {
+      Operator op = store.operator(block.last());
+      boolean fallsThrough = op != Operator.BI && block.index() + 1 < blocks.size();
+      int target = -1;
+      if (op.isJump()) {
+        Integer labelled = labels.get(store.first(block.last()));
+        if (labelled == null) {
+          throw new IllegalStateException("Salto a un label inexistente en el terceto [" + block.last() + "]: "
+                                          + store.operandText(store.first(block.last())));
+        }
+        target = labelled;
+      }
+      if (target >= 0 && fallsThrough && target != block.index() + 1) {
+        block.successors = new int[] {block.index() + 1, target};
+      } else if (target >= 0) {
+        block.successors = new int[] {target};
+      } else if (fallsThrough) {
+        block.successors = new int[] {block.index() + 1};
+      }
+      for (int successor : block.successors) {
+        predecessorCount[successor]++;
+      }
+    }
+    for (BasicBlock block : blocks) {
+      block.predecessors = new int[predecessorCount[block.index()]];
+    }
+    int[] filled = new int[blocks.size()];
+    for (BasicBlock block : blocks) {
+      for (int successor : block.successors) {
+        blocks.get(successor).predecessors[filled[successor]++] = block.index();
+      }
+    }
+  }
+
+  public TripletStore store() {
+    return store;
+  }
+
+  public int size() {
+    return blocks.size();
+  }
+
+  public List<BasicBlock> blocks() {
+    return blocks;
+  }
+
+  public BasicBlock block(int index) {
+    return blocks.get(index);
+  }
+
+  public BasicBlock blockOf(int tripletIndex) {
+    return blocks.get(blockOf[tripletIndex]);
+  }
+
+  // Bloques en postorden inverso desde la entrada (cada bloque antes que sus
+  // sucesores, salvo en los ciclos), con los inalcanzables al final. Es el orden en
+  // que un análisis hacia adelante converge en menos vueltas.
+  public int[] reversePostorder() {
+    int count = blocks.size();
+    int[] order = new int[count];
+    boolean[] visited = new boolean[count];
+    int position = count;
+    // DFS iterativo: un while anidado 10k veces no debe desbordar la pila
+    int[] stack = new int[count];
+    int[] nextSuccessor = new int[count];
+    if (count > 0) {
+      int depth = 0;
+      stack[depth++] = 0;
+      visited[0] = true;
+      while (depth > 0) {
+        int current = stack[depth - 1];
+        int[] successors = blocks.get(current).successors;
+        if (nextSuccessor[current] < successors.length) {
+          int successor = successors[nextSuccessor[current]++];
+          if (!visited[successor]) {
+            visited[successor] = true;
+            stack[depth++] = successor;
+          }
+        } else {
+          order[--position] = current;
+          depth--;
+        }
+      }
+    }
+    // Los inalcanzables quedan en el orden del programa, detrás de los demás
+    int reachable = count - position;
+    System.arraycopy(order, position, order, 0, reachable);
+    int next = reachable;
+    for (int i = 0; i < count; i++) {
+      if (!visited[i]) {
+        order[next++] = i;
+      }
+    }
+    return order;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder out = new StringBuilder();
+    for (BasicBlock block : blocks) {
+      out.append(block).append(" ->");
+      for (int successor : block.successors) {
+        out.append(" B").append(successor);
+      }
+      out.append('\n');
+    }
+    return out.toString();
+  }
+}
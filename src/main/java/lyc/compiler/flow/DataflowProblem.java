@@ -0,0 +1,40 @@
+package lyc.compiler.flow;
+
+/**
+ * Análisis de flujo de datos sobre conjuntos de bits, para resolver con
+ * DataflowSolver. El valor de entrada de la función de transferencia es el que
+ * llega de los vecinos (predecesores hacia adelante, sucesores hacia atrás) y el de
+ * salida el que el bloque les pasa a los del otro lado.
+ */
+public interface DataflowProblem {
+
+  enum Direction {
+    FORWARD,
+    BACKWARD
+  }
+
+  Direction direction();
+
+  // Cantidad de bits de cada valor
+  int bits();
+
+  // Valor inicial de todos los bloques y neutro del meet; vacío por defecto (unión).
+  // Un análisis con intersección lo llena de unos.
+  default void top(long[] value) {
+    Bits.clear(value);
+  }
+
+  // Valor que llega a la entrada del programa (hacia adelante) o a las salidas
+  // (hacia atrás); vacío por defecto
+  default void boundary(long[] value) {
+    Bits.clear(value);
+  }
+
+  // Combina en 'into' el valor de un vecino; unión por defecto
+  default void meet(long[] into, long[] value) {
+    Bits.or(into, value);
+  }
+
+  // Calcula 'out' a partir de 'in' para el bloque; 'out' llega con basura
+  void transfer(BasicBlock block, long[] in, long[] out);
+}
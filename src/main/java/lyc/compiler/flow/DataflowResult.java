@@ -0,0 +1,39 @@
+package lyc.compiler.flow;
+
+/**
+ * Punto fijo de un DataflowProblem: el valor a la entrada y a la salida de cada
+ * bloque, sea cual sea la dirección del análisis. Los arreglos son los del solver;
+ * no se deben modificar.
+ */
+public final class DataflowResult {
+
+  private final long[][] in;
+  private final long[][] out;
+  private final long visits;
+  private final int rounds;
+
+  DataflowResult(long[][] in, long[][] out, long visits, int rounds) {
+    this.in = in;
+    this.out = out;
+    this.visits = visits;
+    this.rounds = rounds;
+  }
+
+  public long[] in(int block) {
+    return in[block];
+  }
+
+  public long[] out(int block) {
+    return out[block];
+  }
+
+  // Veces que se aplicó una función de transferencia
+  public long visits() {
+    return visits;
+  }
+
+  // Vueltas sobre la lista de trabajo hasta el punto fijo
+  public int rounds() {
+    return rounds;
+  }
+}
@@ -0,0 +1,77 @@
+package lyc.compiler.flow;
+
+import java.util.Arrays;
+
+/**
+ * Resuelve un DataflowProblem por iteración con lista de trabajo hasta el punto
+ * fijo. Los bloques pendientes se recorren en postorden inverso (o en postorden
+ * hacia atrás), así un programa sin ciclos converge en una vuelta y cada while
+ * anidado agrega pocas más: el costo es lineal en bloques por el ancho del valor.
+ */
+public final class DataflowSolver {
+
+  private DataflowSolver() {}
+
+  public static DataflowResult solve(ControlFlowGraph cfg, DataflowProblem problem) {
+    int count = cfg.size();
+    int words = Bits.words(problem.bits());
+    boolean forward = problem.direction() == DataflowProblem.Direction.FORWARD;
+    // 'joined' es el valor del lado de los vecinos y 'transferred' el del otro lado
+    long[][] joined = new long[count][words];
+    long[][] transferred = new long[count][words];
+    for (int b = 0; b < count; b++) {
+      problem.top(transferred[b]);
+    }
+
+    int[] order = cfg.reversePostorder();
+    if (!forward) {
+      reverse(order);
+    }
+    boolean[] pending = new boolean[count];
+    Arrays.fill(pending, true);
+    long[] scratch = new long[words];
+    long visits = 0;
+    int rounds = 0;
+    boolean any = count > 0;
+    while (any) {
+      any = false;
+      rounds++;
+      for (int b : order) {
+        if (!pending[b]) {
+          continue;
+        }
+        pending[b] = false;
+        visits++;
+        BasicBlock block = cfg.block(b);
+        int[] from = forward ? block.predecessors() : block.successors();
+        long[] in = joined[b];
+        if (from.length == 0) {
+          problem.boundary(in);
+        } else {
+          problem.top(in);
+          for (int neighbour : from) {
+            problem.meet(in, transferred[neighbour]);
+          }
+        }
+        problem.transfer(block, in, scratch);
+        if (!Arrays.equals(scratch, transferred[b])) {
+          System.arraycopy(scratch, 0, transferred[b], 0, words);
+          for (int next : forward ? block.successors() : block.predecessors()) {
+            pending[next] = true;
+            any = true;
+          }
+        }
+      }
+    }
+    return forward ? new DataflowResult(joined, transferred, visits, rounds)
+                   : new DataflowResult(transferred, joined, visits, rounds);
+  }
+
+  private static void reverse(int[] order) {
+    for (int i = 0, j = order.length - 1; i < j; i++, j--) {
+      int swap = order[i];
+      order[i] = order[j];
+      order[j] = swap;
+    }
+  }
+}
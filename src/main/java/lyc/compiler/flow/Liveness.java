@@ -0,0 +1,181 @@
+package lyc.compiler.flow;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import lyc.compiler.files.Operator;
+import lyc.compiler.files.TripletOperand;
+import lyc.compiler.files.TripletStore;
+
+/**
+ * Variables y resultados de tercetos vivos a la entrada y salida de cada bloque
+ * (hacia atrás, con unión). Un valor está vivo si algún camino lo lee antes de
+ * volver a escribirlo.
+ *
+ * Las variables se leen con ID y WRITE y se escriben con ASSIGN y READ. De los
+ * resultados de tercetos sólo entran al análisis los que se usan desde otro bloque
+ * (pasa después de cse, que reutiliza valores a través de un salto condicional); el
+ * resto nace y muere en su bloque. Así el ancho de los conjuntos depende de la
+ * cantidad de variables y no del tamaño del programa.
+ */
+public final class Liveness implements DataflowProblem {
+
+  private final ControlFlowGraph cfg;
+  private final Map<String, Integer> variables = new HashMap<>();
+  // Terceto -> bit de su resultado, o -1 si no se usa fuera de su bloque
+  private final int[] tripletBits;
+  private final int bits;
+  // Leídos antes de escribirse en el bloque (use) y escritos en el bloque (def)
+  private final long[][] uses;
+  private final long[][] defs;
+  private DataflowResult result;
+
+  private Liveness(ControlFlowGraph cfg) {
+    this.cfg = cfg;
+    TripletStore store = cfg.store();
+    for (int i = 1; i <= store.size(); i++) {
+      int variable = variableOperand(store, i);
+      if (variable != TripletOperand.NONE) {
+        variables.putIfAbsent(store.name(variable), variables.size());
+      }
+    }
+    int next = variables.size();
+    tripletBits = new int[store.size() + 1];
+    Arrays.fill(tripletBits, -1);
+    for (int i = 1; i <= store.size(); i++) {
+      next = globalize(store.first(i), i, next);
+      next = globalize(store.second(i), i, next);
+    }
+    this.bits = next;
+
+    int words = Bits.words(bits);
+    uses = new long[cfg.size()][words];
+    defs = new long[cfg.size()][words];
+    for (BasicBlock block : cfg.blocks()) {
+      summarize(block, uses[block.index()], defs[block.index()]);
+    }
+  }
+
+  public static Liveness analyze(ControlFlowGraph cfg) {
+    Liveness liveness = new Liveness(cfg);
+    liveness.result = DataflowSolver.solve(cfg, liveness);
+    return liveness;
+  }
+
+  private int globalize(int operand, int user, int next) {
+    if (!TripletOperand.isRef(operand)) {
+      return next;
+    }
+    int target = TripletOperand.value(operand);
+    if (tripletBits[target] < 0 && cfg.blockOf(target) != cfg.blockOf(user)) {
+      tripletBits[target] = next++;
+    }
+    return next;
+  }
+
+  // Recorre el bloque hacia atrás: lo escrito sale de use y lo leído entra
+  private void summarize(BasicBlock block, long[] use, long[] def) {
+    TripletStore store = cfg.store();
+    for (int i = block.last(); i >= block.first(); i--) {
+      int written = writtenBit(store, i);
+      if (written >= 0) {
+        Bits.set(def, written);
+        Bits.clear(use, written);
+      }
+      readBits(store, i, use);
+    }
+  }
+
+  private int writtenBit(TripletStore store, int index) {
+    Operator op = store.operator(index);
+    if ((op == Operator.ASSIGN || op == Operator.READ)
+        && TripletOperand.kind(store.first(index)) == TripletOperand.Kind.SYMBOL) {
+      return variables.get(store.name(store.first(index)));
+    }
+    return tripletBits[index];
+  }
+
+  private void readBits(TripletStore store, int index, long[] into) {
+    Operator op = store.operator(index);
+    if ((op == Operator.ID || op == Operator.WRITE)
+        && TripletOperand.kind(store.first(index)) == TripletOperand.Kind.SYMBOL) {
+      Bits.set(into, variables.get(store.name(store.first(index))));
+    }
+    readRef(store.first(index), into);
+    readRef(store.second(index), into);
+  }
+
+  private void readRef(int operand, long[] into) {
+    if (TripletOperand.isRef(operand) && tripletBits[TripletOperand.value(operand)] >= 0) {
+      Bits.set(into, tripletBits[TripletOperand.value(operand)]);
+    }
+  }
+
+  // Operando SYMBOL que el terceto lee o escribe como variable, o NONE
+  private static int variableOperand(TripletStore store, int index) {
+    switch (store.operator(index)) {
+      case ID:
+      case WRITE:
+      case ASSIGN:
+      case READ:
+        int operand = store.first(index);
+        return TripletOperand.kind(operand) == TripletOperand.Kind.SYMBOL ? operand : TripletOperand.NONE;
+      default:
+        return TripletOperand.NONE;
+    }
+  }
+
+  @Override
+  public Direction direction() {
+    return Direction.BACKWARD;
+  }
+
+  @Override
+  public int bits() {
+    return bits;
+  }
+
+  // in = use ∪ (out − def)
+  @Override
+  public void transfer(BasicBlock block, long[] out, long[] in) {
+    System.arraycopy(out, 0, in, 0, in.length);
+    Bits.andNot(in, defs[block.index()]);
+    Bits.or(in, uses[block.index()]);
+  }
+
+  public ControlFlowGraph cfg() {
+    return cfg;
+  }
+
+  public DataflowResult result() {
+    return result;
+  }
+
+  public long[] liveIn(int block) {
+    return result.in(block);
+  }
+
+  public long[] liveOut(int block) {
+    return result.out(block);
+  }
+
+  // Bit de la variable, o -1 si el programa no la usa
+  public int variableBit(String name) {
+    return variables.getOrDefault(name, -1);
+  }
+
+  // Bit del resultado del terceto, o -1 si sólo se usa en su propio bloque
+  public int tripletBit(int index) {
+    return tripletBits[index];
+  }
+
+  public boolean isLiveOut(int block, String variable) {
+    int bit = variableBit(variable);
+    return bit >= 0 && Bits.get(liveOut(block), bit);
+  }
+
+  public boolean isLiveIn(int block, String variable) {
+    int bit = variableBit(variable);
+    return bit >= 0 && Bits.get(liveIn(block), bit);
+  }
+}
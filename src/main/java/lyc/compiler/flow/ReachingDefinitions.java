@@ -0,0 +1,170 @@
+package lyc.compiler.flow;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lyc.compiler.files.Operator;
+import lyc.compiler.files.TripletOperand;
+import lyc.compiler.files.TripletStore;
+
+/**
+ * Definiciones (ASSIGN y READ de una variable) que llegan a la entrada y salida de
+ * cada bloque sin que otra definición de la misma variable las pise (hacia
+ * adelante, con unión). Cada definición es un bit, en el orden del programa.
+ *
+ * Por bloque sólo se guardan las definiciones que genera y las variables que
+ * escribe; lo que mata una variable es el conjunto de todas sus definiciones, que
+ * se guarda una sola vez. Los valores de entrada y salida sí son densos, así que
+ * la memoria crece con bloques × definiciones.
+ */
+public final class ReachingDefinitions implements DataflowProblem {
+
+  private static final int[] NONE = new int[0];
+
+  private final ControlFlowGraph cfg;
+  // Bit -> terceto de la definición
+  private final int[] definitions;
+  // Terceto -> bit, o -1 si no es una definición
+  private final int[] definitionBits;
+  // Bit -> variable definida
+  private final int[] definedVariable;
+  private final List<String> variableNames = new ArrayList<>();
+  // Variable -> todas sus definiciones
+  private final List<long[]> definitionsOf = new ArrayList<>();
+  // Por bloque: la última definición de cada variable que escribe, y esas variables
+  private final int[][] generated;
+  private final int[][] killed;
+  private DataflowResult result;
+
+  private ReachingDefinitions(ControlFlowGraph cfg) {
+    this.cfg = cfg;
+    TripletStore store = cfg.store();
+    Map<String, Integer> variables = new HashMap<>();
+    List<Integer> found = new ArrayList<>();
+    definitionBits = new int[store.size() + 1];
+    for (int i = 1; i <= store.size(); i++) {
+      definitionBits[i] = -1;
+      if (isDefinition(store, i)) {
+        definitionBits[i] = found.size();
+        found.add(i);
+      }
+    }
+    definitions = found.stream().mapToInt(Integer::intValue).toArray();
+    definedVariable = new int[definitions.length];
+    int words = Bits.words(definitions.length);
+    for (int bit = 0; bit < definitions.length; bit++) {
+      String name = store.name(store.first(definitions[bit]));
+      Integer variable = variables.get(name);
+      if (variable == null) {
+        variable = variables.size();
+        variables.put(name, variable);
+        variableNames.add(name);
+        definitionsOf.add(new long[words]);
+      }
+      definedVariable[bit] = variable;
+      Bits.set(definitionsOf.get(variable), bit);
+    }
+
+    generated = new int[cfg.size()][];
+    killed = new int[cfg.size()][];
+    for (BasicBlock block : cfg.blocks()) {
+      summarize(block);
+    }
+  }
+
+  public static ReachingDefinitions analyze(ControlFlowGraph cfg) {
+    ReachingDefinitions reaching = new ReachingDefinitions(cfg);
+    reaching.result = DataflowSolver.solve(cfg, reaching);
+    return reaching;
+  }
+
+  private static boolean isDefinition(TripletStore store, int index) {
+    Operator op = store.operator(index);
+    return (op == Operator.ASSIGN || op == Operator.READ)
+        && TripletOperand.kind(store.first(index)) == TripletOperand.Kind.SYMBOL;
+  }
+
+  // Recorre el bloque hacia atrás: la primera definición de cada variable que
+  // aparece es la última del bloque
+  private void summarize(BasicBlock block) {
+    List<Integer> gen = new ArrayList<>();
+    List<Integer> kill = new ArrayList<>();
+    for (int i = block.last(); i >= block.first(); i--) {
+      int bit = definitionBits[i];
+      if (bit >= 0 && !kill.contains(definedVariable[bit])) {
+        kill.add(definedVariable[bit]);
+        gen.add(bit);
+      }
+    }
+    generated[block.index()] = gen.isEmpty() ? NONE : gen.stream().mapToInt(Integer::intValue).toArray();
+    killed[block.index()] = kill.isEmpty() ? NONE : kill.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  @Override
+  public Direction direction() {
+    return Direction.FORWARD;
+  }
+
+  @Override
+  public int bits() {
+    return definitions.length;
+  }
+
+  // out = gen ∪ (in − kill)
+  @Override
+  public void transfer(BasicBlock block, long[] in, long[] out) {
+    System.arraycopy(in, 0, out, 0, out.length);
+    for (int variable : killed[block.index()]) {
+      Bits.andNot(out, definitionsOf.get(variable));
+    }
+    for (int bit : generated[block.index()]) {
+      Bits.set(out, bit);
+    }
+  }
+
+  public ControlFlowGraph cfg() {
+    return cfg;
+  }
+
+  public DataflowResult result() {
+    return result;
+  }
+
+  public long[] reachingIn(int block) {
+    return result.in(block);
+  }
+
+  public long[] reachingOut(int block) {
+    return result.out(block);
+  }
+
+  // Terceto de la definición del bit
+  public int definition(int bit) {
+    return definitions[bit];
+  }
+
+  public int definitionCount() {
+    return definitions.length;
+  }
+
+  // Tercetos que definen la variable y llegan justo antes del terceto 'index'
+  public List<Integer> reaching(int index, String variable) {
+    BasicBlock block = cfg.blockOf(index);
+    long[] current = reachingIn(block.index()).clone();
+    for (int i = block.first(); i < index; i++) {
+      int bit = definitionBits[i];
+      if (bit >= 0) {
+        Bits.andNot(current, definitionsOf.get(definedVariable[bit]));
+        Bits.set(current, bit);
+      }
+    }
+    List<Integer> found = new ArrayList<>();
+    for (int bit = Bits.next(current, 0); bit >= 0; bit = Bits.next(current, bit + 1)) {
+      if (variableNames.get(definedVariable[bit]).equals(variable)) {
+        found.add(definitions[bit]);
+      }
+    }
+    return found;
+  }
+}
@@ -0,0 +1,84 @@
+package lyc.compiler.interpreter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lyc.compiler.files.Operator;
+import lyc.compiler.files.TripletStore;
+
+/**
+ * Resultado de una ejecución del intérprete: pasos ejecutados, cuántas veces se
+ * ejecutó cada terceto y el valor final de cada variable.
+ */
+public final class ExecutionResult {
+
+  private final TripletStore store;
+  private final long[] counts;
+  private final long steps;
+  private final Map<String, Object> variables;
+
+  ExecutionResult(TripletStore store, long[] counts, long steps, Map<String, Object> variables) {
+    this.store = store;
+    this.counts = counts;
+    this.steps = steps;
+    this.variables = Collections.unmodifiableMap(variables);
+  }
+
+  public long getSteps() { return steps; }
+
+  // Veces que se ejecutó el terceto (índice desde 1, como en el listado)
+  public long getCount(int index) {
+    if (index < 1 || index > counts.length) {
+      throw new IndexOutOfBoundsException("Terceto inexistente: " + index + " (hay " + counts.length + ")");
+    }
+    return counts[index - 1];
+  }
+
+  // Veces que se pasó por cada label, en el orden del programa
+  public Map<String, Long> getLabelCounts() {
+    Map<String, Long> labels = new LinkedHashMap<>();
+    for (int i = 1; i <= counts.length; i++) {
+      if (store.operator(i) == Operator.LABEL) {
+        labels.put(store.operandText(store.first(i)), counts[i - 1]);
+      }
+    }
+    return labels;
+  }
+
+  // Integer para Int, Float para Float, String para String y Double para el resto
+  public Object getVariable(String name) { return variables.get(name); }
+
+  public Map<String, Object> getVariables() { return variables; }
+
+  // Resumen con los labels y los tercetos más ejecutados
+  public String report(int top) {
+    StringBuilder out = new StringBuilder();
+    out.append("Pasos ejecutados: ").append(steps).append('\n');
+
+    Map<String, Long> labels = getLabelCounts();
+    if (!labels.isEmpty()) {
+      out.append("Labels:\n");
+      for (Map.Entry<String, Long> label : labels.entrySet()) {
+        out.append("  ").append(label.getKey()).append(": ").append(label.getValue()).append('\n');
+      }
+    }
+
+    List<Integer> hottest = new ArrayList<>();
+    for (int i = 1; i <= counts.length; i++) {
+      if (counts[i - 1] > 0) {
+        hottest.add(i);
+      }
+    }
+    hottest.sort((a, b) -> counts[b - 1] != counts[a - 1] ? Long.compare(counts[b - 1], counts[a - 1])
+                                                         : Integer.compare(a, b));
+    out.append("Tercetos más ejecutados:\n");
+    for (int index : hottest.subList(0, Math.min(top, hottest.size()))) {
+      out.append("  ");
+      store.appendTo(out, index);
+      out.append(": ").append(counts[index - 1]).append('\n');
+    }
+    return out.toString();
+  }
+}
@@ -0,0 +1,43 @@
+package lyc.compiler.interpreter;
+
+/**
+ * Aritmética del tipo Int de LyC: enteros con signo de 16 bits (el mismo rango que
+ * acepta el lexer para las constantes). Las operaciones dan la vuelta como un
+ * registro de 16 bits y la división trunca hacia cero.
+ */
+public final class IntSemantics {
+
+  public static final int MIN = Short.MIN_VALUE;
+  public static final int MAX = Short.MAX_VALUE;
+
+  private IntSemantics() {}
+
+  public static int wrap(long value) {
+    return (short) value;
+  }
+
+  public static int add(int left, int right) {
+    return wrap((long) left + right);
+  }
+
+  public static int sub(int left, int right) {
+    return wrap((long) left - right);
+  }
+
+  public static int mul(int left, int right) {
+    return wrap((long) left * right);
+  }
+
+  // El divisor 0 lo valida quien llama: el intérprete lo reporta como error de ejecución
+  public static int div(int left, int right) {
+    return wrap(left / right);
+  }
+
+  public static int mod(int left, int right) {
+    return wrap(left % right);
+  }
+
+  public static int neg(int value) {
+    return wrap(-(long) value);
+  }
+}
@@ -0,0 +1,406 @@
+package lyc.compiler.interpreter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lyc.compiler.context.CompilationContext;
+import lyc.compiler.files.Operator;
+import lyc.compiler.files.TripletOperand;
+import lyc.compiler.files.TripletStore;
+import lyc.compiler.files.TypeTable;
+import lyc.compiler.model.ExecutionError;
+import lyc.compiler.model.ZeroDivisionError;
+import lyc.compiler.table.DataType;
+import lyc.compiler.table.SymbolEntry;
+import lyc.compiler.table.SymbolTableManager;
+
+/**
+ * Ejecuta los tercetos directamente, sin pasar por el assembler. Al construirlo
+ * se resuelve cada operando a un slot de un arreglo de valores (resultado de un
+ * terceto, variable o literal) y cada label al índice de su terceto, así la
+ * ejecución no busca nada por nombre. ID y CTE no copian valores: quien los usa
+ * lee directamente el slot de la variable o del literal.
+ *
+ * Los valores respetan el tipo de la TypeTable: Int es entero de 16 bits
+ * (IntSemantics), Float se guarda con precisión simple como las variables DD del
+ * assembler y String es texto.
+ *
+ * Cuenta cuántas veces se ejecutó cada terceto; la cuenta de un label es la de su
+ * terceto LABEL.
+ */
+public final class TripletInterpreter {
+
+  public static final long DEFAULT_MAX_STEPS = 1_000_000_000L;
+
+  // Tipo de cada slot
+  static final byte INT = 0;
+  static final byte FLOAT = 1;
+  // Número sin ajuste de rango ni de precisión (DateConverted, literales sin tipo)
+  static final byte NUMBER = 2;
+  static final byte STRING = 3;
+
+  private static final Operator[] OPERATORS = Operator.values();
+  private static final int NO_SLOT = -1;
+
+  private final TripletStore store;
+  private final int size;
+  // Por terceto (desde 0): operador y operandos resueltos. En los saltos el primer
+  // operando es el índice del terceto LABEL destino.
+  private final byte[] operators;
+  private final int[] first;
+  private final int[] second;
+
+  // Slots: primero uno por terceto, después las variables y los literales
+  private byte[] kinds;
+  private double[] numbers;
+  private String[] texts;
+  private int slotCount;
+  private final Map<String, Integer> variables = new LinkedHashMap<>();
+  private final Map<Integer, Integer> literals = new HashMap<>();
+
+  private long maxSteps = DEFAULT_MAX_STEPS;
+
+  public TripletInterpreter(CompilationContext context) {
+    this.store = context.getIntermediateCodeGenerator().getStore();
+    this.size = store.size();
+    this.operators = new byte[size];
+    this.first = new int[size];
+    this.second = new int[size];
+    this.kinds = new byte[size + 16];
+    this.numbers = new double[size + 16];
+    this.texts = new String[size + 16];
+    this.slotCount = size;
+    prepare(context.getTypeTable(), context.getSymbolTableManager());
+  }
+
+  // Corta la ejecución con ExecutionError al superar esta cantidad de tercetos ejecutados
+  public TripletInterpreter maxSteps(long steps) {
+    this.maxSteps = steps;
+    return this;
+  }
+
+  private void prepare(TypeTable types, SymbolTableManager symbols) {
+    Map<Integer, Integer> labels = new HashMap<>();
+    for (int i = 1; i <= size; i++) {
+      if (store.operator(i) == Operator.LABEL) {
+        labels.put(store.first(i), i - 1);
+      }
+    }
+
+    // Slot de donde se lee el resultado de cada terceto
+    int[] resultSlot = new int[size + 1];
+    for (int i = 1; i <= size; i++) {
+      Operator op = store.operator(i);
+      int pc = i - 1;
+      operators[pc] = (byte) op.ordinal();
+      kinds[pc] = kindOf(types.getType(i));
+      resultSlot[i] = pc;
+      if (op.isJump()) {
+        Integer target = labels.get(store.first(i));
+        if (target == null) {
+          throw new IllegalStateException("Label sin definir en el terceto [" + i + "]: "
+                                          + store.operandText(store.first(i)));
+        }
+        first[pc] = target;
+        second[pc] = NO_SLOT;
+        continue;
+      }
+      first[pc] = slot(store.first(i), resultSlot, symbols);
+      second[pc] = op == Operator.DECLARE ? NO_SLOT : slot(store.second(i), resultSlot, symbols);
+      if (op == Operator.ID || op == Operator.CTE) {
+        resultSlot[i] = first[pc];
+      }
+    }
+  }
+
+  private int slot(int operand, int[] resultSlot, SymbolTableManager symbols) {
+    switch (TripletOperand.kind(operand)) {
+      case REF:
+        return resultSlot[TripletOperand.value(operand)];
+      case SYMBOL:
+        return variable(store.name(operand), symbols);
+      case LITERAL:
+        return literal(operand, symbols);
+      default:
+        return NO_SLOT;
+    }
+  }
+
+  private int variable(String name, SymbolTableManager symbols) {
+    Integer slot = variables.get(name);
+    if (slot == null) {
+      SymbolEntry entry = symbols.get(name);
+      byte kind = kindOf(entry != null ? entry.getDataType() : null);
+      slot = newSlot(kind);
+      if (kind == STRING) {
+        texts[slot] = "";
+      }
+      variables.put(name, slot);
+    }
+    return slot;
+  }
+
+  private int literal(int operand, SymbolTableManager symbols) {
+    Integer slot = literals.get(operand);
+    if (slot != null) {
+      return slot;
+    }
+    String name = store.name(operand);
+    String value = symbols.literalValue(name);
+    SymbolEntry entry = symbols.get(name.replace(' ', '_'));
+    byte kind = entry != null ? kindOf(entry.getDataType()) : NUMBER;
+    if (kind != STRING) {
+      try {
+        double number = Double.parseDouble(value);
+        slot = newSlot(kind);
+        numbers[slot] = fit(kind, number);
+      } catch (NumberFormatException e) {
+        kind = STRING;
+      }
+    }
+    if (kind == STRING) {
+      slot = newSlot(STRING);
+      texts[slot] = value;
+    }
+    literals.put(operand, slot);
+    return slot;
+  }
+
+  private int newSlot(byte kind) {
+    if (slotCount == kinds.length) {
+      int capacity = slotCount * 2;
+      kinds = Arrays.copyOf(kinds, capacity);
+      numbers = Arrays.copyOf(numbers, capacity);
+      texts = Arrays.copyOf(texts, capacity);
+    }
+    kinds[slotCount] = kind;
+    return slotCount++;
+  }
+
+  private static byte kindOf(DataType type) {
+    if (type == null) {
+      return NUMBER;
+    }
+    switch (type) {
+      case INTEGER_TYPE:
+      case INTEGER_CONS:
+        return INT;
+      case FLOAT_TYPE:
+      case FLOAT_CONS:
+        return FLOAT;
+      case STRING_TYPE:
+      case STRING_CONS:
+        return STRING;
+      default:
+        return NUMBER;
+    }
+  }
+
+  // Ajusta un número al tipo del slot donde se guarda
+  private static double fit(byte kind, double value) {
+    switch (kind) {
+      case INT: return IntSemantics.wrap((long) value);
+      case FLOAT: return (float) value;
+      default: return value;
+    }
+  }
+
+  /**
+   * Ejecuta el programa desde el primer terceto. READ lee una línea de la entrada
+   * por cada variable y WRITE escribe el valor seguido de un fin de línea.
+   */
+  public ExecutionResult run(BufferedReader input, Writer output) throws ExecutionError, ZeroDivisionError, IOException {
+    // Cada ejecución parte de los valores iniciales (literales cargados, variables en 0)
+    final byte[] kinds = Arrays.copyOf(this.kinds, slotCount);
+    final double[] numbers = Arrays.copyOf(this.numbers, slotCount);
+    final String[] texts = Arrays.copyOf(this.texts, slotCount);
+    final byte[] operators = this.operators;
+    final int[] first = this.first;
+    final int[] second = this.second;
+    final long[] counts = new long[size];
+
+    long steps = 0;
+    int comparison = 0;
+    int pc = 0;
+    // Lo que el programa escribió se entrega aunque termine con un error de ejecución
+    try {
+      while (pc < size) {
+        if (++steps > maxSteps) {
+          throw new ExecutionError("Se superó el límite de " + maxSteps + " pasos en el terceto [" + (pc + 1) + "]");
+        }
+        counts[pc]++;
+        int a = first[pc];
+        int b = second[pc];
+        switch (OPERATORS[operators[pc]]) {
+          case ADD:
+            numbers[pc] = kinds[pc] == INT ? IntSemantics.add((int) numbers[a], (int) numbers[b])
+                                           : fit(kinds[pc], numbers[a] + numbers[b]);
+            break;
+          case SUB:
+            numbers[pc] = kinds[pc] == INT ? IntSemantics.sub((int) numbers[a], (int) numbers[b])
+                                           : fit(kinds[pc], numbers[a] - numbers[b]);
+            break;
+          case MUL:
+            numbers[pc] = kinds[pc] == INT ? IntSemantics.mul((int) numbers[a], (int) numbers[b])
+                                           : fit(kinds[pc], numbers[a] * numbers[b]);
+            break;
+          case DIV:
+            checkDivisor(numbers[b], pc);
+            numbers[pc] = kinds[pc] == INT ? IntSemantics.div((int) numbers[a], (int) numbers[b])
+                                           : fit(kinds[pc], numbers[a] / numbers[b]);
+            break;
+          case MOD:
+            checkDivisor(numbers[b], pc);
+            numbers[pc] = kinds[pc] == INT ? IntSemantics.mod((int) numbers[a], (int) numbers[b])
+                                           : fit(kinds[pc], numbers[a] % numbers[b]);
+            break;
+          case NEG:
+            numbers[pc] = kinds[pc] == INT ? IntSemantics.neg((int) numbers[a]) : fit(kinds[pc], -numbers[a]);
+            break;
+          case ASSIGN:
+            if (kinds[a] == STRING) {
+              texts[a] = kinds[b] == STRING ? texts[b] : format(kinds[b], numbers[b], null);
+            } else {
+              numbers[a] = fit(kinds[a], numbers[b]);
+            }
+            break;
+          case CMP:
+            comparison = compare(kinds, numbers, texts, a, b);
+            break;
+          case BLT:
+            if (comparison < 0) { pc = a; continue; }
+            break;
+          case BGE:
+            if (comparison >= 0) { pc = a; continue; }
+            break;
+          case BLE:
+            if (comparison <= 0) { pc = a; continue; }
+            break;
+          case BGT:
+            if (comparison > 0) { pc = a; continue; }
+            break;
+          case BEQ:
+            if (comparison == 0) { pc = a; continue; }
+            break;
+          case BNE:
+            if (comparison != 0) { pc = a; continue; }
+            break;
+          case BI:
+            pc = a;
+            continue;
+          case LT:
+            numbers[pc] = compare(kinds, numbers, texts, a, b) < 0 ? 1 : 0;
+            break;
+          case GT:
+            numbers[pc] = compare(kinds, numbers, texts, a, b) > 0 ? 1 : 0;
+            break;
+          case EQ:
+            numbers[pc] = compare(kinds, numbers, texts, a, b) == 0 ? 1 : 0;
+            break;
+          case NEQ:
+            numbers[pc] = compare(kinds, numbers, texts, a, b) != 0 ? 1 : 0;
+            break;
+          case LTEQ:
+            numbers[pc] = compare(kinds, numbers, texts, a, b) <= 0 ? 1 : 0;
+            break;
+          case GTEQ:
+            numbers[pc] = compare(kinds, numbers, texts, a, b) >= 0 ? 1 : 0;
+            break;
+          case AND:
+            numbers[pc] = numbers[a] != 0 && numbers[b] != 0 ? 1 : 0;
+            break;
+          case OR:
+            numbers[pc] = numbers[a] != 0 || numbers[b] != 0 ? 1 : 0;
+            break;
+          case NOT:
+            numbers[pc] = numbers[a] == 0 ? 1 : 0;
+            break;
+          case READ:
+            // Lo escrito antes (p.ej. el mensaje que pide el dato) tiene que verse antes de esperar
+            output.flush();
+            read(input, kinds, numbers, texts, a, pc);
+            break;
+          case WRITE:
+            output.write(format(kinds[a], numbers[a], texts[a]));
+            output.write('\n');
+            break;
+          default:
+            // ID, CTE, DECLARE, LABEL y los marcadores de control no hacen nada al ejecutarse
+            break;
+        }
+        pc++;
+      }
+    } finally {
+      output.flush();
+    }
+
+    Map<String, Object> values = new LinkedHashMap<>();
+    for (Map.Entry<String, Integer> variable : variables.entrySet()) {
+      int slot = variable.getValue();
+      values.put(variable.getKey(), value(kinds[slot], numbers[slot], texts[slot]));
+    }
+    return new ExecutionResult(store.readOnlyCopy(), counts, steps, values);
+  }
+
+  private static void checkDivisor(double divisor, int pc) throws ZeroDivisionError {
+    if (divisor == 0) {
+      throw new ZeroDivisionError("División por cero en el terceto [" + (pc + 1) + "]");
+    }
+  }
+
+  private static int compare(byte[] kinds, double[] numbers, String[] texts, int a, int b) {
+    if (kinds[a] == STRING || kinds[b] == STRING) {
+      return Integer.signum(String.valueOf(texts[a]).compareTo(String.valueOf(texts[b])));
+    }
+    return numbers[a] < numbers[b] ? -1 : numbers[a] > numbers[b] ? 1 : 0;
+  }
+
+  private static void read(BufferedReader input, byte[] kinds, double[] numbers, String[] texts, int slot, int pc)
+      throws IOException, ExecutionError {
+    String line = input.readLine();
+    if (line == null) {
+      throw new ExecutionError("No hay más entrada para el read del terceto [" + (pc + 1) + "]");
+    }
+    if (kinds[slot] == STRING) {
+      texts[slot] = line;
+      return;
+    }
+    String text = line.trim();
+    try {
+      if (kinds[slot] == INT) {
+        int value = Integer.parseInt(text);
+        if (value < IntSemantics.MIN || value > IntSemantics.MAX) {
+          throw new ExecutionError("Entero fuera de rango en el terceto [" + (pc + 1) + "]: " + text);
+        }
+        numbers[slot] = value;
+      } else {
+        numbers[slot] = fit(kinds[slot], Double.parseDouble(text));
+      }
+    } catch (NumberFormatException e) {
+      throw new ExecutionError("Número inválido en el terceto [" + (pc + 1) + "]: " + text);
+    }
+  }
+
+  static String format(byte kind, double number, String text) {
+    switch (kind) {
+      case STRING: return text;
+      case INT: return Integer.toString((int) number);
+      case FLOAT: return Float.toString((float) number);
+      default: return number == Math.rint(number) && !Double.isInfinite(number)
+                      ? Long.toString((long) number) : Double.toString(number);
+    }
+  }
+
+  private static Object value(byte kind, double number, String text) {
+    switch (kind) {
+      case STRING: return text;
+      case INT: return (int) number;
+      case FLOAT: return (float) number;
+      default: return number;
+    }
+  }
+}
@@ -0,0 +1,299 @@
+package lyc.compiler.main;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lyc.compiler.backend.Backend;
+import lyc.compiler.backend.Backends;
+import lyc.compiler.cache.BuildCache;
+import lyc.compiler.context.CompilationContext;
+import lyc.compiler.main.CommandLineOptions.Group;
+import lyc.compiler.metrics.CompileMetrics;
+import lyc.compiler.optimizer.Optimizer;
+import lyc.compiler.trace.Trace;
+
+/**
+ * Modo batch: compila todos los archivos de uno o varios directorios/globs en un
+ * ForkJoinPool (work-stealing). Cada fuente escribe sus artefactos en un subdirectorio
+ * propio dentro del directorio de salida.
+ */
+public final class BatchCompiler {
+
+  public static final String BATCH_OPTION = "--batch";
+  public static final String USAGE = BATCH_OPTION + " [--out=DIR] [--jobs=N] " + BuildCache.Options.USAGE + " " + Trace.USAGE
+                                    + " " + Backends.Options.USAGE + " " + Optimizer.Options.USAGE + " [" + Compiler.METRICS_OPTION + "] <dir|glob|file>...";
+
+  // Extensión de los fuentes LyC cuando se pasa un directorio
+  private static final String SOURCE_EXTENSION = ".txt";
+  private static final int SLOWEST_TO_REPORT = 5;
+
+  private BatchCompiler() {}
+
+  public static int run(String[] args) {
+    return run(args, System.out);
+  }
+
+  public static int run(String[] args, PrintStream out) {
+    Path outputRoot = Path.of(CompilationContext.DEFAULT_OUTPUT_DIRECTORY);
+    int jobs = Runtime.getRuntime().availableProcessors();
+    List<String> inputs = new ArrayList<>();
+    CommandLineOptions options = new CommandLineOptions(Group.CACHE, Group.TRACE, Group.TARGET, Group.OPTIMIZER,
+                                                        Group.METRICS);
+    List<String> rest = options.parse(args, out);
+    if (rest == null) {
+      return Compiler.EXIT_USAGE;
+    }
+
+    for (String arg : rest) {
+      if (arg.startsWith("--out=")) {
+        outputRoot = Path.of(arg.substring("--out=".length()));
+      } else if (arg.startsWith("--jobs=")) {
+        try {
+          jobs = Integer.parseInt(arg.substring("--jobs=".length()));
+        } catch (NumberFormatException e) {
+          jobs = 0;
+        }
+        if (jobs < 1) {
+          out.println("Invalid value for --jobs: " + arg);
+          return Compiler.EXIT_USAGE;
+        }
+      } else {
+        inputs.add(arg);
+      }
+    }
+
+    if (inputs.isEmpty()) {
+      out.println("Usage: Compiler " + USAGE);
+      return Compiler.EXIT_USAGE;
+    }
+    options.applyTrace();
+
+    Map<Path, Path> sources;
+    try {
+      sources = collectSources(inputs, outputRoot);
+    } catch (IOException e) {
+      out.println("There was an error trying to list input files " + e.getMessage());
+      return Compiler.EXIT_FAILURE;
+    }
+
+    if (sources.isEmpty()) {
+      out.println("No se encontraron archivos para compilar.");
+      return Compiler.EXIT_FAILURE;
+    }
+
+    List<Map.Entry<Path, Path>> work = new ArrayList<>(sources.entrySet());
+    BuildCache cache = options.buildCache(Compiler.version());
+    long start = System.nanoTime();
+    ForkJoinPool pool = new ForkJoinPool(jobs);
+    List<FileResult> results;
+    try {
+      results = pool.invoke(new CompileTask(work, 0, work.size(), cache, options.backend(),
+                                            options.optimizer(), options.writeMetrics()));
+    } finally {
+      pool.shutdown();
+    }
+    long elapsedNanos = System.nanoTime() - start;
+
+    printSummary(out, results, elapsedNanos, jobs);
+    if (cache != null) {
+      out.println(cache.statistics());
+    }
+    return results.stream().allMatch(FileResult::succeeded) ? Compiler.EXIT_OK : Compiler.EXIT_FAILURE;
+  }
+
+  // Resuelve directorios, globs y archivos a un mapa fuente -> directorio de salida
+  static Map<Path, Path> collectSources(List<String> inputs, Path outputRoot) throws IOException {
+    Map<Path, Path> sources = new LinkedHashMap<>();
+    Set<Path> outputs = new HashSet<>();
+    for (String input : inputs) {
+      if (isGlob(input)) {
+        Path base = globBase(input);
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + input);
+        addAll(sources, outputs, base, outputRoot, file -> matcher.matches(file.normalize()));
+      } else {
+        Path path = Path.of(input);
+        if (Files.isDirectory(path)) {
+          addAll(sources, outputs, path, outputRoot, file -> file.getFileName().toString().endsWith(SOURCE_EXTENSION));
+        } else if (Files.isRegularFile(path)) {
+          if (!sources.containsKey(path)) {
+            sources.put(path, uniqueOutput(outputs, outputRoot.resolve(stripExtension(path.getFileName()))));
+          }
+        } else {
+          throw new IOException("No existe el archivo o directorio: " + input);
+        }
+      }
+    }
+    return sources;
+  }
+
+  private static void addAll(Map<Path, Path> sources, Set<Path> outputs, Path base, Path outputRoot,
+                             Predicate<Path> filter) throws IOException {
+    if (!Files.isDirectory(base)) {
+      return;
+    }
+    List<Path> files;
+    try (Stream<Path> walk = Files.walk(base)) {
+      files = walk.filter(Files::isRegularFile).filter(filter).sorted().collect(Collectors.toList());
+    }
+    for (Path file : files) {
+      if (!sources.containsKey(file)) {
+        Path relative = base.relativize(file);
+        Path parent = relative.getParent();
+        Path target = parent == null ? outputRoot : outputRoot.resolve(parent);
+        sources.put(file, uniqueOutput(outputs, target.resolve(stripExtension(file.getFileName()))));
+      }
+    }
+  }
+
+  // Evita que dos fuentes escriban en el mismo subdirectorio (p.ej. a/x.txt y b/x.txt por glob)
+  private static Path uniqueOutput(Set<Path> outputs, Path candidate) {
+    Path result = candidate;
+    int suffix = 2;
+    while (!outputs.add(result)) {
+      result = candidate.resolveSibling(candidate.getFileName() + "_" + suffix++);
+    }
+    return result;
+  }
+
+  private static boolean isGlob(String input) {
+    return input.indexOf('*') >= 0 || input.indexOf('?') >= 0 || input.indexOf('[') >= 0 || input.indexOf('{') >= 0;
+  }
+
+  // Directorio más largo del glob sin metacaracteres, desde donde se recorre
+  private static Path globBase(String glob) {
+    String[] parts = glob.split("/");
+    StringBuilder base = new StringBuilder(glob.startsWith("/") ? "/" : "");
+    for (int i = 0; i < parts.length - 1; i++) {
+      if (isGlob(parts[i])) {
+        break;
+      }
+      if (!parts[i].isEmpty()) {
+        base.append(parts[i]).append('/');
+      }
+    }
+    return base.length() == 0 ? Path.of("") : Path.of(base.toString());
+  }
+
+  private static String stripExtension(Path fileName) {
+    String name = fileName.toString();
+    int dot = name.lastIndexOf('.');
+    return dot > 0 ? name.substring(0, dot) : name;
+  }
+
+  private static void printSummary(PrintStream out, List<FileResult> results, long elapsedNanos, int jobs) {
+    List<FileResult> failures = results.stream().filter(r -> !r.succeeded()).collect(Collectors.toList());
+    long compileNanos = results.stream().mapToLong(FileResult::getNanos).sum();
+
+    out.println("================ RESUMEN BATCH ================");
+    out.printf("Archivos: %d  OK: %d  Fallidos: %d  Hilos: %d%n",
+               results.size(), results.size() - failures.size(), failures.size(), jobs);
+    out.printf("Tiempo total: %.1f ms  Suma por archivo: %.1f ms  Promedio: %.2f ms%n",
+               millis(elapsedNanos), millis(compileNanos), millis(compileNanos) / results.size());
+
+    out.println("Más lentos:");
+    results.stream()
+           .sorted(Comparator.comparingLong(FileResult::getNanos).reversed())
+           .limit(SLOWEST_TO_REPORT)
+           .forEach(r -> out.printf("  %8.1f ms  %s%n", millis(r.getNanos()), r.getSource()));
+
+    if (!failures.isEmpty()) {
+      out.println("Fallidos:");
+      for (FileResult failure : failures) {
+        out.printf("  %s: %s%n", failure.getSource(), failure.getError());
+      }
+    }
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1_000_000.0;
+  }
+
+  // Divide la lista de fuentes en mitades hasta llegar a un único archivo por tarea
+  private static final class CompileTask extends RecursiveTask<List<FileResult>> {
+
+    private final List<Map.Entry<Path, Path>> work;
+    private final int from;
+    private final int to;
+    private final BuildCache cache;
+    private final Backend backend;
+    private final Optimizer optimizer;
+    private final boolean writeMetrics;
+
+    CompileTask(List<Map.Entry<Path, Path>> work, int from, int to, BuildCache cache, Backend backend,
+                Optimizer optimizer, boolean writeMetrics) {
+      this.work = work;
+      this.from = from;
+      this.to = to;
+      this.cache = cache;
+      this.backend = backend;
+      this.optimizer = optimizer;
+      this.writeMetrics = writeMetrics;
+    }
+
+    @Override
+    protected List<FileResult> compute() {
+      if (to - from == 1) {
+        Map.Entry<Path, Path> entry = work.get(from);
+        return List.of(compileOne(entry.getKey(), entry.getValue(), cache, backend, optimizer, writeMetrics));
+      }
+      int middle = (from + to) >>> 1;
+      CompileTask left = new CompileTask(work, from, middle, cache, backend, optimizer, writeMetrics);
+      CompileTask right = new CompileTask(work, middle, to, cache, backend, optimizer, writeMetrics);
+      left.fork();
+      List<FileResult> results = new ArrayList<>(right.compute());
+      results.addAll(0, left.join());
+      return results;
+    }
+
+    private static FileResult compileOne(Path source, Path outputDirectory, BuildCache cache, Backend backend,
+                                         Optimizer optimizer, boolean writeMetrics) {
+      long start = System.nanoTime();
+      try {
+        CompileMetrics metrics = Compiler.compileFileCached(source, outputDirectory, cache, backend, optimizer);
+        if (writeMetrics) {
+          metrics.writeJson(outputDirectory.resolve(CompileMetrics.REPORT_FILE), source.toString());
+        }
+        return new FileResult(source, System.nanoTime() - start, null);
+      } catch (Exception | StackOverflowError e) {
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        return new FileResult(source, System.nanoTime() - start, message);
+      }
+    }
+  }
+
+  static final class FileResult {
+
+    private final Path source;
+    private final long nanos;
+    private final String error;
+
+    FileResult(Path source, long nanos, String error) {
+      this.source = source;
+      this.nanos = nanos;
+      this.error = error;
+    }
+
+    Path getSource() { return source; }
+
+    long getNanos() { return nanos; }
+
+    String getError() { return error; }
+
+    boolean succeeded() { return error == null; }
+  }
+}
@@ -0,0 +1,114 @@
+package lyc.compiler.main;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import lyc.compiler.backend.Backend;
+import lyc.compiler.backend.Backends;
+import lyc.compiler.cache.BuildCache;
+import lyc.compiler.optimizer.Optimizer;
+import lyc.compiler.trace.Trace;
+
+/**
+ * Opciones comunes a los modos de línea de comandos (simple, batch, servidor y --run):
+ * caché, trazas, target, optimizador y métricas. Cada modo elige qué grupos acepta y
+ * recibe en orden los argumentos que no son opciones comunes (archivos, --out, --port...).
+ * Un valor inválido se informa siempre igual, con el argumento y el motivo.
+ */
+public final class CommandLineOptions {
+
+  public enum Group {
+    CACHE("cache"),
+    TRACE("trace"),
+    TARGET("target"),
+    OPTIMIZER("optimizer"),
+    METRICS("metrics");
+
+    private final String id;
+
+    Group(String id) {
+      this.id = id;
+    }
+  }
+
+  private final Set<Group> groups;
+  private final BuildCache.Options cache = new BuildCache.Options();
+  private final Trace.Options trace = new Trace.Options();
+  private final Backends.Options target = new Backends.Options();
+  private final Optimizer.Options optimizer = new Optimizer.Options();
+  private boolean writeMetrics;
+
+  public CommandLineOptions(Group first, Group... rest) {
+    this.groups = EnumSet.of(first, rest);
+  }
+
+  // Separa las opciones comunes y devuelve los demás argumentos. Con un valor inválido
+  // escribe el error en 'errors' (donde el modo muestra su uso) y devuelve null
+  public List<String> parse(String[] args, PrintStream errors) {
+    List<String> rest = new ArrayList<>();
+    for (String arg : args) {
+      boolean accepted = false;
+      for (Group group : groups) {
+        try {
+          accepted = accept(group, arg);
+        } catch (IllegalArgumentException e) {
+          errors.println("Invalid " + group.id + " option: " + arg + (e.getMessage() != null ? " (" + e.getMessage() + ")" : ""));
+          return null;
+        }
+        if (accepted) {
+          break;
+        }
+      }
+      if (!accepted) {
+        rest.add(arg);
+      }
+    }
+    return rest;
+  }
+
+  // Devuelve true si el argumento es una opción del grupo; un valor inválido lanza
+  // IllegalArgumentException
+  private boolean accept(Group group, String arg) {
+    switch (group) {
+      case CACHE:
+        return cache.accept(arg);
+      case TRACE:
+        return trace.accept(arg);
+      case TARGET:
+        return target.accept(arg);
+      case OPTIMIZER:
+        return optimizer.accept(arg);
+      default:
+        if (!arg.startsWith("--metrics=")) {
+          return false;
+        }
+        if (!Compiler.METRICS_OPTION.equals(arg)) {
+          throw new IllegalArgumentException("se espera " + Compiler.METRICS_OPTION);
+        }
+        writeMetrics = true;
+        return true;
+    }
+  }
+
+  public void applyTrace() {
+    trace.apply();
+  }
+
+  public BuildCache buildCache(String version) {
+    return cache.build(version);
+  }
+
+  public Backend backend() {
+    return target.backend();
+  }
+
+  public Optimizer optimizer() {
+    return optimizer.optimizer();
+  }
+
+  public boolean writeMetrics() {
+    return writeMetrics;
+  }
+}
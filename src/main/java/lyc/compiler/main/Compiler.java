@@ -1,55 +1,303 @@
 package lyc.compiler.main;
 
 import java.io.IOException;
-import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lyc.compiler.Lexer;
 import lyc.compiler.Parser;
-import lyc.compiler.factories.FileFactory;
+import lyc.compiler.backend.Backend;
+import lyc.compiler.backend.Backends;
+import lyc.compiler.cache.BuildCache;
+import lyc.compiler.context.CompilationContext;
+import lyc.compiler.context.CompilationResult;
 import lyc.compiler.factories.ParserFactory;
-import lyc.compiler.files.AsmCodeGenerator;
+import lyc.compiler.main.CommandLineOptions.Group;
+import lyc.compiler.files.FileGenerator;
 import lyc.compiler.files.FileOutputWriter;
-import lyc.compiler.files.IntermediateCodeGenerator;
 import lyc.compiler.files.IntermediateCodeFileGenerator;
+import lyc.compiler.files.PeepholeOptimizer;
 import lyc.compiler.files.SymbolTableGenerator;
-import lyc.compiler.files.TypeTable;
-import lyc.compiler.table.SymbolTableManager;
+import lyc.compiler.metrics.CompileMetrics;
+import lyc.compiler.metrics.CompileMetrics.Counter;
+import lyc.compiler.metrics.CompileMetrics.Phase;
+import lyc.compiler.metrics.TimedGenerator;
+import lyc.compiler.optimizer.Optimizer;
+import lyc.compiler.server.CompileClient;
+import lyc.compiler.server.CompileServer;
+import lyc.compiler.trace.Trace;
 
 public final class Compiler {
 
+  public static final int EXIT_OK = 0;
+  public static final int EXIT_FAILURE = 1;
+  public static final int EXIT_USAGE = 2;
+
+  // Escribe metrics.json junto a los artefactos (único formato por ahora)
+  public static final String METRICS_OPTION = "--metrics=json";
+
   private Compiler() {}
 
   public static void main(String[] args) {
-    if (args.length != 1) {
-      System.out.println("Filename must be provided as argument.");
-      System.exit(0);
+    if (args.length >= 1 && BatchCompiler.BATCH_OPTION.equals(args[0])) {
+      System.exit(BatchCompiler.run(Arrays.copyOfRange(args, 1, args.length)));
+    }
+    if (args.length >= 1 && ProgramRunner.RUN_OPTION.equals(args[0])) {
+      System.exit(ProgramRunner.run(Arrays.copyOfRange(args, 1, args.length)));
+    }
+    if (args.length >= 1 && "--server".equals(args[0])) {
+      System.exit(CompileServer.run(Arrays.copyOfRange(args, 1, args.length)));
+    }
+    if (args.length >= 1 && "--client".equals(args[0])) {
+      System.exit(CompileClient.run(Arrays.copyOfRange(args, 1, args.length)));
     }
 
-    try (Reader reader = FileFactory.create(args[0])) {
-      // Resetear las tablas antes de compilar
-      IntermediateCodeGenerator.reset();
-      TypeTable.reset();
+    CommandLineOptions options = new CommandLineOptions(Group.CACHE, Group.TRACE, Group.TARGET, Group.OPTIMIZER,
+                                                        Group.METRICS);
+    List<String> files = options.parse(args, System.out);
+    if (files == null) {
+      System.exit(EXIT_USAGE);
+    }
+    options.applyTrace();
 
-      Parser parser = ParserFactory.create(reader);
-      parser.parse();
+    if (files.size() != 1) {
+      System.out.println("Filename must be provided as argument.");
+      System.out.println("Usage: Compiler " + BuildCache.Options.USAGE + " " + Trace.USAGE + " " + Backends.Options.USAGE
+                         + " " + Optimizer.Options.USAGE + " [" + METRICS_OPTION + "] <file>");
+      System.out.println("       Compiler " + BatchCompiler.USAGE);
+      System.out.println("       Compiler " + ProgramRunner.USAGE);
+      System.out.println("       Compiler " + CompileServer.USAGE);
+      System.out.println("       Compiler " + CompileClient.USAGE);
+      System.exit(EXIT_USAGE);
+    }
 
-      // Generar los archivos requeridos
-      FileOutputWriter.writeOutput("symbol-table.txt", new SymbolTableGenerator());
-      FileOutputWriter.writeOutput("intermediate-code.txt", new IntermediateCodeFileGenerator());
-      FileOutputWriter.writeOutput("final.asm", new AsmCodeGenerator());
+    try {
+      BuildCache cache = options.buildCache(version());
+      Backend backend = options.backend();
+      Optimizer optimizer = options.optimizer();
+      Path outputDirectory = Path.of(CompilationContext.DEFAULT_OUTPUT_DIRECTORY);
+      CompileMetrics metrics = compileFileCached(Path.of(files.get(0)), outputDirectory, cache, backend, optimizer);
+      if (options.writeMetrics()) {
+        metrics.writeJson(outputDirectory.resolve(CompileMetrics.REPORT_FILE), files.get(0));
+      }
+      if (cache != null) {
+        System.out.println(cache.statistics());
+      }
+      if (optimizer.isEnabled() && !metrics.getRemovedByPass().isEmpty()) {
+        System.out.println("Optimización: " + Optimizer.summary(metrics));
+      }
+      if (metrics.get(Counter.PEEPHOLE) > 0) {
+        System.out.println("Peephole: " + PeepholeOptimizer.summary(metrics));
+      }
+      if (metrics.get(Counter.TEMPS) > 0) {
+        System.out.println("Temporales: " + metrics.get(Counter.TEMPS) + " -> " + metrics.get(Counter.TEMP_SLOTS)
+                           + " posiciones _tmp en .DATA");
+      }
 
       System.out.println("Archivos generados:");
       System.out.println("- symbol-table.txt: Tabla de símbolos");
       System.out.println("- intermediate-code.txt: Código intermedio (tercetos)");
-      System.out.println("- final.asm: Código ensamblador MASM");
+      System.out.println("- " + backend.outputFile() + ": " + backend.description());
 
     } catch (IOException e) {
       System.err.println("There was an error trying to read input file " + e.getMessage());
-      System.exit(0);
+      System.exit(EXIT_FAILURE);
     } catch (Exception e) {
+      // Con --trace-buffer, los últimos eventos dan el contexto del error
+      Trace.dumpBuffer(System.err);
       System.err.println("Compilation error: " + e.getMessage());
       e.printStackTrace();
-      System.exit(0);
+      System.exit(EXIT_FAILURE);
     }
 
     System.out.println("Compilation Successful");
   }
+
+  // Versión del compilador (del manifest del jar); forma parte de la clave de la caché
+  public static String version() {
+    String version = Compiler.class.getPackage().getImplementationVersion();
+    return version != null ? version : "dev";
+  }
+
+  public static CompileMetrics compileFileCached(Path source, Path outputDirectory, BuildCache cache) throws Exception {
+    return compileFileCached(source, outputDirectory, cache, Backends.defaultBackend());
+  }
+
+  // Como compileFile, pero si el fuente ya se compiló con esta versión y target
+  // restaura los artefactos desde la caché sin pasar por el lexer ni el parser.
+  // Con cache null compila siempre
+  public static CompileMetrics compileFileCached(Path source, Path outputDirectory, BuildCache cache, Backend backend)
+      throws Exception {
+    return compileFileCached(source, outputDirectory, cache, backend, Optimizer.none());
+  }
+
+  public static CompileMetrics compileFileCached(Path source, Path outputDirectory, BuildCache cache, Backend backend,
+                                                 Optimizer optimizer) throws Exception {
+    if (cache == null) {
+      return compileFile(source, outputDirectory, backend, optimizer).getMetrics();
+    }
+
+    long start = System.nanoTime();
+    CompileMetrics.Stopwatch read = CompileMetrics.start();
+    String text = Files.readString(source, StandardCharsets.UTF_8);
+    CompileMetrics readMetrics = new CompileMetrics();
+    readMetrics.stop(Phase.READ, read);
+
+    String key = cache.key(text, cacheOptions(backend, optimizer));
+    Map<String, String> artifacts = cache.get(key).orElse(null);
+    CompileMetrics metrics = readMetrics;
+    if (artifacts == null) {
+      CompilationResult result = compile(text, backend, optimizer);
+      artifacts = result.getArtifacts();
+      cache.put(key, artifacts);
+      metrics = result.getMetrics();
+      metrics.record(Phase.READ, readMetrics.getWallNanos(Phase.READ), readMetrics.getCpuNanos(Phase.READ));
+    }
+    FileOutputWriter.writeArtifacts(outputDirectory, artifacts, metrics);
+    metrics.setTotalWallNanos(System.nanoTime() - start);
+    return metrics;
+  }
+
+  public static Map<String, String> compileCached(CharSequence source, BuildCache cache) throws Exception {
+    return compileCached(source, cache, Backends.defaultBackend());
+  }
+
+  // Artefactos del fuente, tomados de la caché si ya se compiló con esta versión y target
+  public static Map<String, String> compileCached(CharSequence source, BuildCache cache, Backend backend) throws Exception {
+    return compileCached(source, cache, backend, Optimizer.none());
+  }
+
+  public static Map<String, String> compileCached(CharSequence source, BuildCache cache, Backend backend,
+                                                  Optimizer optimizer) throws Exception {
+    if (cache == null) {
+      return compile(source, backend, optimizer).getArtifacts();
+    }
+    String key = cache.key(source, cacheOptions(backend, optimizer));
+    Map<String, String> artifacts = cache.get(key).orElse(null);
+    if (artifacts == null) {
+      artifacts = compile(source, backend, optimizer).getArtifacts();
+      cache.put(key, artifacts);
+    }
+    return artifacts;
+  }
+
+  // Opciones que cambian los artefactos y por eso forman parte de la clave de la caché.
+  // El target por defecto y sin -O conservan la clave vacía de las entradas ya guardadas.
+  private static String cacheOptions(Backend backend, Optimizer optimizer) {
+    String target = Backends.DEFAULT_TARGET.equals(backend.name()) ? "" : "--target=" + backend.name();
+    if (!optimizer.isEnabled()) {
+      return target;
+    }
+    return target.isEmpty() ? optimizer.key() : target + " " + optimizer.key();
+  }
+
+  public static CompilationContext compileFile(Path source, Path outputDirectory) throws Exception {
+    return compileFile(source, outputDirectory, Backends.defaultBackend());
+  }
+
+  public static CompilationContext compileFile(Path source, Path outputDirectory, Backend backend) throws Exception {
+    return compileFile(source, outputDirectory, backend, Optimizer.none());
+  }
+
+  // Compila un archivo fuente y escribe los tres artefactos en el directorio indicado
+  public static CompilationContext compileFile(Path source, Path outputDirectory, Backend backend,
+                                               Optimizer optimizer) throws Exception {
+    long start = System.nanoTime();
+    // Cada compilación trabaja sobre su propio contexto
+    CompilationContext context = new CompilationContext();
+    context.setOutputDirectory(outputDirectory);
+    CompileMetrics metrics = context.getMetrics();
+
+    CompileMetrics.Stopwatch read = CompileMetrics.start();
+    String text = Files.readString(source, StandardCharsets.UTF_8);
+    metrics.stop(Phase.READ, read);
+
+    parse(text, context);
+    optimizer.run(context);
+
+    // Los tres archivos se generan en paralelo sobre una copia de sólo lectura;
+    // los que no cambiaron respecto de la compilación anterior no se reescriben
+    CompilationContext snapshot = context.snapshot();
+    Map<String, FileGenerator> generators = new LinkedHashMap<>();
+    generators.put(FileOutputWriter.SYMBOL_TABLE_FILE,
+                   new TimedGenerator(new SymbolTableGenerator(snapshot), metrics, Phase.LISTING));
+    generators.put(FileOutputWriter.INTERMEDIATE_CODE_FILE,
+                   new TimedGenerator(new IntermediateCodeFileGenerator(snapshot), metrics, Phase.LISTING));
+    generators.put(backend.outputFile(), new TimedGenerator(backend.generator(snapshot), metrics, Phase.ASM));
+    FileOutputWriter.writeGenerated(outputDirectory, generators, metrics);
+    metrics.setTotalWallNanos(System.nanoTime() - start);
+    return context;
+  }
+
+  // Compila en memoria, sin tocar target/output. Es seguro llamarlo desde varios hilos
+  // a la vez porque cada invocación usa un contexto propio.
+  public static CompilationResult compile(CharSequence source) throws Exception {
+    return compile(source, Backends.defaultBackend());
+  }
+
+  public static CompilationResult compile(CharSequence source, Backend backend) throws Exception {
+    return compile(source, backend, Optimizer.none());
+  }
+
+  // Los artefactos salen de los tercetos ya optimizados (intermediate-code.txt incluido)
+  public static CompilationResult compile(CharSequence source, Backend backend, Optimizer optimizer) throws Exception {
+    long start = System.nanoTime();
+    CompilationContext context = new CompilationContext();
+    CompileMetrics metrics = context.getMetrics();
+    parse(source.toString(), context);
+    optimizer.run(context);
+
+    StringWriter symbolTable = new StringWriter();
+    new TimedGenerator(new SymbolTableGenerator(context), metrics, Phase.LISTING).generate(symbolTable);
+    StringWriter intermediateCode = new StringWriter();
+    new TimedGenerator(new IntermediateCodeFileGenerator(context), metrics, Phase.LISTING).generate(intermediateCode);
+    StringWriter asm = new StringWriter();
+    new TimedGenerator(backend.generator(context), metrics, Phase.ASM).generate(asm);
+    metrics.setTotalWallNanos(System.nanoTime() - start);
+
+    return new CompilationResult(context.getSymbolTableManager().getSymbolTable(),
+                                 context.getIntermediateCodeGenerator().getTriplets(),
+                                 symbolTable.toString(), intermediateCode.toString(), backend.outputFile(),
+                                 asm.toString(), metrics);
+  }
+
+  // Sólo lexer y parser: el contexto queda con la tabla de símbolos, los tercetos y sus
+  // tipos, sin generar ningún artefacto (lo usa el intérprete)
+  public static CompilationContext analyze(CharSequence source) throws Exception {
+    return analyze(source, Optimizer.none());
+  }
+
+  public static CompilationContext analyze(CharSequence source, Optimizer optimizer) throws Exception {
+    CompilationContext context = new CompilationContext();
+    parse(source.toString(), context);
+    optimizer.run(context);
+    return context;
+  }
+
+  // Lexer y parser van intercalados: el tiempo del lexer se mide dentro del scanner y la
+  // CPU de ambos se reparte en proporción al tiempo de pared
+  private static void parse(String source, CompilationContext context) throws Exception {
+    CompileMetrics metrics = context.getMetrics();
+    Parser parser = ParserFactory.create(source, context);
+    CompileMetrics.Stopwatch stopwatch = CompileMetrics.start();
+    parser.parse();
+    long wall = stopwatch.wallNanos();
+    long cpu = stopwatch.cpuNanos();
+
+    Lexer lexer = (Lexer) parser.getScanner();
+    long lexWall = Math.min(lexer.getScanNanos(), wall);
+    long lexCpu = wall > 0 ? (long) (cpu * ((double) lexWall / wall)) : 0;
+    metrics.recordEstimated(Phase.LEX, lexWall, lexCpu);
+    metrics.recordEstimated(Phase.PARSE, wall - lexWall, cpu - lexCpu);
+
+    metrics.set(Counter.TOKENS, lexer.getTokenCount());
+    metrics.countTriplets(context.getIntermediateCodeGenerator().getStore());
+    metrics.set(Counter.LABELS, context.getIntermediateCodeGenerator().getLabelCount());
+    metrics.set(Counter.SYMBOLS, context.getSymbolTableManager().getSymbolTable().size());
+  }
 }
@@ -0,0 +1,139 @@
+package lyc.compiler.main;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import lyc.compiler.backend.jvm.JvmProgram;
+import lyc.compiler.context.CompilationContext;
+import lyc.compiler.interpreter.ExecutionResult;
+import lyc.compiler.interpreter.TripletInterpreter;
+import lyc.compiler.main.CommandLineOptions.Group;
+import lyc.compiler.model.CompilerException;
+import lyc.compiler.optimizer.Optimizer;
+import lyc.compiler.trace.Trace;
+
+/**
+ * Modo --run: compila el fuente hasta los tercetos y los ejecuta, sin generar
+ * artefactos ni pasar por el assembler. Por defecto con el intérprete; con
+ * --engine=jvm los traduce a bytecode y los corre como hidden class, y con
+ * --jar=ARCHIVO guarda ese bytecode como jar ejecutable en lugar de correrlo.
+ * Con --profile (sólo intérprete) imprime en la salida de error cuántas veces se
+ * ejecutó cada label y los tercetos más usados; con -O se ejecutan los tercetos
+ * optimizados.
+ */
+public final class ProgramRunner {
+
+  public static final String RUN_OPTION = "--run";
+  public static final String ENGINE_INTERPRETER = "interp";
+  public static final String ENGINE_JVM = "jvm";
+  public static final String USAGE = RUN_OPTION + " [--engine=" + ENGINE_INTERPRETER + "|" + ENGINE_JVM
+                                    + "] [--jar=FILE] [--profile[=N]] [--max-steps=N] " + Optimizer.Options.USAGE + " "
+                                    + Trace.USAGE + " <file>";
+
+  private static final int DEFAULT_PROFILE_TOP = 10;
+
+  private ProgramRunner() {}
+
+  public static int run(String[] args) {
+    return run(args, System.in, System.out, System.err);
+  }
+
+  public static int run(String[] args, InputStream in, PrintStream out, PrintStream err) {
+    CommandLineOptions options = new CommandLineOptions(Group.TRACE, Group.OPTIMIZER);
+    List<String> files = new ArrayList<>();
+    int profileTop = 0;
+    long maxSteps = TripletInterpreter.DEFAULT_MAX_STEPS;
+    String engine = ENGINE_INTERPRETER;
+    Path jar = null;
+
+    List<String> rest = options.parse(args, err);
+    if (rest == null) {
+      return Compiler.EXIT_USAGE;
+    }
+    for (String arg : rest) {
+      try {
+        if (arg.equals("--profile")) {
+          profileTop = DEFAULT_PROFILE_TOP;
+        } else if (arg.startsWith("--profile=")) {
+          profileTop = Integer.parseInt(arg.substring("--profile=".length()));
+        } else if (arg.startsWith("--engine=")) {
+          engine = arg.substring("--engine=".length());
+          if (!engine.equals(ENGINE_INTERPRETER) && !engine.equals(ENGINE_JVM)) {
+            err.println("Invalid engine: " + engine + " (expected " + ENGINE_INTERPRETER + " or " + ENGINE_JVM + ")");
+            return Compiler.EXIT_USAGE;
+          }
+        } else if (arg.startsWith("--jar=")) {
+          jar = Path.of(arg.substring("--jar=".length()));
+          engine = ENGINE_JVM;
+        } else if (arg.startsWith("--max-steps=")) {
+          maxSteps = Long.parseLong(arg.substring("--max-steps=".length()));
+        } else {
+          files.add(arg);
+          continue;
+        }
+      } catch (NumberFormatException e) {
+        profileTop = -1;
+      }
+      if (profileTop < 0 || maxSteps < 1) {
+        err.println("Invalid run option: " + arg);
+        return Compiler.EXIT_USAGE;
+      }
+    }
+
+    if (files.size() != 1) {
+      err.println("Usage: Compiler " + USAGE);
+      return Compiler.EXIT_USAGE;
+    }
+    if (profileTop > 0 && engine.equals(ENGINE_JVM)) {
+      err.println("--profile is only available with --engine=" + ENGINE_INTERPRETER);
+      return Compiler.EXIT_USAGE;
+    }
+    options.applyTrace();
+
+    CompilationContext context;
+    try {
+      context = Compiler.analyze(Files.readString(Path.of(files.get(0)), StandardCharsets.UTF_8),
+                                 options.optimizer());
+    } catch (IOException e) {
+      err.println("There was an error trying to read input file " + e.getMessage());
+      return Compiler.EXIT_FAILURE;
+    } catch (Exception e) {
+      Trace.dumpBuffer(err);
+      err.println("Compilation error: " + e.getMessage());
+      return Compiler.EXIT_FAILURE;
+    }
+
+    // La entrada y la salida del programa no se cierran: son las del proceso
+    BufferedReader input = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    Writer output = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+    try {
+      if (jar != null) {
+        JvmProgram.writeJar(context, jar);
+        out.println("Generado " + jar + " (java -jar " + jar + ")");
+      } else if (engine.equals(ENGINE_JVM)) {
+        JvmProgram.define(context).run(input, output);
+      } else {
+        ExecutionResult result = new TripletInterpreter(context).maxSteps(maxSteps).run(input, output);
+        if (profileTop > 0) {
+          err.print(result.report(profileTop));
+        }
+      }
+    } catch (CompilerException | RuntimeException e) {
+      err.println("Runtime error: " + e.getMessage());
+      return Compiler.EXIT_FAILURE;
+    } catch (IOException e) {
+      err.println("There was an error trying to read or write program data " + e.getMessage());
+      return Compiler.EXIT_FAILURE;
+    }
+    return Compiler.EXIT_OK;
+  }
+}
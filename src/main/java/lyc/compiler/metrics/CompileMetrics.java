@@ -0,0 +1,247 @@
+package lyc.compiler.metrics;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lyc.compiler.files.Operator;
+import lyc.compiler.files.TripletStore;
+
+/**
+ * Métricas de una compilación: tiempo de pared y de CPU por fase, y contadores
+ * (tokens, tercetos por operador, labels, temporales, literales, símbolos).
+ * Las fases que generan artefactos corren en paralelo, por lo que la suma de los
+ * tiempos de pared puede superar el tiempo total.
+ */
+public final class CompileMetrics {
+
+  public enum Phase {
+    // Lectura del fuente
+    READ,
+    // Tiempo dentro del scanner (Lexer.next_token)
+    LEX,
+    // Parser con sus acciones semánticas, sin el lexer. Los tercetos se crean en las
+    // acciones del parser, así que su generación se cuenta acá y no tiene fase propia.
+    PARSE,
+    // Pasadas de optimización sobre los tercetos (-O)
+    OPTIMIZE,
+    // Formato de los listados de texto: tabla de símbolos y código intermedio
+    LISTING,
+    // Generación del assembler
+    ASM,
+    // Escritura de los archivos a disco
+    WRITE;
+
+    public String id() {
+      return name().toLowerCase();
+    }
+  }
+
+  public enum Counter {
+    TOKENS,
+    TRIPLETS,
+    // Tercetos que eliminaron las pasadas de optimización
+    OPTIMIZED,
+    LABELS,
+    // Temporales que pidió el backend MASM y posiciones _tmp que declaró para ellos
+    TEMPS,
+    TEMP_SLOTS,
+    // Reescrituras del optimizador peephole sobre el assembler MASM
+    PEEPHOLE,
+    LITERALS,
+    SYMBOLS;
+
+    public String id() {
+      return name().toLowerCase();
+    }
+  }
+
+  public static final String REPORT_FILE = "metrics.json";
+
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+  private final long[] wallNanos = new long[Phase.values().length];
+  private final long[] cpuNanos = new long[Phase.values().length];
+  // El lexer y el parser se intercalan: su CPU se reparte según el tiempo de pared
+  private final boolean[] cpuEstimated = new boolean[Phase.values().length];
+  private final long[] counters = new long[Counter.values().length];
+  private final Map<Operator, Long> tripletsByOperator = new EnumMap<>(Operator.class);
+  // Tercetos eliminados por cada pasada de optimización, en el orden en que corrieron
+  private final Map<String, Long> removedByPass = new LinkedHashMap<>();
+  // Veces que se aplicó cada regla del optimizador peephole
+  private final Map<String, Long> peepholeHits = new LinkedHashMap<>();
+  private long totalWallNanos;
+
+  // CPU del hilo actual, o 0 si la JVM no lo soporta
+  public static long currentThreadCpuNanos() {
+    return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : 0;
+  }
+
+  public static Stopwatch start() {
+    return new Stopwatch();
+  }
+
+  // Suma a la fase el tiempo transcurrido desde que se creó el cronómetro
+  public void stop(Phase phase, Stopwatch stopwatch) {
+    record(phase, stopwatch.wallNanos(), stopwatch.cpuNanos());
+  }
+
+  // Suma a la fase; una fase puede registrarse varias veces (p.ej. WRITE, una por archivo)
+  public synchronized void record(Phase phase, long wall, long cpu) {
+    wallNanos[phase.ordinal()] += wall;
+    cpuNanos[phase.ordinal()] += cpu;
+  }
+
+  public synchronized void recordEstimated(Phase phase, long wall, long cpu) {
+    record(phase, wall, cpu);
+    cpuEstimated[phase.ordinal()] = true;
+  }
+
+  public synchronized void set(Counter counter, long value) {
+    counters[counter.ordinal()] = value;
+  }
+
+  // Cuenta los tercetos por operador; se llama una vez, al terminar el parser
+  public synchronized void countTriplets(TripletStore triplets) {
+    long[] byOperator = new long[Operator.values().length];
+    long total = triplets.size();
+    for (int i = 1; i <= total; i++) {
+      byOperator[triplets.operator(i).ordinal()]++;
+    }
+    for (Operator operator : Operator.values()) {
+      if (byOperator[operator.ordinal()] > 0) {
+        tripletsByOperator.merge(operator, byOperator[operator.ordinal()], Long::sum);
+      }
+    }
+    counters[Counter.TRIPLETS.ordinal()] += total;
+  }
+
+  public synchronized void recordPass(String pass, long removedTriplets) {
+    removedByPass.merge(pass, removedTriplets, Long::sum);
+    counters[Counter.OPTIMIZED.ordinal()] += removedTriplets;
+  }
+
+  public synchronized void recordPeephole(String rule, long hits) {
+    peepholeHits.merge(rule, hits, Long::sum);
+    counters[Counter.PEEPHOLE.ordinal()] += hits;
+  }
+
+  public synchronized void setTotalWallNanos(long nanos) {
+    totalWallNanos = nanos;
+  }
+
+  public synchronized long getWallNanos(Phase phase) { return wallNanos[phase.ordinal()]; }
+
+  public synchronized long getCpuNanos(Phase phase) { return cpuNanos[phase.ordinal()]; }
+
+  public synchronized boolean isCpuEstimated(Phase phase) { return cpuEstimated[phase.ordinal()]; }
+
+  public synchronized long get(Counter counter) { return counters[counter.ordinal()]; }
+
+  public synchronized Map<Operator, Long> getTripletsByOperator() { return new EnumMap<>(tripletsByOperator); }
+
+  public synchronized Map<String, Long> getRemovedByPass() { return new LinkedHashMap<>(removedByPass); }
+
+  public synchronized Map<String, Long> getPeepholeHits() { return new LinkedHashMap<>(peepholeHits); }
+
+  public synchronized long getTotalWallNanos() { return totalWallNanos; }
+
+  public synchronized void reset() {
+    Arrays.fill(wallNanos, 0);
+    Arrays.fill(cpuNanos, 0);
+    Arrays.fill(cpuEstimated, false);
+    Arrays.fill(counters, 0);
+    tripletsByOperator.clear();
+    removedByPass.clear();
+    peepholeHits.clear();
+    totalWallNanos = 0;
+  }
+
+  public synchronized String toJson(String source) {
+    StringBuilder out = new StringBuilder(1024);
+    out.append("{\n");
+    out.append("  \"source\": ").append(source == null ? "null" : quote(source)).append(",\n");
+    out.append("  \"totalWallNanos\": ").append(totalWallNanos).append(",\n");
+    out.append("  \"phases\": {\n");
+    Phase[] phases = Phase.values();
+    for (int i = 0; i < phases.length; i++) {
+      out.append("    ").append(quote(phases[i].id())).append(": {\"wallNanos\": ").append(wallNanos[i])
+         .append(", \"cpuNanos\": ").append(cpuNanos[i])
+         .append(", \"cpuEstimated\": ").append(cpuEstimated[i]).append('}')
+         .append(i + 1 < phases.length ? ",\n" : "\n");
+    }
+    out.append("  },\n");
+    out.append("  \"counters\": {\n");
+    Counter[] all = Counter.values();
+    for (int i = 0; i < all.length; i++) {
+      out.append("    ").append(quote(all[i].id())).append(": ").append(counters[i])
+         .append(i + 1 < all.length ? ",\n" : "\n");
+    }
+    out.append("  },\n");
+    out.append("  \"tripletsByOperator\": {");
+    int written = 0;
+    for (Map.Entry<Operator, Long> entry : tripletsByOperator.entrySet()) {
+      out.append(written++ == 0 ? "\n" : ",\n")
+         .append("    ").append(quote(entry.getKey().name())).append(": ").append(entry.getValue());
+    }
+    out.append(written == 0 ? "},\n" : "\n  },\n");
+    out.append("  \"optimizer\": {");
+    written = 0;
+    for (Map.Entry<String, Long> entry : removedByPass.entrySet()) {
+      out.append(written++ == 0 ? "\n" : ",\n")
+         .append("    ").append(quote(entry.getKey())).append(": ").append(entry.getValue());
+    }
+    out.append(written == 0 ? "},\n" : "\n  },\n");
+    out.append("  \"peephole\": {");
+    written = 0;
+    for (Map.Entry<String, Long> entry : peepholeHits.entrySet()) {
+      out.append(written++ == 0 ? "\n" : ",\n")
+         .append("    ").append(quote(entry.getKey())).append(": ").append(entry.getValue());
+    }
+    out.append(written == 0 ? "}\n" : "\n  }\n");
+    out.append("}\n");
+    return out.toString();
+  }
+
+  public void writeJson(Path file, String source) throws IOException {
+    Files.createDirectories(file.toAbsolutePath().getParent());
+    Files.writeString(file, toJson(source), StandardCharsets.UTF_8);
+  }
+
+  // Tiempo de pared y de CPU del hilo que lo creó
+  public static final class Stopwatch {
+    private final long wallStart = System.nanoTime();
+    private final long cpuStart = currentThreadCpuNanos();
+
+    private Stopwatch() {}
+
+    public long wallNanos() {
+      return System.nanoTime() - wallStart;
+    }
+
+    public long cpuNanos() {
+      return currentThreadCpuNanos() - cpuStart;
+    }
+  }
+
+  private static String quote(String text) {
+    StringBuilder out = new StringBuilder(text.length() + 2).append('"');
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == '"' || c == '\\') {
+        out.append('\\').append(c);
+      } else if (c < 0x20) {
+        out.append(String.format("\\u%04x", (int) c));
+      } else {
+        out.append(c);
+      }
+    }
+    return out.append('"').toString();
+  }
+}
@@ -0,0 +1,39 @@
+package lyc.compiler.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import lyc.compiler.files.ArtifactWriter;
+import lyc.compiler.files.FileGenerator;
+import lyc.compiler.metrics.CompileMetrics.Phase;
+
+/**
+ * Mide el tiempo de un generador de artefactos y lo suma a una fase. Si escribe
+ * directo a un archivo, descuenta el tiempo de E/S del ArtifactWriter: ese tiempo
+ * se cuenta en WRITE al cerrar el archivo (ver FileOutputWriter).
+ */
+public final class TimedGenerator implements FileGenerator {
+
+  private final FileGenerator delegate;
+  private final CompileMetrics metrics;
+  private final Phase phase;
+
+  public TimedGenerator(FileGenerator delegate, CompileMetrics metrics, Phase phase) {
+    this.delegate = delegate;
+    this.metrics = metrics;
+    this.phase = phase;
+  }
+
+  @Override
+  public void generate(Writer writer) throws IOException {
+    CompileMetrics.Stopwatch stopwatch = CompileMetrics.start();
+    delegate.generate(writer);
+    long wall = stopwatch.wallNanos();
+    long cpu = stopwatch.cpuNanos();
+    if (writer instanceof ArtifactWriter) {
+      ArtifactWriter artifact = (ArtifactWriter) writer;
+      wall -= artifact.getIoNanos();
+      cpu -= artifact.getIoCpuNanos();
+    }
+    metrics.record(phase, Math.max(0, wall), Math.max(0, cpu));
+  }
+}
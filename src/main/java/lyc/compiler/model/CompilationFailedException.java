@@ -0,0 +1,7 @@
+package lyc.compiler.model;
+
+public class CompilationFailedException extends CompilerException {
+  public CompilationFailedException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,6 @@
+package lyc.compiler.model;
+
+// Error al ejecutar los tercetos con el intérprete (entrada inválida, límite de pasos)
+public class ExecutionError extends CompilerException {
+  public ExecutionError(String message) { super(message); }
+}
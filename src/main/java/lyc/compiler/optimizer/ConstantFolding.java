@@ -0,0 +1,205 @@
+package lyc.compiler.optimizer;
+
+import java.util.HashMap;
+import java.util.Map;
+import lyc.compiler.context.CompilationContext;
+import lyc.compiler.files.Operator;
+import lyc.compiler.files.TripletOperand;
+import lyc.compiler.files.TripletStore;
+import lyc.compiler.interpreter.IntSemantics;
+import lyc.compiler.optimizer.TripletEditor.Constant;
+import lyc.compiler.table.DataType;
+
+/**
+ * Plegado y propagación de constantes. Las operaciones Int y Float con operandos
+ * constantes se calculan en compilación con la misma aritmética que el intérprete
+ * (Int de 16 bits que da la vuelta, Float en precisión simple) y el terceto pasa a
+ * ser un CTE; los CTE que sólo usaba la operación se eliminan.
+ *
+ * Dentro de un tramo sin labels, el valor constante asignado a una variable
+ * reemplaza a los ID que la leen después, hasta que otra asignación o un read la
+ * cambian. Un CMP entre constantes (isZero de una expresión constante, por ejemplo)
+ * decide su salto: si siempre salta queda un BI, y si nunca salta se eliminan los dos.
+ * Las divisiones por cero no se pliegan, para que sigan fallando al ejecutar.
+ */
+final class ConstantFolding implements OptimizationPass {
+
+  static final String NAME = "fold";
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  @Override
+  public void run(CompilationContext context) {
+    TripletEditor editor = new TripletEditor(context);
+    TripletStore store = editor.store();
+    // Variable -> valor asignado en el tramo actual
+    Map<String, Constant> known = new HashMap<>();
+    boolean folded = false;
+
+    for (int i = 1; i <= editor.size(); i++) {
+      if (editor.isRemoved(i)) {
+        continue;
+      }
+      Operator op = store.operator(i);
+      switch (op) {
+        case LABEL:
+          // Se puede llegar desde otro lado: lo propagado deja de valer
+          known.clear();
+          break;
+        case ID:
+          Constant value = known.get(store.name(store.first(i)));
+          if (value != null) {
+            editor.setConstant(i, value);
+          }
+          break;
+        case ADD:
+        case SUB:
+        case MUL:
+        case DIV:
+        case MOD:
+        case NEG:
+          Constant result = fold(op, editor.type(i), editor.constant(store.first(i)), editor.constant(store.second(i)));
+          if (result != null) {
+            editor.setConstant(i, result);
+            folded = true;
+          }
+          break;
+        case LT:
+        case GT:
+        case EQ:
+        case NEQ:
+        case LTEQ:
+        case GTEQ:
+          Integer relation = compare(editor.constant(store.first(i)), editor.constant(store.second(i)));
+          if (relation != null) {
+            editor.setConstant(i, new Constant(holds(op, relation) ? 1 : 0, DataType.INTEGER_TYPE));
+            folded = true;
+          }
+          break;
+        case CMP:
+          Integer comparison = compare(editor.constant(store.first(i)), editor.constant(store.second(i)));
+          if (comparison != null && i < editor.size() && store.operator(i + 1).isConditionalJump()) {
+            editor.remove(i);
+            if (jumps(store.operator(i + 1), comparison)) {
+              store.setOperator(i + 1, Operator.BI);
+            } else {
+              editor.remove(i + 1);
+            }
+            folded = true;
+          }
+          break;
+        case ASSIGN:
+          assign(editor, known, store.first(i), store.second(i));
+          break;
+        case READ:
+          known.remove(store.name(store.first(i)));
+          break;
+        default:
+          break;
+      }
+    }
+
+    if (folded) {
+      removeUnusedConstants(editor);
+    }
+    editor.commit();
+  }
+
+  private static void assign(TripletEditor editor, Map<String, Constant> known, int target, int source) {
+    if (TripletOperand.kind(target) != TripletOperand.Kind.SYMBOL) {
+      return;
+    }
+    String name = editor.store().name(target);
+    DataType type = TripletEditor.numericType(editor.symbolType(target));
+    Constant value = editor.constant(source);
+    if (type == null || value == null) {
+      known.remove(name);
+    } else if (type == DataType.FLOAT_TYPE) {
+      known.put(name, new Constant((float) value.value, type));
+    } else if (value.isInteger()) {
+      known.put(name, value);
+    } else {
+      known.remove(name);
+    }
+  }
+
+  static Constant fold(Operator op, DataType resultType, Constant left, Constant right) {
+    DataType type = TripletEditor.numericType(resultType);
+    if (type == null || left == null || (op != Operator.NEG && right == null)) {
+      return null;
+    }
+    if ((op == Operator.DIV || op == Operator.MOD) && right.value == 0) {
+      return null;
+    }
+    if (type == DataType.INTEGER_TYPE) {
+      if (!left.isInteger() || (right != null && !right.isInteger())) {
+        return null;
+      }
+      int a = (int) left.value;
+      int b = right != null ? (int) right.value : 0;
+      switch (op) {
+        case ADD: return new Constant(IntSemantics.add(a, b), type);
+        case SUB: return new Constant(IntSemantics.sub(a, b), type);
+        case MUL: return new Constant(IntSemantics.mul(a, b), type);
+        case DIV: return new Constant(IntSemantics.div(a, b), type);
+        case MOD: return new Constant(IntSemantics.mod(a, b), type);
+        default: return new Constant(IntSemantics.neg(a), type);
+      }
+    }
+    double a = left.value;
+    double b = right != null ? right.value : 0;
+    switch (op) {
+      case ADD: return new Constant((float) (a + b), type);
+      case SUB: return new Constant((float) (a - b), type);
+      case MUL: return new Constant((float) (a * b), type);
+      case DIV: return new Constant((float) (a / b), type);
+      case MOD: return new Constant((float) (a % b), type);
+      default: return new Constant((float) -a, type);
+    }
+  }
+
+  private static Integer compare(Constant left, Constant right) {
+    if (left == null || right == null) {
+      return null;
+    }
+    return left.value < right.value ? -1 : left.value > right.value ? 1 : 0;
+  }
+
+  private static boolean jumps(Operator jump, int comparison) {
+    switch (jump) {
+      case BLT: return comparison < 0;
+      case BGE: return comparison >= 0;
+      case BLE: return comparison <= 0;
+      case BGT: return comparison > 0;
+      case BEQ: return comparison == 0;
+      default: return comparison != 0;
+    }
+  }
+
+  private static boolean holds(Operator relation, int comparison) {
+    switch (relation) {
+      case LT: return comparison < 0;
+      case GT: return comparison > 0;
+      case EQ: return comparison == 0;
+      case NEQ: return comparison != 0;
+      case LTEQ: return comparison <= 0;
+      default: return comparison >= 0;
+    }
+  }
+
+  // Los CTE sin usos se eliminan: un CTE no tiene efectos. Son los operandos de las
+  // operaciones plegadas y los CTE sueltos que emite convDate (día, mes, año y la
+  // fecha AAAAMMDD), que ningún terceto lee. dce quita los mismos.
+  private static void removeUnusedConstants(TripletEditor editor) {
+    int[] uses = editor.useCounts();
+    TripletStore store = editor.store();
+    for (int i = 1; i <= editor.size(); i++) {
+      if (!editor.isRemoved(i) && uses[i] == 0 && store.operator(i) == Operator.CTE) {
+        editor.remove(i);
+      }
+    }
+  }
+}
@@ -0,0 +1,160 @@
+package lyc.compiler.optimizer;
+
+import java.util.HashSet;
+import java.util.Set;
+import lyc.compiler.context.CompilationContext;
+import lyc.compiler.files.Operator;
+import lyc.compiler.files.TripletOperand;
+import lyc.compiler.files.TripletStore;
+
+/**
+ * Eliminación de código muerto. Quita, en este orden:
+ *
+ * - los DECLARE, que ningún backend usa (las variables salen de la tabla de símbolos);
+ * - lo que no se alcanza nunca: lo que sigue a un BI hasta un label al que salta
+ *   algún terceto alcanzable;
+ * - los saltos al label que viene justo después (con su CMP, si es condicional);
+ * - los cálculos sin efectos cuyo resultado nadie usa, salvo una división que
+ *   puede ser por cero (incluidos los CTE sueltos que emite convDate, que ningún
+ *   terceto lee);
+ * - los labels a los que ya no salta nadie, que dejan de cortar los tramos de fold y cse.
+ *
+ * READ, WRITE y las asignaciones alcanzables se quedan siempre. Los CMP entre
+ * constantes los resuelve fold; esta pasada limpia lo que dejan.
+ */
+final class DeadCodeElimination implements OptimizationPass {
+
+  static final String NAME = "dce";
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  @Override
+  public void run(CompilationContext context) {
+    TripletEditor editor = new TripletEditor(context);
+    TripletStore store = editor.store();
+
+    for (int i = 1; i <= editor.size(); i++) {
+      if (store.operator(i) == Operator.DECLARE) {
+        editor.remove(i);
+      }
+    }
+    removeUnreachable(editor);
+    removeJumpsToNext(editor);
+    removeUnusedValues(editor);
+    removeUnusedLabels(editor);
+    editor.commit();
+  }
+
+  // Recorre el programa hasta que el conjunto de labels alcanzados no cambia: un
+  // while salta hacia atrás, así que un label puede alcanzarse por un salto posterior
+  private static void removeUnreachable(TripletEditor editor) {
+    TripletStore store = editor.store();
+    boolean[] reachable = new boolean[editor.size() + 1];
+    Set<Integer> targets = new HashSet<>();
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      boolean falling = true;
+      for (int i = 1; i <= editor.size(); i++) {
+        if (editor.isRemoved(i)) {
+          continue;
+        }
+        Operator op = store.operator(i);
+        if (op == Operator.LABEL && targets.contains(store.first(i))) {
+          falling = true;
+        }
+        reachable[i] = falling;
+        if (falling && op.isJump()) {
+          changed |= targets.add(store.first(i));
+        }
+        if (op == Operator.BI) {
+          falling = false;
+        }
+      }
+    }
+    for (int i = 1; i <= editor.size(); i++) {
+      if (!reachable[i]) {
+        editor.remove(i);
+      }
+    }
+  }
+
+  private static void removeJumpsToNext(TripletEditor editor) {
+    TripletStore store = editor.store();
+    for (int i = 1; i <= editor.size(); i++) {
+      if (editor.isRemoved(i) || !store.operator(i).isJump() || !fallsInto(editor, i, store.first(i))) {
+        continue;
+      }
+      editor.remove(i);
+      // El parser pone el CMP justo antes de su salto condicional
+      if (store.operator(i).isConditionalJump() && i > 1 && store.operator(i - 1) == Operator.CMP) {
+        editor.remove(i - 1);
+      }
+    }
+  }
+
+  // true si entre el salto y su label destino sólo hay otros labels
+  private static boolean fallsInto(TripletEditor editor, int jump, int label) {
+    TripletStore store = editor.store();
+    for (int i = jump + 1; i <= editor.size(); i++) {
+      if (editor.isRemoved(i)) {
+        continue;
+      }
+      if (store.operator(i) != Operator.LABEL) {
+        return false;
+      }
+      if (store.first(i) == label) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // Las referencias van siempre hacia atrás: recorriendo desde el final, quitar un
+  // terceto ya descuenta los usos de sus operandos antes de llegar a ellos
+  private static void removeUnusedValues(TripletEditor editor) {
+    TripletStore store = editor.store();
+    int[] uses = editor.useCounts();
+    for (int i = editor.size(); i >= 1; i--) {
+      if (editor.isRemoved(i) || uses[i] > 0 || !isRemovable(editor, i)) {
+        continue;
+      }
+      editor.remove(i);
+      release(uses, store.first(i));
+      release(uses, store.second(i));
+    }
+  }
+
+  private static boolean isRemovable(TripletEditor editor, int index) {
+    Operator op = editor.store().operator(index);
+    if (op == Operator.DIV || op == Operator.MOD) {
+      TripletEditor.Constant divisor = editor.constant(editor.store().second(index));
+      return divisor != null && divisor.value != 0;
+    }
+    return TripletEditor.isPure(op);
+  }
+
+  private static void release(int[] uses, int operand) {
+    if (TripletOperand.isRef(operand)) {
+      uses[TripletOperand.value(operand)]--;
+    }
+  }
+
+  private static void removeUnusedLabels(TripletEditor editor) {
+    TripletStore store = editor.store();
+    Set<Integer> targets = new HashSet<>();
+    for (int i = 1; i <= editor.size(); i++) {
+      if (!editor.isRemoved(i) && store.operator(i).isJump()) {
+        targets.add(store.first(i));
+      }
+    }
+    for (int i = 1; i <= editor.size(); i++) {
+      if (!editor.isRemoved(i) && store.operator(i) == Operator.LABEL && !targets.contains(store.first(i))) {
+        editor.remove(i);
+      }
+    }
+  }
+}
@@ -0,0 +1,16 @@
+package lyc.compiler.optimizer;
+
+import lyc.compiler.context.CompilationContext;
+
+/**
+ * Pasada sobre los tercetos del contexto, entre el parser y el backend. Puede
+ * reescribir y eliminar tercetos (con TripletEditor) y agregar literales a la
+ * tabla de símbolos; el programa resultante debe hacer lo mismo que el original.
+ */
+public interface OptimizationPass {
+
+  // Nombre corto para --optimize= y para el reporte
+  String name();
+
+  void run(CompilationContext context);
+}
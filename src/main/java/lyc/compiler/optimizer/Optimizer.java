@@ -0,0 +1,146 @@
+package lyc.compiler.optimizer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import lyc.compiler.context.CompilationContext;
+import lyc.compiler.metrics.CompileMetrics;
+import lyc.compiler.metrics.CompileMetrics.Phase;
+import lyc.compiler.trace.Category;
+import lyc.compiler.trace.Trace;
+
+/**
+ * Pasadas de optimización que se aplican a los tercetos después del parser. Sin -O
+ * no corre ninguna y los artefactos son los de siempre; -O corre todas en el orden
+ * de PASSES y --optimize=a,b sólo las nombradas (en ese mismo orden).
+ */
+public final class Optimizer {
+
+  private static final Map<String, Supplier<OptimizationPass>> PASSES = registry();
+
+  private static final Optimizer NONE = new Optimizer(List.of());
+
+  private final List<String> names;
+
+  private Optimizer(List<String> names) {
+    this.names = names;
+  }
+
+  private static Map<String, Supplier<OptimizationPass>> registry() {
+    Map<String, Supplier<OptimizationPass>> passes = new LinkedHashMap<>();
+    passes.put(ConstantFolding.NAME, ConstantFolding::new);
+    passes.put(ValueNumbering.NAME, ValueNumbering::new);
+    passes.put(DeadCodeElimination.NAME, DeadCodeElimination::new);
+    return Collections.unmodifiableMap(passes);
+  }
+
+  public static Optimizer none() {
+    return NONE;
+  }
+
+  public static Optimizer all() {
+    return new Optimizer(List.copyOf(PASSES.keySet()));
+  }
+
+  // Lanza IllegalArgumentException si alguna pasada no existe
+  public static Optimizer of(String names) {
+    List<String> requested = new ArrayList<>();
+    for (String name : names.split(",")) {
+      String trimmed = name.trim();
+      if (trimmed.isEmpty()) {
+        continue;
+      }
+      if (!PASSES.containsKey(trimmed)) {
+        throw new IllegalArgumentException("Pasada desconocida: " + trimmed + " (disponibles: "
+                                           + String.join(", ", PASSES.keySet()) + ")");
+      }
+      requested.add(trimmed);
+    }
+    List<String> ordered = new ArrayList<>();
+    for (String name : PASSES.keySet()) {
+      if (requested.contains(name)) {
+        ordered.add(name);
+      }
+    }
+    return ordered.isEmpty() ? NONE : new Optimizer(List.copyOf(ordered));
+  }
+
+  public static List<String> names() {
+    return new ArrayList<>(PASSES.keySet());
+  }
+
+  public boolean isEnabled() {
+    return !names.isEmpty();
+  }
+
+  public List<String> passes() {
+    return names;
+  }
+
+  // Parte de la clave de la caché; vacía sin optimizaciones
+  public String key() {
+    return isEnabled() ? "--optimize=" + String.join(",", names) : "";
+  }
+
+  // Corre las pasadas sobre el contexto y registra en sus métricas cuántos tercetos
+  // eliminó cada una
+  public void run(CompilationContext context) {
+    if (!isEnabled()) {
+      return;
+    }
+    CompileMetrics metrics = context.getMetrics();
+    CompileMetrics.Stopwatch stopwatch = CompileMetrics.start();
+    for (String name : names) {
+      int before = context.getIntermediateCodeGenerator().getStore().size();
+      PASSES.get(name).get().run(context);
+      int removed = before - context.getIntermediateCodeGenerator().getStore().size();
+      metrics.recordPass(name, removed);
+      Trace.debug(Category.OPT, "Pasada {}: {} tercetos eliminados", name, removed);
+    }
+    metrics.stop(Phase.OPTIMIZE, stopwatch);
+  }
+
+  // Resumen para la consola: "12 tercetos eliminados (fold 12)"
+  public static String summary(CompileMetrics metrics) {
+    StringBuilder out = new StringBuilder();
+    out.append(metrics.get(CompileMetrics.Counter.OPTIMIZED)).append(" tercetos eliminados (");
+    int written = 0;
+    for (Map.Entry<String, Long> entry : metrics.getRemovedByPass().entrySet()) {
+      out.append(written++ == 0 ? "" : ", ").append(entry.getKey()).append(' ').append(entry.getValue());
+    }
+    return out.append(')').toString();
+  }
+
+  // Opción de línea de comandos, con la misma forma que Backends.Options
+  public static final class Options {
+
+    public static final String USAGE = "[-O|--optimize=PASSES]";
+
+    private Optimizer optimizer = NONE;
+
+    // Devuelve true si el argumento era -O, -O0 u --optimize=; una pasada desconocida
+    // lanza IllegalArgumentException
+    public boolean accept(String arg) {
+      if (arg.equals("-O")) {
+        optimizer = all();
+        return true;
+      }
+      if (arg.equals("-O0")) {
+        optimizer = NONE;
+        return true;
+      }
+      if (arg.startsWith("--optimize=")) {
+        optimizer = of(arg.substring("--optimize=".length()));
+        return true;
+      }
+      return false;
+    }
+
+    public Optimizer optimizer() {
+      return optimizer;
+    }
+  }
+}
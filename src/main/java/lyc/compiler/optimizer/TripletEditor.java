@@ -0,0 +1,197 @@
+package lyc.compiler.optimizer;
+
+import java.math.BigDecimal;
+import lyc.compiler.context.CompilationContext;
+import lyc.compiler.files.Operator;
+import lyc.compiler.files.TripletOperand;
+import lyc.compiler.files.TripletStore;
+import lyc.compiler.files.TypeTable;
+import lyc.compiler.table.DataType;
+import lyc.compiler.table.SymbolEntry;
+import lyc.compiler.table.SymbolTableManager;
+
+/**
+ * Cambios de una pasada sobre los tercetos del contexto. Reescribir un terceto es
+ * inmediato; eliminar sólo lo marca, y commit los quita todos juntos y renumera
+ * las referencias y los tipos, así los índices no cambian mientras la pasada recorre.
+ */
+final class TripletEditor {
+
+  // Valor numérico conocido en compilación; type es INTEGER_TYPE o FLOAT_TYPE
+  static final class Constant {
+    final double value;
+    final DataType type;
+
+    Constant(double value, DataType type) {
+      this.value = value;
+      this.type = type;
+    }
+
+    boolean isInteger() {
+      return type == DataType.INTEGER_TYPE;
+    }
+  }
+
+  private final TripletStore store;
+  private final TypeTable types;
+  private final SymbolTableManager symbols;
+  private final boolean[] removed;
+  private int removedCount;
+
+  TripletEditor(CompilationContext context) {
+    this.store = context.getIntermediateCodeGenerator().getStore();
+    this.types = context.getTypeTable();
+    this.symbols = context.getSymbolTableManager();
+    this.removed = new boolean[store.size() + 1];
+  }
+
+  TripletStore store() {
+    return store;
+  }
+
+  int size() {
+    return store.size();
+  }
+
+  DataType type(int index) {
+    return types.getType(index);
+  }
+
+  // Tipo de una variable (operando SYMBOL)
+  DataType symbolType(int operand) {
+    SymbolEntry entry = symbols.get(store.name(operand));
+    return entry != null ? entry.getDataType() : null;
+  }
+
+  void remove(int index) {
+    if (!removed[index]) {
+      removed[index] = true;
+      removedCount++;
+    }
+  }
+
+  boolean isRemoved(int index) {
+    return removed[index];
+  }
+
+  // Cantidad de tercetos vivos que referencian a cada terceto
+  int[] useCounts() {
+    int[] uses = new int[store.size() + 1];
+    for (int i = 1; i <= store.size(); i++) {
+      if (removed[i]) {
+        continue;
+      }
+      countUse(uses, store.first(i));
+      countUse(uses, store.second(i));
+    }
+    return uses;
+  }
+
+  private static void countUse(int[] uses, int operand) {
+    if (TripletOperand.isRef(operand)) {
+      uses[TripletOperand.value(operand)]++;
+    }
+  }
+
+  // Valor del operando si es una referencia a un CTE numérico Int o Float
+  Constant constant(int operand) {
+    if (!TripletOperand.isRef(operand)) {
+      return null;
+    }
+    int index = TripletOperand.value(operand);
+    if (removed[index] || store.operator(index) != Operator.CTE) {
+      return null;
+    }
+    DataType type = numericType(types.getType(index));
+    String name = store.name(store.first(index));
+    if (type == null) {
+      SymbolEntry entry = symbols.get(name.replace(' ', '_'));
+      type = numericType(entry != null ? entry.getDataType() : null);
+    }
+    if (type == null) {
+      return null;
+    }
+    try {
+      return new Constant(Double.parseDouble(symbols.literalValue(name)), type);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  // INTEGER_TYPE o FLOAT_TYPE (también para los tipos de constante), null para el resto
+  static DataType numericType(DataType type) {
+    if (type == null) {
+      return null;
+    }
+    switch (type) {
+      case INTEGER_TYPE:
+      case INTEGER_CONS:
+        return DataType.INTEGER_TYPE;
+      case FLOAT_TYPE:
+      case FLOAT_CONS:
+        return DataType.FLOAT_TYPE;
+      default:
+        return null;
+    }
+  }
+
+  // Tercetos sin efectos cuyo resultado depende sólo de sus operandos
+  static boolean isPure(Operator op) {
+    switch (op) {
+      case ID:
+      case CTE:
+      case ADD:
+      case SUB:
+      case MUL:
+      case DIV:
+      case MOD:
+      case NEG:
+      case LT:
+      case GT:
+      case EQ:
+      case NEQ:
+      case LTEQ:
+      case GTEQ:
+      case AND:
+      case OR:
+      case NOT:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  // Convierte el terceto en (CTE, _valor, -), con el literal agregado a la tabla de
+  // símbolos como lo haría el lexer
+  void setConstant(int index, Constant constant) {
+    store.setOperator(index, Operator.CTE);
+    store.setOperands(index, store.literal(literal(constant)), TripletOperand.NONE);
+    types.putType(index, constant.type);
+  }
+
+  private String literal(Constant constant) {
+    String value;
+    if (constant.isInteger()) {
+      value = Integer.toString((int) constant.value);
+    } else {
+      // Sin exponente, que los assemblers no aceptan en DD
+      value = new BigDecimal(Float.toString((float) constant.value)).toPlainString();
+      if (value.indexOf('.') < 0) {
+        value = value + ".0";
+      }
+    }
+    String name = "_" + value;
+    if (!symbols.existsInTable(name)) {
+      symbols.insertInTable(new SymbolEntry(name, constant.type, value));
+    }
+    return name;
+  }
+
+  // Quita los tercetos marcados; devuelve cuántos eran
+  int commit() {
+    if (removedCount > 0) {
+      types.remap(store.remove(removed));
+    }
+    return removedCount;
+  }
+}
@@ -0,0 +1,139 @@
+package lyc.compiler.optimizer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import lyc.compiler.context.CompilationContext;
+import lyc.compiler.files.Operator;
+import lyc.compiler.files.TripletOperand;
+import lyc.compiler.files.TripletStore;
+import lyc.compiler.table.DataType;
+import lyc.compiler.trace.Category;
+import lyc.compiler.trace.Level;
+import lyc.compiler.trace.Trace;
+
+/**
+ * Numeración de valores local: dentro de un tramo sin labels, un terceto que calcula
+ * lo mismo que uno anterior (mismo operador, mismos valores de operandos y mismo
+ * tipo) se elimina y sus usos pasan al anterior. Así (a+b)*(a+b) calcula a+b una
+ * sola vez y los ID y CTE repetidos que crea el parser se cargan una sola vez.
+ *
+ * Los ID son alias de la variable, no una copia: cada asignación o read de una
+ * variable le da una versión nueva, y lo que se calculó con la versión anterior
+ * deja de coincidir con los ID que vienen después.
+ */
+final class ValueNumbering implements OptimizationPass {
+
+  static final String NAME = "cse";
+
+  // Los operandos que no son referencias (nombres, labels) se distinguen de los índices
+  private static final long NAME_OPERAND = 1L << 40;
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  @Override
+  public void run(CompilationContext context) {
+    TripletEditor editor = new TripletEditor(context);
+    TripletStore store = editor.store();
+    // Terceto que quedó en lugar de cada uno (él mismo si no se reemplazó)
+    int[] representative = new int[editor.size() + 1];
+    Map<Expression, Integer> available = new HashMap<>();
+    // Versión actual de cada variable, por operando SYMBOL
+    Map<Integer, Integer> versions = new HashMap<>();
+
+    for (int i = 1; i <= editor.size(); i++) {
+      representative[i] = i;
+      if (editor.isRemoved(i)) {
+        continue;
+      }
+      int first = resolve(store.first(i), representative);
+      int second = resolve(store.second(i), representative);
+      if (first != store.first(i) || second != store.second(i)) {
+        store.setOperands(i, first, second);
+      }
+
+      Operator op = store.operator(i);
+      if (op == Operator.LABEL) {
+        available.clear();
+      } else if (op == Operator.ASSIGN || op == Operator.READ) {
+        if (TripletOperand.kind(first) == TripletOperand.Kind.SYMBOL) {
+          versions.merge(first, 1, Integer::sum);
+        }
+      } else if (TripletEditor.isPure(op)) {
+        Expression expression = expression(op, first, second, editor.type(i), versions);
+        Integer earlier = available.putIfAbsent(expression, i);
+        if (earlier != null) {
+          representative[i] = earlier;
+          editor.remove(i);
+          if (Trace.isEnabled(Category.OPT, Level.DEBUG)) {
+            Trace.debug(Category.OPT, "[{}] {} se reemplaza por [{}]", i, op, earlier);
+          }
+        }
+      }
+    }
+    editor.commit();
+  }
+
+  private static int resolve(int operand, int[] representative) {
+    if (!TripletOperand.isRef(operand)) {
+      return operand;
+    }
+    int target = TripletOperand.value(operand);
+    return representative[target] == target ? operand : TripletOperand.ref(representative[target]);
+  }
+
+  private static boolean isCommutative(Operator op) {
+    return op == Operator.ADD || op == Operator.MUL || op == Operator.EQ || op == Operator.NEQ
+        || op == Operator.AND || op == Operator.OR;
+  }
+
+  private static Expression expression(Operator op, int first, int second, DataType type,
+                                       Map<Integer, Integer> versions) {
+    long left = valueOf(first);
+    long right = valueOf(second);
+    if (op == Operator.ID) {
+      // La versión de la variable hace que un ID posterior a una asignación sea otro valor
+      right = versions.getOrDefault(first, 0);
+    } else if (isCommutative(op) && left > right) {
+      long swap = left;
+      left = right;
+      right = swap;
+    }
+    return new Expression(op, left, right, type);
+  }
+
+  private static long valueOf(int operand) {
+    return TripletOperand.isRef(operand) ? TripletOperand.value(operand) : NAME_OPERAND | (operand & 0xFFFFFFFFL);
+  }
+
+  private static final class Expression {
+    private final Operator op;
+    private final long left;
+    private final long right;
+    private final DataType type;
+
+    Expression(Operator op, long left, long right, DataType type) {
+      this.op = op;
+      this.left = left;
+      this.right = right;
+      this.type = type;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Expression)) {
+        return false;
+      }
+      Expression that = (Expression) other;
+      return op == that.op && left == that.left && right == that.right && type == that.type;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(op, left, right, type);
+    }
+  }
+}
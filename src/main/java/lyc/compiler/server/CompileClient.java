@@ -0,0 +1,167 @@
+package lyc.compiler.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lyc.compiler.context.CompilationContext;
+import lyc.compiler.files.FileOutputWriter;
+import lyc.compiler.main.Compiler;
+import lyc.compiler.model.CompilationFailedException;
+
+/**
+ * Cliente liviano del {@link CompileServer}: envía el fuente y escribe los
+ * artefactos recibidos. Si el servidor no está levantado compila en el mismo
+ * proceso, de modo que run.sh funciona con o sin servidor.
+ */
+public class CompileClient implements AutoCloseable {
+
+  public static final String USAGE = "--client [--port=N] [--out=DIR] [--no-fallback] <file> | --client [--port=N] --shutdown";
+
+  private final Socket socket;
+  private final InputStream in;
+  private final OutputStream out;
+
+  public CompileClient(int port) throws IOException {
+    this.socket = new Socket(InetAddress.getLoopbackAddress(), port);
+    this.in = new BufferedInputStream(socket.getInputStream());
+    this.out = new BufferedOutputStream(socket.getOutputStream());
+  }
+
+  public static int run(String[] args) {
+    int port = CompileServer.DEFAULT_PORT;
+    Path outputDirectory = Path.of(CompilationContext.DEFAULT_OUTPUT_DIRECTORY);
+    boolean fallback = true;
+    boolean shutdown = false;
+    String file = null;
+
+    for (String arg : args) {
+      if (arg.startsWith("--port=")) {
+        try {
+          port = Integer.parseInt(arg.substring("--port=".length()));
+        } catch (NumberFormatException e) {
+          System.out.println("Invalid value for --port: " + arg);
+          return Compiler.EXIT_USAGE;
+        }
+      } else if (arg.startsWith("--out=")) {
+        outputDirectory = Path.of(arg.substring("--out=".length()));
+      } else if (arg.equals("--no-fallback")) {
+        fallback = false;
+      } else if (arg.equals("--shutdown")) {
+        shutdown = true;
+      } else if (file == null && !arg.startsWith("--")) {
+        file = arg;
+      } else {
+        System.out.println("Usage: Compiler " + USAGE);
+        return Compiler.EXIT_USAGE;
+      }
+    }
+
+    if (shutdown) {
+      try (CompileClient client = new CompileClient(port)) {
+        client.shutdown();
+        return Compiler.EXIT_OK;
+      } catch (IOException e) {
+        System.err.println("Compile server not reachable " + e.getMessage());
+        return Compiler.EXIT_FAILURE;
+      }
+    }
+
+    if (file == null) {
+      System.out.println("Usage: Compiler " + USAGE);
+      return Compiler.EXIT_USAGE;
+    }
+
+    String source;
+    try {
+      source = Files.readString(Path.of(file), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      System.err.println("There was an error trying to read input file " + e.getMessage());
+      return Compiler.EXIT_FAILURE;
+    }
+
+    try (CompileClient client = new CompileClient(port)) {
+      FileOutputWriter.writeArtifacts(outputDirectory, client.compile(source));
+    } catch (ConnectException e) {
+      if (!fallback) {
+        System.err.println("Compile server not reachable on port " + port);
+        return Compiler.EXIT_FAILURE;
+      }
+      try {
+        Compiler.compileFile(Path.of(file), outputDirectory);
+      } catch (Exception ex) {
+        System.err.println("Compilation error: " + ex.getMessage());
+        return Compiler.EXIT_FAILURE;
+      }
+    } catch (CompilationFailedException e) {
+      System.err.println("Compilation error: " + e.getMessage());
+      return Compiler.EXIT_FAILURE;
+    } catch (IOException e) {
+      System.err.println("Error talking to compile server " + e.getMessage());
+      return Compiler.EXIT_FAILURE;
+    }
+
+    System.out.println("Compilation Successful");
+    return Compiler.EXIT_OK;
+  }
+
+  // Devuelve los artefactos por nombre de archivo, o lanza el diagnóstico del servidor
+  public Map<String, String> compile(String source) throws IOException, CompilationFailedException {
+    CompileProtocol.writeFrame(out, CompileProtocol.COMPILE, source);
+    out.flush();
+
+    String header = expectHeader();
+    if (header.startsWith(CompileProtocol.ERROR + " ")) {
+      throw new CompilationFailedException(CompileProtocol.readBody(in, CompileProtocol.parseLength(header, 1)));
+    }
+    if (!header.startsWith(CompileProtocol.OK + " ")) {
+      throw new IOException("Respuesta inesperada del servidor: " + header);
+    }
+
+    int count = CompileProtocol.parseLength(header, 1);
+    Map<String, String> artifacts = new LinkedHashMap<>();
+    for (int i = 0; i < count; i++) {
+      String artifactHeader = expectHeader();
+      if (!artifactHeader.startsWith(CompileProtocol.ARTIFACT + " ")) {
+        throw new IOException("Respuesta inesperada del servidor: " + artifactHeader);
+      }
+      String name = artifactHeader.split(" ")[1];
+      artifacts.put(name, CompileProtocol.readBody(in, CompileProtocol.parseLength(artifactHeader, 2)));
+    }
+    return artifacts;
+  }
+
+  public boolean ping() throws IOException {
+    CompileProtocol.writeHeader(out, CompileProtocol.PING);
+    out.flush();
+    return CompileProtocol.PONG.equals(expectHeader());
+  }
+
+  public void shutdown() throws IOException {
+    CompileProtocol.writeHeader(out, CompileProtocol.SHUTDOWN);
+    out.flush();
+    expectHeader();
+  }
+
+  private String expectHeader() throws IOException {
+    String header = CompileProtocol.readHeader(in);
+    if (header == null) {
+      throw new IOException("El servidor cerró la conexión");
+    }
+    return header;
+  }
+
+  @Override
+  public void close() throws IOException {
+    socket.close();
+  }
+}
@@ -0,0 +1,91 @@
+package lyc.compiler.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Protocolo de líneas entre {@link CompileClient} y {@link CompileServer}.
+ * Cada mensaje es una cabecera ASCII terminada en '\n', seguida opcionalmente
+ * de un cuerpo UTF-8 cuya longitud en bytes viaja en la cabecera:
+ *
+ * <pre>
+ * cliente: COMPILE &lt;n&gt;            + n bytes de fuente
+ * servidor: OK &lt;cantidad&gt;           y por cada artefacto ARTIFACT &lt;nombre&gt; &lt;n&gt; + n bytes
+ *           ERROR &lt;n&gt;              + n bytes con el diagnóstico
+ * cliente: PING      servidor: PONG
+ * cliente: SHUTDOWN  servidor: BYE
+ * </pre>
+ */
+public final class CompileProtocol {
+
+  public static final String COMPILE = "COMPILE";
+  public static final String OK = "OK";
+  public static final String ARTIFACT = "ARTIFACT";
+  public static final String ERROR = "ERROR";
+  public static final String PING = "PING";
+  public static final String PONG = "PONG";
+  public static final String SHUTDOWN = "SHUTDOWN";
+  public static final String BYE = "BYE";
+
+  // Límite defensivo para cabeceras y cuerpos recibidos
+  private static final int MAX_HEADER_LENGTH = 1024;
+  private static final int MAX_BODY_LENGTH = 64 * 1024 * 1024;
+
+  private CompileProtocol() {}
+
+  // Devuelve null si la conexión se cerró antes de empezar una cabecera
+  public static String readHeader(InputStream in) throws IOException {
+    ByteArrayOutputStream header = new ByteArrayOutputStream();
+    int b;
+    while ((b = in.read()) != '\n') {
+      if (b == -1) {
+        if (header.size() == 0) {
+          return null;
+        }
+        throw new EOFException("Conexión cerrada en medio de una cabecera");
+      }
+      if (header.size() >= MAX_HEADER_LENGTH) {
+        throw new IOException("Cabecera demasiado larga");
+      }
+      header.write(b);
+    }
+    return header.toString(StandardCharsets.US_ASCII).trim();
+  }
+
+  public static String readBody(InputStream in, int length) throws IOException {
+    if (length < 0 || length > MAX_BODY_LENGTH) {
+      throw new IOException("Longitud de cuerpo inválida: " + length);
+    }
+    byte[] body = in.readNBytes(length);
+    if (body.length != length) {
+      throw new EOFException("Conexión cerrada en medio de un cuerpo");
+    }
+    return new String(body, StandardCharsets.UTF_8);
+  }
+
+  public static void writeHeader(OutputStream out, String header) throws IOException {
+    out.write((header + "\n").getBytes(StandardCharsets.US_ASCII));
+  }
+
+  public static void writeFrame(OutputStream out, String header, String body) throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    writeHeader(out, header + " " + bytes.length);
+    out.write(bytes);
+  }
+
+  public static int parseLength(String header, int position) throws IOException {
+    String[] parts = header.split(" ");
+    if (parts.length <= position) {
+      throw new IOException("Cabecera incompleta: " + header);
+    }
+    try {
+      return Integer.parseInt(parts[position]);
+    } catch (NumberFormatException e) {
+      throw new IOException("Longitud inválida en cabecera: " + header);
+    }
+  }
+}
@@ -0,0 +1,193 @@
+package lyc.compiler.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lyc.compiler.backend.Backend;
+import lyc.compiler.backend.Backends;
+import lyc.compiler.cache.BuildCache;
+import lyc.compiler.main.CommandLineOptions;
+import lyc.compiler.main.CommandLineOptions.Group;
+import lyc.compiler.main.Compiler;
+import lyc.compiler.optimizer.Optimizer;
+import lyc.compiler.trace.Trace;
+
+/**
+ * Servidor de compilación de larga vida. Escucha en el loopback y atiende cada
+ * conexión en un virtual thread; cada pedido compila sobre su propio
+ * CompilationContext, así que no comparten tablas entre sí. Lexer y Parser se
+ * cargan y calientan una sola vez al arrancar.
+ */
+public class CompileServer implements AutoCloseable {
+
+  public static final int DEFAULT_PORT = 7373;
+  public static final String USAGE = "--server [--port=N] " + BuildCache.Options.USAGE + " " + Trace.USAGE + " "
+                                     + Backends.Options.USAGE + " " + Optimizer.Options.USAGE;
+
+  // Programa chico que recorre todas las producciones para cargar y calentar las clases
+  private static final String WARM_UP_PROGRAM =
+      "init { a, b : Float i : Int s : String f : DateConverted }\n" +
+      "read(i) a := 1.5 b := -(a + 2) * 3 / 4.0 i := i % 2 s := \"warm up\"\n" +
+      "if (a > b AND i < 10) { write(s) } else { write(\"no\") }\n" +
+      "if (a <= 5.0 OR i >= 10) { write(s) }\n" +
+      "if (NOT (a == b)) { write(s) }\n" +
+      "if (isZero(i - 1)) { write(s) }\n" +
+      "while (i < 10) { i := i + 1 }\n" +
+      "f := convDate(01-01-2024)";
+  private static final int WARM_UP_ROUNDS = 20;
+
+  private final ServerSocket serverSocket;
+  private final ExecutorService executor;
+  private final BuildCache cache;
+  // Todos los pedidos de un servidor se compilan para el mismo target y optimizaciones
+  private final Backend backend;
+  private final Optimizer optimizer;
+  private volatile boolean running = true;
+
+  public CompileServer(int port) throws IOException {
+    this(port, null);
+  }
+
+  public CompileServer(int port, BuildCache cache) throws IOException {
+    this(port, cache, Backends.defaultBackend());
+  }
+
+  public CompileServer(int port, BuildCache cache, Backend backend) throws IOException {
+    this(port, cache, backend, Optimizer.none());
+  }
+
+  public CompileServer(int port, BuildCache cache, Backend backend, Optimizer optimizer) throws IOException {
+    this.cache = cache;
+    this.backend = backend;
+    this.optimizer = optimizer;
+    this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+    this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("lyc-compile-", 0).factory());
+  }
+
+  public static int run(String[] args) {
+    int port = DEFAULT_PORT;
+    CommandLineOptions options = new CommandLineOptions(Group.CACHE, Group.TRACE, Group.TARGET, Group.OPTIMIZER);
+    List<String> rest = options.parse(args, System.out);
+    if (rest == null) {
+      return Compiler.EXIT_USAGE;
+    }
+    for (String arg : rest) {
+      if (arg.startsWith("--port=")) {
+        try {
+          port = Integer.parseInt(arg.substring("--port=".length()));
+        } catch (NumberFormatException e) {
+          System.out.println("Invalid value for --port: " + arg);
+          return Compiler.EXIT_USAGE;
+        }
+      } else {
+        System.out.println("Usage: Compiler " + USAGE);
+        return Compiler.EXIT_USAGE;
+      }
+    }
+    options.applyTrace();
+
+    try (CompileServer server = new CompileServer(port, options.buildCache(Compiler.version()),
+                                                options.backend(), options.optimizer())) {
+      server.warmUp();
+      System.out.println("Servidor de compilación escuchando en " + server.getAddress());
+      server.serve();
+    } catch (IOException e) {
+      System.err.println("Error starting compile server " + e.getMessage());
+      return Compiler.EXIT_FAILURE;
+    }
+    return Compiler.EXIT_OK;
+  }
+
+  public String getAddress() {
+    return serverSocket.getInetAddress().getHostAddress() + ":" + getPort();
+  }
+
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  public void warmUp() {
+    for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+      try {
+        Compiler.compile(WARM_UP_PROGRAM, backend, optimizer);
+      } catch (Exception e) {
+        throw new IllegalStateException("El programa de calentamiento no compila: " + e.getMessage(), e);
+      }
+    }
+  }
+
+  // Bloquea aceptando conexiones hasta que se recibe SHUTDOWN o se cierra el servidor
+  public void serve() throws IOException {
+    while (running) {
+      Socket socket;
+      try {
+        socket = serverSocket.accept();
+      } catch (SocketException e) {
+        if (!running) {
+          return;
+        }
+        throw e;
+      }
+      executor.execute(() -> handle(socket));
+    }
+  }
+
+  private void handle(Socket socket) {
+    try (socket;
+         InputStream in = new BufferedInputStream(socket.getInputStream());
+         OutputStream out = new BufferedOutputStream(socket.getOutputStream())) {
+      String header;
+      while ((header = CompileProtocol.readHeader(in)) != null) {
+        if (header.startsWith(CompileProtocol.COMPILE + " ")) {
+          String source = CompileProtocol.readBody(in, CompileProtocol.parseLength(header, 1));
+          respondCompile(out, source);
+        } else if (header.equals(CompileProtocol.PING)) {
+          CompileProtocol.writeHeader(out, CompileProtocol.PONG);
+        } else if (header.equals(CompileProtocol.SHUTDOWN)) {
+          CompileProtocol.writeHeader(out, CompileProtocol.BYE);
+          out.flush();
+          close();
+          return;
+        } else {
+          CompileProtocol.writeFrame(out, CompileProtocol.ERROR, "Pedido desconocido: " + header);
+        }
+        out.flush();
+      }
+    } catch (IOException e) {
+      System.err.println("Error handling compile request " + e.getMessage());
+    }
+  }
+
+  private void respondCompile(OutputStream out, String source) throws IOException {
+    Map<String, String> artifacts;
+    try {
+      artifacts = Compiler.compileCached(source, cache, backend, optimizer);
+    } catch (Exception | StackOverflowError e) {
+      String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+      CompileProtocol.writeFrame(out, CompileProtocol.ERROR, message);
+      return;
+    }
+
+    CompileProtocol.writeHeader(out, CompileProtocol.OK + " " + artifacts.size());
+    for (Map.Entry<String, String> artifact : artifacts.entrySet()) {
+      CompileProtocol.writeFrame(out, CompileProtocol.ARTIFACT + " " + artifact.getKey(), artifact.getValue());
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    running = false;
+    executor.shutdown();
+    serverSocket.close();
+  }
+}
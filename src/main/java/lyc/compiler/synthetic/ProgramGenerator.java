@@ -0,0 +1,222 @@
+package lyc.compiler.synthetic;
+
+import java.util.Random;
+
+/**
+ * Genera programas LyC válidos de tamaño y forma configurables, para benchmarks y
+ * tests de escalabilidad. Con la misma forma, semilla y tamaño el programa es
+ * siempre el mismo.
+ */
+public final class ProgramGenerator {
+
+  public enum Shape {
+    // Mezcla de todas las sentencias del lenguaje
+    MIXED,
+    // Asignaciones con expresiones aritméticas largas sobre pocas variables
+    EXPRESSIONS,
+    // if/else y while anidados
+    NESTED,
+    // Muchas constantes distintas asignadas directamente (enteras, flotantes y strings)
+    LITERALS,
+    // Una variable declarada por sentencia, usadas luego una vez cada una
+    DECLARATIONS
+  }
+
+  public static final long DEFAULT_SEED = 42;
+
+  // Variables fijas por tipo en las formas que no declaran una por sentencia
+  private static final int VARIABLES_PER_TYPE = 8;
+  private static final int MAX_NESTING = 6;
+  private static final int MAX_INT = 32767;
+
+  private final Shape shape;
+  private final Random random;
+  private StringBuilder out;
+  private int remaining;
+  private int literalCounter;
+
+  public ProgramGenerator(Shape shape, long seed) {
+    this.shape = shape;
+    this.random = new Random(seed);
+  }
+
+  public ProgramGenerator(Shape shape) {
+    this(shape, DEFAULT_SEED);
+  }
+
+  public static String generate(Shape shape, int statements) {
+    return new ProgramGenerator(shape).generate(statements);
+  }
+
+  // Devuelve un programa con 'statements' sentencias (sin contar el bloque init)
+  public String generate(int statements) {
+    out = new StringBuilder(statements * 40);
+    remaining = statements;
+    literalCounter = 0;
+
+    if (shape == Shape.DECLARATIONS) {
+      declarations(statements);
+    } else {
+      declareFixedVariables();
+      while (remaining > 0) {
+        statement(0);
+      }
+    }
+    return out.toString();
+  }
+
+  private void declareFixedVariables() {
+    out.append("init {\n");
+    declare("i", "Int");
+    declare("f", "Float");
+    declare("s", "String");
+    declare("d", "DateConverted");
+    out.append("}\n");
+  }
+
+  private void declare(String prefix, String type) {
+    for (int n = 0; n < VARIABLES_PER_TYPE; n++) {
+      out.append(n == 0 ? "  " : ", ").append(prefix).append(n);
+    }
+    out.append(" : ").append(type).append('\n');
+  }
+
+  private void declarations(int statements) {
+    int variables = Math.max(statements / 2, 1);
+    out.append("init {\n");
+    for (int n = 0; n < variables; n++) {
+      out.append("  v").append(n).append(n % 2 == 0 ? " : Int\n" : " : Float\n");
+    }
+    out.append("}\n");
+    remaining = statements - variables;
+    // Se encadena con la variable del mismo tipo para no mezclar Int y Float
+    for (int n = 0; remaining > 0; n++, remaining--) {
+      int target = n % variables;
+      int source = target >= 2 ? target - 2 : target;
+      out.append('v').append(target).append(" := v").append(source)
+         .append(target % 2 == 0 ? " + 1\n" : " + 1.5\n");
+    }
+  }
+
+  private void statement(int depth) {
+    remaining--;
+    switch (shape) {
+      case EXPRESSIONS:
+        floatAssignment();
+        break;
+      case LITERALS:
+        literalAssignment();
+        break;
+      case NESTED:
+        if (depth < MAX_NESTING && remaining > 0) {
+          if (random.nextBoolean()) {
+            ifStatement(depth);
+          } else {
+            whileStatement(depth);
+          }
+        } else {
+          intAssignment();
+        }
+        break;
+      default:
+        mixedStatement(depth);
+        break;
+    }
+  }
+
+  private void mixedStatement(int depth) {
+    int kind = random.nextInt(depth < MAX_NESTING && remaining > 0 ? 10 : 7);
+    switch (kind) {
+      case 0: intAssignment(); break;
+      case 1: floatAssignment(); break;
+      case 2: literalAssignment(); break;
+      case 3: out.append('s').append(var()).append(" := \"texto ").append(random.nextInt(1000)).append("\"\n"); break;
+      case 4: out.append('d').append(var()).append(" := convDate(").append(date()).append(")\n"); break;
+      case 5: out.append("write(").append(random.nextBoolean() ? "s" + var() : "\"valor\"").append(")\n"); break;
+      case 6: out.append("read(i").append(var()).append(")\n"); break;
+      case 7: case 8: ifStatement(depth); break;
+      default: whileStatement(depth); break;
+    }
+  }
+
+  private void intAssignment() {
+    out.append('i').append(var()).append(" := ").append(intExpression()).append('\n');
+  }
+
+  private void floatAssignment() {
+    out.append('f').append(var()).append(" := (f").append(var()).append(" + i").append(var())
+       .append(") * (f").append(var()).append(" - ").append(floatLiteral())
+       .append(") / f").append(var()).append(" - -f").append(var())
+       .append(" * ").append(intLiteral()).append(" + i").append(var()).append(" % 7\n");
+  }
+
+  private void literalAssignment() {
+    switch (literalCounter % 3) {
+      case 0: out.append('i').append(var()).append(" := ").append(literalCounter % MAX_INT).append('\n'); break;
+      case 1: out.append('f').append(var()).append(" := ").append(literalCounter).append('.').append(literalCounter % 100).append('\n'); break;
+      default: out.append('s').append(var()).append(" := \"literal ").append(literalCounter).append("\"\n"); break;
+    }
+    literalCounter++;
+  }
+
+  private String intExpression() {
+    return "i" + var() + " + i" + var() + " * " + intLiteral() + " - i" + var() + " % " + (random.nextInt(9) + 1);
+  }
+
+  private void ifStatement(int depth) {
+    out.append("if (").append(condition()).append(") {\n");
+    block(depth + 1);
+    if (random.nextBoolean() && remaining > 0) {
+      out.append("} else {\n");
+      block(depth + 1);
+    }
+    out.append("}\n");
+  }
+
+  private void whileStatement(int depth) {
+    int counter = var();
+    out.append("while (i").append(counter).append(" < ").append(intLiteral()).append(") {\n");
+    block(depth + 1);
+    out.append("i").append(counter).append(" := i").append(counter).append(" + 1\n");
+    out.append("}\n");
+  }
+
+  // Cuerpo de un bloque: entre una y cuatro sentencias, sin pasarse del total
+  private void block(int depth) {
+    int statements = Math.min(random.nextInt(4) + 1, Math.max(remaining, 1));
+    for (int n = 0; n < statements; n++) {
+      statement(depth);
+    }
+  }
+
+  private String condition() {
+    switch (random.nextInt(5)) {
+      case 0: return comparison() + " AND " + comparison();
+      case 1: return comparison() + " OR " + comparison();
+      case 2: return "NOT " + comparison();
+      case 3: return "isZero(i" + var() + " - " + intLiteral() + ")";
+      default: return comparison();
+    }
+  }
+
+  private String comparison() {
+    String[] comparators = {"<", ">", "<=", ">=", "==", "!="};
+    return "f" + var() + " " + comparators[random.nextInt(comparators.length)] + " i" + var();
+  }
+
+  private int var() {
+    return random.nextInt(VARIABLES_PER_TYPE);
+  }
+
+  private int intLiteral() {
+    return random.nextInt(100) + 1;
+  }
+
+  private String floatLiteral() {
+    return random.nextInt(100) + "." + random.nextInt(100);
+  }
+
+  private String date() {
+    return String.format("%02d-%02d-%04d", random.nextInt(28) + 1, random.nextInt(12) + 1, 1950 + random.nextInt(100));
+  }
+}
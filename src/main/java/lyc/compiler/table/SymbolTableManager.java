@@ -1,46 +1,81 @@
 package lyc.compiler.table;
 
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lyc.compiler.trace.Category;
+import lyc.compiler.trace.Trace;
 
 public class SymbolTableManager {
 
-  private static HashMap<String, SymbolEntry> symbolTable = new HashMap<>();
+  // Orden de inserción: los artefactos se listan igual en cada compilación
+  private final Map<String, SymbolEntry> symbolTable;
+
+  public SymbolTableManager() {
+    this(new LinkedHashMap<>());
+  }
+
+  private SymbolTableManager(Map<String, SymbolEntry> symbolTable) {
+    this.symbolTable = symbolTable;
+  }
+
+  public SymbolTableManager readOnlyCopy() {
+    return new SymbolTableManager(Collections.unmodifiableMap(new LinkedHashMap<>(symbolTable)));
+  }
 
-  public static HashMap<String, SymbolEntry> getSymbolTable() {
+  public Map<String, SymbolEntry> getSymbolTable() {
     return symbolTable;
   }
 
-  public static void insertInTable(SymbolEntry entry) {
+  public void insertInTable(SymbolEntry entry) {
     // Validar que el nombre no sea nulo ni vacío
     if (entry == null || entry.getName() == null || entry.getName().trim().isEmpty()) {
-      System.out.println("Warning: Attempting to insert symbol with null or empty name - ignored");
+      Trace.warn(Category.SYMBOLS, "Attempting to insert symbol with null or empty name - ignored");
       return;
     }
     symbolTable.put(entry.getName().replace(" ", "_"), entry);
   }
 
-  public static SymbolEntry get(String entryName) {
+  public SymbolEntry get(String entryName) {
     return symbolTable.get(entryName);
   }
 
-  public static void setDataTypeInTable(String key, DataType dataType) {
+  // Valor de un literal de los tercetos (_10, _Hola mundo). Los que no están en la tabla,
+  // como los de convDate, llevan el valor en el nombre
+  public String literalValue(String name) {
+    SymbolEntry entry = symbolTable.get(name.replace(" ", "_"));
+    if (entry != null && entry.getValue() != null) {
+      return entry.getValue();
+    }
+    if (name.length() > 1 && name.startsWith("\"") && name.endsWith("\"")) {
+      return name.substring(1, name.length() - 1);
+    }
+    return name.startsWith("_") ? name.substring(1) : name;
+  }
+
+  public void setDataTypeInTable(String key, DataType dataType) {
     SymbolEntry entry = symbolTable.get(key);
     entry.setDataType(dataType);
   }
 
-  public static void removeFromTable(String entryName) {
+  public void removeFromTable(String entryName) {
     // Reemplazar espacios por guiones bajos para mantener coherencia con
     // insertInTable
 
     if (symbolTable.containsKey(entryName)) {
       symbolTable.remove(entryName);
-      System.out.println("Removed symbol: " + entryName);
+      Trace.debug(Category.SYMBOLS, "Removed symbol: {}", entryName);
     } else {
-      System.out.println("Symbol not found: " + entryName);
+      Trace.debug(Category.SYMBOLS, "Symbol not found: {}", entryName);
     }
   }
 
-  public static boolean existsInTable(String entryName) {
+  public boolean existsInTable(String entryName) {
     return symbolTable.containsKey(entryName);
   }
+
+  public void clear() {
+    symbolTable.clear();
+  }
 }
@@ -0,0 +1,17 @@
+package lyc.compiler.trace;
+
+// Fase del compilador que emite el evento; se habilitan por separado con --trace
+public enum Category {
+  LEXER,
+  PARSER,
+  // Generación de código intermedio (tercetos)
+  ICG,
+  // Pasadas de optimización sobre los tercetos
+  OPT,
+  ASM,
+  SYMBOLS;
+
+  public String id() {
+    return name().toLowerCase();
+  }
+}
@@ -0,0 +1,10 @@
+package lyc.compiler.trace;
+
+// De más a menos severo: habilitar un nivel habilita también los anteriores
+public enum Level {
+  ERROR,
+  WARN,
+  INFO,
+  DEBUG,
+  TRACE
+}
@@ -0,0 +1,230 @@
+package lyc.compiler.trace;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Trazas del compilador por categoría y nivel. Por defecto sólo se emiten
+ * advertencias y errores; el resto se habilita con --trace. Cuando un nivel está
+ * apagado la llamada se reduce a comparar dos enteros: el mensaje no se arma y los
+ * argumentos no se convierten a String.
+ *
+ * Los eventos van a stderr, o a un buffer circular en memoria si se pidió con
+ * --trace-buffer (en ese caso se vuelcan sólo si la compilación falla).
+ */
+public final class Trace {
+
+  public static final String USAGE = "[--trace=CAT[:LEVEL],...] [--trace-buffer=N]";
+
+  private static final Level DEFAULT_LEVEL = Level.WARN;
+  // Nivel que se usa cuando la categoría aparece sin nivel (--trace=parser)
+  private static final Level DEFAULT_TRACE_LEVEL = Level.DEBUG;
+  private static final int OFF = -1;
+
+  // Nivel máximo habilitado por categoría (ordinal, OFF si está apagada). Se reemplaza
+  // el arreglo completo al reconfigurar, nunca se modifica en el lugar.
+  private static volatile int[] thresholds = defaultThresholds();
+  private static volatile TraceBuffer buffer;
+  private static volatile PrintStream console = System.err;
+
+  private Trace() {}
+
+  public static boolean isEnabled(Category category, Level level) {
+    return level.ordinal() <= thresholds[category.ordinal()];
+  }
+
+  public static void warn(Category category, String message) {
+    if (isEnabled(category, Level.WARN)) {
+      emit(category, Level.WARN, message);
+    }
+  }
+
+  public static void warn(Category category, String pattern, Object arg) {
+    if (isEnabled(category, Level.WARN)) {
+      emit(category, Level.WARN, format(pattern, arg));
+    }
+  }
+
+  public static void info(Category category, String message) {
+    if (isEnabled(category, Level.INFO)) {
+      emit(category, Level.INFO, message);
+    }
+  }
+
+  public static void debug(Category category, String message) {
+    if (isEnabled(category, Level.DEBUG)) {
+      emit(category, Level.DEBUG, message);
+    }
+  }
+
+  public static void debug(Category category, String pattern, Object arg) {
+    if (isEnabled(category, Level.DEBUG)) {
+      emit(category, Level.DEBUG, format(pattern, arg));
+    }
+  }
+
+  public static void debug(Category category, String pattern, Object arg1, Object arg2) {
+    if (isEnabled(category, Level.DEBUG)) {
+      emit(category, Level.DEBUG, format(pattern, arg1, arg2));
+    }
+  }
+
+  public static void debug(Category category, String pattern, Object arg1, Object arg2, Object arg3) {
+    if (isEnabled(category, Level.DEBUG)) {
+      emit(category, Level.DEBUG, format(pattern, arg1, arg2, arg3));
+    }
+  }
+
+  // Mensaje ya armado; si armarlo cuesta, verificar isEnabled antes de llamar
+  public static void log(Category category, Level level, String message) {
+    if (isEnabled(category, level)) {
+      emit(category, level, message);
+    }
+  }
+
+  private static void emit(Category category, Level level, String message) {
+    TraceBuffer target = buffer;
+    if (target != null) {
+      target.add(new TraceEvent(System.nanoTime(), Thread.currentThread().getName(), category, level, message));
+    } else {
+      console.println(level + " [" + category.id() + "] " + message);
+    }
+  }
+
+  // Reemplaza cada "{}" del patrón por el argumento correspondiente
+  static String format(String pattern, Object... args) {
+    StringBuilder out = new StringBuilder(pattern.length() + 16 * args.length);
+    int from = 0;
+    int arg = 0;
+    int at;
+    while (arg < args.length && (at = pattern.indexOf("{}", from)) >= 0) {
+      out.append(pattern, from, at).append(args[arg++]);
+      from = at + 2;
+    }
+    return out.append(pattern, from, pattern.length()).toString();
+  }
+
+  /**
+   * Habilita categorías según una lista separada por comas: "parser", "lexer:trace",
+   * "all:info" u "off". Sin nivel se usa DEBUG; las categorías que no aparecen quedan
+   * con el nivel por defecto (WARN).
+   */
+  public static void configure(String spec) {
+    thresholds = parse(spec);
+  }
+
+  private static int[] parse(String spec) {
+    int[] configured = defaultThresholds();
+    for (String item : spec.split(",")) {
+      String entry = item.trim();
+      if (entry.isEmpty()) {
+        continue;
+      }
+      int colon = entry.indexOf(':');
+      String name = colon < 0 ? entry : entry.substring(0, colon);
+      int level = colon < 0 ? DEFAULT_TRACE_LEVEL.ordinal() : parseLevel(entry.substring(colon + 1));
+      if (name.equalsIgnoreCase("off")) {
+        Arrays.fill(configured, OFF);
+      } else if (name.equalsIgnoreCase("all")) {
+        Arrays.fill(configured, level);
+      } else {
+        configured[parseCategory(name).ordinal()] = level;
+      }
+    }
+    return configured;
+  }
+
+  // Con capacidad > 0 los eventos se guardan en memoria en lugar de ir a stderr
+  public static void useBuffer(int capacity) {
+    buffer = capacity > 0 ? new TraceBuffer(capacity) : null;
+  }
+
+  public static void setConsole(PrintStream stream) {
+    console = stream;
+  }
+
+  // Vuelve a la configuración por defecto: WARN en todas las categorías, a stderr
+  public static void reset() {
+    thresholds = defaultThresholds();
+    buffer = null;
+    console = System.err;
+  }
+
+  public static List<TraceEvent> bufferedEvents() {
+    TraceBuffer target = buffer;
+    return target == null ? List.of() : target.events();
+  }
+
+  // Vuelca el buffer (si hay) a la salida indicada; se usa cuando falla la compilación
+  public static void dumpBuffer(PrintStream out) {
+    TraceBuffer target = buffer;
+    if (target == null) {
+      return;
+    }
+    if (target.dropped() > 0) {
+      out.println("... " + target.dropped() + " eventos anteriores descartados");
+    }
+    for (TraceEvent event : target.events()) {
+      out.println(event);
+    }
+  }
+
+  private static int[] defaultThresholds() {
+    int[] result = new int[Category.values().length];
+    Arrays.fill(result, DEFAULT_LEVEL.ordinal());
+    return result;
+  }
+
+  private static Category parseCategory(String name) {
+    for (Category category : Category.values()) {
+      if (category.id().equalsIgnoreCase(name)) {
+        return category;
+      }
+    }
+    throw new IllegalArgumentException("Categoría de traza desconocida: " + name);
+  }
+
+  private static int parseLevel(String name) {
+    if (name.equalsIgnoreCase("off")) {
+      return OFF;
+    }
+    for (Level level : Level.values()) {
+      if (level.name().equalsIgnoreCase(name)) {
+        return level.ordinal();
+      }
+    }
+    throw new IllegalArgumentException("Nivel de traza desconocido: " + name);
+  }
+
+  // Opciones de línea de comandos, con la misma forma que BuildCache.Options
+  public static final class Options {
+
+    private int[] configured;
+    private int bufferCapacity;
+
+    // Devuelve true si el argumento era una opción de trazas; un valor inválido lanza
+    // IllegalArgumentException
+    public boolean accept(String arg) {
+      if (arg.startsWith("--trace=")) {
+        configured = parse(arg.substring("--trace=".length()));
+        return true;
+      }
+      if (arg.startsWith("--trace-buffer=")) {
+        bufferCapacity = Integer.parseInt(arg.substring("--trace-buffer=".length()));
+        if (bufferCapacity <= 0) {
+          throw new NumberFormatException("--trace-buffer debe ser positivo");
+        }
+        return true;
+      }
+      return false;
+    }
+
+    public void apply() {
+      if (configured != null) {
+        thresholds = configured;
+      }
+      useBuffer(bufferCapacity);
+    }
+  }
+}
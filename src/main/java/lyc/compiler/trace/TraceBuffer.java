@@ -0,0 +1,48 @@
+package lyc.compiler.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Buffer circular en memoria: guarda los últimos N eventos y descarta los más viejos.
+ * Sirve para tener el contexto de un error sin pagar la escritura en consola.
+ */
+public final class TraceBuffer {
+
+  private final TraceEvent[] events;
+  private int next;
+  private long total;
+
+  public TraceBuffer(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("La capacidad del buffer debe ser positiva: " + capacity);
+    }
+    this.events = new TraceEvent[capacity];
+  }
+
+  public synchronized void add(TraceEvent event) {
+    events[next] = event;
+    next = (next + 1) % events.length;
+    total++;
+  }
+
+  // Eventos retenidos, del más viejo al más nuevo
+  public synchronized List<TraceEvent> events() {
+    int size = (int) Math.min(total, events.length);
+    List<TraceEvent> result = new ArrayList<>(size);
+    int start = total > events.length ? next : 0;
+    for (int i = 0; i < size; i++) {
+      result.add(events[(start + i) % events.length]);
+    }
+    return result;
+  }
+
+  // Eventos que ya no están en el buffer porque se llenó
+  public synchronized long dropped() {
+    return Math.max(0, total - events.length);
+  }
+
+  public int capacity() {
+    return events.length;
+  }
+}
@@ -0,0 +1,33 @@
+package lyc.compiler.trace;
+
+public final class TraceEvent {
+
+  private final long nanoTime;
+  private final String thread;
+  private final Category category;
+  private final Level level;
+  private final String message;
+
+  TraceEvent(long nanoTime, String thread, Category category, Level level, String message) {
+    this.nanoTime = nanoTime;
+    this.thread = thread;
+    this.category = category;
+    this.level = level;
+    this.message = message;
+  }
+
+  public long getNanoTime() { return nanoTime; }
+
+  public String getThread() { return thread; }
+
+  public Category getCategory() { return category; }
+
+  public Level getLevel() { return level; }
+
+  public String getMessage() { return message; }
+
+  @Override
+  public String toString() {
+    return level + " [" + category.id() + "] " + message;
+  }
+}
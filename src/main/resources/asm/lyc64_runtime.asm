@@ -0,0 +1,276 @@
+; *************** RUTINAS DE E/S (Linux x86-64) ***************
+; Se agregan al final de cada final64.asm. Usan sólo syscalls (sin libc) y los
+; registros rax, rcx, rdx, rsi, rdi, r8-r13 y xmm0-xmm3, que el código generado
+; no mantiene entre tercetos.
+
+section .data
+lyc_newline     db 10
+lyc_ten         dq 10.0
+lyc_one         dq 1.0
+lyc_hundred     dq 100.0
+lyc_half        dq 0.5
+
+section .bss
+lyc_num_buffer  resb 32
+lyc_line_buffer resb 256
+lyc_in_buffer   resb 4096
+lyc_in_pos      resd 1
+lyc_in_len      resd 1
+
+section .text
+
+; lyc_write_bytes: escribe rdx bytes desde rsi en la salida estándar
+lyc_write_bytes:
+    mov eax, 1
+    mov edi, 1
+    syscall
+    ret
+
+; lyc_write_int: escribe el entero con signo de edi y un fin de línea
+lyc_write_int:
+    mov eax, edi
+    lea rsi, [lyc_num_buffer + 31]
+    mov byte [rsi], 10
+    mov ecx, 10
+    xor r8d, r8d
+    test eax, eax
+    jns .wi_digits
+    neg eax
+    mov r8d, 1
+.wi_digits:
+    dec rsi
+    xor edx, edx
+    div ecx
+    add dl, '0'
+    mov [rsi], dl
+    test eax, eax
+    jnz .wi_digits
+    test r8d, r8d
+    jz .wi_out
+    dec rsi
+    mov byte [rsi], '-'
+.wi_out:
+    lea rdx, [lyc_num_buffer + 32]
+    sub rdx, rsi
+    jmp lyc_write_bytes
+
+; lyc_write_float: escribe el float de xmm0 con dos decimales (redondeado) y un fin de línea
+lyc_write_float:
+    cvtss2sd xmm0, xmm0
+    xor r9d, r9d
+    xorpd xmm1, xmm1
+    comisd xmm0, xmm1
+    jae .wf_positive
+    mov r9d, 1
+    subsd xmm1, xmm0
+    movapd xmm0, xmm1
+.wf_positive:
+    mulsd xmm0, [lyc_hundred]
+    addsd xmm0, [lyc_half]
+    cvttsd2si rax, xmm0
+    lea rsi, [lyc_num_buffer + 31]
+    mov byte [rsi], 10
+    mov ecx, 10
+    xor r8d, r8d
+.wf_digits:
+    dec rsi
+    xor edx, edx
+    div rcx
+    add dl, '0'
+    mov [rsi], dl
+    inc r8d
+    cmp r8d, 2
+    jne .wf_next
+    dec rsi
+    mov byte [rsi], '.'
+.wf_next:
+    cmp r8d, 3
+    jb .wf_digits
+    test rax, rax
+    jnz .wf_digits
+    test r9d, r9d
+    jz .wf_out
+    dec rsi
+    mov byte [rsi], '-'
+.wf_out:
+    lea rdx, [lyc_num_buffer + 32]
+    sub rdx, rsi
+    jmp lyc_write_bytes
+
+; lyc_write_str: escribe el string terminado en 0 de rsi y un fin de línea
+lyc_write_str:
+    mov rdx, rsi
+.ws_length:
+    cmp byte [rdx], 0
+    je .ws_out
+    inc rdx
+    jmp .ws_length
+.ws_out:
+    sub rdx, rsi
+    call lyc_write_bytes
+    lea rsi, [lyc_newline]
+    mov edx, 1
+    jmp lyc_write_bytes
+
+; lyc_getc: siguiente byte de la entrada estándar en eax (-1 al final); lee de a 4 KB
+lyc_getc:
+    mov eax, [lyc_in_pos]
+    cmp eax, [lyc_in_len]
+    jb .gc_ready
+    xor eax, eax
+    xor edi, edi
+    lea rsi, [lyc_in_buffer]
+    mov edx, 4096
+    syscall
+    test rax, rax
+    jle .gc_end
+    mov [lyc_in_len], eax
+    mov dword [lyc_in_pos], 0
+    xor eax, eax
+.gc_ready:
+    lea rdx, [lyc_in_buffer]
+    movzx eax, byte [rdx + rax]
+    inc dword [lyc_in_pos]
+    ret
+.gc_end:
+    mov eax, -1
+    ret
+
+; lyc_read_line: lee una línea (sin el fin de línea, hasta 255 bytes) en rdi, terminada en 0
+lyc_read_line:
+    mov r12, rdi
+    xor r13d, r13d
+.rl_next:
+    call lyc_getc
+    cmp eax, -1
+    je .rl_end
+    cmp eax, 10
+    je .rl_end
+    cmp eax, 13
+    je .rl_next
+    cmp r13d, 255
+    jae .rl_next
+    mov [r12 + r13], al
+    inc r13d
+    jmp .rl_next
+.rl_end:
+    mov byte [r12 + r13], 0
+    ret
+
+; lyc_read_int: lee una línea y deja en eax el entero con signo que empieza en ella
+lyc_read_int:
+    lea rdi, [lyc_line_buffer]
+    call lyc_read_line
+    lea rsi, [lyc_line_buffer]
+    xor eax, eax
+    xor r8d, r8d
+.ri_space:
+    cmp byte [rsi], ' '
+    jne .ri_sign
+    inc rsi
+    jmp .ri_space
+.ri_sign:
+    cmp byte [rsi], '-'
+    jne .ri_digits
+    mov r8d, 1
+    inc rsi
+.ri_digits:
+    movzx edx, byte [rsi]
+    sub edx, '0'
+    cmp edx, 9
+    ja .ri_done
+    imul eax, eax, 10
+    add eax, edx
+    inc rsi
+    jmp .ri_digits
+.ri_done:
+    test r8d, r8d
+    jz .ri_return
+    neg eax
+.ri_return:
+    ret
+
+; lyc_read_float: lee una línea y deja en xmm0 el float que empieza en ella
+lyc_read_float:
+    lea rdi, [lyc_line_buffer]
+    call lyc_read_line
+    lea rsi, [lyc_line_buffer]
+    xorpd xmm0, xmm0
+    movsd xmm2, [lyc_ten]
+    movsd xmm3, [lyc_one]
+    xor r8d, r8d
+.rf_space:
+    cmp byte [rsi], ' '
+    jne .rf_sign
+    inc rsi
+    jmp .rf_space
+.rf_sign:
+    cmp byte [rsi], '-'
+    jne .rf_integer
+    mov r8d, 1
+    inc rsi
+.rf_integer:
+    movzx edx, byte [rsi]
+    cmp edx, '.'
+    je .rf_point
+    sub edx, '0'
+    cmp edx, 9
+    ja .rf_done
+    mulsd xmm0, xmm2
+    cvtsi2sd xmm1, edx
+    addsd xmm0, xmm1
+    inc rsi
+    jmp .rf_integer
+.rf_point:
+    inc rsi
+.rf_fraction:
+    movzx edx, byte [rsi]
+    sub edx, '0'
+    cmp edx, 9
+    ja .rf_done
+    mulsd xmm0, xmm2
+    cvtsi2sd xmm1, edx
+    addsd xmm0, xmm1
+    mulsd xmm3, xmm2
+    inc rsi
+    jmp .rf_fraction
+.rf_done:
+    divsd xmm0, xmm3
+    test r8d, r8d
+    jz .rf_return
+    xorpd xmm1, xmm1
+    subsd xmm1, xmm0
+    movapd xmm0, xmm1
+.rf_return:
+    cvtsd2ss xmm0, xmm0
+    ret
+
+; lyc_str_copy: copia el string de rsi en rdi (hasta 255 bytes más el 0)
+lyc_str_copy:
+    xor ecx, ecx
+.sc_next:
+    mov al, [rsi + rcx]
+    test al, al
+    jz .sc_end
+    cmp ecx, 255
+    jae .sc_end
+    mov [rdi + rcx], al
+    inc ecx
+    jmp .sc_next
+.sc_end:
+    mov byte [rdi + rcx], 0
+    ret
+
+; lyc_str_cmp: compara los strings de rsi y rdi; eax < 0, 0 o > 0 como strcmp
+lyc_str_cmp:
+    movzx eax, byte [rsi]
+    movzx edx, byte [rdi]
+    sub eax, edx
+    jnz .cmp_end
+    test edx, edx
+    jz .cmp_end
+    inc rsi
+    inc rdi
+    jmp lyc_str_cmp
+.cmp_end:
+    ret
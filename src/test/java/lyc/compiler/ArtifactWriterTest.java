@@ -0,0 +1,109 @@
+package lyc.compiler;
+
+import lyc.compiler.files.ArtifactWriter;
+import lyc.compiler.files.FileOutputWriter;
+import lyc.compiler.main.Compiler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ArtifactWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Recompilar el mismo fuente no reescribe los artefactos")
+    public void unchangedArtifactsAreNotRewritten() throws Exception {
+        Path source = tempDir.resolve("program.txt");
+        Path out = tempDir.resolve("out");
+        Files.writeString(source, "init { a, b : Int } a := 10 b := a + 20");
+
+        Compiler.compileFile(source, out);
+        List<String> names = List.of(FileOutputWriter.SYMBOL_TABLE_FILE, FileOutputWriter.INTERMEDIATE_CODE_FILE,
+                                     FileOutputWriter.ASM_FILE);
+        FileTime old = FileTime.fromMillis(0);
+        for (String name : names) {
+            Files.setLastModifiedTime(out.resolve(name), old);
+        }
+
+        Compiler.compileFile(source, out);
+        for (String name : names) {
+            assertThat(Files.getLastModifiedTime(out.resolve(name))).isEqualTo(old);
+        }
+
+        Files.writeString(source, "init { a, b : Int } a := 10 b := a + 30");
+        Compiler.compileFile(source, out);
+        assertThat(Files.getLastModifiedTime(out.resolve(FileOutputWriter.ASM_FILE))).isNotEqualTo(old);
+        assertThat(Files.readString(out.resolve(FileOutputWriter.ASM_FILE))).contains("_30");
+    }
+
+    @Test
+    @DisplayName("writeArtifacts sólo informa los archivos que cambiaron")
+    public void reportsChangedFiles() throws Exception {
+        Map<String, String> artifacts = new LinkedHashMap<>();
+        artifacts.put("a.txt", "uno\n");
+        artifacts.put("b.txt", "dos\n");
+        assertThat(FileOutputWriter.writeArtifacts(tempDir, artifacts)).containsExactly("a.txt", "b.txt");
+        assertThat(FileOutputWriter.writeArtifacts(tempDir, artifacts)).isEmpty();
+
+        artifacts.put("b.txt", "do");
+        assertThat(FileOutputWriter.writeArtifacts(tempDir, artifacts)).containsExactly("b.txt");
+        // Un contenido más corto que el anterior trunca el archivo
+        assertThat(Files.readString(tempDir.resolve("b.txt"))).isEqualTo("do");
+    }
+
+    @Test
+    @DisplayName("Si el generador falla a mitad de camino el archivo existente queda intacto")
+    public void failedGeneratorKeepsExistingFile() throws Exception {
+        Path target = tempDir.resolve(FileOutputWriter.ASM_FILE);
+        Files.writeString(target, "GOOD CONTENT");
+
+        // Una parte chica queda en el buffer; una grande ya pasó al temporal
+        for (String partial : List.of("PARTIAL", "PARTIAL".repeat(20_000))) {
+            assertThrows(IOException.class, () -> FileOutputWriter.writeOutput(tempDir, FileOutputWriter.ASM_FILE, writer -> {
+                writer.append(partial);
+                throw new IOException("falla el generador");
+            }));
+
+            assertThat(Files.readString(target)).isEqualTo("GOOD CONTENT");
+            try (Stream<Path> files = Files.list(tempDir)) {
+                assertThat(files.map(path -> path.getFileName().toString()).collect(Collectors.toList())).containsExactly(FileOutputWriter.ASM_FILE);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("El contenido se codifica en UTF-8 aunque supere el buffer y parta pares surrogate")
+    public void encodesLargeUtf8Content() throws Exception {
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            expected.append("acción ").append(i).append(" 😀\n");
+        }
+        Path target = tempDir.resolve("utf8.txt");
+        try (ArtifactWriter writer = new ArtifactWriter(target)) {
+            String text = expected.toString();
+            // Escrituras de a un char: el par surrogate llega en dos llamadas distintas
+            for (int i = 0; i < 64; i++) {
+                writer.write(text.charAt(i));
+            }
+            writer.append(text, 64, text.length());
+        }
+
+        assertThat(Files.readString(target, StandardCharsets.UTF_8)).isEqualTo(expected.toString());
+    }
+}
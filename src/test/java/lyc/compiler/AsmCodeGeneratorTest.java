@@ -1,10 +1,13 @@
 package lyc.compiler;
 
+import lyc.compiler.context.CompilationContext;
 import lyc.compiler.factories.ParserFactory;
 import lyc.compiler.files.AsmCodeGenerator;
-import lyc.compiler.files.IntermediateCodeGenerator;
-import lyc.compiler.files.TypeTable;
-import lyc.compiler.table.SymbolTableManager;
+import lyc.compiler.files.Operator;
+import lyc.compiler.files.TripletOperand;
+import lyc.compiler.files.TripletStore;
+import lyc.compiler.metrics.CompileMetrics;
+import lyc.compiler.optimizer.Optimizer;
 import org.junit.jupiter.api.*;
 
 import java.io.*;
@@ -13,18 +16,16 @@ import static org.junit.jupiter.api.Assertions.*;
 
 public class AsmCodeGeneratorTest {
 
+    private CompilationContext context;
+
     @BeforeEach
     public void setUp() {
-        IntermediateCodeGenerator.reset();
-        TypeTable.reset();
-        SymbolTableManager.getSymbolTable().clear();
+        context = new CompilationContext();
     }
 
     @AfterEach
     public void tearDown() {
-        IntermediateCodeGenerator.reset();
-        TypeTable.reset();
-        SymbolTableManager.getSymbolTable().clear();
+        context.reset();
     }
 
     @Test
@@ -48,9 +49,10 @@ public class AsmCodeGeneratorTest {
         assertTrue(asmCode.contains("__10") || asmCode.contains("_10"), "Debe declarar literal 10");
         assertTrue(asmCode.contains("__20") || asmCode.contains("_20"), "Debe declarar literal 20");
 
-        // Verificar que contiene las asignaciones
-        assertTrue(asmCode.contains("FSTP [a]"), "Debe asignar a 'a'");
-        assertTrue(asmCode.contains("FSTP [b]"), "Debe asignar a 'b'");
+        // Verificar que contiene las asignaciones: los Int no pasan por la FPU
+        assertTrue(asmCode.contains("mov EAX, [_10]\nmov [a], EAX"), "Debe asignar a 'a'");
+        assertTrue(asmCode.contains("mov EAX, [_20]\nmov [b], EAX"), "Debe asignar a 'b'");
+        assertFalse(asmCode.contains("FLD"), "Un Int no se carga como Float");
     }
 
     @Test
@@ -89,10 +91,10 @@ public class AsmCodeGeneratorTest {
         parseInput(input);
         String asmCode = generateAsm();
 
-        // Verificar que contiene comparación
-        assertTrue(asmCode.contains("FCOMP"), "Debe contener instrucción de comparación");
-        assertTrue(asmCode.contains("FSTSW AX"), "Debe guardar flags de FPU");
-        assertTrue(asmCode.contains("SAHF"), "Debe cargar flags a CPU");
+        // Verificar que contiene comparación: dos Int se comparan con cmp y saltos con signo
+        assertTrue(asmCode.contains("mov EAX, [a]\ncmp EAX, [b]"), "Debe contener instrucción de comparación");
+        assertTrue(asmCode.contains("JGE"), "Debe saltar con signo");
+        assertFalse(asmCode.contains("FCOMP"), "No debe comparar en la FPU");
 
         // Verificar saltos condicionales
         assertTrue(asmCode.matches("(?s).*J[A-Z]+.*"), "Debe contener instrucciones de salto");
@@ -134,7 +136,7 @@ public class AsmCodeGeneratorTest {
                 "Int y Float deben ser compatibles en comparaciones");
 
         String asmCode = generateAsm();
-        assertTrue(asmCode.contains("FCOMP"), "Debe generar código de comparación");
+        assertTrue(asmCode.contains("FILD [a]\nFCOMP [b]"), "Debe generar código de comparación");
     }
 
     @Test
@@ -152,10 +154,10 @@ public class AsmCodeGeneratorTest {
         parseInput(input);
         String asmCode = generateAsm();
 
-        // Verificar que contiene operación de módulo
-        assertTrue(asmCode.contains("FDIV"), "Módulo debe usar división");
-        assertTrue(asmCode.contains("FRNDINT"), "Módulo debe redondear");
-        assertTrue(asmCode.contains("FSUBR"), "Módulo debe usar resta reversa");
+        // Verificar que contiene operación de módulo: el resto de idiv queda en EDX
+        assertTrue(asmCode.contains("mov EAX, [a]\ncdq\nidiv [b]\nmov EAX, EDX\nmov [c], EAX"),
+                "Módulo debe usar división");
+        assertFalse(asmCode.contains("FRNDINT"), "Un Int no se redondea en la FPU");
     }
 
     @Test
@@ -171,8 +173,9 @@ public class AsmCodeGeneratorTest {
         parseInput(input);
         String asmCode = generateAsm();
 
-        // Verificar que contiene operación de negación
-        assertTrue(asmCode.contains("FCHS"), "Debe usar FCHS para cambiar signo");
+        // Verificar que contiene operación de negación, recortada a 16 bits antes de guardarla
+        assertTrue(asmCode.contains("mov EAX, [a]\nneg EAX\nmovsx EAX, AX\nmov [b], EAX"),
+                "Debe usar neg para cambiar signo");
     }
 
     @Test
@@ -241,14 +244,190 @@ public class AsmCodeGeneratorTest {
         String asmCode = generateAsm();
 
         // Verificar que se generan operaciones y comparación
-        assertTrue(asmCode.contains("FADD"), "Debe contener suma");
-        assertTrue(asmCode.contains("FMUL"), "Debe contener multiplicación");
-        assertTrue(asmCode.contains("FCOMP"), "Debe contener comparación");
+        assertTrue(asmCode.contains("add EAX, [b]"), "Debe contener suma");
+        assertTrue(asmCode.contains("imul EAX, [_2]"), "Debe contener multiplicación");
+        assertTrue(asmCode.contains("cmp EAX, ECX"), "Debe contener comparación");
+    }
+
+    @Test
+    @DisplayName("Test seccion .DATA - variables antes que constantes, cada una declarada una vez")
+    public void testDataSectionLayout() throws Exception {
+        String input = "init{\n" +
+                "  a:Int\n" +
+                "  s:String\n" +
+                "  x:Float\n" +
+                "}\n" +
+                "a := 10\n" +
+                "x := 2.5\n" +
+                "x := 2.5\n" +
+                "a := a + 10\n" +
+                "s := \"hola\"";
+
+        parseInput(input);
+        String asmCode = generateAsm();
+        String data = asmCode.substring(asmCode.indexOf(".DATA"), asmCode.indexOf(".CODE"));
+
+        assertTrue(data.contains("a DD 0\ns DB 256 DUP (?)\nx DD 0.0\n\n"), "Variables en orden de declaracion, seguidas de una linea vacia");
+        assertEquals(1, data.split("\n_10 DD 10\n", -1).length - 1, "La constante 10 se declara una sola vez");
+        assertEquals(1, data.split("\n_2_DOT_5 DD 2.5\n", -1).length - 1, "La constante 2.5 se declara una sola vez");
+        assertTrue(data.contains("_hola DB \"hola\", 0"), "Debe declarar el literal string");
+        assertTrue(data.indexOf("x DD 0.0") < data.indexOf("_10 DD 10"), "Las constantes van despues de las variables");
+    }
+
+    @Test
+    @DisplayName("Test seccion de codigo - prologo, cuerpo y epilogo en orden")
+    public void testCodeSectionSegments() throws Exception {
+        String input = "init{\n" +
+                "  a:Float\n" +
+                "}\n" +
+                "while (a < 10) {\n" +
+                "  a := a + 1\n" +
+                "}";
+
+        parseInput(input);
+        String asmCode = generateAsm();
+        String code = asmCode.substring(asmCode.indexOf(".CODE"));
+
+        assertTrue(code.startsWith(".CODE\nSTART:\nmov AX, @DATA\n"), "El prologo abre la seccion de codigo");
+        assertTrue(code.indexOf("int 21h") < code.indexOf("; [1]"), "El cuerpo va despues del prologo");
+        assertTrue(code.contains("\nL1:\n"), "Los labels se imprimen en su propia linea");
+        assertTrue(code.contains("\nJMP L1\n"), "El while vuelve al label de inicio");
+        assertTrue(code.indexOf("JMP L1") < code.indexOf("; Fin del programa"), "El epilogo va al final");
+        assertTrue(code.endsWith("mov ax, 4c00h\nint 21h\nEND START\n"), "El epilogo termina el programa");
+    }
+
+    @Test
+    @DisplayName("Test temporales - una posicion _tmp se reutiliza despues de su ultimo uso")
+    public void testTempSlotsReused() throws Exception {
+        String input = "init{\n" +
+                "  a:Float\n" +
+                "  b:Float\n" +
+                "  c:Float\n" +
+                "}\n" +
+                "c := (a + b) * (a - b) + (a + b) / 2\n" +
+                "b := (c - a) * (c - a)";
+
+        parseInput(input);
+        // cse deja a + b y c - a con dos usos cada uno: son los unicos que pasan por memoria
+        Optimizer.of("cse").run(context);
+        String asmCode = generateAsm();
+
+        assertTrue(asmCode.contains("_tmp1 DD 0.0"), "Debe declarar el primer temporal");
+        assertFalse(asmCode.contains("_tmp2"), "c - a reutiliza la posicion de a + b");
+        assertTrue(asmCode.contains("FSTP [_tmp1]") && asmCode.contains("FMUL [_tmp1]"),
+                "Un valor con dos usos se guarda y se vuelve a leer de su posicion");
+        assertEquals(2, context.getMetrics().get(CompileMetrics.Counter.TEMPS));
+        assertEquals(1, context.getMetrics().get(CompileMetrics.Counter.TEMP_SLOTS));
+    }
+
+    @Test
+    @DisplayName("Test temporales - un valor que vive a traves de un ciclo libera su posicion al salir")
+    public void testCrossBlockTempReleased() throws Exception {
+        String input = "init{\n" +
+                "  a:Float\n" +
+                "  b:Float\n" +
+                "  c:Float\n" +
+                "}\n" +
+                "c := (a + b) * 2\n" +
+                "while (c < 10) { c := c + a }\n" +
+                "b := (c - a) * (c - a)";
+
+        parseInput(input);
+        // El c + a del ciclo pasa a leer el a + b de antes del ciclo: vive hasta el BI del
+        // final del cuerpo, que no lo lee
+        TripletStore store = context.getIntermediateCodeGenerator().getStore();
+        int sum = 0;
+        for (int i = 1; i <= store.size(); i++) {
+            if (store.operator(i) == Operator.ADD) {
+                if (sum == 0) {
+                    sum = i;
+                } else {
+                    store.setOperands(i, store.first(i), TripletOperand.ref(sum));
+                }
+            }
+        }
+        Optimizer.of("cse").run(context);
+        String asmCode = generateAsm();
+
+        assertTrue(asmCode.contains("FSTP [_tmp1]"), "a + b se guarda para el ciclo");
+        assertFalse(asmCode.contains("_tmp2"), "c - a reutiliza la posicion de a + b despues del ciclo");
+        assertEquals(2, context.getMetrics().get(CompileMetrics.Counter.TEMPS));
+        assertEquals(1, context.getMetrics().get(CompileMetrics.Counter.TEMP_SLOTS));
+    }
+
+    @Test
+    @DisplayName("Test pila x87 - las subexpresiones se combinan en registros sin temporales")
+    public void testStackOperands() throws Exception {
+        String input = "init{\n" +
+                "  x:Float\n" +
+                "  y:Float\n" +
+                "  z:Float\n" +
+                "}\n" +
+                "z := (x + y) * (x - y)\n" +
+                "if (x + 1 > y * (z - 2)) { z := 1 }";
+
+        parseInput(input);
+        String asmCode = generateAsm();
+
+        assertTrue(asmCode.contains("FLD [x]\nFADD [y]\nFLD [x]\nFSUB [y]\nFMULP ST(1), ST(0)\nFSTP [z]"),
+                "Los dos factores quedan en ST(1) y ST(0)");
+        // y * (z - 2): el operando en memoria se aplica al final; el literal 2 es un Int
+        assertTrue(asmCode.contains("FLD [z]\nFISUB [_2]\nFMUL [y]\nFXCH\nFCOMPP"),
+                "La comparacion usa los dos lados desde la pila");
+        assertFalse(asmCode.contains("_tmp"), "No debe usar temporales");
+        assertEquals(0, context.getMetrics().get(CompileMetrics.Counter.TEMPS));
+    }
+
+    @Test
+    @DisplayName("Test pila x87 - una expresion mas profunda que la pila guarda valores en _tmp")
+    public void testDeepExpressionSpills() throws Exception {
+        // Suma balanceada de 1024 hojas: con las dos ramas iguales en cada nivel necesita 11 registros
+        String input = "init{\n" +
+                "  a:Float\n" +
+                "  b:Float\n" +
+                "  c:Float\n" +
+                "}\n" +
+                "c := " + balancedSum(1024) + "\n" +
+                "if (" + balancedSum(512) + " > a - " + balancedSum(512) + ") { c := 1 }";
+
+        parseInput(input);
+        String asmCode = generateAsm();
+
+        assertTrue(asmCode.contains("FSTP [_tmp1]"), "Debe guardar una rama en memoria");
+        assertTrue(asmCode.contains("FADDP ST(1), ST(0)"), "Lo que entra en la pila se suma en registros");
+        assertTrue(context.getMetrics().get(CompileMetrics.Counter.TEMP_SLOTS) <= 3,
+                "Las posiciones de los valores guardados se reutilizan");
+        assertTrue(maxStackDepth(asmCode) <= 8, "Nunca debe haber mas de 8 valores en la pila");
     }
 
     // Métodos auxiliares
+    private static String balancedSum(int leaves) {
+        if (leaves == 1) {
+            return "b";
+        }
+        return "(" + balancedSum(leaves / 2) + " + " + balancedSum(leaves / 2) + ")";
+    }
+
+    // Simula la altura de la pila del x87 a lo largo del codigo
+    private static int maxStackDepth(String asmCode) {
+        int depth = 0;
+        int max = 0;
+        for (String line : asmCode.split("\n")) {
+            String opcode = line.trim().split(" ")[0];
+            if (opcode.equals("FLD") || opcode.equals("FILD")) {
+                depth++;
+            } else if (opcode.equals("FSTP") || opcode.equals("FCOMP") || opcode.equals("FICOMP") || opcode.endsWith("P") && opcode.startsWith("F")
+                    || line.trim().equals("FMUL") || line.trim().equals("FSUBR")) {
+                depth -= opcode.equals("FCOMPP") ? 2 : 1;
+            }
+            max = Math.max(max, depth);
+        }
+        assertEquals(0, depth, "La pila debe quedar vacia");
+        return max;
+    }
+
     private void parseInput(String input) throws Exception {
-        ParserFactory.create(input).parse();
+        ParserFactory.create(input, context).parse();
     }
 
     private String generateAsm() throws IOException {
@@ -257,7 +436,7 @@ public class AsmCodeGeneratorTest {
         tempFile.deleteOnExit();
 
         try (FileWriter fileWriter = new FileWriter(tempFile)) {
-            AsmCodeGenerator generator = new AsmCodeGenerator();
+            AsmCodeGenerator generator = new AsmCodeGenerator(context);
             generator.generate(fileWriter);
         }
 
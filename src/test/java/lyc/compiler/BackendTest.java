@@ -0,0 +1,93 @@
+package lyc.compiler;
+
+import lyc.compiler.backend.Backend;
+import lyc.compiler.backend.Backends;
+import lyc.compiler.backend.MasmBackend;
+import lyc.compiler.backend.jvm.JvmProgram;
+import lyc.compiler.context.CompilationContext;
+import lyc.compiler.context.CompilationResult;
+import lyc.compiler.files.FileGenerator;
+import lyc.compiler.files.FileOutputWriter;
+import lyc.compiler.interpreter.TripletInterpreter;
+import lyc.compiler.main.Compiler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BackendTest {
+
+    @Test
+    @DisplayName("--target elige el backend y rechaza nombres desconocidos")
+    public void targetOption() {
+        Backends.Options options = new Backends.Options();
+        assertThat(options.backend()).isInstanceOf(MasmBackend.class);
+
+        assertThat(options.accept("--target=masm")).isTrue();
+        assertThat(options.backend().outputFile()).isEqualTo(FileOutputWriter.ASM_FILE);
+        assertThat(options.accept("--cache")).isFalse();
+        assertThat(Backends.names()).contains(Backends.DEFAULT_TARGET);
+        IllegalArgumentException error =
+                assertThrows(IllegalArgumentException.class, () -> options.accept("--target=z80"));
+        assertThat(error).hasMessageThat().contains("masm");
+    }
+
+    @Test
+    @DisplayName("Un backend propio genera su archivo en lugar de final.asm")
+    public void customBackend() throws Exception {
+        Backend listing = new Backend() {
+            @Override
+            public String name() { return "count"; }
+
+            @Override
+            public String description() { return "Cantidad de tercetos"; }
+
+            @Override
+            public String outputFile() { return "count.txt"; }
+
+            @Override
+            public FileGenerator generator(CompilationContext context) {
+                return writer -> writer.write(String.valueOf(context.getIntermediateCodeGenerator().getStore().size()));
+            }
+        };
+
+        CompilationResult result = Compiler.compile("init { a : Int } a := 1", listing);
+
+        assertThat(result.getArtifacts()).containsKey("count.txt");
+        assertThat(result.getArtifacts()).doesNotContainKey(FileOutputWriter.ASM_FILE);
+        assertThat(result.getAsm()).isEqualTo(String.valueOf(result.getTriplets().size()));
+    }
+
+    @Test
+    @DisplayName("El backend MASM distingue la resta del menos unario por el operador")
+    public void subtractionAndNegation() throws Exception {
+        String asm = Compiler.compile("init { a, b, c : Float } a := -b - c").getAsm();
+
+        assertThat(asm).contains("FCHS");
+        assertThat(asm).contains("FSUB");
+        assertThat(asm).doesNotContain("Operador no implementado");
+    }
+
+    @Test
+    @DisplayName("Un isZero usado como sentencia salta a la sentencia siguiente en todos los backends")
+    public void statementIsZero() throws Exception {
+        String program = "init { a : Int } a := 1 isZero(a) write(a)";
+
+        for (String name : Backends.names()) {
+            CompilationResult result = Compiler.compile(program, Backends.find(name));
+            assertThat(result.getAsm()).doesNotContain("null");
+        }
+
+        StringWriter interpreted = new StringWriter();
+        new TripletInterpreter(Compiler.analyze(program)).run(new BufferedReader(new StringReader("")), interpreted);
+        StringWriter compiled = new StringWriter();
+        JvmProgram.define(Compiler.analyze(program)).run(new BufferedReader(new StringReader("")), compiled);
+        assertThat(interpreted.toString()).isEqualTo("1\n");
+        assertThat(compiled.toString()).isEqualTo("1\n");
+    }
+}
@@ -0,0 +1,87 @@
+package lyc.compiler;
+
+import lyc.compiler.context.CompilationResult;
+import lyc.compiler.files.Operator;
+import lyc.compiler.files.Triplet;
+import lyc.compiler.main.Compiler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class BackpatchTest {
+
+    private static final String DECLARATIONS = "init { a, b, c : Int } ";
+
+    @Test
+    @DisplayName("OR corta la evaluación: la primera comparación salta al cuerpo si se cumple")
+    public void orShortCircuits() throws Exception {
+        List<String> code = listing(DECLARATIONS + "if (a > b OR c > b) { write(\"si\") }");
+
+        assertThat(code).containsAtLeast("(BGT, L1, -)", "(BLE, L2, -)", "(LABEL, L1, -)", "(LABEL, L2, -)")
+                .inOrder();
+    }
+
+    @Test
+    @DisplayName("NOT invierte el salto de la comparación")
+    public void notInvertsJump() throws Exception {
+        List<String> code = listing(DECLARATIONS + "if (NOT a > b) { write(\"no\") }");
+
+        assertThat(code).contains("(BGT, L1, -)");
+        assertThat(code).doesNotContain("(BLE, L1, -)");
+    }
+
+    @Test
+    @DisplayName("Condiciones anidadas con AND, OR y NOT dejan todos los saltos completos")
+    public void nestedConditionsArePatched() throws Exception {
+        CompilationResult result = Compiler.compile(DECLARATIONS
+                + "if (NOT (a > b AND (c > b OR a == c)) OR isZero(a - 1) AND NOT c < 2) { write(\"ok\") } "
+                + "while (a < 10 AND (b > 1 OR NOT c == 0)) { a := a + 1 }");
+
+        assertAllJumpsPatched(result.getTriplets());
+    }
+
+    @Test
+    @DisplayName("Cada while anidado vuelve a su propio label de inicio")
+    public void nestedLoopsKeepTheirLabels() throws Exception {
+        List<String> code = listing(DECLARATIONS
+                + "while (a < 10) { while (b < 10) { b := b + 1 } a := a + 1 } "
+                + "if (a > b) { if (b > c) { c := 1 } else { c := 2 } } else { c := 3 }");
+
+        // L1: inicio del while externo (L2 es su salida), L3: inicio del interno
+        assertThat(code).containsAtLeast("(LABEL, L1, -)", "(LABEL, L3, -)", "(BI, L3, -)", "(BI, L1, -)", "(LABEL, L2, -)")
+                .inOrder();
+        // El if interno termina en L7 y el externo, después del else, en L8
+        assertThat(code).containsAtLeast("(BI, L7, -)", "(LABEL, L7, -)", "(BI, L8, -)", "(LABEL, L8, -)").inOrder();
+    }
+
+    private static List<String> listing(String program) throws Exception {
+        CompilationResult result = Compiler.compile(program);
+        assertAllJumpsPatched(result.getTriplets());
+        List<String> code = new ArrayList<>();
+        for (Triplet triplet : result.getTriplets()) {
+            String line = triplet.toString();
+            code.add(line.substring(line.indexOf('(')));
+        }
+        return code;
+    }
+
+    private static void assertAllJumpsPatched(List<Triplet> triplets) {
+        Set<String> labels = new HashSet<>();
+        for (Triplet triplet : triplets) {
+            if (triplet.getOperatorType() == Operator.LABEL) {
+                assertThat(labels.add(triplet.getArg1())).isTrue();
+            }
+        }
+        for (Triplet triplet : triplets) {
+            if (triplet.getOperatorType().isJump()) {
+                assertThat(labels).contains(triplet.getArg1());
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package lyc.compiler;
+
+import lyc.compiler.main.BatchCompiler;
+import lyc.compiler.main.Compiler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class BatchCompilerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Batch compila cada archivo en su propio subdirectorio")
+    public void compilesDirectory() throws Exception {
+        Path sources = Files.createDirectories(tempDir.resolve("src/nested"));
+        Files.writeString(tempDir.resolve("src/first.txt"), "init { a : Int } a := 1");
+        Files.writeString(sources.resolve("second.txt"), "init { b : Float } b := 2.5");
+        Path out = tempDir.resolve("out");
+
+        int exitCode = run("--out=" + out, "--jobs=2", tempDir.resolve("src").toString());
+
+        assertThat(exitCode).isEqualTo(Compiler.EXIT_OK);
+        for (Path dir : new Path[] {out.resolve("first"), out.resolve("nested/second")}) {
+            assertThat(Files.exists(dir.resolve("symbol-table.txt"))).isTrue();
+            assertThat(Files.exists(dir.resolve("intermediate-code.txt"))).isTrue();
+            assertThat(Files.exists(dir.resolve("final.asm"))).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Batch acepta globs y reporta fallos en el código de salida")
+    public void reportsFailures() throws Exception {
+        Files.writeString(tempDir.resolve("ok.lyc"), "init { a : Int } a := 1");
+        Files.writeString(tempDir.resolve("broken.lyc"), "a := ");
+        Files.writeString(tempDir.resolve("ignored.txt"), "a := ");
+        Path out = tempDir.resolve("out");
+
+        ByteArrayOutputStream summary = new ByteArrayOutputStream();
+        int exitCode = BatchCompiler.run(new String[] {"--out=" + out, tempDir + "/*.lyc"},
+                                         new PrintStream(summary, true, StandardCharsets.UTF_8));
+
+        assertThat(exitCode).isEqualTo(Compiler.EXIT_FAILURE);
+        assertThat(Files.exists(out.resolve("ok/final.asm"))).isTrue();
+        assertThat(Files.exists(out.resolve("ignored"))).isFalse();
+        assertThat(summary.toString(StandardCharsets.UTF_8)).contains("Archivos: 2  OK: 1  Fallidos: 1");
+        assertThat(summary.toString(StandardCharsets.UTF_8)).contains("broken.lyc");
+    }
+
+    @Test
+    public void missingInputIsAnError() {
+        assertThat(run("--out=" + tempDir, tempDir.resolve("missing").toString())).isEqualTo(Compiler.EXIT_FAILURE);
+        assertThat(run("--jobs=0", tempDir.toString())).isEqualTo(Compiler.EXIT_USAGE);
+    }
+
+    @Test
+    @DisplayName("Una opción común inválida se informa con el argumento y el motivo")
+    public void rejectsInvalidCommonOptions() {
+        for (String option : new String[] {"--target=nope", "--optimize=nope", "--trace=nope", "--cache-max-mb=0",
+                                           "--metrics=xml"}) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            int exitCode = BatchCompiler.run(new String[] {option, tempDir.toString()},
+                                             new PrintStream(output, true, StandardCharsets.UTF_8));
+
+            assertThat(exitCode).isEqualTo(Compiler.EXIT_USAGE);
+            assertThat(output.toString(StandardCharsets.UTF_8)).containsMatch("^Invalid \\w+ option: " + option + " \\(.+\\)");
+        }
+    }
+
+    private int run(String... args) {
+        return BatchCompiler.run(args, new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8));
+    }
+}
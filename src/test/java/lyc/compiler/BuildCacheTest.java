@@ -0,0 +1,88 @@
+package lyc.compiler;
+
+import lyc.compiler.cache.BuildCache;
+import lyc.compiler.context.CompilationResult;
+import lyc.compiler.main.Compiler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class BuildCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Dos compilaciones del mismo fuente producen los mismos bytes")
+    public void outputsAreReproducible() throws Exception {
+        String program = Files.readString(new File("src/main/resources/input/test.txt").toPath(), StandardCharsets.UTF_8);
+
+        CompilationResult first = Compiler.compile(program);
+        CompilationResult second = Compiler.compile(program);
+
+        assertThat(second.getArtifacts()).isEqualTo(first.getArtifacts());
+        // La tabla de símbolos respeta el orden de aparición en el fuente
+        assertThat(List.copyOf(first.getSymbolTable().keySet()).subList(0, 3))
+                .containsExactly("a", "c", "d").inOrder();
+    }
+
+    @Test
+    @DisplayName("Un hit restaura los artefactos sin recompilar")
+    public void hitRestoresArtifacts() throws Exception {
+        BuildCache cache = new BuildCache(tempDir.resolve("cache"), "test");
+        Path source = tempDir.resolve("program.txt");
+        Files.writeString(source, "init { a : Int } a := 1");
+
+        Compiler.compileFileCached(source, tempDir.resolve("out1"), cache);
+        Compiler.compileFileCached(source, tempDir.resolve("out2"), cache);
+
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.getHits()).isEqualTo(1);
+        for (String name : List.of("symbol-table.txt", "intermediate-code.txt", "final.asm")) {
+            assertThat(Files.readAllBytes(tempDir.resolve("out2").resolve(name)))
+                    .isEqualTo(Files.readAllBytes(tempDir.resolve("out1").resolve(name)));
+        }
+    }
+
+    @Test
+    @DisplayName("La clave depende del fuente, la versión y las opciones")
+    public void keyCoversSourceVersionAndOptions() {
+        BuildCache cache = new BuildCache(tempDir, "1.0.0");
+        String key = cache.key("a := 1", "");
+
+        assertThat(cache.key("a := 1", "")).isEqualTo(key);
+        assertThat(cache.key("a := 2", "")).isNotEqualTo(key);
+        assertThat(cache.key("a := 1", "-O")).isNotEqualTo(key);
+        assertThat(new BuildCache(tempDir, "1.0.1").key("a := 1", "")).isNotEqualTo(key);
+    }
+
+    @Test
+    @DisplayName("Se desaloja la entrada menos usada al superar el límite")
+    public void evictsLeastRecentlyUsed() throws Exception {
+        BuildCache cache = new BuildCache(tempDir.resolve("cache"), Long.MAX_VALUE, 2, "test");
+        String first = cache.key("1", "");
+        String second = cache.key("2", "");
+        String third = cache.key("3", "");
+
+        cache.put(first, Map.of("final.asm", "uno"));
+        cache.put(second, Map.of("final.asm", "dos"));
+        // Usar la primera la vuelve la más reciente
+        assertThat(cache.get(first).isPresent()).isTrue();
+        cache.put(third, Map.of("final.asm", "tres"));
+
+        assertThat(cache.getEvictions()).isEqualTo(1);
+        assertThat(cache.get(second).isPresent()).isFalse();
+        assertThat(cache.get(first).get()).containsEntry("final.asm", "uno");
+        assertThat(cache.get(third).isPresent()).isTrue();
+        assertThat(cache.statistics()).contains("1 desalojados");
+    }
+}
@@ -0,0 +1,111 @@
+package lyc.compiler;
+
+import lyc.compiler.context.CompilationResult;
+import lyc.compiler.main.Compiler;
+import lyc.compiler.model.CompilationFailedException;
+import lyc.compiler.server.CompileClient;
+import lyc.compiler.server.CompileServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CompileServerTest {
+
+    private CompileServer server;
+    private Thread serverThread;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        server = new CompileServer(0);
+        serverThread = new Thread(() -> {
+            try {
+                server.serve();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        serverThread.start();
+    }
+
+    @AfterEach
+    void stopServer() throws Exception {
+        server.close();
+        serverThread.join(5000);
+    }
+
+    @Test
+    @DisplayName("El servidor devuelve los mismos artefactos que una compilación local")
+    public void compilesLikeInProcess() throws Exception {
+        String program = "init { a, b : Int } a := 10 b := a * 2 write(\"ok\")";
+        CompilationResult local = Compiler.compile(program);
+
+        try (CompileClient client = new CompileClient(server.getPort())) {
+            assertThat(client.ping()).isTrue();
+            Map<String, String> artifacts = client.compile(program);
+            assertThat(artifacts).isEqualTo(local.getArtifacts());
+
+            // La misma conexión puede reutilizarse para otro pedido
+            assertThat(client.compile(program)).isEqualTo(local.getArtifacts());
+        }
+    }
+
+    @Test
+    @DisplayName("Los errores de compilación vuelven como diagnóstico")
+    public void reportsDiagnostics() throws Exception {
+        try (CompileClient client = new CompileClient(server.getPort())) {
+            CompilationFailedException error = assertThrows(CompilationFailedException.class,
+                    () -> client.compile("init { a : Int } a := \"texto\""));
+            assertThat(error.getMessage()).contains("Tipos incompatibles");
+
+            // Un pedido fallido no contamina al siguiente
+            assertThat(client.compile("init { a : Int } a := 1")).isNotEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("Pedidos concurrentes quedan aislados entre sí")
+    public void concurrentRequests() throws Exception {
+        List<String> programs = List.of(
+                "init { a : Int } a := 1",
+                "init { x, y : Float } x := 2.5 y := x + 1.5",
+                "init { i : Int } i := 0 while (i < 3) { i := i + 1 }");
+        List<Map<String, String>> expected = new ArrayList<>();
+        for (String program : programs) {
+            expected.add(Compiler.compile(program).getArtifacts());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<Map<String, String>>> futures = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                String program = programs.get(i % programs.size());
+                futures.add(executor.submit(() -> {
+                    try (CompileClient client = new CompileClient(server.getPort())) {
+                        return client.compile(program);
+                    }
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertThat(futures.get(i).get()).isEqualTo(expected.get(i % programs.size()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void warmUpProgramCompiles() {
+        server.warmUp();
+    }
+}
@@ -0,0 +1,78 @@
+package lyc.compiler;
+
+import lyc.compiler.context.CompilationResult;
+import lyc.compiler.main.Compiler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class CompilerTest {
+
+    @Test
+    @DisplayName("compile() devuelve tabla de símbolos, tercetos y ASM en memoria")
+    public void compileInMemory() throws Exception {
+        CompilationResult result = Compiler.compile("init { a, b : Int } a := 10 b := a + 20");
+
+        assertThat(result.getSymbolTable()).containsKey("a");
+        assertThat(result.getSymbolTable()).containsKey("_20");
+        assertThat(result.getTriplets()).isNotEmpty();
+        assertThat(result.getAsm()).contains("add EAX, [_20]");
+        assertThat(result.getAsm()).contains("mov [b], EAX");
+    }
+
+    @Test
+    @DisplayName("Compilaciones independientes no comparten estado")
+    public void compilationsAreIsolated() throws Exception {
+        CompilationResult first = Compiler.compile("init { a : Int } a := 1");
+        CompilationResult second = Compiler.compile("init { x : Float } x := 2.5");
+
+        assertThat(first.getSymbolTable()).doesNotContainKey("x");
+        assertThat(second.getSymbolTable()).doesNotContainKey("a");
+        assertThat(second.getTriplets().get(0).getIndex()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Compilaciones concurrentes producen el mismo resultado que una secuencial")
+    public void concurrentCompilations() throws Exception {
+        List<String> programs = new ArrayList<>();
+        for (String name : List.of("assignments.txt", "if.txt", "while.txt", "and.txt", "or.txt", "iszero.txt")) {
+            programs.add(readFromFile(name));
+        }
+
+        List<String> expected = new ArrayList<>();
+        for (String program : programs) {
+            expected.add(Compiler.compile(program).getAsm());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int round = 0; round < 8; round++) {
+                for (String program : programs) {
+                    futures.add(executor.submit(() -> Compiler.compile(program).getAsm()));
+                }
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertThat(futures.get(i).get()).isEqualTo(expected.get(i % programs.size()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private String readFromFile(String fileName) throws IOException {
+        File file = new File("src/test/java/resources/" + fileName);
+        return Files.readString(file.toPath(), StandardCharsets.UTF_8);
+    }
+}
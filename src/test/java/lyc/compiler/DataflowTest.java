@@ -0,0 +1,94 @@
+package lyc.compiler;
+
+import lyc.compiler.context.CompilationContext;
+import lyc.compiler.files.TripletStore;
+import lyc.compiler.flow.ControlFlowGraph;
+import lyc.compiler.flow.Liveness;
+import lyc.compiler.flow.ReachingDefinitions;
+import lyc.compiler.main.Compiler;
+import lyc.compiler.synthetic.ProgramGenerator;
+import lyc.compiler.synthetic.ProgramGenerator.Shape;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class DataflowTest {
+
+    // [1..8] a := 2 y el CMP del if, [9..10] then, [11..12] else, [13..17] b := a * 3,
+    // [18..22] condición del while, [23..27] cuerpo, [28..29] write(a)
+    private static final String PROGRAM = "init {\n a, b : Int\n}\n"
+            + "a := 2 if (a > 5) { write(\"grande\") } else { write(\"chico\") }\n"
+            + "b := a * 3 while (a < 4) { a := a + 1 } write(a)";
+
+    @Test
+    @DisplayName("El grafo corta en labels y saltos y enlaza sucesores y predecesores")
+    public void buildsBlocks() throws Exception {
+        ControlFlowGraph cfg = ControlFlowGraph.build(store(PROGRAM));
+
+        assertThat(cfg.toString()).isEqualTo("B0[1..8] -> B1 B2\nB1[9..10] -> B3\nB2[11..12] -> B3\n"
+                + "B3[13..17] -> B4\nB4[18..22] -> B5 B6\nB5[23..27] -> B4\nB6[28..29] ->\n");
+        assertThat(cfg.block(3).predecessors()).asList().containsExactly(1, 2);
+        assertThat(cfg.block(4).predecessors()).asList().containsExactly(3, 5);
+        assertThat(cfg.blockOf(25).index()).isEqualTo(5);
+        assertThat(cfg.reversePostorder()[0]).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("Liveness: a vive en todo el programa y b nunca se lee")
+    public void liveness() throws Exception {
+        Liveness liveness = Liveness.analyze(ControlFlowGraph.build(store(PROGRAM)));
+
+        assertThat(liveness.isLiveIn(0, "a")).isFalse();
+        assertThat(liveness.isLiveOut(0, "a")).isTrue();
+        assertThat(liveness.isLiveOut(5, "a")).isTrue();
+        assertThat(liveness.isLiveOut(6, "a")).isFalse();
+        for (int b = 0; b < 7; b++) {
+            assertThat(liveness.isLiveOut(b, "b")).isFalse();
+        }
+    }
+
+    @Test
+    @DisplayName("Definiciones que llegan: en el while se juntan la inicial y la del cuerpo")
+    public void reachingDefinitions() throws Exception {
+        ReachingDefinitions reaching = ReachingDefinitions.analyze(ControlFlowGraph.build(store(PROGRAM)));
+
+        assertThat(reaching.definitionCount()).isEqualTo(3);
+        assertThat(reaching.reaching(19, "a")).containsExactly(4, 26);
+        assertThat(reaching.reaching(29, "a")).containsExactly(4, 26);
+        assertThat(reaching.reaching(14, "a")).containsExactly(4);
+        assertThat(reaching.reaching(29, "b")).containsExactly(17);
+    }
+
+    @Test
+    @DisplayName("El solver visita una cantidad de bloques proporcional al programa")
+    public void solverScalesLinearly() throws Exception {
+        double small = visitsPerBlock(1_000);
+        double large = visitsPerBlock(10_000);
+
+        // Un camino cuadrático daría 10 veces más; los while anidados suman alguna vuelta
+        assertThat(large).isAtMost(small * 2);
+    }
+
+    private static double visitsPerBlock(int statements) throws Exception {
+        ControlFlowGraph cfg = ControlFlowGraph.build(store(ProgramGenerator.generate(Shape.NESTED, statements)));
+        Liveness liveness = Liveness.analyze(cfg);
+        ReachingDefinitions reaching = ReachingDefinitions.analyze(cfg);
+        return (double) (liveness.result().visits() + reaching.result().visits()) / cfg.size();
+    }
+
+    // El parser imprime cada regla por consola; se descarta
+    private static TripletStore store(String program) throws Exception {
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            CompilationContext context = Compiler.analyze(program);
+            return context.getIntermediateCodeGenerator().getStore();
+        } finally {
+            System.setOut(original);
+        }
+    }
+}
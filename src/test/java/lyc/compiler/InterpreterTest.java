@@ -0,0 +1,106 @@
+package lyc.compiler;
+
+import lyc.compiler.interpreter.ExecutionResult;
+import lyc.compiler.interpreter.TripletInterpreter;
+import lyc.compiler.main.Compiler;
+import lyc.compiler.model.ExecutionError;
+import lyc.compiler.model.ZeroDivisionError;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class InterpreterTest {
+
+    @Test
+    @DisplayName("El while se ejecuta y cuenta las pasadas por cada label")
+    public void whileLoopCounts() throws Exception {
+        ExecutionResult result = run("init { a, b : Int } a := 0 b := 0 "
+                + "while (a < 10) { a := a + 1 if (a > 5 OR a == 2) { b := b + 1 } }", "");
+
+        assertThat(result.getVariable("a")).isEqualTo(10);
+        assertThat(result.getVariable("b")).isEqualTo(6);
+        // L1: inicio del while (10 vueltas y la comparación que sale); L2: salida
+        assertThat(result.getLabelCounts()).containsEntry("L1", 11L);
+        assertThat(result.getLabelCounts()).containsEntry("L2", 1L);
+        assertThat(result.report(3)).contains("(LABEL, L1, -): 11");
+    }
+
+    @Test
+    @DisplayName("Int usa aritmética de 16 bits y Float se guarda con precisión simple")
+    public void typedArithmetic() throws Exception {
+        ExecutionResult result = run("init {\n a, b, c : Int\n f : Float\n}\n"
+                + "a := 32767 + 1 b := -7 / 2 c := -7 % 2 f := 1 / 3.0", "");
+
+        assertThat(result.getVariable("a")).isEqualTo(-32768);
+        assertThat(result.getVariable("b")).isEqualTo(-3);
+        assertThat(result.getVariable("c")).isEqualTo(-1);
+        assertThat(result.getVariable("f")).isEqualTo(1 / 3.0f);
+        assertThrows(ZeroDivisionError.class, () -> run("init { a, b : Int } b := 0 a := 1 / b", ""));
+    }
+
+    @Test
+    @DisplayName("read y write usan la entrada y salida dadas, y un ciclo infinito corta por pasos")
+    public void readWriteAndStepLimit() throws Exception {
+        StringWriter output = new StringWriter();
+        String program = "init {\n n : Int\n s : String\n}\n read(n) read(s) "
+                + "if (NOT n > 100) { write(s) } else { write(\"grande\") } write(n)";
+
+        new TripletInterpreter(Compiler.analyze(program))
+                .run(new BufferedReader(new StringReader("41\nchico\n")), output);
+
+        assertThat(output.toString()).isEqualTo("chico\n41\n");
+        TripletInterpreter loop = new TripletInterpreter(
+                Compiler.analyze("init { a : Int } a := 1 while (a > 0) { a := 1 }")).maxSteps(500);
+        assertThrows(ExecutionError.class,
+                () -> loop.run(new BufferedReader(new StringReader("")), new StringWriter()));
+    }
+
+    @Test
+    @DisplayName("Lo escrito antes de un error de ejecución llega a la salida")
+    public void outputBeforeRuntimeErrorIsKept() throws Exception {
+        StringWriter output = new StringWriter();
+        TripletInterpreter interpreter = new TripletInterpreter(
+                Compiler.analyze("init { a, b : Int } a := 1 b := 2 write(a) write(b) write(\"tres\") b := 0 a := a / b"));
+
+        assertThrows(ZeroDivisionError.class,
+                () -> interpreter.run(new BufferedReader(new StringReader("")), new BufferedWriter(output)));
+        assertThat(output.toString()).isEqualTo("1\n2\ntres\n");
+    }
+
+    @Test
+    @DisplayName("Lo escrito antes de un read se ve antes de esperar la entrada")
+    public void writeBeforeReadIsFlushed() throws Exception {
+        StringWriter output = new StringWriter();
+        StringBuilder seenByRead = new StringBuilder();
+        // La entrada anota qué había en la salida cuando el programa pidió el dato
+        Reader input = new StringReader("41\n") {
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                if (seenByRead.length() == 0) {
+                    seenByRead.append(output);
+                }
+                return super.read(buffer, offset, length);
+            }
+        };
+
+        new TripletInterpreter(Compiler.analyze("init { a : Int } write(\"Ingrese:\") read(a) write(a)"))
+                .run(new BufferedReader(input), new BufferedWriter(output));
+
+        assertThat(seenByRead.toString()).isEqualTo("Ingrese:\n");
+        assertThat(output.toString()).isEqualTo("Ingrese:\n41\n");
+    }
+
+    private static ExecutionResult run(String program, String input) throws Exception {
+        return new TripletInterpreter(Compiler.analyze(program))
+                .run(new BufferedReader(new StringReader(input)), new StringWriter());
+    }
+}
@@ -0,0 +1,137 @@
+package lyc.compiler;
+
+import lyc.compiler.backend.JvmBackend;
+import lyc.compiler.backend.jvm.JvmProgram;
+import lyc.compiler.context.CompilationContext;
+import lyc.compiler.interpreter.TripletInterpreter;
+import lyc.compiler.main.Compiler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.jar.JarFile;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JvmBackendTest {
+
+    private static final String PROGRAM = "init {\n a, b, c : Int\n f : Float\n s : String\n}\n"
+            + "read(a) read(s) b := 0 c := 0 f := 0\n"
+            + "while (c < a) { c := c + 1 if (c > 5 OR c == 2) { b := b * 3 + c } f := f + c / 4.0 }\n"
+            + "if (NOT b < 1000 AND a > 3) { write(s) } else { write(\"no\") }\n"
+            + "write(b) write(f) c := -32768 / -1 write(c)";
+
+    @Test
+    @DisplayName("El bytecode produce la misma salida que el intérprete de tercetos")
+    public void matchesInterpreter() throws Exception {
+        CompilationContext context = Compiler.analyze(PROGRAM);
+        StringWriter interpreted = new StringWriter();
+        new TripletInterpreter(context).run(input("12\nhola\n"), interpreted);
+        StringWriter compiled = new StringWriter();
+        JvmProgram.define(context).run(input("12\nhola\n"), compiled);
+
+        assertThat(compiled.toString()).isEqualTo(interpreted.toString());
+        // b desborda los 16 bits y -32768 / -1 vuelve a -32768, como en DOS
+        assertThat(compiled.toString()).startsWith("hola\n11475\n19.5\n-32768\n");
+    }
+
+    @Test
+    @DisplayName("--target=jvm genera el listado de la clase con los saltos de los tercetos")
+    public void listing() throws Exception {
+        String listing = Compiler.compile("init { a : Int } a := 0 while (a < 3) { a := a + 1 }", new JvmBackend())
+                .getArtifacts().get(JvmBackend.OUTPUT_FILE);
+
+        assertThat(listing).contains(".method public static run(Ljava/io/BufferedReader;Ljava/io/Writer;)V");
+        assertThat(listing).containsMatch("(?s)L1:.*invokestatic java/lang/Integer.compare\\(II\\)I.*ifge L2.*i2s.*goto L1");
+    }
+
+    @Test
+    @DisplayName("El jar generado tiene Main-Class y corre sin el compilador")
+    public void runnableJar(@TempDir Path directory) throws Exception {
+        Path jar = directory.resolve("programa.jar");
+        JvmProgram.writeJar(Compiler.analyze("init { a : Int } a := 40 + 2 write(a)"), jar);
+
+        try (JarFile file = new JarFile(jar.toFile())) {
+            assertThat(file.getManifest().getMainAttributes().getValue("Main-Class")).isEqualTo("LycProgram");
+        }
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {jar.toUri().toURL()}, null)) {
+            Method run = loader.loadClass("LycProgram").getMethod("run", BufferedReader.class, java.io.Writer.class);
+            StringWriter output = new StringWriter();
+            run.invoke(null, input(""), output);
+            assertThat(output.toString()).isEqualTo("42\n");
+        }
+    }
+
+    @Test
+    @DisplayName("Lo escrito antes de un error de ejecución no se pierde")
+    public void outputBeforeRuntimeErrorIsKept() throws Exception {
+        StringWriter output = new StringWriter();
+        JvmProgram program = JvmProgram.define(Compiler.analyze(
+                "init { a, b : Int } a := 1 b := 0 write(a) write(\"dos\") a := a / b"));
+
+        assertThrows(ArithmeticException.class, () -> program.run(input(""), new BufferedWriter(output)));
+        assertThat(output.toString()).isEqualTo("1\ndos\n");
+    }
+
+    @Test
+    @DisplayName("El bytecode vuelca la salida antes de cada read")
+    public void writeBeforeReadIsFlushed() throws Exception {
+        StringWriter output = new StringWriter();
+        StringBuilder seenByRead = new StringBuilder();
+        // La entrada anota qué había en la salida cuando el programa pidió el dato
+        Reader input = new StringReader("41\n") {
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                if (seenByRead.length() == 0) {
+                    seenByRead.append(output);
+                }
+                return super.read(buffer, offset, length);
+            }
+        };
+
+        JvmProgram.define(Compiler.analyze("init { a : Int } write(\"Ingrese:\") read(a) write(a)"))
+                .run(new BufferedReader(input), new BufferedWriter(output));
+
+        assertThat(seenByRead.toString()).isEqualTo("Ingrese:\n");
+        assertThat(output.toString()).isEqualTo("Ingrese:\n41\n");
+    }
+
+    @Test
+    @DisplayName("El main del jar vuelca la salida aunque el programa termine con un error")
+    public void jarMainFlushesOnError(@TempDir Path directory) throws Exception {
+        Path jar = directory.resolve("programa.jar");
+        JvmProgram.writeJar(Compiler.analyze("init { a, b : Int } a := 7 b := 0 write(a) a := a / b"), jar);
+
+        PrintStream previousOut = System.out;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {jar.toUri().toURL()}, null)) {
+            Method main = loader.loadClass("LycProgram").getMethod("main", String[].class);
+            System.setOut(new PrintStream(captured, true, StandardCharsets.UTF_8));
+            InvocationTargetException error = assertThrows(InvocationTargetException.class,
+                    () -> main.invoke(null, (Object) new String[0]));
+            assertThat(error.getCause()).isInstanceOf(ArithmeticException.class);
+        } finally {
+            System.setOut(previousOut);
+        }
+        assertThat(captured.toString(StandardCharsets.UTF_8)).isEqualTo("7\n");
+    }
+
+    private static BufferedReader input(String text) {
+        return new BufferedReader(new StringReader(text));
+    }
+}
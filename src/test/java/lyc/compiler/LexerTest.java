@@ -5,6 +5,7 @@ import static lyc.compiler.constants.Constants.MAX_LENGTH;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.IOException;
+import lyc.compiler.context.CompilationContext;
 import lyc.compiler.factories.LexerFactory;
 import lyc.compiler.model.CompilerException;
 import lyc.compiler.model.InvalidIntegerException;
@@ -90,7 +91,7 @@ public class LexerTest {
     lexer = null;
   }
 
-  private void scan(String input) { lexer = LexerFactory.create(input); }
+  private void scan(String input) { lexer = LexerFactory.create(input, new CompilationContext()); }
 
   private int nextToken() throws IOException, CompilerException {
     return lexer.next_token().sym;
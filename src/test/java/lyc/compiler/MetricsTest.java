@@ -0,0 +1,71 @@
+package lyc.compiler;
+
+import lyc.compiler.context.CompilationContext;
+import lyc.compiler.context.CompilationResult;
+import lyc.compiler.files.Operator;
+import lyc.compiler.main.Compiler;
+import lyc.compiler.metrics.CompileMetrics;
+import lyc.compiler.metrics.CompileMetrics.Counter;
+import lyc.compiler.metrics.CompileMetrics.Phase;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class MetricsTest {
+
+    private static final String PROGRAM =
+            "init { a, b : Int } a := 10 b := a * 2 + 20 if (a > b) { write(\"mayor\") } else { b := b - 1 }";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Los contadores reflejan tokens, tercetos, labels, temporales, literales y símbolos")
+    public void countersMatchCompilation() throws Exception {
+        CompilationResult result = Compiler.compile(PROGRAM);
+        CompileMetrics metrics = result.getMetrics();
+
+        assertThat(metrics.get(Counter.TOKENS)).isEqualTo(38);
+        assertThat(metrics.get(Counter.TRIPLETS)).isEqualTo(result.getTriplets().size());
+        assertThat(metrics.getTripletsByOperator().values().stream().mapToLong(Long::longValue).sum())
+                .isEqualTo(result.getTriplets().size());
+        assertThat(metrics.getTripletsByOperator()).containsEntry(Operator.MUL, 1L);
+        assertThat(metrics.get(Counter.LABELS)).isEqualTo(2);
+        // a * 2, ... + 20 y b - 1 se calculan en la pila del x87, sin temporales
+        assertThat(metrics.get(Counter.TEMPS)).isEqualTo(0);
+        assertThat(metrics.get(Counter.LITERALS)).isAtLeast(4);
+        assertThat(metrics.get(Counter.SYMBOLS)).isEqualTo(result.getSymbolTable().size());
+        for (Phase phase : new Phase[] {Phase.LEX, Phase.PARSE, Phase.LISTING, Phase.ASM}) {
+            assertThat(metrics.getWallNanos(phase)).isGreaterThan(0L);
+        }
+        assertThat(metrics.isCpuEstimated(Phase.LEX)).isTrue();
+        assertThat(metrics.isCpuEstimated(Phase.ASM)).isFalse();
+    }
+
+    @Test
+    @DisplayName("compileFile mide lectura y escritura y el reporte JSON incluye fases y contadores")
+    public void fileCompilationReport() throws Exception {
+        Path source = tempDir.resolve("program.txt");
+        Files.writeString(source, PROGRAM);
+
+        CompilationContext context = Compiler.compileFile(source, tempDir.resolve("out"));
+        CompileMetrics metrics = context.getMetrics();
+        assertThat(metrics.getWallNanos(Phase.READ)).isGreaterThan(0L);
+        assertThat(metrics.getWallNanos(Phase.WRITE)).isGreaterThan(0L);
+        assertThat(metrics.getTotalWallNanos()).isGreaterThan(0L);
+
+        Path report = tempDir.resolve("out").resolve(CompileMetrics.REPORT_FILE);
+        metrics.writeJson(report, "dir\\program \"a\".txt");
+        String json = Files.readString(report);
+        assertThat(json).contains("\"source\": \"dir\\\\program \\\"a\\\".txt\"");
+        assertThat(json).contains("\"lex\": {\"wallNanos\": ");
+        assertThat(json).contains("\"listing\": {\"wallNanos\": ");
+        assertThat(json).contains("\"tokens\": 38");
+        assertThat(json).contains("\"MUL\": 1");
+    }
+}
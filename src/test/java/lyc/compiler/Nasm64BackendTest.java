@@ -0,0 +1,132 @@
+package lyc.compiler;
+
+import lyc.compiler.backend.Nasm64Backend;
+import lyc.compiler.interpreter.TripletInterpreter;
+import lyc.compiler.main.Compiler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class Nasm64BackendTest {
+
+    // Regenerar los archivos esperados: mvn test -Dtest=Nasm64BackendTest -Dgolden.update=true
+    private static final boolean UPDATE = Boolean.getBoolean("golden.update");
+    private static final String GOLDEN_DIRECTORY = "src/test/java/resources/golden/nasm64/";
+    private static final List<String> PROGRAMS = List.of(
+            "assignments", "write", "read", "and", "or", "not", "if", "while", "iszero", "convdate");
+
+    // Sólo Int y String: los Float se imprimen con dos decimales y no como Float.toString
+    private static final String PROGRAM = "init {\n a, b, c : Int\n s, t : String\n}\n"
+            + "read(a) read(s) b := 0 c := 0\n"
+            + "while (c < a) { c := c + 1 if (c > 5 OR c == 2) { b := b * 3 + c } }\n"
+            + "if (NOT b < 1000 AND a > 3) { t := s write(t) } else { write(\"no\") }\n"
+            + "write(b) c := -17 % 5 write(c) c := -32768 / -1 write(c)";
+
+    @TestFactory
+    @DisplayName("El assembler x86-64 de los programas de ejemplo coincide con los archivos esperados")
+    public Stream<DynamicTest> golden() {
+        return PROGRAMS.stream().map(name -> DynamicTest.dynamicTest(name, () -> {
+            String output = compile(readFromFile(name + ".txt"));
+            String runtime = runtime();
+            assertThat(output).endsWith(runtime);
+            String generated = output.substring(0, output.length() - runtime.length());
+
+            Path golden = Path.of(GOLDEN_DIRECTORY + name + ".asm");
+            if (UPDATE) {
+                Files.createDirectories(golden.getParent());
+                Files.writeString(golden, generated, StandardCharsets.UTF_8);
+            }
+            assertThat(generated).isEqualTo(Files.readString(golden, StandardCharsets.UTF_8));
+        }));
+    }
+
+    @Test
+    @DisplayName("Int usa registros de 32 bits ajustados a 16 y Float usa SSE2")
+    public void instructions() throws Exception {
+        String output = compile("init {\n a : Int\n f : Float\n}\n"
+                + "a := 3 * a f := f * 1.5 if (f < 2.5) { write(a) }");
+
+        assertThat(output).containsMatch("imul eax, dword \\[v_a\\]\\n    movsx eax, ax\\n");
+        assertThat(output).contains("mulss xmm0, dword [_1_DOT_5]");
+        assertThat(output).containsMatch("comiss xmm0, dword \\[_2_DOT_5\\]\\n.*\\n    jae L1");
+        assertThat(output).contains("_1_DOT_5 dd 0x3FC00000 ; 1.5");
+        assertThat(output).contains("    mov eax, 60\n    xor edi, edi\n    syscall\n");
+    }
+
+    @Test
+    @DisplayName("Con nasm y ld instalados, el ejecutable produce la misma salida que el intérprete")
+    public void assembleAndRun(@TempDir Path directory) throws Exception {
+        assumeTrue(available("nasm") && available("ld"), "nasm y ld no están instalados");
+
+        Path source = directory.resolve(Nasm64Backend.OUTPUT_FILE);
+        Files.writeString(source, compile(PROGRAM), StandardCharsets.UTF_8);
+        execute(directory, null, "nasm", "-f", "elf64", source.toString(), "-o", "final64.o");
+        execute(directory, null, "ld", "final64.o", "-o", "final64");
+        String nativeOutput = execute(directory, "12\nhola\n", directory.resolve("final64").toString());
+
+        StringWriter interpreted = new StringWriter();
+        new TripletInterpreter(Compiler.analyze(PROGRAM))
+                .run(new BufferedReader(new StringReader("12\nhola\n")), interpreted);
+        assertThat(nativeOutput).isEqualTo(interpreted.toString());
+        assertThat(nativeOutput).isEqualTo("hola\n11475\n-2\n-32768\n");
+    }
+
+    private static String compile(String program) throws Exception {
+        return Compiler.compile(program, new Nasm64Backend()).getArtifacts().get(Nasm64Backend.OUTPUT_FILE);
+    }
+
+    private static String runtime() throws IOException {
+        try (InputStream in = Nasm64BackendTest.class.getResourceAsStream("/asm/lyc64_runtime.asm")) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static boolean available(String tool) {
+        try {
+            Process process = new ProcessBuilder(tool, "--version").redirectErrorStream(true).start();
+            process.getInputStream().readAllBytes();
+            return process.waitFor(10, TimeUnit.SECONDS) && process.exitValue() == 0;
+        } catch (IOException | InterruptedException e) {
+            return false;
+        }
+    }
+
+    private static String execute(Path directory, String input, String... command) throws Exception {
+        Process process = new ProcessBuilder(command).directory(directory.toFile()).redirectErrorStream(true).start();
+        if (input != null) {
+            process.getOutputStream().write(input.getBytes(StandardCharsets.UTF_8));
+        }
+        process.getOutputStream().close();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertThat(process.waitFor(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(process.exitValue()).isEqualTo(0);
+        return output;
+    }
+
+    private String readFromFile(String fileName) throws IOException {
+        File file = new File("src/test/java/resources/" + fileName);
+
+        if (!file.exists()) {
+            throw new IOException("El archivo no existe: " + file.getAbsolutePath());
+        }
+        return Files.readString(file.toPath(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,172 @@
+package lyc.compiler;
+
+import lyc.compiler.backend.Backends;
+import lyc.compiler.context.CompilationContext;
+import lyc.compiler.context.CompilationResult;
+import lyc.compiler.interpreter.TripletInterpreter;
+import lyc.compiler.main.Compiler;
+import lyc.compiler.metrics.CompileMetrics.Counter;
+import lyc.compiler.optimizer.Optimizer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class OptimizerTest {
+
+    @Test
+    @DisplayName("fold calcula en compilación las operaciones entre constantes")
+    public void foldsConstantArithmetic() throws Exception {
+        CompilationResult result = compile("init { a : Int } a := 10 + 20 * 3 write(a)", "fold");
+
+        assertThat(result.getArtifacts().get("intermediate-code.txt"))
+                .contains("[2] (CTE, _70, -)\n[3] (ASSIGN, a, [2])\n[4] (WRITE, a, -)");
+        assertThat(result.getMetrics().get(Counter.OPTIMIZED)).isEqualTo(4);
+        assertThat(result.getArtifacts().get("final.asm")).doesNotContain("FMUL");
+    }
+
+    @Test
+    @DisplayName("Int se pliega con 16 bits y las divisiones por cero quedan para la ejecución")
+    public void foldsWithIntSemantics() throws Exception {
+        String triplets = compile("init {\n a : Int\n f : Float\n}\n"
+                + "a := 300 * 300 f := 1 / 4.0 a := -32768 / -1 a := 7 / 0", "fold")
+                .getArtifacts().get("intermediate-code.txt");
+
+        assertThat(triplets).contains("(CTE, _24464, -)");
+        assertThat(triplets).contains("(CTE, _0.25, -)");
+        assertThat(triplets).contains("(CTE, _-32768, -)");
+        assertThat(triplets).containsMatch("\\(DIV, \\[\\d+\\], \\[\\d+\\]\\)");
+    }
+
+    @Test
+    @DisplayName("Las constantes se propagan hasta el próximo label y deciden los isZero")
+    public void propagatesUntilLabels() throws Exception {
+        String triplets = compile(readFromFile("iszero.txt"), "fold").getArtifacts().get("intermediate-code.txt");
+        // isZero(13) nunca se cumple e isZero(contador - 10) siempre
+        assertThat(triplets).contains("(BI, L1, -)");
+        assertThat(triplets).doesNotContain("CMP");
+        assertThat(triplets).doesNotContain("BNE");
+
+        String loop = compile("init { a : Int } a := 1 while (a < 3) { a := a + 1 } write(a)", "fold")
+                .getArtifacts().get("intermediate-code.txt");
+        assertThat(loop).contains("(ID, a, -)");
+        assertThat(loop).contains("(ADD, ");
+    }
+
+    @Test
+    @DisplayName("cse reutiliza las subexpresiones repetidas hasta que se asigna la variable")
+    public void reusesCommonSubexpressions() throws Exception {
+        String program = "init { a, b, c : Int } read(a) read(b) c := (a + b) * (b + a) write(c)\n"
+                + "a := 1 c := a + b write(c)";
+        CompilationResult result = compile(program, "cse");
+        String triplets = result.getArtifacts().get("intermediate-code.txt");
+
+        assertThat(triplets).contains("[6] (ID, a, -)\n[7] (ID, b, -)\n[8] (ADD, [6], [7])\n"
+                + "[9] (MUL, [8], [8])\n[10] (ASSIGN, c, [9])");
+        // Después de a := 1 se vuelve a leer a, pero b sigue siendo el mismo valor
+        assertThat(triplets).contains("[14] (ID, a, -)\n[15] (ADD, [14], [7])");
+        assertThat(result.getMetrics().getRemovedByPass()).containsEntry("cse", 4L);
+
+        CompilationContext optimized = Compiler.analyze(program, Optimizer.of("cse"));
+        assertThat(run(optimized, "3\n4\n")).isEqualTo("49\n5\n");
+    }
+
+    @Test
+    @DisplayName("dce quita los DECLARE, las ramas que no se alcanzan y los labels sin saltos")
+    public void removesDeadCode() throws Exception {
+        String program = "init {\n a, b : Int\n}\n"
+                + "a := 2 if (a > 5) { write(\"grande\") } else { write(\"chico\") }\n"
+                + "b := a * 3 while (a < 4) { a := a + 1 } write(a)";
+        CompilationResult result = compile(program, "fold,dce");
+        String triplets = result.getArtifacts().get("intermediate-code.txt");
+
+        assertThat(triplets).startsWith("CODIGO INTERMEDIO - TERCETOS\n===============================\n\n"
+                + "[1] (CTE, _2, -)\n[2] (ASSIGN, a, [1])\n[3] (WRITE, _chico, -)\n");
+        assertThat(triplets).doesNotContain("DECLARE");
+        // El while sigue teniendo sus dos labels; los del if ya no los usa nadie
+        assertThat(triplets).containsMatch("\\(LABEL, L\\d+, -\\)[\\s\\S]*\\(LABEL, L\\d+, -\\)");
+        assertThat(triplets).doesNotContainMatch("\\(LABEL[\\s\\S]*\\(LABEL[\\s\\S]*\\(LABEL");
+        assertThat(triplets).contains("(ASSIGN, b, ");
+        assertThat(result.getMetrics().getRemovedByPass()).containsEntry("dce", 7L);
+
+        CompilationContext optimized = Compiler.analyze(program, Optimizer.of("fold,dce"));
+        assertThat(run(optimized, "")).isEqualTo("chico\n4\n");
+    }
+
+    @Test
+    @DisplayName("Los programas optimizados producen la misma salida en el intérprete")
+    public void sameBehaviour() throws Exception {
+        String program = "init {\n a, b : Int\n f : Float\n s : String\n}\n"
+                + "a := 2 * 3 b := a + 1 f := b / 2.0 s := \"x\"\n"
+                + "if (isZero(a - 6) AND f > 3.4) { write(s) } else { write(\"no\") }\n"
+                + "read(a) b := a * (4 - 4) write(b) write(f)\n"
+                + "while (a < 10) { a := a + b + 1 } write(a)";
+        String input = "7\n";
+
+        CompilationContext optimized = Compiler.analyze(program, Optimizer.all());
+        assertThat(run(optimized, input)).isEqualTo(run(Compiler.analyze(program), input));
+        assertThat(run(optimized, input)).isEqualTo("x\n0\n3.5\n10\n");
+        assertThat(optimized.getMetrics().get(Counter.OPTIMIZED)).isGreaterThan(0L);
+    }
+
+    @Test
+    @DisplayName("fold y dce quitan igual los CTE sueltos de convDate, que ningún terceto lee")
+    public void convDateConstantsAreDead() throws Exception {
+        String program = "init {\n f : String\n a : Int\n}\n"
+                + "a := 1 + 2 f := convDate(21-08-2025) write(a)";
+        String unoptimized = compile(program, "").getArtifacts().get("intermediate-code.txt");
+        assertThat(unoptimized).contains("(CTE, _21, -)");
+        assertThat(unoptimized).contains("(CTE, _20250821, -)");
+
+        for (String passes : new String[] {"fold", "dce"}) {
+            String triplets = compile(program, passes).getArtifacts().get("intermediate-code.txt");
+            for (String constant : new String[] {"_21", "_8", "_2025", "_20250821"}) {
+                assertThat(triplets).doesNotContain("(CTE, " + constant + ", -)");
+            }
+
+            CompilationContext optimized = Compiler.analyze(program, Optimizer.of(passes));
+            assertThat(run(optimized, "")).isEqualTo("3\n");
+        }
+    }
+
+    @Test
+    @DisplayName("-O activa todas las pasadas y --optimize= sólo las nombradas")
+    public void options() {
+        Optimizer.Options options = new Optimizer.Options();
+        assertThat(options.optimizer().isEnabled()).isFalse();
+
+        assertThat(options.accept("-O")).isTrue();
+        assertThat(options.optimizer().passes()).isEqualTo(Optimizer.names());
+        assertThat(options.accept("--optimize=fold")).isTrue();
+        assertThat(options.optimizer().key()).isEqualTo("--optimize=fold");
+        assertThat(options.accept("-O0")).isTrue();
+        assertThat(options.optimizer().key()).isEmpty();
+        assertThat(options.accept("--target=masm")).isFalse();
+        IllegalArgumentException error =
+                assertThrows(IllegalArgumentException.class, () -> options.accept("--optimize=magia"));
+        assertThat(error).hasMessageThat().contains("fold");
+    }
+
+    private static CompilationResult compile(String program, String passes) throws Exception {
+        return Compiler.compile(program, Backends.defaultBackend(), Optimizer.of(passes));
+    }
+
+    private static String run(CompilationContext context, String input) throws Exception {
+        StringWriter output = new StringWriter();
+        new TripletInterpreter(context).run(new BufferedReader(new StringReader(input)), output);
+        return output.toString();
+    }
+
+    private String readFromFile(String fileName) throws Exception {
+        File file = new File("src/test/java/resources/" + fileName);
+        return Files.readString(file.toPath(), StandardCharsets.UTF_8);
+    }
+}
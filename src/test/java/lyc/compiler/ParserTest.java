@@ -1,10 +1,8 @@
 package lyc.compiler;
 
 import java_cup.runtime.Symbol;
+import lyc.compiler.context.CompilationContext;
 import lyc.compiler.factories.ParserFactory;
-import lyc.compiler.table.SymbolTableManager;
-import lyc.compiler.files.IntermediateCodeGenerator;
-import lyc.compiler.files.TypeTable;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
@@ -20,20 +18,18 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class ParserTest {
 
+    private CompilationContext context;
+
     @BeforeEach
     void setUp() {
-        // Limpiar tablas antes de cada test
-        SymbolTableManager.getSymbolTable().clear();
-        IntermediateCodeGenerator.reset();
-        TypeTable.reset();
+        // Cada test compila sobre un contexto nuevo
+        context = new CompilationContext();
     }
 
     @AfterEach
     void tearDown() {
         // Limpiar tablas despues de cada test
-        SymbolTableManager.getSymbolTable().clear();
-        IntermediateCodeGenerator.reset();
-        TypeTable.reset();
+        context.reset();
     }
 
     @Test
@@ -115,7 +111,7 @@ public class ParserTest {
     }
 
     private Symbol scan(String input) throws Exception {
-        return ParserFactory.create(input).parse();
+        return ParserFactory.create(input, context).parse();
     }
 
     private String readFromFile(String fileName) throws IOException {
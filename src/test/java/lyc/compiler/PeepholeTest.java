@@ -0,0 +1,470 @@
+package lyc.compiler;
+
+import lyc.compiler.context.CompilationContext;
+import lyc.compiler.files.AsmCodeGenerator;
+import lyc.compiler.files.AsmInstruction;
+import lyc.compiler.files.AsmInstruction.Opcode;
+import lyc.compiler.files.AsmInstruction.Operand;
+import lyc.compiler.files.PeepholeOptimizer;
+import lyc.compiler.files.PeepholeOptimizer.Rule;
+import lyc.compiler.interpreter.ExecutionResult;
+import lyc.compiler.interpreter.TripletInterpreter;
+import lyc.compiler.main.Compiler;
+import lyc.compiler.optimizer.Optimizer;
+import lyc.compiler.synthetic.ProgramGenerator;
+import lyc.compiler.synthetic.ProgramGenerator.Shape;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.io.BufferedReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class PeepholeTest {
+
+    // Regenerar los archivos esperados: mvn test -Dtest=PeepholeTest -Dgolden.update=true
+    private static final boolean UPDATE = Boolean.getBoolean("golden.update");
+    // Un programa por regla (<regla>.txt) y el final.asm esperado (<regla>.asm)
+    private static final String GOLDEN_DIRECTORY = "src/test/java/resources/golden/peephole/";
+
+    @TestFactory
+    @DisplayName("Cada regla se aplica a su programa, que coincide con el esperado y hace lo mismo que sin peephole")
+    public Stream<DynamicTest> golden() {
+        return Arrays.stream(Rule.values()).map(rule -> DynamicTest.dynamicTest(rule.id(), () -> {
+            String program = Files.readString(Path.of(GOLDEN_DIRECTORY + rule.id() + ".txt"), StandardCharsets.UTF_8);
+            CompilationContext context = analyze(program);
+            String optimized = generate(context, PeepholeOptimizer.DEFAULT_WINDOW);
+
+            assertThat(context.getMetrics().getPeepholeHits()).containsKey(rule.id());
+            Path golden = Path.of(GOLDEN_DIRECTORY + rule.id() + ".asm");
+            if (UPDATE) {
+                Files.writeString(golden, optimized, StandardCharsets.UTF_8);
+            }
+            assertThat(optimized).isEqualTo(Files.readString(golden, StandardCharsets.UTF_8));
+            assertThat(X87.run(optimized)).isEqualTo(X87.run(generate(analyze(program), 0)));
+        }));
+    }
+
+    @Test
+    @DisplayName("Los programas sintéticos terminan con las mismas variables con y sin peephole")
+    public void generatedProgramsBehaveTheSame() throws Exception {
+        for (Shape shape : new Shape[] {Shape.MIXED, Shape.NESTED}) {
+            String program = ProgramGenerator.generate(shape, 300);
+            CompilationContext context = analyze(program);
+            String optimized = generate(context, PeepholeOptimizer.DEFAULT_WINDOW);
+
+            assertThat(optimized.split("\n").length).isLessThan(generate(analyze(program), 0).split("\n").length);
+            assertThat(X87.run(optimized)).isEqualTo(X87.run(generate(analyze(program), 0)));
+        }
+    }
+
+    @Test
+    @DisplayName("La aritmética Int de final.asm da lo mismo que el intérprete: 16 bits, / y % truncan")
+    public void integerArithmeticMatchesInterpreter() throws Exception {
+        String program = "init {\n a, b, c, d, e : Int\n f : Float\n}\n"
+                + "a := 32767 + 1 b := -7 / 2 c := -7 % 2 d := (a - 1) * 3 % (b - 4)\n"
+                + "e := -(d + b * c) / (2 - a % 5) f := b / 2 + 0.5\n"
+                + "while (e < 3 * c + 12) { e := e + 1 }";
+        CompilationContext context = analyze(program);
+        ExecutionResult expected = new TripletInterpreter(analyze(program))
+                .run(new BufferedReader(new StringReader("")), new StringWriter());
+
+        Map<String, Number> variables = X87.run(generate(context, PeepholeOptimizer.DEFAULT_WINDOW));
+        for (String name : List.of("a", "b", "c", "d", "e", "f")) {
+            assertThat(variables.get(name).doubleValue()).isEqualTo(((Number) expected.getVariable(name)).doubleValue());
+        }
+    }
+
+    @Test
+    @DisplayName("El % entre Float de final.asm trunca como el intérprete y el plegado de constantes")
+    public void floatRemainderMatchesInterpreter() throws Exception {
+        String program = "init {\n a, b, x, y, z, w : Float\n}\n"
+                + "a := 8.5 b := 0 - 11 x := 7.5 % 2 y := (0 - 7.5) % 2 z := 7.5 % (0 - 2) w := a % (b + 3.5)";
+        ExecutionResult expected = new TripletInterpreter(analyze(program))
+                .run(new BufferedReader(new StringReader("")), new StringWriter());
+        CompilationContext optimized = Compiler.analyze(program, Optimizer.of("fold"));
+        ExecutionResult folded = new TripletInterpreter(optimized)
+                .run(new BufferedReader(new StringReader("")), new StringWriter());
+
+        Map<String, Number> variables = X87.run(generate(analyze(program), PeepholeOptimizer.DEFAULT_WINDOW));
+        assertThat(variables.get("x").doubleValue()).isEqualTo(1.5);
+        assertThat(variables.get("y").doubleValue()).isEqualTo(-1.5);
+        assertThat(variables.get("w").doubleValue()).isEqualTo(1.0);
+        // fold propaga a y b, así que no queda ningún % por calcular
+        assertThat(generate(optimized, 0)).doesNotContain("FPREM");
+        for (String name : List.of("x", "y", "z", "w")) {
+            assertThat(variables.get(name).doubleValue()).isEqualTo(((Number) expected.getVariable(name)).doubleValue());
+            assertThat(variables.get(name).doubleValue()).isEqualTo(((Number) folded.getVariable(name)).doubleValue());
+        }
+    }
+
+    @Test
+    @DisplayName("Int y Float mezclados dan lo mismo que el intérprete y el emulador distingue FLD de FILD")
+    public void mixedIntFloatMatchesInterpreter() throws Exception {
+        String program = "init {\n a, b : Int\n f, g : Float\n}\n"
+                + "a := 7 f := a + 0.5 b := a * 3 g := f * b - a f := g / a "
+                + "if (a < f) { b := b - 1 } g := b + f";
+        CompilationContext context = analyze(program);
+        ExecutionResult expected = new TripletInterpreter(analyze(program))
+                .run(new BufferedReader(new StringReader("")), new StringWriter());
+
+        String asm = generate(context, PeepholeOptimizer.DEFAULT_WINDOW);
+        Map<String, Number> variables = X87.run(asm);
+        for (String name : List.of("a", "b", "f", "g")) {
+            assertThat(variables.get(name).doubleValue()).isEqualTo(((Number) expected.getVariable(name)).doubleValue());
+        }
+        // Leer la palabra de un Int como float (o al revés) tiene que cambiar el resultado
+        assertThat(asm).contains("FILD [a]");
+        assertThat(X87.run(asm.replace("FILD [a]", "FLD [a]"))).isNotEqualTo(variables);
+    }
+
+    @Test
+    @DisplayName("Con una ventana más chica no se aplican las reglas que miran más lineas")
+    public void windowLimitsRules() throws Exception {
+        String program = Files.readString(Path.of(GOLDEN_DIRECTORY + "jump-to-next.txt"), StandardCharsets.UTF_8);
+
+        CompilationContext narrow = analyze(program);
+        generate(narrow, 1);
+        assertThat(narrow.getMetrics().getPeepholeHits().keySet()).containsNoneOf("store-load", "jump-to-next");
+
+        CompilationContext medium = analyze(program);
+        generate(medium, 2);
+        assertThat(medium.getMetrics().getPeepholeHits()).containsKey("jump-to-next");
+        assertThat(medium.getMetrics().getPeepholeHits()).doesNotContainKey("dead-compare");
+    }
+
+    @Test
+    @DisplayName("Un ciclo de JMP queda como está y se cuentan las reescrituras de cada regla")
+    public void leavesJumpCyclesAlone() {
+        List<AsmInstruction> body = new ArrayList<>(List.of(
+                AsmInstruction.of(Opcode.JB, Operand.of("L1")),
+                AsmInstruction.of(Opcode.FLD, Operand.memory("a")),
+                AsmInstruction.of(Opcode.FSTP, Operand.memory("b")),
+                AsmInstruction.label("L1"),
+                AsmInstruction.of(Opcode.JMP, Operand.of("L2")),
+                AsmInstruction.label("L2"),
+                AsmInstruction.of(Opcode.JMP, Operand.of("L1"))));
+        PeepholeOptimizer peephole = new PeepholeOptimizer();
+
+        assertThat(peephole.run(body)).isEqualTo(2);
+        assertThat(body.stream().map(AsmInstruction::toString).collect(Collectors.joining("\n")))
+                .isEqualTo("JB L1\nFLD [a]\nFSTP [b]\nL1:\nJMP L1");
+        assertThat(peephole.hits()).containsExactly(Rule.JUMP_TO_NEXT, 1, Rule.LABEL_CHAIN, 1);
+    }
+
+    // El parser imprime cada regla por consola; se descarta
+    private static CompilationContext analyze(String program) throws Exception {
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            return Compiler.analyze(program);
+        } finally {
+            System.setOut(original);
+        }
+    }
+
+    private static String generate(CompilationContext context, int window) throws Exception {
+        StringWriter out = new StringWriter();
+        new AsmCodeGenerator(context, window).generate(out);
+        return out.toString();
+    }
+
+    // Ejecuta las instrucciones x87, la aritmética entera de EAX, ECX y EDX y los saltos
+    // del final.asm, y devuelve el valor final de las variables del usuario. Lo demás
+    // (el prólogo, int, STRCPY...) no toca esos valores y se ignora.
+    // La memoria son palabras de 32 bits, como los DD: FLD/FST leen y escriben los bits
+    // de un float y FILD, los FI* y mov los de un entero, así que cargar un Int con FLD
+    // (o un Float con FILD) da otro valor
+    private static final class X87 {
+
+        private static final int MAX_STEPS = 1_000_000;
+
+        static Map<String, Number> run(String asm) {
+            Map<String, Integer> memory = new HashMap<>();
+            // Variables declaradas con un literal con punto (DD 0.0): su palabra es un float
+            Set<String> floats = new HashSet<>();
+            List<String[]> code = new ArrayList<>();
+            Map<String, Integer> labels = new HashMap<>();
+            boolean inCode = false;
+            for (String raw : asm.split("\n")) {
+                int comment = raw.indexOf(';');
+                String line = (comment >= 0 ? raw.substring(0, comment) : raw).trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (line.equals(".CODE")) {
+                    inCode = true;
+                } else if (!inCode) {
+                    String[] parts = line.split("\\s+");
+                    if (parts.length == 3 && parts[1].equals("DD")) {
+                        if (parts[2].contains(".")) {
+                            floats.add(parts[0]);
+                            memory.put(parts[0], Float.floatToRawIntBits(Float.parseFloat(parts[2])));
+                        } else {
+                            memory.put(parts[0], parts[2].equals("?") ? 0 : Integer.parseInt(parts[2]));
+                        }
+                    }
+                } else if (line.endsWith(":")) {
+                    labels.put(line.substring(0, line.length() - 1), code.size());
+                } else {
+                    String[] parts = line.split("\\s+", 2);
+                    String[] operands = parts.length > 1 ? parts[1].split(",\\s*") : new String[0];
+                    String[] instruction = new String[operands.length + 1];
+                    instruction[0] = parts[0];
+                    System.arraycopy(operands, 0, instruction, 1, operands.length);
+                    code.add(instruction);
+                }
+            }
+
+            Deque<Double> stack = new ArrayDeque<>();
+            Map<String, Integer> registers = new HashMap<>();
+            Deque<Integer> pushed = new ArrayDeque<>();
+            // Después de un cmp, below es "menor con signo"
+            boolean below = false;
+            boolean equal = false;
+            boolean parity = false;
+            int pc = 0;
+            for (int steps = 0; pc < code.size(); steps++) {
+                assertThat(steps).isLessThan(MAX_STEPS);
+                String[] instruction = code.get(pc++);
+                String op = instruction[0];
+                String operand = instruction.length > 1 ? instruction[1] : null;
+                double st0 = stack.isEmpty() ? 0 : stack.peek();
+                switch (op) {
+                    case "FLD":
+                        stack.push(operand.equals("ST(1)") ? second(stack) : loadFloat(memory, operand));
+                        break;
+                    case "FILD":
+                        stack.push(loadInteger(memory, operand));
+                        break;
+                    case "mov":
+                        String source = instruction[2];
+                        if (operand.startsWith("[")) {
+                            memory.put(name(operand), registers.getOrDefault(source, 0));
+                        } else if (operand.matches("E[ACD]X")) {
+                            registers.put(operand, integer(memory, registers, source));
+                        }
+                        break;
+                    case "add":
+                    case "sub":
+                    case "imul":
+                        int eax = registers.getOrDefault("EAX", 0);
+                        int value = integer(memory, registers, instruction[2]);
+                        registers.put("EAX", op.equals("add") ? eax + value : op.equals("sub") ? eax - value : eax * value);
+                        break;
+                    case "neg":
+                        registers.put("EAX", -registers.getOrDefault("EAX", 0));
+                        break;
+                    case "movsx":
+                        registers.put("EAX", (int) (short) (int) registers.getOrDefault("EAX", 0));
+                        break;
+                    case "cdq":
+                        registers.put("EDX", registers.getOrDefault("EAX", 0) < 0 ? -1 : 0);
+                        break;
+                    case "idiv":
+                        int dividend = registers.getOrDefault("EAX", 0);
+                        int divisor = integer(memory, registers, operand);
+                        registers.put("EAX", dividend / divisor);
+                        registers.put("EDX", dividend % divisor);
+                        break;
+                    case "cmp":
+                        int left = registers.getOrDefault("EAX", 0);
+                        int right = integer(memory, registers, instruction[2]);
+                        below = left < right;
+                        equal = left == right;
+                        break;
+                    case "push":
+                        pushed.push(registers.getOrDefault(operand, 0));
+                        break;
+                    case "pop":
+                        registers.put(operand, pushed.pop());
+                        break;
+                    // Las variables son DD: lo que se guarda pierde la precisión extra de la pila
+                    case "FST":
+                        memory.put(name(operand), Float.floatToRawIntBits((float) st0));
+                        break;
+                    case "FSTP":
+                        stack.pop();
+                        if (operand.equals("ST(1)")) {
+                            stack.pop();
+                            stack.push(st0);
+                        } else if (!operand.equals("ST(0)")) {
+                            memory.put(name(operand), Float.floatToRawIntBits((float) st0));
+                        }
+                        break;
+                    case "FADD":
+                    case "FSUB":
+                    case "FSUBR":
+                    case "FMUL":
+                    case "FDIV":
+                    case "FDIVR":
+                    case "FIADD":
+                    case "FISUB":
+                    case "FISUBR":
+                    case "FIMUL":
+                    case "FIDIV":
+                    case "FIDIVR":
+                        boolean integerOperand = op.startsWith("FI");
+                        op = op.replace("FI", "F");
+                        if (operand == null) {
+                            // FMUL y FSUBR sin operandos: ST(1) = ST(1) op ST(0) y sacan ST(0)
+                            stack.pop();
+                            double st1 = stack.pop();
+                            stack.push(apply(op, st1, st0));
+                        } else if (operand.equals("ST(0)")) {
+                            stack.pop();
+                            stack.push(apply(op, st0, second(stack)));
+                        } else {
+                            stack.pop();
+                            stack.push(apply(op, st0, integerOperand ? loadInteger(memory, operand)
+                                                                     : loadFloat(memory, operand)));
+                        }
+                        break;
+                    case "FADDP":
+                    case "FSUBP":
+                    case "FSUBRP":
+                    case "FMULP":
+                    case "FDIVP":
+                    case "FDIVRP":
+                        stack.pop();
+                        stack.push(apply(op.substring(0, op.length() - 1), stack.pop(), st0));
+                        break;
+                    case "FXCH":
+                        stack.pop();
+                        double st1 = stack.pop();
+                        stack.push(st0);
+                        stack.push(st1);
+                        break;
+                    case "FCHS":
+                        stack.pop();
+                        stack.push(-st0);
+                        break;
+                    case "FRNDINT":
+                        stack.pop();
+                        stack.push(Math.rint(st0));
+                        break;
+                    // Resto completo de una vez: C2 (PF después de SAHF) queda en 0
+                    case "FPREM":
+                        stack.pop();
+                        stack.push(st0 % stack.peek());
+                        parity = false;
+                        break;
+                    case "JP":
+                        if (parity) {
+                            pc = labels.get(operand);
+                        }
+                        break;
+                    case "FCOMP":
+                    case "FICOMP":
+                    case "FCOMPP":
+                        stack.pop();
+                        double other = op.equals("FCOMPP") ? stack.pop()
+                                : op.equals("FICOMP") ? loadInteger(memory, operand) : loadFloat(memory, operand);
+                        below = st0 < other;
+                        equal = st0 == other;
+                        break;
+                    case "JMP":
+                    case "JB":
+                    case "JAE":
+                    case "JBE":
+                    case "JA":
+                    case "JE":
+                    case "JNE":
+                    case "JL":
+                    case "JGE":
+                    case "JLE":
+                    case "JG":
+                        if (taken(op, below, equal)) {
+                            pc = labels.get(operand);
+                        }
+                        break;
+                    default:
+                        break;
+                }
+                assertThat(stack.size()).isAtMost(8);
+            }
+            assertThat(stack).isEmpty();
+            assertThat(pushed).isEmpty();
+
+            Map<String, Number> variables = new TreeMap<>();
+            memory.forEach((name, word) -> {
+                if (!name.startsWith("_")) {
+                    variables.put(name, floats.contains(name) ? (Number) Float.intBitsToFloat(word) : (Number) word);
+                }
+            });
+            return variables;
+        }
+
+        private static double second(Deque<Double> stack) {
+            double top = stack.pop();
+            double second = stack.peek();
+            stack.push(top);
+            return second;
+        }
+
+        private static String name(String operand) {
+            return operand.substring(1, operand.length() - 1);
+        }
+
+        private static double loadFloat(Map<String, Integer> memory, String operand) {
+            return Float.intBitsToFloat(memory.getOrDefault(name(operand), 0));
+        }
+
+        private static double loadInteger(Map<String, Integer> memory, String operand) {
+            return memory.getOrDefault(name(operand), 0);
+        }
+
+        private static int integer(Map<String, Integer> memory, Map<String, Integer> registers, String operand) {
+            return operand.startsWith("[") ? memory.getOrDefault(name(operand), 0) : registers.getOrDefault(operand, 0);
+        }
+
+        // ST(0) op m; las formas R invierten los operandos
+        private static double apply(String op, double left, double right) {
+            switch (op) {
+                case "FADD": return left + right;
+                case "FSUB": return left - right;
+                case "FSUBR": return right - left;
+                case "FMUL": return left * right;
+                case "FDIV": return left / right;
+                default: return right / left;
+            }
+        }
+
+        private static boolean taken(String jump, boolean below, boolean equal) {
+            switch (jump) {
+                case "JB":
+                case "JL": return below;
+                case "JAE":
+                case "JGE": return !below;
+                case "JBE":
+                case "JLE": return below || equal;
+                case "JA":
+                case "JG": return !below && !equal;
+                case "JE": return equal;
+                case "JNE": return !equal;
+                default: return true;
+            }
+        }
+    }
+}
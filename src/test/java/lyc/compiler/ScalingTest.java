@@ -0,0 +1,147 @@
+package lyc.compiler;
+
+import lyc.compiler.context.CompilationContext;
+import lyc.compiler.factories.ParserFactory;
+import lyc.compiler.files.AsmCodeGenerator;
+import lyc.compiler.files.IntermediateCodeFileGenerator;
+import lyc.compiler.files.SymbolTableGenerator;
+import lyc.compiler.synthetic.ProgramGenerator;
+import lyc.compiler.synthetic.ProgramGenerator.Shape;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+
+/**
+ * Compila programas sintéticos de tamaño creciente y falla si el tiempo o la memoria
+ * asignada por sentencia crecen más que un factor fijo respecto del tamaño base.
+ * Por defecto corre 1k y 10k sentencias; con -Dscaling.full=true agrega 100k y 1M
+ * (necesita unos 4 GB de heap: -DargLine=-Xmx4g).
+ */
+public class ScalingTest {
+
+    private static final int BASE_STATEMENTS = 1_000;
+    private static final double MAX_TIME_GROWTH = 3.0;
+    private static final double MAX_ALLOCATION_GROWTH = 1.5;
+    private static final int RUNS = 3;
+
+    @Test
+    @DisplayName("El generador produce programas válidos para todas las formas")
+    public void generatedProgramsCompile() throws Exception {
+        for (Shape shape : Shape.values()) {
+            String source = ProgramGenerator.generate(shape, 500);
+            StringWriter asm = new StringWriter();
+            compileQuietly(source, asm);
+            assertWithMessage(shape.name()).that(asm.toString()).contains("END START");
+        }
+        assertThat(ProgramGenerator.generate(Shape.MIXED, 200)).isEqualTo(ProgramGenerator.generate(Shape.MIXED, 200));
+    }
+
+    @Test
+    @DisplayName("Programa mixto escala linealmente")
+    public void mixedScalesLinearly() throws Exception {
+        assertLinear(Shape.MIXED);
+    }
+
+    @Test
+    @DisplayName("Asignaciones de constantes escalan linealmente")
+    public void literalsScaleLinearly() throws Exception {
+        assertLinear(Shape.LITERALS);
+    }
+
+    @Test
+    @DisplayName("Bloques anidados escalan linealmente")
+    public void nestedScalesLinearly() throws Exception {
+        assertLinear(Shape.NESTED);
+    }
+
+    @Test
+    @DisplayName("Muchas declaraciones escalan linealmente")
+    public void declarationsScaleLinearly() throws Exception {
+        assertLinear(Shape.DECLARATIONS);
+    }
+
+    private void assertLinear(Shape shape) throws Exception {
+        List<Integer> sizes = new ArrayList<>(List.of(BASE_STATEMENTS, 10_000));
+        if (Boolean.getBoolean("scaling.full")) {
+            sizes.add(100_000);
+            sizes.add(1_000_000);
+        }
+
+        // Calentamiento del JIT con el tamaño base
+        compileQuietly(ProgramGenerator.generate(shape, BASE_STATEMENTS), Writer.nullWriter());
+
+        Measurement base = null;
+        for (int statements : sizes) {
+            Measurement current = measure(ProgramGenerator.generate(shape, statements), statements);
+            if (base == null) {
+                base = current;
+                continue;
+            }
+            String label = shape + " " + statements + " sentencias";
+            assertWithMessage(label + ": ns/sentencia %s vs %s", current.nanosPerStatement, base.nanosPerStatement)
+                    .that(current.nanosPerStatement).isAtMost(base.nanosPerStatement * MAX_TIME_GROWTH);
+            assertWithMessage(label + ": bytes/sentencia %s vs %s", current.bytesPerStatement, base.bytesPerStatement)
+                    .that(current.bytesPerStatement).isAtMost(base.bytesPerStatement * MAX_ALLOCATION_GROWTH);
+        }
+    }
+
+    // Mejor tiempo de varias corridas (menos ruido) y bytes asignados por el hilo actual.
+    // Las pausas del GC se descuentan: con 1M sentencias el heap queda cerca del límite y
+    // el costo de memoria ya se controla con los bytes asignados.
+    private Measurement measure(String source, int statements) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        int runs = statements >= 100_000 ? 1 : RUNS;
+
+        long bestNanos = Long.MAX_VALUE;
+        long bytes = 0;
+        for (int run = 0; run < runs; run++) {
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            long gcBefore = gcMillis();
+            long start = System.nanoTime();
+            compileQuietly(source, Writer.nullWriter());
+            long elapsed = System.nanoTime() - start - (gcMillis() - gcBefore) * 1_000_000;
+            bestNanos = Math.min(bestNanos, elapsed);
+            bytes = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        }
+        return new Measurement((double) bestNanos / statements, (double) bytes / statements);
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(gc.getCollectionTime(), 0);
+        }
+        return total;
+    }
+
+    // Mismo pipeline que Compiler.compile pero sin retener los artefactos, para que 1M
+    // sentencias entren en memoria. Con las trazas apagadas (el default) el parser no
+    // escribe nada por consola.
+    private static void compileQuietly(String source, Writer asm) throws Exception {
+        CompilationContext context = new CompilationContext();
+        ParserFactory.create(source, context).parse();
+        new SymbolTableGenerator(context).generate(Writer.nullWriter());
+        new IntermediateCodeFileGenerator(context).generate(Writer.nullWriter());
+        new AsmCodeGenerator(context).generate(asm);
+    }
+
+    private static final class Measurement {
+        final double nanosPerStatement;
+        final double bytesPerStatement;
+
+        Measurement(double nanosPerStatement, double bytesPerStatement) {
+            this.nanosPerStatement = nanosPerStatement;
+            this.bytesPerStatement = bytesPerStatement;
+        }
+    }
+}
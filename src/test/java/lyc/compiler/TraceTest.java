@@ -0,0 +1,90 @@
+package lyc.compiler;
+
+import lyc.compiler.main.Compiler;
+import lyc.compiler.trace.Category;
+import lyc.compiler.trace.Level;
+import lyc.compiler.trace.Trace;
+import lyc.compiler.trace.TraceEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TraceTest {
+
+    private static final String PROGRAM = "init { a, b : Int } a := 10 b := a + 20 if (a > b AND b > 1) { write(\"hola\") }";
+
+    @AfterEach
+    public void resetTrace() {
+        Trace.reset();
+    }
+
+    @Test
+    @DisplayName("Por defecto una compilación correcta no escribe nada en consola")
+    public void silentByDefault() throws Exception {
+        PrintStream stdout = System.out;
+        PrintStream stderr = System.err;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        try (PrintStream capture = new PrintStream(captured, true)) {
+            System.setOut(capture);
+            System.setErr(capture);
+            Trace.reset();
+            Compiler.compile(PROGRAM);
+        } finally {
+            System.setOut(stdout);
+            System.setErr(stderr);
+        }
+
+        assertThat(captured.toString()).isEmpty();
+        assertThat(Trace.isEnabled(Category.PARSER, Level.WARN)).isTrue();
+        assertThat(Trace.isEnabled(Category.PARSER, Level.DEBUG)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Sólo se registran las categorías habilitadas, en el buffer circular")
+    public void recordsEnabledCategories() throws Exception {
+        Trace.configure("parser,lexer:debug");
+        Trace.useBuffer(10_000);
+
+        Compiler.compile(PROGRAM);
+
+        List<TraceEvent> events = Trace.bufferedEvents();
+        List<String> messages = events.stream().map(TraceEvent::getMessage).collect(Collectors.toList());
+        assertThat(messages).contains("Suma detectada: 5 + 6");
+        assertThat(messages).contains("Token AND_COND 'AND' en 1:51");
+        assertThat(events.stream().map(TraceEvent::getCategory).collect(Collectors.toSet()))
+                .containsExactly(Category.PARSER, Category.LEXER);
+    }
+
+    @Test
+    @DisplayName("El buffer conserva los últimos N eventos")
+    public void bufferKeepsLatestEvents() {
+        Trace.configure("icg");
+        Trace.useBuffer(3);
+        for (int i = 0; i < 5; i++) {
+            Trace.debug(Category.ICG, "evento {}", i);
+        }
+
+        assertThat(Trace.bufferedEvents().stream().map(TraceEvent::getMessage).collect(Collectors.toList()))
+                .containsExactly("evento 2", "evento 3", "evento 4").inOrder();
+    }
+
+    @Test
+    @DisplayName("--trace rechaza categorías y niveles desconocidos")
+    public void rejectsInvalidSpec() {
+        Trace.Options options = new Trace.Options();
+
+        assertThat(options.accept("--trace=all:info,asm:off")).isTrue();
+        assertThat(options.accept("--cache")).isFalse();
+        assertThrows(IllegalArgumentException.class, () -> options.accept("--trace=optimizer"));
+        assertThrows(IllegalArgumentException.class, () -> options.accept("--trace=parser:verbose"));
+        assertThrows(IllegalArgumentException.class, () -> options.accept("--trace-buffer=0"));
+    }
+}
@@ -0,0 +1,76 @@
+package lyc.compiler;
+
+import lyc.compiler.files.IntermediateCodeGenerator;
+import lyc.compiler.files.Operator;
+import lyc.compiler.files.Triplet;
+import lyc.compiler.files.TripletOperand;
+import lyc.compiler.files.TripletOperand.Kind;
+import lyc.compiler.files.TripletStore;
+import lyc.compiler.table.DataType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TripletStoreTest {
+
+    @Test
+    @DisplayName("Los operandos se codifican por tipo y el Triplet muestra el mismo texto que antes")
+    public void operandsKeepTheirText() {
+        IntermediateCodeGenerator generator = new IntermediateCodeGenerator();
+        generator.createTriplet(Operator.DECLARE, "a", DataType.INTEGER_TYPE);
+        int id = generator.createTriplet(Operator.ID, "a");
+        int cte = generator.createTriplet(Operator.CTE, "_10");
+        int add = generator.createTriplet(Operator.ADD, id, cte);
+        generator.enterTrueBranch(generator.createComparison(add, cte, ">"));
+        int jump = generator.getCurrentIndex() - 1;
+
+        TripletStore store = generator.getStore();
+        assertThat(TripletOperand.kind(store.first(id))).isEqualTo(Kind.SYMBOL);
+        assertThat(TripletOperand.kind(store.first(cte))).isEqualTo(Kind.LITERAL);
+        assertThat(TripletOperand.kind(store.second(1))).isEqualTo(Kind.TEXT);
+        assertThat(TripletOperand.kind(store.first(jump))).isEqualTo(Kind.LABEL);
+        assertThat(store.first(add)).isEqualTo(TripletOperand.ref(id));
+
+        Triplet triplet = store.get(add);
+        assertThat(triplet.getOperator()).isEqualTo("+");
+        assertThat(triplet.getArg1()).isEqualTo("ref:2");
+        assertThat(triplet.getArg2()).isEqualTo("ref:3");
+        assertThat(triplet.toString()).isEqualTo("[4] (ADD, [2], [3])");
+        assertThat(store.get(jump).toString()).isEqualTo("[6] (BLE, L1, -)");
+        assertThat(generator.getTriplets()).hasSize(6);
+    }
+
+    @Test
+    @DisplayName("El store crece por bloques sin perder los tercetos anteriores")
+    public void growsAcrossChunks() {
+        TripletStore store = new TripletStore();
+        int count = 3 * 4096 + 7;
+        for (int i = 1; i <= count; i++) {
+            assertThat(store.add(Operator.CTE, store.literal("_" + (i % 100)), TripletOperand.ref(i))).isEqualTo(i);
+        }
+
+        assertThat(store.size()).isEqualTo(count);
+        assertThat(store.get(4097).getArg1()).isEqualTo("_97");
+        assertThat(store.get(count).getArg2()).isEqualTo("ref:" + count);
+        assertThrows(IndexOutOfBoundsException.class, () -> store.get(count + 1));
+    }
+
+    @Test
+    @DisplayName("La copia de sólo lectura resuelve sus nombres, no ve cambios posteriores ni admite escrituras")
+    public void readOnlyCopyIsIsolated() {
+        TripletStore store = new TripletStore();
+        store.add(Operator.ID, store.symbol("x"), TripletOperand.NONE);
+        TripletStore copy = store.readOnlyCopy();
+        store.add(Operator.ID, store.symbol("y"), TripletOperand.NONE);
+
+        assertThat(copy.size()).isEqualTo(1);
+        assertThat(copy.get(1).getArg1()).isEqualTo("x");
+        assertThat(copy.symbol("x")).isEqualTo(store.symbol("x"));
+        assertThat(copy.label("L1")).isEqualTo(store.label("L1"));
+        assertThrows(UnsupportedOperationException.class, () -> copy.symbol("y"));
+        assertThrows(UnsupportedOperationException.class,
+                () -> copy.add(Operator.ID, TripletOperand.NONE, TripletOperand.NONE));
+    }
+}
@@ -0,0 +1,48 @@
+; Generado por el backend nasm64 (Linux x86-64, SSE2)
+; nasm -f elf64 final64.asm -o final64.o && ld final64.o -o final64
+default rel
+
+section .data
+_999 dd 999
+_99 dd 99
+_9_DOT_99 dd 0x411FD70A ; 9.99
+__DOT_999 dd 0x3F7FBE77 ; 0.999
+_s1 db "@sdADaSjfla%dfg", 0
+_s2 db "asldk  fh sjf", 0
+
+section .bss
+v_a resd 1
+v_b resb 256
+
+section .text
+global _start
+_start:
+    ; [4] (ASSIGN, a, [3])
+    cvtsi2ss xmm0, dword [_999]
+    movss dword [v_a], xmm0
+    ; [6] (ASSIGN, a, [5])
+    cvtsi2ss xmm0, dword [_99]
+    movss dword [v_a], xmm0
+    ; [8] (ASSIGN, a, [7])
+    cvtsi2ss xmm0, dword [_999]
+    movss dword [v_a], xmm0
+    ; [10] (ASSIGN, a, [9])
+    movss xmm0, dword [_9_DOT_99]
+    movss dword [v_a], xmm0
+    ; [12] (ASSIGN, a, [11])
+    movss xmm0, dword [__DOT_999]
+    movss dword [v_a], xmm0
+    ; [14] (ASSIGN, b, _@sdADaSjfla%dfg)
+    lea rsi, [_s1]
+    lea rdi, [v_b]
+    call lyc_str_copy
+    ; [16] (ASSIGN, b, _asldk  fh sjf)
+    lea rsi, [_s2]
+    lea rdi, [v_b]
+    call lyc_str_copy
+
+    ; Fin del programa: exit(0)
+    mov eax, 60
+    xor edi, edi
+    syscall
+
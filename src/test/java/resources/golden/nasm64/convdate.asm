@@ -0,0 +1,22 @@
+; Generado por el backend nasm64 (Linux x86-64, SSE2)
+; nasm -f elf64 final64.asm -o final64.o && ld final64.o -o final64
+default rel
+
+section .data
+_21 dd 21
+_8 dd 8
+_2025 dd 2025
+_20250821 dd 20250821
+
+section .bss
+v_fechaConvertida resb 256
+
+section .text
+global _start
+_start:
+
+    ; Fin del programa: exit(0)
+    mov eax, 60
+    xor edi, edi
+    syscall
+
@@ -0,0 +1,29 @@
+; Generado por el backend nasm64 (Linux x86-64, SSE2)
+; nasm -f elf64 final64.asm -o final64.o && ld final64.o -o final64
+default rel
+
+section .data
+_s1 db "a es mas grande que b", 0
+
+section .bss
+v_a resd 1
+v_b resd 1
+
+section .text
+global _start
+_start:
+    ; [5] (CMP, [3], [4])
+    mov eax, dword [v_a]
+    cmp eax, dword [v_b]
+    ; [6] (BLE, L1, -)
+    jle L1
+    ; [7] (WRITE, _a es mas grande que b, -)
+    lea rsi, [_s1]
+    call lyc_write_str
+L1:
+
+    ; Fin del programa: exit(0)
+    mov eax, 60
+    xor edi, edi
+    syscall
+
@@ -0,0 +1,79 @@
+; Generado por el backend nasm64 (Linux x86-64, SSE2)
+; nasm -f elf64 final64.asm -o final64.o && ld final64.o -o final64
+default rel
+
+section .data
+_2 dd 2
+_7 dd 7
+_1 dd 1
+_5 dd 5
+_0 dd 0
+_s1 db "La expresion es cero", 0
+_10 dd 10
+_s2 db "contador - 10 es cero", 0
+
+section .bss
+v_contador resd 1
+_tmp1 resd 1
+_tmp2 resd 1
+_tmp3 resd 1
+_tmp4 resd 1
+_tmp5 resd 1
+
+section .text
+global _start
+_start:
+    ; [4] (MUL, [2], [3])
+    mov eax, dword [_2]
+    imul eax, dword [_7]
+    movsx eax, ax
+    mov dword [_tmp1], eax
+    ; [6] (ADD, [4], [5])
+    mov eax, dword [_tmp1]
+    add eax, dword [_1]
+    movsx eax, ax
+    mov dword [_tmp2], eax
+    ; [9] (DIV, [7], [8])
+    mov eax, dword [_5]
+    mov ecx, dword [_2]
+    cdq
+    idiv ecx
+    movsx eax, ax
+    mov dword [_tmp3], eax
+    ; [10] (SUB, [6], [9])
+    mov eax, dword [_tmp2]
+    sub eax, dword [_tmp3]
+    movsx eax, ax
+    mov dword [_tmp4], eax
+    ; [12] (CMP, [10], [11])
+    mov eax, dword [_tmp4]
+    cmp eax, dword [_0]
+    ; [13] (BNE, L1, -)
+    jne L1
+    ; [14] (WRITE, _La expresion es cero, -)
+    lea rsi, [_s1]
+    call lyc_write_str
+L1:
+    ; [17] (ASSIGN, contador, [16])
+    mov eax, dword [_10]
+    mov dword [v_contador], eax
+    ; [20] (SUB, [18], [19])
+    mov eax, dword [v_contador]
+    sub eax, dword [_10]
+    movsx eax, ax
+    mov dword [_tmp5], eax
+    ; [22] (CMP, [20], [21])
+    mov eax, dword [_tmp5]
+    cmp eax, dword [_0]
+    ; [23] (BNE, L2, -)
+    jne L2
+    ; [24] (WRITE, _contador - 10 es cero, -)
+    lea rsi, [_s2]
+    call lyc_write_str
+L2:
+
+    ; Fin del programa: exit(0)
+    mov eax, 60
+    xor edi, edi
+    syscall
+
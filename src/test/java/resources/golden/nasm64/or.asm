@@ -0,0 +1,47 @@
+; Generado por el backend nasm64 (Linux x86-64, SSE2)
+; nasm -f elf64 final64.asm -o final64.o && ld final64.o -o final64
+default rel
+
+section .data
+_1 dd 1
+_2 dd 2
+_s1 db "a es mas grande que b o c es mas grande que b", 0
+
+section .bss
+v_a resd 1
+v_b resd 1
+v_c resd 1
+
+section .text
+global _start
+_start:
+    ; [5] (ASSIGN, a, [4])
+    mov eax, dword [_1]
+    mov dword [v_a], eax
+    ; [7] (ASSIGN, b, [6])
+    mov eax, dword [_1]
+    mov dword [v_b], eax
+    ; [9] (ASSIGN, c, [8])
+    mov eax, dword [_2]
+    mov dword [v_c], eax
+    ; [12] (CMP, [10], [11])
+    mov eax, dword [v_a]
+    cmp eax, dword [v_b]
+    ; [13] (BGT, L1, -)
+    jg L1
+    ; [16] (CMP, [14], [15])
+    mov eax, dword [v_c]
+    cmp eax, dword [v_b]
+    ; [17] (BLE, L2, -)
+    jle L2
+L1:
+    ; [19] (WRITE, _a es mas grande que b o c es mas grande que b, -)
+    lea rsi, [_s1]
+    call lyc_write_str
+L2:
+
+    ; Fin del programa: exit(0)
+    mov eax, 60
+    xor edi, edi
+    syscall
+
@@ -0,0 +1,21 @@
+; Generado por el backend nasm64 (Linux x86-64, SSE2)
+; nasm -f elf64 final64.asm -o final64.o && ld final64.o -o final64
+default rel
+
+section .data
+
+section .bss
+v_base resb 256
+
+section .text
+global _start
+_start:
+    ; [2] (READ, base, -)
+    lea rdi, [v_base]
+    call lyc_read_line
+
+    ; Fin del programa: exit(0)
+    mov eax, 60
+    xor edi, edi
+    syscall
+
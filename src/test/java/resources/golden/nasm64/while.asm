@@ -0,0 +1,49 @@
+; Generado por el backend nasm64 (Linux x86-64, SSE2)
+; nasm -f elf64 final64.asm -o final64.o && ld final64.o -o final64
+default rel
+
+section .data
+_1 dd 1
+_3 dd 3
+_s1 db "a es mas grande que b", 0
+
+section .bss
+v_a resd 1
+v_b resd 1
+_tmp1 resd 1
+
+section .text
+global _start
+_start:
+    ; [4] (ASSIGN, a, [3])
+    mov eax, dword [_1]
+    mov dword [v_a], eax
+    ; [6] (ASSIGN, b, [5])
+    mov eax, dword [_3]
+    mov dword [v_b], eax
+L1:
+    ; [10] (CMP, [8], [9])
+    mov eax, dword [v_a]
+    cmp eax, dword [v_b]
+    ; [11] (BLE, L2, -)
+    jle L2
+    ; [12] (WRITE, _a es mas grande que b, -)
+    lea rsi, [_s1]
+    call lyc_write_str
+    ; [15] (ADD, [13], [14])
+    mov eax, dword [v_a]
+    add eax, dword [_1]
+    movsx eax, ax
+    mov dword [_tmp1], eax
+    ; [16] (ASSIGN, a, [15])
+    mov eax, dword [_tmp1]
+    mov dword [v_a], eax
+    ; [17] (BI, L1, -)
+    jmp L1
+L2:
+
+    ; Fin del programa: exit(0)
+    mov eax, 60
+    xor edi, edi
+    syscall
+
@@ -0,0 +1,25 @@
+; Generado por el backend nasm64 (Linux x86-64, SSE2)
+; nasm -f elf64 final64.asm -o final64.o && ld final64.o -o final64
+default rel
+
+section .data
+_s1 db "Hello World", 0
+
+section .bss
+v_var1 resd 1
+
+section .text
+global _start
+_start:
+    ; [2] (WRITE, _Hello World, -)
+    lea rsi, [_s1]
+    call lyc_write_str
+    ; [3] (WRITE, var1, -)
+    mov edi, dword [v_var1]
+    call lyc_write_int
+
+    ; Fin del programa: exit(0)
+    mov eax, 60
+    xor edi, edi
+    syscall
+
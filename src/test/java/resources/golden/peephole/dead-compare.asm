@@ -0,0 +1,68 @@
+; *************** SECCION DE DATOS ***************
+include macros.asm
+include number.asm
+.MODEL LARGE
+.386
+.STACK 200h
+.DATA
+; @tmp placeholders for tests
+msg_wait DB "Presione cualquier tecla para ejecutar .", '$'
+msg_done DB "Se ejecuto el assembler y anduvo.$"
+a DD 0.0
+b DD 0.0
+c DD 0
+
+_1 DD 1
+_10 DD 10
+_6 DD 6
+; *************** SECCION DE CODIGO ***************
+.CODE
+START:
+mov AX, @DATA
+mov DS, AX
+mov ES, AX
+
+lea dx, msg_wait
+mov ah, 09h
+int 21h
+mov ah, 08h
+int 21h
+
+; [1] (DECLARE, a, Float)
+; [2] (DECLARE, b, Float)
+; [3] (DECLARE, c, Int)
+; [4] (ID, a, -)
+; [5] (ID, b, -)
+; [6] (CMP, ref:4, ref:5)
+; [7] (BLE, L1, -)
+; [8] (WRITE, _a es mas grande que b, -)
+; Operador no implementado: WRITE
+; [9] (LABEL, L1, -)
+; [10] (ID, a, -)
+; [11] (CTE, _1, -)
+; [12] (+, ref:10, ref:11)
+; [13] (:=, b, ref:12)
+FLD [a]
+FIADD [_1]
+FSTP [b]
+; [14] (ID, c, -)
+; [15] (CTE, _10, -)
+; [16] (CMP, ref:14, ref:15)
+; [17] (BGT, L2, -)
+; [18] (ID, c, -)
+; [19] (CTE, _6, -)
+; [20] (CMP, ref:18, ref:19)
+; [21] (BGE, L3, -)
+; [22] (LABEL, L2, -)
+; [23] (WRITE, _c fuera de rango, -)
+; Operador no implementado: WRITE
+; [24] (LABEL, L3, -)
+
+; Fin del programa
+; Se ejecuto el assembler y anduvo.
+lea dx, msg_done
+mov ah, 09h
+int 21h
+mov ax, 4c00h
+int 21h
+END START
@@ -0,0 +1,87 @@
+; *************** SECCION DE DATOS ***************
+include macros.asm
+include number.asm
+.MODEL LARGE
+.386
+.STACK 200h
+.DATA
+; @tmp placeholders for tests
+msg_wait DB "Presione cualquier tecla para ejecutar .", '$'
+msg_done DB "Se ejecuto el assembler y anduvo.$"
+a DD 0
+b DD 0
+c DD 0
+
+_2 DD 2
+_3 DD 3
+_1 DD 1
+; *************** SECCION DE CODIGO ***************
+.CODE
+START:
+mov AX, @DATA
+mov DS, AX
+mov ES, AX
+
+lea dx, msg_wait
+mov ah, 09h
+int 21h
+mov ah, 08h
+int 21h
+
+; [1] (DECLARE, a, Int)
+; [2] (DECLARE, b, Int)
+; [3] (DECLARE, c, Int)
+; [4] (READ, a, -)
+; Operador no implementado: READ
+; [5] (CTE, _2, -)
+; [6] (:=, b, ref:5)
+mov EAX, [_2]
+mov [b], EAX
+; [7] (ID, a, -)
+; [8] (ID, b, -)
+; [9] (CMP, ref:7, ref:8)
+mov EAX, [a]
+cmp EAX, [b]
+; [10] (BLE, L1, -)
+JLE L1
+; [11] (ID, a, -)
+; [12] (CTE, _3, -)
+; [13] (CMP, ref:11, ref:12)
+mov EAX, [a]
+cmp EAX, [_3]
+; [14] (BLE, L2, -)
+JLE L2
+; [15] (CTE, _1, -)
+; [16] (:=, c, ref:15)
+mov EAX, [_1]
+mov [c], EAX
+; [17] (BI, L3, -)
+JMP L4
+; [18] (LABEL, L2, -)
+L2:
+; [19] (CTE, _2, -)
+; [20] (:=, c, ref:19)
+mov EAX, [_2]
+mov [c], EAX
+; [21] (LABEL, L3, -)
+; [22] (BI, L4, -)
+JMP L4
+; [23] (LABEL, L1, -)
+L1:
+; [24] (CTE, _3, -)
+; [25] (:=, c, ref:24)
+mov EAX, [_3]
+mov [c], EAX
+; [26] (LABEL, L4, -)
+L4:
+; [27] (WRITE, c, -)
+; Operador no implementado: WRITE
+
+; Fin del programa
+; Se ejecuto el assembler y anduvo.
+lea dx, msg_done
+mov ah, 09h
+int 21h
+mov ax, 4c00h
+int 21h
+END START
@@ -0,0 +1,62 @@
+; *************** SECCION DE DATOS ***************
+include macros.asm
+include number.asm
+.MODEL LARGE
+.386
+.STACK 200h
+.DATA
+; @tmp placeholders for tests
+msg_wait DB "Presione cualquier tecla para ejecutar .", '$'
+msg_done DB "Se ejecuto el assembler y anduvo.$"
+a DD 0
+b DD 0
+c DD 0
+
+_4 DD 4
+_1 DD 1
+; *************** SECCION DE CODIGO ***************
+.CODE
+START:
+mov AX, @DATA
+mov DS, AX
+mov ES, AX
+
+lea dx, msg_wait
+mov ah, 09h
+int 21h
+mov ah, 08h
+int 21h
+
+; [1] (DECLARE, a, Int)
+; [2] (DECLARE, b, Int)
+; [3] (DECLARE, c, Int)
+; [4] (READ, a, -)
+; Operador no implementado: READ
+; [5] (CTE, _4, -)
+; [6] (:=, b, ref:5)
+mov EAX, [_4]
+mov [b], EAX
+; [7] (ID, a, -)
+; [8] (ID, b, -)
+; [9] (CMP, ref:7, ref:8)
+; [10] (BLE, L1, -)
+; [11] (ID, b, -)
+; [12] (CTE, _1, -)
+; [13] (CMP, ref:11, ref:12)
+; [14] (BLE, L1, -)
+; [15] (WRITE, _a es mayor, -)
+; Operador no implementado: WRITE
+; [16] (LABEL, L1, -)
+; [17] (ID, b, -)
+; [18] (:=, c, ref:17)
+mov EAX, [b]
+mov [c], EAX
+
+; Fin del programa
+; Se ejecuto el assembler y anduvo.
+lea dx, msg_done
+mov ah, 09h
+int 21h
+mov ax, 4c00h
+int 21h
+END START
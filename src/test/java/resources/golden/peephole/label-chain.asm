@@ -0,0 +1,92 @@
+; *************** SECCION DE DATOS ***************
+include macros.asm
+include number.asm
+.MODEL LARGE
+.386
+.STACK 200h
+.DATA
+; @tmp placeholders for tests
+msg_wait DB "Presione cualquier tecla para ejecutar .", '$'
+msg_done DB "Se ejecuto el assembler y anduvo.$"
+a DD 0
+b DD 0
+c DD 0
+
+_0 DD 0
+_5 DD 5
+_1 DD 1
+_3 DD 3
+; *************** SECCION DE CODIGO ***************
+.CODE
+START:
+mov AX, @DATA
+mov DS, AX
+mov ES, AX
+
+lea dx, msg_wait
+mov ah, 09h
+int 21h
+mov ah, 08h
+int 21h
+
+; [1] (DECLARE, a, Int)
+; [2] (DECLARE, b, Int)
+; [3] (DECLARE, c, Int)
+; [4] (CTE, _0, -)
+; [5] (:=, c, ref:4)
+mov EAX, [_0]
+mov [c], EAX
+; [6] (LABEL, L1, -)
+L1:
+; [7] (ID, a, -)
+; [8] (CTE, _5, -)
+; [9] (CMP, ref:7, ref:8)
+mov EAX, [a]
+cmp EAX, [_5]
+; [10] (BGE, L2, -)
+JGE L2
+; [11] (ID, a, -)
+; [12] (CTE, _1, -)
+; [13] (+, ref:11, ref:12)
+; [14] (:=, a, ref:13)
+mov EAX, [a]
+add EAX, [_1]
+movsx EAX, AX
+mov [a], EAX
+; [15] (ID, a, -)
+; [16] (ID, b, -)
+; [17] (CMP, ref:15, ref:16)
+mov EAX, [a]
+cmp EAX, [b]
+; [18] (BLE, L3, -)
+JLE L1
+; [19] (ID, a, -)
+; [20] (CTE, _3, -)
+; [21] (CMP, ref:19, ref:20)
+mov EAX, [a]
+cmp EAX, [_3]
+; [22] (BLE, L4, -)
+JLE L1
+; [23] (ID, c, -)
+; [24] (ID, a, -)
+; [25] (+, ref:23, ref:24)
+; [26] (:=, c, ref:25)
+mov EAX, [c]
+add EAX, [a]
+movsx EAX, AX
+mov [c], EAX
+; [27] (LABEL, L4, -)
+; [28] (LABEL, L3, -)
+; [29] (BI, L1, -)
+JMP L1
+; [30] (LABEL, L2, -)
+L2:
+
+; Fin del programa
+; Se ejecuto el assembler y anduvo.
+lea dx, msg_done
+mov ah, 09h
+int 21h
+mov ax, 4c00h
+int 21h
+END START
@@ -0,0 +1,57 @@
+; *************** SECCION DE DATOS ***************
+include macros.asm
+include number.asm
+.MODEL LARGE
+.386
+.STACK 200h
+.DATA
+; @tmp placeholders for tests
+msg_wait DB "Presione cualquier tecla para ejecutar .", '$'
+msg_done DB "Se ejecuto el assembler y anduvo.$"
+a DD 0.0
+b DD 0.0
+c DD 0.0
+
+; *************** SECCION DE CODIGO ***************
+.CODE
+START:
+mov AX, @DATA
+mov DS, AX
+mov ES, AX
+
+lea dx, msg_wait
+mov ah, 09h
+int 21h
+mov ah, 08h
+int 21h
+
+; [1] (DECLARE, a, Float)
+; [2] (DECLARE, b, Float)
+; [3] (DECLARE, c, Float)
+; [4] (READ, a, -)
+; Operador no implementado: READ
+; [5] (READ, b, -)
+; Operador no implementado: READ
+; [6] (ID, a, -)
+; [7] (ID, b, -)
+; [8] (CMP, ref:6, ref:7)
+; [9] (BNE, L1, -)
+; [10] (WRITE, _iguales, -)
+; Operador no implementado: WRITE
+; [11] (LABEL, L1, -)
+; [12] (ID, a, -)
+; [13] (ID, b, -)
+; [14] (-, ref:12, ref:13)
+; [15] (:=, c, ref:14)
+FLD [a]
+FSUB [b]
+FSTP [c]
+
+; Fin del programa
+; Se ejecuto el assembler y anduvo.
+lea dx, msg_done
+mov ah, 09h
+int 21h
+mov ax, 4c00h
+int 21h
+END START
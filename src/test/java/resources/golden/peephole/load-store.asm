@@ -0,0 +1,50 @@
+; *************** SECCION DE DATOS ***************
+include macros.asm
+include number.asm
+.MODEL LARGE
+.386
+.STACK 200h
+.DATA
+; @tmp placeholders for tests
+msg_wait DB "Presione cualquier tecla para ejecutar .", '$'
+msg_done DB "Se ejecuto el assembler y anduvo.$"
+a DD 0.0
+b DD 0.0
+
+_2 DD 2
+; *************** SECCION DE CODIGO ***************
+.CODE
+START:
+mov AX, @DATA
+mov DS, AX
+mov ES, AX
+
+lea dx, msg_wait
+mov ah, 09h
+int 21h
+mov ah, 08h
+int 21h
+
+; [1] (DECLARE, a, Float)
+; [2] (DECLARE, b, Float)
+; [3] (CTE, _2, -)
+; [4] (:=, b, ref:3)
+; [5] (ID, a, -)
+; [6] (:=, a, ref:5)
+; [7] (ID, b, -)
+; [8] (ID, a, -)
+; [9] (*, ref:7, ref:8)
+; [10] (:=, b, ref:9)
+FILD [_2]
+FST [b]
+FMUL [a]
+FSTP [b]
+
+; Fin del programa
+; Se ejecuto el assembler y anduvo.
+lea dx, msg_done
+mov ah, 09h
+int 21h
+mov ax, 4c00h
+int 21h
+END START
@@ -0,0 +1,58 @@
+; *************** SECCION DE DATOS ***************
+include macros.asm
+include number.asm
+.MODEL LARGE
+.386
+.STACK 200h
+.DATA
+; @tmp placeholders for tests
+msg_wait DB "Presione cualquier tecla para ejecutar .", '$'
+msg_done DB "Se ejecuto el assembler y anduvo.$"
+a DD 0.0
+b DD 0.0
+c DD 0.0
+
+_0_DOT_1 DD 0.1
+_3 DD 3
+; *************** SECCION DE CODIGO ***************
+.CODE
+START:
+mov AX, @DATA
+mov DS, AX
+mov ES, AX
+
+lea dx, msg_wait
+mov ah, 09h
+int 21h
+mov ah, 08h
+int 21h
+
+; [1] (DECLARE, a, Float)
+; [2] (DECLARE, b, Float)
+; [3] (DECLARE, c, Float)
+; [4] (CTE, _0.1, -)
+; [5] (:=, b, ref:4)
+; [6] (ID, b, -)
+; [7] (:=, a, ref:6)
+FLD [_0_DOT_1]
+FST [b]
+FSTP [a]
+; [8] (ID, a, -)
+; [9] (CTE, _3, -)
+; [10] (*, ref:8, ref:9)
+; [11] (ID, b, -)
+; [12] (+, ref:10, ref:11)
+; [13] (:=, c, ref:12)
+FLD [a]
+FIMUL [_3]
+FADD [b]
+FSTP [c]
+
+; Fin del programa
+; Se ejecuto el assembler y anduvo.
+lea dx, msg_done
+mov ah, 09h
+int 21h
+mov ax, 4c00h
+int 21h
+END START
@@ -0,0 +1,98 @@
+; *************** SECCION DE DATOS ***************
+include macros.asm
+include number.asm
+.MODEL LARGE
+.386
+.STACK 200h
+.DATA
+; @tmp placeholders for tests
+msg_wait DB "Presione cualquier tecla para ejecutar .", '$'
+msg_done DB "Se ejecuto el assembler y anduvo.$"
+a DD 0
+b DD 0
+c DD 0
+
+_5 DD 5
+_1 DD 1
+; *************** SECCION DE CODIGO ***************
+.CODE
+START:
+mov AX, @DATA
+mov DS, AX
+mov ES, AX
+
+lea dx, msg_wait
+mov ah, 09h
+int 21h
+mov ah, 08h
+int 21h
+
+; [1] (DECLARE, a, Int)
+; [2] (DECLARE, b, Int)
+; [3] (DECLARE, c, Int)
+; [4] (READ, a, -)
+; Operador no implementado: READ
+; [5] (LABEL, L1, -)
+L1:
+; [6] (ID, a, -)
+; [7] (CTE, _5, -)
+; [8] (CMP, ref:6, ref:7)
+mov EAX, [a]
+cmp EAX, [_5]
+; [9] (BGE, L2, -)
+JGE L2
+; [10] (ID, a, -)
+; [11] (CTE, _1, -)
+; [12] (+, ref:10, ref:11)
+; [13] (:=, a, ref:12)
+mov EAX, [a]
+add EAX, [_1]
+movsx EAX, AX
+mov [a], EAX
+; [14] (ID, a, -)
+; [15] (ID, b, -)
+; [16] (CMP, ref:14, ref:15)
+mov EAX, [a]
+cmp EAX, [b]
+; [17] (BLE, L3, -)
+JLE L3
+; [18] (CTE, _1, -)
+; [19] (:=, c, ref:18)
+mov EAX, [_1]
+mov [c], EAX
+; [20] (BI, L4, -)
+JMP L1
+; [21] (LABEL, L3, -)
+; [22] (LABEL, L5, -)
+L3:
+; [23] (ID, c, -)
+; [24] (ID, a, -)
+; [25] (CMP, ref:23, ref:24)
+mov EAX, [c]
+cmp EAX, [a]
+; [26] (BGE, L6, -)
+JGE L1
+; [27] (ID, c, -)
+; [28] (CTE, _1, -)
+; [29] (+, ref:27, ref:28)
+; [30] (:=, c, ref:29)
+mov EAX, [c]
+add EAX, [_1]
+movsx EAX, AX
+mov [c], EAX
+; [31] (BI, L5, -)
+; [32] (LABEL, L6, -)
+; [33] (LABEL, L4, -)
+; [34] (BI, L1, -)
+JMP L3
+; [35] (LABEL, L2, -)
+L2:
+
+; Fin del programa
+; Se ejecuto el assembler y anduvo.
+lea dx, msg_done
+mov ah, 09h
+int 21h
+mov ax, 4c00h
+int 21h
+END START
@@ -0,0 +1,60 @@
+; *************** SECCION DE DATOS ***************
+include macros.asm
+include number.asm
+.MODEL LARGE
+.386
+.STACK 200h
+.DATA
+; @tmp placeholders for tests
+msg_wait DB "Presione cualquier tecla para ejecutar .", '$'
+msg_done DB "Se ejecuto el assembler y anduvo.$"
+a DD 0.0
+b DD 0.0
+c DD 0.0
+
+_1_DOT_5 DD 1.5
+; *************** SECCION DE CODIGO ***************
+.CODE
+START:
+mov AX, @DATA
+mov DS, AX
+mov ES, AX
+
+lea dx, msg_wait
+mov ah, 09h
+int 21h
+mov ah, 08h
+int 21h
+
+; [1] (DECLARE, a, Float)
+; [2] (DECLARE, b, Float)
+; [3] (DECLARE, c, Float)
+; [4] (READ, a, -)
+; Operador no implementado: READ
+; [5] (CTE, _1.5, -)
+; [6] (:=, b, ref:5)
+FLD [_1_DOT_5]
+FSTP [b]
+; [7] (ID, a, -)
+; [8] (ID, b, -)
+; [9] (CMP, ref:7, ref:8)
+; [10] (BGT, L1, -)
+; [11] (WRITE, _a no es mayor, -)
+; Operador no implementado: WRITE
+; [12] (LABEL, L1, -)
+; [13] (ID, a, -)
+; [14] (ID, b, -)
+; [15] (*, ref:13, ref:14)
+; [16] (:=, c, ref:15)
+FLD [a]
+FMUL [b]
+FSTP [c]
+
+; Fin del programa
+; Se ejecuto el assembler y anduvo.
+lea dx, msg_done
+mov ah, 09h
+int 21h
+mov ax, 4c00h
+int 21h
+END START